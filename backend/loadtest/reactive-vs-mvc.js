@@ -0,0 +1,85 @@
+// k6 load test comparing connection scalability of the servlet (MVC) and
+// reactive (WebFlux) file endpoints. Both stacks share one backend instance:
+//
+//   mvn spring-boot:run -Dspring-boot.run.profiles=reactive
+//   k6 run -e STACK=mvc      loadtest/reactive-vs-mvc.js
+//   k6 run -e STACK=reactive loadtest/reactive-vs-mvc.js
+//
+// Compare http_req_duration percentiles, http_req_failed and the peak number of
+// concurrent VUs each stack sustains. MAX_VUS and FILE_SIZE_KB tune the run.
+
+import http from 'k6/http';
+import { check } from 'k6';
+
+const STACK = __ENV.STACK || 'mvc';
+const MVC_URL = __ENV.MVC_URL || 'http://localhost:8080';
+const REACTIVE_URL = __ENV.REACTIVE_URL || 'http://localhost:8081';
+const MAX_VUS = parseInt(__ENV.MAX_VUS || '2000');
+const FILE_SIZE_KB = parseInt(__ENV.FILE_SIZE_KB || '1024');
+
+export const options = {
+  scenarios: {
+    downloads: {
+      executor: 'ramping-vus',
+      exec: 'download',
+      startVUs: 10,
+      stages: [
+        { duration: '30s', target: MAX_VUS / 4 },
+        { duration: '30s', target: MAX_VUS / 2 },
+        { duration: '60s', target: MAX_VUS },
+        { duration: '30s', target: 0 },
+      ],
+    },
+    uploads: {
+      executor: 'constant-vus',
+      exec: 'upload',
+      vus: 20,
+      duration: '150s',
+    },
+  },
+  thresholds: {
+    http_req_failed: ['rate<0.01'],
+  },
+};
+
+export function setup() {
+  const username = `load${Date.now()}`;
+  const register = http.post(`${MVC_URL}/api/auth/register`, JSON.stringify({
+    username,
+    email: `${username}@example.com`,
+    password: 'loadtest123',
+  }), { headers: { 'Content-Type': 'application/json' } });
+  const token = register.json('data.token');
+
+  const content = 'x'.repeat(FILE_SIZE_KB * 1024);
+  const uploaded = http.post(`${MVC_URL}/api/files/upload`, {
+    file: http.file(content, 'load.bin', 'application/octet-stream'),
+  }, { headers: { Authorization: `Bearer ${token}` } });
+
+  return { token, fileId: uploaded.json('data.id'), content };
+}
+
+export function download(data) {
+  const url = STACK === 'reactive'
+    ? `${REACTIVE_URL}/reactive/files/${data.fileId}/download`
+    : `${MVC_URL}/api/files/${data.fileId}/download`;
+  const res = http.get(url, {
+    headers: { Authorization: `Bearer ${data.token}` },
+    responseType: 'none',
+    tags: { stack: STACK, op: 'download' },
+  });
+  check(res, { 'download ok': (r) => r.status === 200 });
+}
+
+export function upload(data) {
+  const headers = { Authorization: `Bearer ${data.token}` };
+  const res = STACK === 'reactive'
+    ? http.post(`${REACTIVE_URL}/reactive/files/upload?name=load-${__VU}-${__ITER}.bin`, data.content, {
+        headers: { ...headers, 'Content-Type': 'application/octet-stream' },
+        tags: { stack: STACK, op: 'upload' },
+      })
+    : http.post(`${MVC_URL}/api/files/upload`, {
+        file: http.file(data.content, `load-${__VU}-${__ITER}.bin`, 'application/octet-stream'),
+      }, { headers, tags: { stack: STACK, op: 'upload' } });
+  check(res, { 'upload ok': (r) => r.status === 200 });
+}
@@ -0,0 +1,71 @@
+// k6 load test for share link resolution under a token scan: 95% of requests use
+// random (invalid) tokens, the rest a small set of real share links. Run it twice,
+// with the share cache on and off, and compare latency and database load:
+//
+//   mvn spring-boot:run
+//   k6 run loadtest/share-token-scan.js
+//   mvn spring-boot:run -Dspring-boot.run.arguments=--cloudsync.share-cache.enabled=false
+//   k6 run loadtest/share-token-scan.js
+//
+// Compare http_req_duration per op tag (valid/invalid) and the database's query rate;
+// the "Share cache" log line reports hits and filter rejections. RATE (requests per
+// second), DURATION and SHARES tune the run.
+
+import http from 'k6/http';
+import { check } from 'k6';
+import { uuidv4 } from 'https://jslib.k6.io/k6-utils/1.4.0/index.js';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const RATE = parseInt(__ENV.RATE || '2000');
+const DURATION = __ENV.DURATION || '120s';
+const SHARES = parseInt(__ENV.SHARES || '20');
+const INVALID_RATIO = 0.95;
+
+export const options = {
+  scenarios: {
+    scan: {
+      executor: 'constant-arrival-rate',
+      rate: RATE,
+      timeUnit: '1s',
+      duration: DURATION,
+      preAllocatedVUs: 200,
+      maxVUs: 2000,
+    },
+  },
+  thresholds: {
+    'checks': ['rate>0.99'],
+    'http_req_duration{op:invalid}': ['p(99)<50'],
+    'http_req_duration{op:valid}': ['p(99)<100'],
+  },
+};
+
+export function setup() {
+  const username = `scan${Date.now()}`;
+  const register = http.post(`${BASE_URL}/api/auth/register`, JSON.stringify({
+    username,
+    email: `${username}@example.com`,
+    password: 'loadtest123',
+  }), { headers: { 'Content-Type': 'application/json' } });
+  const headers = { Authorization: `Bearer ${register.json('data.token')}` };
+
+  const tokens = [];
+  for (let i = 0; i < SHARES; i++) {
+    const uploaded = http.post(`${BASE_URL}/api/files/upload`, {
+      file: http.file(`shared file ${i}`, `shared-${i}.txt`, 'text/plain'),
+    }, { headers });
+    const shared = http.post(`${BASE_URL}/api/files/${uploaded.json('data.id')}/share`, null, { headers });
+    tokens.push(shared.json('data.shareToken'));
+  }
+  return { tokens };
+}
+
+export default function (data) {
+  if (Math.random() < INVALID_RATIO) {
+    const res = http.get(`${BASE_URL}/api/share/${uuidv4()}/info`, { tags: { op: 'invalid' } });
+    check(res, { 'invalid token rejected': (r) => r.status === 404 });
+  } else {
+    const token = data.tokens[Math.floor(Math.random() * data.tokens.length)];
+    const res = http.get(`${BASE_URL}/api/share/${token}/info`, { tags: { op: 'valid' } });
+    check(res, { 'valid token resolved': (r) => r.status === 200 });
+  }
+}
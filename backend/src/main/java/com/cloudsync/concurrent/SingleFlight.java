@@ -0,0 +1,91 @@
+package com.cloudsync.concurrent;
+
+import com.cloudsync.config.CoalescingConfig;
+import com.cloudsync.exception.RequestTimeoutException;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical reads. The first caller for a key runs the read on its own
+ * thread, in its own transaction if it has one; callers arriving while it runs wait for its
+ * result instead of repeating the read. Failures are shared the same way, so a failing backend
+ * sees one call per key at a time rather than one per waiting request. Nothing is kept once a
+ * read completes: callers that reuse results cache them, and check that cache inside the read.
+ * <p>
+ * Unlike a cache's atomic compute, a running read holds no lock besides its own key, and waiting
+ * callers give up after {@code cloudsync.coalescing.timeout} with a
+ * {@link RequestTimeoutException}. The read itself is not interrupted.
+ */
+public class SingleFlight<K, V> {
+
+    private final String name;
+    private final CoalescingConfig config;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    public SingleFlight(String name, CoalescingConfig config) {
+        this.name = name;
+        this.config = config;
+    }
+
+    /**
+     * Returns the result of the read for a key, running it unless an identical one is in flight.
+     * Results, which may be null, and exceptions are handed to every caller waiting for them.
+     */
+    public V execute(K key, Supplier<V> read) {
+        if (!config.isEnabled()) {
+            return read.get();
+        }
+        CompletableFuture<V> call = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            coalesced.increment();
+            return await(running);
+        }
+        try {
+            V result = read.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Calls that waited for an identical read instead of running their own.
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    // --- Private helper methods ---
+
+    private V await(CompletableFuture<V> running) {
+        try {
+            return running.get(config.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new RequestTimeoutException("Timed out waiting for " + name + "; try again shortly", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RequestTimeoutException("Interrupted waiting for " + name, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
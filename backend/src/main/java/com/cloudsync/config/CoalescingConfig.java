@@ -0,0 +1,30 @@
+package com.cloudsync.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "cloudsync.coalescing")
+public class CoalescingConfig {
+
+    private boolean enabled = true;
+    private Duration timeout = Duration.ofSeconds(10); // wait for a read started by another request
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+}
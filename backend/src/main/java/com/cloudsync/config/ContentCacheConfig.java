@@ -0,0 +1,58 @@
+package com.cloudsync.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "cloudsync.content-cache")
+public class ContentCacheConfig {
+
+    private boolean enabled = true;
+    private DataSize maxSize = DataSize.ofMegabytes(256); // direct memory held by cached content
+    private DataSize maxEntrySize = DataSize.ofMegabytes(16); // larger files are always read from disk
+    private int doorkeeperSize = 100_000; // contents remembered as requested once
+    private Duration statsInterval = Duration.ofMinutes(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public DataSize getMaxEntrySize() {
+        return maxEntrySize;
+    }
+
+    public void setMaxEntrySize(DataSize maxEntrySize) {
+        this.maxEntrySize = maxEntrySize;
+    }
+
+    public int getDoorkeeperSize() {
+        return doorkeeperSize;
+    }
+
+    public void setDoorkeeperSize(int doorkeeperSize) {
+        this.doorkeeperSize = doorkeeperSize;
+    }
+
+    public Duration getStatsInterval() {
+        return statsInterval;
+    }
+
+    public void setStatsInterval(Duration statsInterval) {
+        this.statsInterval = statsInterval;
+    }
+}
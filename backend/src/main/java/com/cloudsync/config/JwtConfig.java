@@ -9,6 +9,7 @@ public class JwtConfig {
     
     private String secret;
     private long expiration = 86400000; // 24 hours
+    private long verifiedTokenCacheSize = 10_000;
 
     public String getSecret() {
         return secret;
@@ -25,4 +26,12 @@ public class JwtConfig {
     public void setExpiration(long expiration) {
         this.expiration = expiration;
     }
+
+    public long getVerifiedTokenCacheSize() {
+        return verifiedTokenCacheSize;
+    }
+
+    public void setVerifiedTokenCacheSize(long verifiedTokenCacheSize) {
+        this.verifiedTokenCacheSize = verifiedTokenCacheSize;
+    }
 }
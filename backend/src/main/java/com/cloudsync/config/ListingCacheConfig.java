@@ -0,0 +1,40 @@
+package com.cloudsync.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "cloudsync.listing-cache")
+public class ListingCacheConfig {
+
+    private boolean enabled = true;
+    private DataSize maxSize = DataSize.ofMegabytes(64); // heap held by serialised listings
+    private Duration statsInterval = Duration.ofMinutes(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public DataSize getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(DataSize maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getStatsInterval() {
+        return statsInterval;
+    }
+
+    public void setStatsInterval(Duration statsInterval) {
+        this.statsInterval = statsInterval;
+    }
+}
@@ -0,0 +1,30 @@
+package com.cloudsync.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "cloudsync.security.principal-cache")
+public class PrincipalCacheConfig {
+
+    private long maxSize = 10_000;
+    private Duration ttl = Duration.ofMinutes(5); // upper bound for changes made outside this instance
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(long maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+}
@@ -0,0 +1,37 @@
+package com.cloudsync.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "cloudsync.reactive")
+public class ReactiveConfig {
+
+    private int port = 8081;
+    private int blockingPoolSize = 16; // threads bridging to JPA
+    private int blockingQueueCapacity = 1000;
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setPort(int port) {
+        this.port = port;
+    }
+
+    public int getBlockingPoolSize() {
+        return blockingPoolSize;
+    }
+
+    public void setBlockingPoolSize(int blockingPoolSize) {
+        this.blockingPoolSize = blockingPoolSize;
+    }
+
+    public int getBlockingQueueCapacity() {
+        return blockingQueueCapacity;
+    }
+
+    public void setBlockingQueueCapacity(int blockingQueueCapacity) {
+        this.blockingQueueCapacity = blockingQueueCapacity;
+    }
+}
@@ -0,0 +1,28 @@
+package com.cloudsync.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "cloudsync.search")
+public class SearchConfig {
+
+    private String engine = "auto"; // auto, postgres or memory
+    private int maxIndexedUsers = 1000; // in-memory engine only
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+
+    public int getMaxIndexedUsers() {
+        return maxIndexedUsers;
+    }
+
+    public void setMaxIndexedUsers(int maxIndexedUsers) {
+        this.maxIndexedUsers = maxIndexedUsers;
+    }
+}
@@ -0,0 +1,111 @@
+package com.cloudsync.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "cloudsync.share-cache")
+public class ShareCacheConfig {
+
+    private boolean enabled = true;
+    private int maxSize = 100_000; // resolved share links
+    private Duration ttl = Duration.ofSeconds(30); // upper bound on staleness for changes made by other instances
+    private int maxMissingSize = 100_000; // tokens that passed the filter but do not exist
+    private Duration missingTtl = Duration.ofMinutes(1);
+    private long expectedTokens = 1_000_000; // filter capacity floor; it is sized for twice the current tokens
+    private double falsePositiveRate = 0.01;
+    private Duration refreshInterval = Duration.ofSeconds(2); // picks up tokens shared through other instances
+    private Duration refreshOverlap = Duration.ofMinutes(1); // covers clock skew and slow commits
+    private Duration rebuildInterval = Duration.ofHours(1); // drops revoked tokens from the filter
+    private Duration statsInterval = Duration.ofMinutes(5);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    public void setTtl(Duration ttl) {
+        this.ttl = ttl;
+    }
+
+    public int getMaxMissingSize() {
+        return maxMissingSize;
+    }
+
+    public void setMaxMissingSize(int maxMissingSize) {
+        this.maxMissingSize = maxMissingSize;
+    }
+
+    public Duration getMissingTtl() {
+        return missingTtl;
+    }
+
+    public void setMissingTtl(Duration missingTtl) {
+        this.missingTtl = missingTtl;
+    }
+
+    public long getExpectedTokens() {
+        return expectedTokens;
+    }
+
+    public void setExpectedTokens(long expectedTokens) {
+        this.expectedTokens = expectedTokens;
+    }
+
+    public double getFalsePositiveRate() {
+        return falsePositiveRate;
+    }
+
+    public void setFalsePositiveRate(double falsePositiveRate) {
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public Duration getRefreshOverlap() {
+        return refreshOverlap;
+    }
+
+    public void setRefreshOverlap(Duration refreshOverlap) {
+        this.refreshOverlap = refreshOverlap;
+    }
+
+    public Duration getRebuildInterval() {
+        return rebuildInterval;
+    }
+
+    public void setRebuildInterval(Duration rebuildInterval) {
+        this.rebuildInterval = rebuildInterval;
+    }
+
+    public Duration getStatsInterval() {
+        return statsInterval;
+    }
+
+    public void setStatsInterval(Duration statsInterval) {
+        this.statsInterval = statsInterval;
+    }
+}
@@ -0,0 +1,108 @@
+package com.cloudsync.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+@ConfigurationProperties(prefix = "cloudsync.signed-urls")
+public class SignedUrlConfig {
+
+    private String baseUrl = ""; // prepended to /api/dl/{token}, e.g. a CDN in front of this service
+    private List<SigningKey> keys = new ArrayList<>(); // the first signs; empty: one key derived from the JWT secret
+    private Duration defaultTtl = Duration.ofMinutes(15);
+    private Duration maxTtl = Duration.ofHours(1); // revocations are kept this long
+    private Duration refreshInterval = Duration.ofSeconds(2); // picks up revocations made through other instances
+    private Duration refreshOverlap = Duration.ofMinutes(1); // covers clock skew and slow commits
+    private Duration cleanupInterval = Duration.ofHours(1);
+    private Duration countFlushInterval = Duration.ofSeconds(10); // download counts are written in batches
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public void setBaseUrl(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public List<SigningKey> getKeys() {
+        return keys;
+    }
+
+    public void setKeys(List<SigningKey> keys) {
+        this.keys = keys;
+    }
+
+    public Duration getDefaultTtl() {
+        return defaultTtl;
+    }
+
+    public void setDefaultTtl(Duration defaultTtl) {
+        this.defaultTtl = defaultTtl;
+    }
+
+    public Duration getMaxTtl() {
+        return maxTtl;
+    }
+
+    public void setMaxTtl(Duration maxTtl) {
+        this.maxTtl = maxTtl;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public Duration getRefreshOverlap() {
+        return refreshOverlap;
+    }
+
+    public void setRefreshOverlap(Duration refreshOverlap) {
+        this.refreshOverlap = refreshOverlap;
+    }
+
+    public Duration getCleanupInterval() {
+        return cleanupInterval;
+    }
+
+    public void setCleanupInterval(Duration cleanupInterval) {
+        this.cleanupInterval = cleanupInterval;
+    }
+
+    public Duration getCountFlushInterval() {
+        return countFlushInterval;
+    }
+
+    public void setCountFlushInterval(Duration countFlushInterval) {
+        this.countFlushInterval = countFlushInterval;
+    }
+
+    public static class SigningKey {
+
+        private String id;
+        private String secret;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.cloudsync.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "cloudsync.upload")
+public class UploadConfig {
+
+    private boolean globalDedup = true; // reuse other users' content after a proof of possession
+    private Duration proofValidity = Duration.ofMinutes(10);
+    private int proofRangeSize = 64 * 1024; // bytes of content a proof covers
+    private int maxProofAttempts = 3; // distinct challenges per user and content within the attempt period
+    private Duration proofAttemptPeriod = Duration.ofDays(1);
+    private int maxInstantBatchSize = 1000;
+
+    public boolean isGlobalDedup() {
+        return globalDedup;
+    }
+
+    public void setGlobalDedup(boolean globalDedup) {
+        this.globalDedup = globalDedup;
+    }
+
+    public Duration getProofValidity() {
+        return proofValidity;
+    }
+
+    public void setProofValidity(Duration proofValidity) {
+        this.proofValidity = proofValidity;
+    }
+
+    public int getProofRangeSize() {
+        return proofRangeSize;
+    }
+
+    public void setProofRangeSize(int proofRangeSize) {
+        this.proofRangeSize = proofRangeSize;
+    }
+
+    public int getMaxProofAttempts() {
+        return maxProofAttempts;
+    }
+
+    public void setMaxProofAttempts(int maxProofAttempts) {
+        this.maxProofAttempts = maxProofAttempts;
+    }
+
+    public Duration getProofAttemptPeriod() {
+        return proofAttemptPeriod;
+    }
+
+    public void setProofAttemptPeriod(Duration proofAttemptPeriod) {
+        this.proofAttemptPeriod = proofAttemptPeriod;
+    }
+
+    public int getMaxInstantBatchSize() {
+        return maxInstantBatchSize;
+    }
+
+    public void setMaxInstantBatchSize(int maxInstantBatchSize) {
+        this.maxInstantBatchSize = maxInstantBatchSize;
+    }
+}
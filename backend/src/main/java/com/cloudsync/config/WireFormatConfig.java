@@ -0,0 +1,32 @@
+package com.cloudsync.config;
+
+import com.cloudsync.dto.FileColumns;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+
+/**
+ * Response formats besides JSON. Clients opt in with {@code Accept: application/cbor}, or with
+ * {@link FileColumns#CBOR_MEDIA_TYPE} for column-oriented listings; JSON remains the default.
+ */
+@Configuration
+public class WireFormatConfig {
+
+    /**
+     * Replaces the default CBOR converter so binary responses share the application's Jackson
+     * settings and also serve column-oriented listings.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        MappingJackson2CborHttpMessageConverter converter =
+                new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+        converter.setSupportedMediaTypes(List.of(
+                MediaType.APPLICATION_CBOR, MediaType.parseMediaType(FileColumns.CBOR_MEDIA_TYPE)));
+        return converter;
+    }
+}
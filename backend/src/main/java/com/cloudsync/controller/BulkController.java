@@ -0,0 +1,81 @@
+package com.cloudsync.controller;
+
+import com.cloudsync.dto.ApiResponse;
+import com.cloudsync.dto.BulkRenameRequest;
+import com.cloudsync.dto.BulkRequest;
+import com.cloudsync.dto.BulkResult;
+import com.cloudsync.entity.User;
+import com.cloudsync.security.CustomUserDetailsService;
+import com.cloudsync.security.UserPrincipal;
+import com.cloudsync.service.BulkOperationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/bulk")
+@Tag(name = "Bulk operations", description = "Operations on many files and folders in one request")
+@SecurityRequirement(name = "bearerAuth")
+public class BulkController {
+
+    private final BulkOperationService bulkOperationService;
+    private final CustomUserDetailsService userDetailsService;
+
+    public BulkController(BulkOperationService bulkOperationService, CustomUserDetailsService userDetailsService) {
+        this.bulkOperationService = bulkOperationService;
+        this.userDetailsService = userDetailsService;
+    }
+
+    @PostMapping("/delete")
+    @Operation(summary = "Delete items", description = "Delete the selected files and folders with their contents")
+    public ResponseEntity<ApiResponse<BulkResult>> delete(
+            @RequestBody BulkRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
+        BulkResult result = bulkOperationService.delete(request, user);
+        return ResponseEntity.ok(ApiResponse.success("Bulk delete completed", result));
+    }
+
+    @PostMapping("/move")
+    @Operation(summary = "Move items", description = "Move the selected files and folders to a folder or the root")
+    public ResponseEntity<ApiResponse<BulkResult>> move(
+            @RequestBody BulkRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
+        BulkResult result = bulkOperationService.move(request, user);
+        return ResponseEntity.ok(ApiResponse.success("Bulk move completed", result));
+    }
+
+    @PostMapping("/share")
+    @Operation(summary = "Share files", description = "Generate public share links for the selected files")
+    public ResponseEntity<ApiResponse<BulkResult>> share(
+            @RequestBody BulkRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
+        BulkResult result = bulkOperationService.share(request, user);
+        return ResponseEntity.ok(ApiResponse.success("Bulk share completed", result));
+    }
+
+    @PostMapping("/unshare")
+    @Operation(summary = "Unshare files", description = "Remove public sharing from the selected files")
+    public ResponseEntity<ApiResponse<BulkResult>> unshare(
+            @RequestBody BulkRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
+        BulkResult result = bulkOperationService.unshare(request, user);
+        return ResponseEntity.ok(ApiResponse.success("Bulk unshare completed", result));
+    }
+
+    @PostMapping("/rename")
+    @Operation(summary = "Rename items", description = "Rename files and folders, keyed by id")
+    public ResponseEntity<ApiResponse<BulkResult>> rename(
+            @RequestBody BulkRenameRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
+        BulkResult result = bulkOperationService.rename(request, user);
+        return ResponseEntity.ok(ApiResponse.success("Bulk rename completed", result));
+    }
+}
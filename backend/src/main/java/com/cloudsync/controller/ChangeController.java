@@ -0,0 +1,73 @@
+package com.cloudsync.controller;
+
+import com.cloudsync.dto.ApiResponse;
+import com.cloudsync.dto.ChangeFeed;
+import com.cloudsync.dto.ChangeNotice;
+import com.cloudsync.entity.User;
+import com.cloudsync.push.ChangeNotifier;
+import com.cloudsync.security.CustomUserDetailsService;
+import com.cloudsync.security.UserPrincipal;
+import com.cloudsync.service.ChangeJournalService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/changes")
+@Tag(name = "Changes", description = "Change feed and push notifications for sync clients")
+@SecurityRequirement(name = "bearerAuth")
+public class ChangeController {
+
+    private final ChangeJournalService changeJournalService;
+    private final CustomUserDetailsService userDetailsService;
+    private final ChangeNotifier changeNotifier;
+
+    public ChangeController(ChangeJournalService changeJournalService, CustomUserDetailsService userDetailsService,
+                            ChangeNotifier changeNotifier) {
+        this.changeJournalService = changeJournalService;
+        this.userDetailsService = userDetailsService;
+        this.changeNotifier = changeNotifier;
+    }
+
+    @GetMapping
+    @Operation(summary = "Get changes",
+            description = "Get the changes since a cursor; without a cursor, only the current position")
+    public ResponseEntity<ApiResponse<ChangeFeed>> getChanges(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
+        ChangeFeed changes = changeJournalService.getChanges(user, cursor, limit);
+        return ResponseEntity.ok(ApiResponse.success("Changes retrieved successfully", changes));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Stream change notifications",
+            description = "Server-sent events carrying the new cursor whenever the user's files or folders change; " +
+                    "resumes after Last-Event-ID or the cursor parameter")
+    public SseEmitter streamChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @AuthenticationPrincipal UserPrincipal principal) throws IOException {
+        String resumeFrom = lastEventId != null ? lastEventId : cursor;
+        return changeNotifier.openStream(principal.getId(),
+                resumeFrom != null ? ChangeFeed.parseCursor(resumeFrom) : null);
+    }
+
+    @GetMapping("/poll")
+    @Operation(summary = "Wait for changes",
+            description = "Long poll answered by the first change after the cursor, or without changes on timeout")
+    public DeferredResult<ResponseEntity<ApiResponse<ChangeNotice>>> pollChanges(
+            @RequestParam("cursor") String cursor,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        return changeNotifier.poll(principal.getId(), ChangeFeed.parseCursor(cursor));
+    }
+}
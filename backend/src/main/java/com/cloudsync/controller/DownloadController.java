@@ -0,0 +1,56 @@
+package com.cloudsync.controller;
+
+import com.cloudsync.security.SignedDownload;
+import com.cloudsync.service.SignedDownloadService;
+import com.cloudsync.service.StorageService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/dl")
+@Tag(name = "Signed Downloads", description = "Downloads through signed, expiring URLs")
+public class DownloadController {
+
+    private static final Duration CLIENT_CACHE_TTL = Duration.ofMinutes(1);
+
+    private final SignedDownloadService signedDownloadService;
+    private final StorageService storageService;
+
+    public DownloadController(SignedDownloadService signedDownloadService, StorageService storageService) {
+        this.signedDownloadService = signedDownloadService;
+        this.storageService = storageService;
+    }
+
+    @GetMapping("/{token}")
+    @Operation(summary = "Download through a signed URL",
+            description = "Download a file through a signed URL created by its owner or from its share link")
+    public ResponseEntity<Resource> download(
+            @PathVariable String token,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
+        SignedDownload download = signedDownloadService.open(token);
+        Resource resource = storageService.loadAsResource(download);
+        // Players fetch media in ranges; count each playback once
+        if (range == null || range.startsWith("bytes=0-")) {
+            signedDownloadService.recordAccess(download.fileId());
+        }
+
+        // Shared caches would keep serving the file after the URL is revoked; only the client may reuse it
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(
+                        download.contentType() != null ? download.contentType() : "application/octet-stream"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.inline().filename(download.filename(), StandardCharsets.UTF_8).build().toString())
+                .cacheControl(CacheControl.maxAge(CLIENT_CACHE_TTL).cachePrivate())
+                .body(resource);
+    }
+}
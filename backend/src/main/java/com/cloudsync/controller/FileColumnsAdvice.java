@@ -0,0 +1,57 @@
+package com.cloudsync.controller;
+
+import com.cloudsync.dto.ApiResponse;
+import com.cloudsync.dto.CursorPage;
+import com.cloudsync.dto.FileColumns;
+import com.cloudsync.dto.FileDto;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import java.util.List;
+
+/**
+ * Rewrites file listing pages into {@link FileColumns} when the negotiated media type is one of
+ * the column-oriented types, so every endpoint returning {@code ApiResponse<CursorPage<FileDto>>}
+ * supports them without its own handler method.
+ */
+@RestControllerAdvice
+public class FileColumnsAdvice implements ResponseBodyAdvice<Object> {
+
+    private static final List<MediaType> COLUMN_TYPES = List.of(
+            MediaType.parseMediaType(FileColumns.JSON_MEDIA_TYPE),
+            MediaType.parseMediaType(FileColumns.CBOR_MEDIA_TYPE));
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        ResolvableType type = ResolvableType.forMethodParameter(returnType);
+        if (HttpEntity.class.isAssignableFrom(type.toClass())) {
+            type = type.getGeneric(0);
+        }
+        return ApiResponse.class.equals(type.toClass())
+                && CursorPage.class.equals(type.getGeneric(0).toClass())
+                && FileDto.class.equals(type.getGeneric(0).getGeneric(0).toClass());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        response.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        if (body instanceof ApiResponse<?> apiResponse
+                && apiResponse.data() instanceof CursorPage<?> page
+                && COLUMN_TYPES.stream().anyMatch(selectedContentType::equalsTypeAndSubtype)) {
+            FileColumns columns = FileColumns.of((CursorPage<FileDto>) page);
+            return new ApiResponse<>(apiResponse.success(), apiResponse.message(), columns);
+        }
+        return body;
+    }
+}
@@ -1,24 +1,39 @@
 package com.cloudsync.controller;
 
 import com.cloudsync.dto.ApiResponse;
+import com.cloudsync.dto.CursorPage;
 import com.cloudsync.dto.FileDto;
+import com.cloudsync.dto.InstantUploadRequest;
+import com.cloudsync.dto.InstantUploadResult;
+import com.cloudsync.dto.ListingQuery;
+import com.cloudsync.dto.SignedUrl;
 import com.cloudsync.dto.StorageStats;
 import com.cloudsync.entity.StoredFile;
 import com.cloudsync.entity.User;
+import com.cloudsync.exception.StorageQuotaExceededException;
 import com.cloudsync.security.CustomUserDetailsService;
+import com.cloudsync.security.UserPrincipal;
 import com.cloudsync.service.FileService;
+import com.cloudsync.service.InstantUploadService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Arrays;
 import java.util.List;
 
 @RestController
@@ -28,11 +43,16 @@ import java.util.List;
 public class FileController {
 
     private final FileService fileService;
+    private final InstantUploadService instantUploadService;
     private final CustomUserDetailsService userDetailsService;
+    private final ObjectMapper objectMapper;
 
-    public FileController(FileService fileService, CustomUserDetailsService userDetailsService) {
+    public FileController(FileService fileService, InstantUploadService instantUploadService,
+                          CustomUserDetailsService userDetailsService, ObjectMapper objectMapper) {
         this.fileService = fileService;
+        this.instantUploadService = instantUploadService;
         this.userDetailsService = userDetailsService;
+        this.objectMapper = objectMapper;
     }
 
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -40,8 +60,9 @@ public class FileController {
     public ResponseEntity<ApiResponse<FileDto>> uploadFile(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "folderId", required = false) Long folderId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
+            @AuthenticationPrincipal UserPrincipal principal) {
+        rejectOverQuota(principal, file.getSize());
+        User user = userDetailsService.getUserReference(principal);
         FileDto uploadedFile = fileService.uploadFile(file, user, folderId);
         return ResponseEntity.ok(ApiResponse.success("File uploaded successfully", uploadedFile));
     }
@@ -51,46 +72,84 @@ public class FileController {
     public ResponseEntity<ApiResponse<List<FileDto>>> uploadFiles(
             @RequestParam("files") MultipartFile[] files,
             @RequestParam(value = "folderId", required = false) Long folderId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
+            @AuthenticationPrincipal UserPrincipal principal) {
+        rejectOverQuota(principal, Arrays.stream(files).mapToLong(MultipartFile::getSize).sum());
+        User user = userDetailsService.getUserReference(principal);
         List<FileDto> uploadedFiles = fileService.uploadFiles(files, user, folderId);
         return ResponseEntity.ok(ApiResponse.success("Files uploaded successfully", uploadedFiles));
     }
 
+    @PostMapping("/upload/instant")
+    @Operation(summary = "Instant upload",
+            description = "Create files from content the server already holds, identified by SHA-256 and size; " +
+                    "files that are not created need a proof of possession or a regular upload")
+    public ResponseEntity<ApiResponse<InstantUploadResult>> uploadInstant(
+            @RequestBody InstantUploadRequest request,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
+        InstantUploadResult result = instantUploadService.upload(request, user);
+        return ResponseEntity.ok(ApiResponse.success("Instant upload completed", result));
+    }
+
     @GetMapping
-    @Operation(summary = "Get all files", description = "Retrieve all files belonging to the user")
-    public ResponseEntity<ApiResponse<List<FileDto>>> getAllFiles(
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
-        List<FileDto> files = fileService.getAllFiles(user);
+    @Operation(summary = "Get all files", description = "Retrieve one page of files belonging to the user")
+    public ResponseEntity<ApiResponse<CursorPage<FileDto>>> getAllFiles(
+            @ParameterObject ListingQuery listing,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
+        CursorPage<FileDto> files = fileService.getAllFiles(user, listing);
         return ResponseEntity.ok(ApiResponse.success("Files retrieved successfully", files));
     }
 
     @GetMapping("/root")
-    @Operation(summary = "Get root files", description = "Retrieve files in root directory (not in any folder)")
-    public ResponseEntity<ApiResponse<List<FileDto>>> getRootFiles(
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
-        List<FileDto> files = fileService.getFilesInRoot(user);
+    @Operation(summary = "Get root files", description = "Retrieve one page of files in root directory (not in any folder)")
+    public ResponseEntity<ApiResponse<CursorPage<FileDto>>> getRootFiles(
+            @ParameterObject ListingQuery listing,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
+        CursorPage<FileDto> files = fileService.getFilesInRoot(user, listing);
         return ResponseEntity.ok(ApiResponse.success("Root files retrieved successfully", files));
     }
 
     @GetMapping("/folder/{folderId}")
-    @Operation(summary = "Get files in folder", description = "Retrieve all files in a specific folder")
-    public ResponseEntity<ApiResponse<List<FileDto>>> getFilesInFolder(
+    @Operation(summary = "Get files in folder", description = "Retrieve one page of files in a specific folder")
+    public ResponseEntity<ApiResponse<CursorPage<FileDto>>> getFilesInFolder(
             @PathVariable Long folderId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
-        List<FileDto> files = fileService.getFilesInFolder(user, folderId);
+            @ParameterObject ListingQuery listing,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
+        CursorPage<FileDto> files = fileService.getFilesInFolder(user, folderId, listing);
         return ResponseEntity.ok(ApiResponse.success("Files retrieved successfully", files));
     }
 
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    @Operation(summary = "Export file list", description = "Stream all file metadata as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> exportFiles(
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
+        StreamingResponseBody body = outputStream -> {
+            BufferedOutputStream output = new BufferedOutputStream(outputStream);
+            fileService.streamAllFiles(user, file -> {
+                try {
+                    output.write(objectMapper.writeValueAsBytes(file));
+                    output.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            output.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
     @GetMapping("/{fileId}")
     @Operation(summary = "Get file details", description = "Retrieve details of a specific file")
     public ResponseEntity<ApiResponse<FileDto>> getFile(
             @PathVariable Long fileId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
         FileDto file = fileService.getFile(fileId, user);
         return ResponseEntity.ok(ApiResponse.success("File retrieved successfully", file));
     }
@@ -99,8 +158,8 @@ public class FileController {
     @Operation(summary = "Download file", description = "Download a specific file")
     public ResponseEntity<Resource> downloadFile(
             @PathVariable Long fileId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
         StoredFile storedFile = fileService.getStoredFile(fileId, user);
         Resource resource = fileService.downloadFile(fileId, user);
 
@@ -116,8 +175,8 @@ public class FileController {
     @Operation(summary = "Delete file", description = "Delete a specific file")
     public ResponseEntity<ApiResponse<Void>> deleteFile(
             @PathVariable Long fileId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
         fileService.deleteFile(fileId, user);
         return ResponseEntity.ok(ApiResponse.success("File deleted successfully"));
     }
@@ -127,8 +186,8 @@ public class FileController {
     public ResponseEntity<ApiResponse<FileDto>> renameFile(
             @PathVariable Long fileId,
             @RequestParam("name") String newName,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
         FileDto renamedFile = fileService.renameFile(fileId, user, newName);
         return ResponseEntity.ok(ApiResponse.success("File renamed successfully", renamedFile));
     }
@@ -138,8 +197,8 @@ public class FileController {
     public ResponseEntity<ApiResponse<FileDto>> moveFile(
             @PathVariable Long fileId,
             @RequestParam(value = "folderId", required = false) Long targetFolderId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
         FileDto movedFile = fileService.moveFile(fileId, user, targetFolderId);
         return ResponseEntity.ok(ApiResponse.success("File moved successfully", movedFile));
     }
@@ -148,8 +207,8 @@ public class FileController {
     @Operation(summary = "Share file", description = "Generate a public share link for the file")
     public ResponseEntity<ApiResponse<FileDto>> shareFile(
             @PathVariable Long fileId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
         FileDto sharedFile = fileService.shareFile(fileId, user);
         return ResponseEntity.ok(ApiResponse.success("File shared successfully", sharedFile));
     }
@@ -158,28 +217,63 @@ public class FileController {
     @Operation(summary = "Unshare file", description = "Remove public sharing from file")
     public ResponseEntity<ApiResponse<FileDto>> unshareFile(
             @PathVariable Long fileId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
         FileDto unsharedFile = fileService.unshareFile(fileId, user);
         return ResponseEntity.ok(ApiResponse.success("File unshared successfully", unsharedFile));
     }
 
+    @PostMapping("/{fileId}/link")
+    @Operation(summary = "Create download link",
+            description = "Create a signed URL that downloads the file without credentials until it expires")
+    public ResponseEntity<ApiResponse<SignedUrl>> createDownloadLink(
+            @PathVariable Long fileId,
+            @RequestParam(value = "ttlSeconds", required = false) Long ttlSeconds,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
+        SignedUrl link = fileService.createDownloadLink(fileId, user,
+                ttlSeconds != null ? Duration.ofSeconds(Math.max(1, ttlSeconds)) : null);
+        return ResponseEntity.ok(ApiResponse.success("Download link created", link));
+    }
+
+    @DeleteMapping("/{fileId}/link")
+    @Operation(summary = "Revoke download links", description = "Revoke every download link created for the file")
+    public ResponseEntity<ApiResponse<Void>> revokeDownloadLinks(
+            @PathVariable Long fileId,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
+        fileService.revokeDownloadLinks(fileId, user);
+        return ResponseEntity.ok(ApiResponse.success("Download links revoked"));
+    }
+
     @GetMapping("/search")
-    @Operation(summary = "Search files", description = "Search files by name")
-    public ResponseEntity<ApiResponse<List<FileDto>>> searchFiles(
+    @Operation(summary = "Search files", description = "Search files by name, one page at a time")
+    public ResponseEntity<ApiResponse<CursorPage<FileDto>>> searchFiles(
             @RequestParam("q") String query,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
-        List<FileDto> files = fileService.searchFiles(user, query);
+            @ParameterObject ListingQuery listing,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
+        CursorPage<FileDto> files = fileService.searchFiles(user, query, listing);
         return ResponseEntity.ok(ApiResponse.success("Search completed", files));
     }
 
     @GetMapping("/stats")
     @Operation(summary = "Get storage stats", description = "Get storage usage statistics")
     public ResponseEntity<ApiResponse<StorageStats>> getStorageStats(
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
         StorageStats stats = fileService.getStorageStats(user);
         return ResponseEntity.ok(ApiResponse.success("Stats retrieved successfully", stats));
     }
+
+    // --- Private helper methods ---
+
+    /**
+     * Fails fast on the cached usage snapshot; the upload itself re-checks against the user row.
+     */
+    private void rejectOverQuota(UserPrincipal principal, long bytes) {
+        if (bytes > principal.getRemainingQuota()) {
+            throw new StorageQuotaExceededException("Storage quota exceeded");
+        }
+    }
 }
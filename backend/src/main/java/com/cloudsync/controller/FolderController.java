@@ -1,16 +1,25 @@
 package com.cloudsync.controller;
 
 import com.cloudsync.dto.ApiResponse;
+import com.cloudsync.dto.CursorPage;
+import com.cloudsync.dto.FolderDigestDto;
 import com.cloudsync.dto.FolderDto;
+import com.cloudsync.dto.ListingQuery;
 import com.cloudsync.entity.User;
 import com.cloudsync.security.CustomUserDetailsService;
+import com.cloudsync.security.UserPrincipal;
+import com.cloudsync.service.FolderDigestService;
 import com.cloudsync.service.FolderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -22,10 +31,13 @@ import java.util.List;
 public class FolderController {
 
     private final FolderService folderService;
+    private final FolderDigestService folderDigestService;
     private final CustomUserDetailsService userDetailsService;
 
-    public FolderController(FolderService folderService, CustomUserDetailsService userDetailsService) {
+    public FolderController(FolderService folderService, FolderDigestService folderDigestService,
+                            CustomUserDetailsService userDetailsService) {
         this.folderService = folderService;
+        this.folderDigestService = folderDigestService;
         this.userDetailsService = userDetailsService;
     }
 
@@ -34,48 +46,78 @@ public class FolderController {
     public ResponseEntity<ApiResponse<FolderDto>> createFolder(
             @RequestParam("name") String name,
             @RequestParam(value = "parentId", required = false) Long parentId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
         FolderDto folder = folderService.createFolder(name, user, parentId);
         return ResponseEntity.ok(ApiResponse.success("Folder created successfully", folder));
     }
 
     @GetMapping
-    @Operation(summary = "Get root folders", description = "Get all root level folders")
-    public ResponseEntity<ApiResponse<List<FolderDto>>> getRootFolders(
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
-        List<FolderDto> folders = folderService.getRootFolders(user);
+    @Operation(summary = "Get root folders", description = "Get one page of root level folders")
+    public ResponseEntity<ApiResponse<CursorPage<FolderDto>>> getRootFolders(
+            @ParameterObject ListingQuery listing,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
+        CursorPage<FolderDto> folders = folderService.getRootFolders(user, listing);
         return ResponseEntity.ok(ApiResponse.success("Folders retrieved successfully", folders));
     }
 
     @GetMapping("/{folderId}")
     @Operation(summary = "Get folder", description = "Get folder details with contents")
-    public ResponseEntity<ApiResponse<FolderDto>> getFolder(
+    public ResponseEntity<?> getFolder(
             @PathVariable Long folderId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
+        // JSON is written from the listing cache as is; other formats are converted as usual
+        if (prefersJson(accept)) {
+            return ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(folderService.getFolderListing(folderId, user));
+        }
         FolderDto folder = folderService.getFolder(folderId, user);
         return ResponseEntity.ok(ApiResponse.success("Folder retrieved successfully", folder));
     }
 
     @GetMapping("/{folderId}/subfolders")
-    @Operation(summary = "Get subfolders", description = "Get all subfolders of a folder")
-    public ResponseEntity<ApiResponse<List<FolderDto>>> getSubfolders(
+    @Operation(summary = "Get subfolders", description = "Get one page of subfolders of a folder")
+    public ResponseEntity<ApiResponse<CursorPage<FolderDto>>> getSubfolders(
             @PathVariable Long folderId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
-        List<FolderDto> subfolders = folderService.getSubfolders(folderId, user);
+            @ParameterObject ListingQuery listing,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
+        CursorPage<FolderDto> subfolders = folderService.getSubfolders(folderId, user, listing);
         return ResponseEntity.ok(ApiResponse.success("Subfolders retrieved successfully", subfolders));
     }
 
+    @GetMapping("/digest")
+    @Operation(summary = "Get root digest",
+            description = "Get the digest of the whole account with the digests of the root level folders")
+    public ResponseEntity<ApiResponse<FolderDigestDto>> getRootDigest(
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
+        FolderDigestDto digest = folderDigestService.getDigest(user, null);
+        return ResponseEntity.ok(ApiResponse.success("Digest retrieved successfully", digest));
+    }
+
+    @GetMapping("/{folderId}/digest")
+    @Operation(summary = "Get folder digest",
+            description = "Get the digest of a folder's subtree with the digests of its subfolders")
+    public ResponseEntity<ApiResponse<FolderDigestDto>> getFolderDigest(
+            @PathVariable Long folderId,
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
+        FolderDigestDto digest = folderDigestService.getDigest(user, folderId);
+        return ResponseEntity.ok(ApiResponse.success("Digest retrieved successfully", digest));
+    }
+
     @PutMapping("/{folderId}/rename")
     @Operation(summary = "Rename folder", description = "Rename a folder")
     public ResponseEntity<ApiResponse<FolderDto>> renameFolder(
             @PathVariable Long folderId,
             @RequestParam("name") String newName,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
         FolderDto renamedFolder = folderService.renameFolder(folderId, user, newName);
         return ResponseEntity.ok(ApiResponse.success("Folder renamed successfully", renamedFolder));
     }
@@ -85,8 +127,8 @@ public class FolderController {
     public ResponseEntity<ApiResponse<FolderDto>> moveFolder(
             @PathVariable Long folderId,
             @RequestParam(value = "parentId", required = false) Long targetParentId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
         FolderDto movedFolder = folderService.moveFolder(folderId, user, targetParentId);
         return ResponseEntity.ok(ApiResponse.success("Folder moved successfully", movedFolder));
     }
@@ -95,9 +137,27 @@ public class FolderController {
     @Operation(summary = "Delete folder", description = "Delete a folder and all its contents")
     public ResponseEntity<ApiResponse<Void>> deleteFolder(
             @PathVariable Long folderId,
-            @AuthenticationPrincipal UserDetails userDetails) {
-        User user = userDetailsService.getUserByUsername(userDetails.getUsername());
+            @AuthenticationPrincipal UserPrincipal principal) {
+        User user = userDetailsService.getUserReference(principal);
         folderService.deleteFolder(folderId, user);
         return ResponseEntity.ok(ApiResponse.success("Folder deleted successfully"));
     }
+
+    // --- Private helper methods ---
+
+    /**
+     * Whether JSON is the client's preferred format, as it is without an Accept header.
+     */
+    private static boolean prefersJson(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return true;
+        }
+        try {
+            List<MediaType> accepted = MediaType.parseMediaTypes(accept);
+            MimeTypeUtils.sortBySpecificity(accepted);
+            return accepted.get(0).includes(MediaType.APPLICATION_JSON);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
 }
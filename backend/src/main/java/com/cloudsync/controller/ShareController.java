@@ -1,6 +1,7 @@
 package com.cloudsync.controller;
 
-import com.cloudsync.entity.StoredFile;
+import com.cloudsync.dto.SignedUrl;
+import com.cloudsync.repository.SharedFileRow;
 import com.cloudsync.service.FileService;
 import com.cloudsync.service.StorageService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -11,6 +12,8 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+
 @RestController
 @RequestMapping("/api/share")
 @Tag(name = "Public Sharing", description = "Public file sharing APIs")
@@ -27,39 +30,48 @@ public class ShareController {
     @GetMapping("/{shareToken}")
     @Operation(summary = "Download shared file", description = "Download a publicly shared file using share token")
     public ResponseEntity<Resource> downloadSharedFile(@PathVariable String shareToken) {
-        StoredFile file = fileService.getSharedFile(shareToken);
+        SharedFileRow file = fileService.getSharedFile(shareToken);
         
         if (!file.isPublic()) {
             return ResponseEntity.notFound().build();
         }
 
-        file.incrementDownloadCount();
         Resource resource = storageService.loadAsResource(file);
 
         return ResponseEntity.ok()
                 .contentType(MediaType.parseMediaType(
-                        file.getContentType() != null ? file.getContentType() : "application/octet-stream"))
+                        file.contentType() != null ? file.contentType() : "application/octet-stream"))
                 .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"" + file.getOriginalName() + "\"")
+                        "attachment; filename=\"" + file.originalName() + "\"")
                 .body(resource);
     }
 
     @GetMapping("/{shareToken}/info")
     @Operation(summary = "Get shared file info", description = "Get information about a shared file")
     public ResponseEntity<?> getSharedFileInfo(@PathVariable String shareToken) {
-        StoredFile file = fileService.getSharedFile(shareToken);
+        SharedFileRow file = fileService.getSharedFile(shareToken);
         
         if (!file.isPublic()) {
             return ResponseEntity.notFound().build();
         }
 
         return ResponseEntity.ok(new SharedFileInfo(
-                file.getOriginalName(),
-                file.getContentType(),
-                file.getSize(),
-                file.getDownloadCount()
+                file.originalName(),
+                file.contentType(),
+                file.size(),
+                file.downloadCount()
         ));
     }
 
+    @GetMapping("/{shareToken}/link")
+    @Operation(summary = "Create download link for shared file",
+            description = "Create a short-lived signed URL for a shared file, e.g. for a media player or CDN")
+    public ResponseEntity<SignedUrl> createDownloadLink(
+            @PathVariable String shareToken,
+            @RequestParam(value = "ttlSeconds", required = false) Long ttlSeconds) {
+        return ResponseEntity.ok(fileService.createSharedDownloadLink(shareToken,
+                ttlSeconds != null ? Duration.ofSeconds(Math.max(1, ttlSeconds)) : null));
+    }
+
     public record SharedFileInfo(String name, String contentType, long size, long downloadCount) {}
 }
@@ -0,0 +1,41 @@
+package com.cloudsync.datasource;
+
+import com.cloudsync.event.UserChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Remembers which users committed a write within the sticky window, so that their reads
+ * stay on the primary until the replicas have caught up with their own changes.
+ * Kept per instance; requests of one user landing on another instance read from replicas.
+ */
+public class ReadYourWritesTracker {
+
+    private static final long MAX_TRACKED_USERS = 100_000;
+
+    private final Cache<Long, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(Duration stickyWindow) {
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_USERS)
+                .expireAfterWrite(stickyWindow)
+                .build();
+    }
+
+    public void recordWrite(Long userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    public boolean isSticky(Long userId) {
+        return recentWriters.getIfPresent(userId) != null;
+    }
+
+    // Covers writes made before the user is authenticated, i.e. registration
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        recordWrite(event.userId());
+    }
+}
@@ -0,0 +1,76 @@
+package com.cloudsync.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures each replica's lag with a heartbeat row: the primary rewrites it on every check
+ * and a replica's copy trails by its replication lag. Replicas that lag more than the limit
+ * or cannot be reached are left out of read routing until a later check finds them healthy.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String BEAT = "UPDATE replication_heartbeat SET beat_at = LOCALTIMESTAMP WHERE id = 1";
+    private static final String READ_BEAT = "SELECT beat_at FROM replication_heartbeat WHERE id = 1";
+
+    private final JdbcTemplate primary;
+    private final Map<String, JdbcTemplate> replicas;
+    private final Duration maxLag;
+
+    // No replica is used before the first check
+    private volatile List<String> healthyReplicas = List.of();
+
+    public ReplicaLagMonitor(JdbcTemplate primary, Map<String, JdbcTemplate> replicas, Duration maxLag) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.maxLag = maxLag;
+    }
+
+    public List<String> getHealthyReplicas() {
+        return healthyReplicas;
+    }
+
+    @Scheduled(fixedDelayString = "${cloudsync.datasource.lag-check-interval:PT2S}")
+    public void check() {
+        Timestamp primaryBeat;
+        try {
+            primary.update(BEAT);
+            primaryBeat = primary.queryForObject(READ_BEAT, Timestamp.class);
+        } catch (DataAccessException e) {
+            log.warn("Replication heartbeat failed on primary: {}", e.getMessage());
+            return;
+        }
+
+        List<String> healthy = new ArrayList<>();
+        for (Map.Entry<String, JdbcTemplate> replica : replicas.entrySet()) {
+            String name = replica.getKey();
+            try {
+                Timestamp replicaBeat = replica.getValue().queryForObject(READ_BEAT, Timestamp.class);
+                Duration lag = Duration.between(replicaBeat.toInstant(), primaryBeat.toInstant());
+                if (lag.compareTo(maxLag) <= 0) {
+                    healthy.add(name);
+                } else {
+                    log.warn("Replica lagging, reads go elsewhere: replica={}, lag={}", name, lag);
+                }
+            } catch (DataAccessException e) {
+                log.warn("Replica unavailable, reads go elsewhere: replica={}, error={}", name, e.getMessage());
+            }
+        }
+
+        if (!healthy.equals(healthyReplicas)) {
+            log.info("Read replicas in use: {}", healthy);
+        }
+        healthyReplicas = List.copyOf(healthy);
+    }
+}
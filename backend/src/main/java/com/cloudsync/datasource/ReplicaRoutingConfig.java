@@ -0,0 +1,88 @@
+package com.cloudsync.datasource;
+
+import com.cloudsync.config.ReplicaConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read replica routing, active once {@code cloudsync.datasource.replicas} lists at least one
+ * replica. The primary keeps the regular {@code spring.datasource} settings; without replicas
+ * the auto-configured data source is used unchanged.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "cloudsync.datasource.replicas[0]", name = "url")
+public class ReplicaRoutingConfig implements DisposableBean {
+
+    private final ReplicaConfig replicaConfig;
+    private final Map<String, HikariDataSource> replicaPools = new LinkedHashMap<>();
+
+    public ReplicaRoutingConfig(ReplicaConfig replicaConfig) {
+        this.replicaConfig = replicaConfig;
+        List<ReplicaConfig.Replica> replicas = replicaConfig.getReplicas();
+        for (int i = 0; i < replicas.size(); i++) {
+            ReplicaConfig.Replica replica = replicas.get(i);
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(replica.getUrl())
+                    .username(replica.getUsername())
+                    .password(replica.getPassword())
+                    .build();
+            String name = "replica-" + (i + 1);
+            pool.setPoolName(name);
+            pool.setReadOnly(true);
+            replicaPools.put(name, pool);
+        }
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadYourWritesTracker readYourWritesTracker() {
+        return new ReadYourWritesTracker(replicaConfig.getStickyWindow());
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(HikariDataSource primaryDataSource) {
+        Map<String, JdbcTemplate> replicas = new LinkedHashMap<>();
+        replicaPools.forEach((name, pool) -> replicas.put(name, new JdbcTemplate(pool)));
+        return new ReplicaLagMonitor(new JdbcTemplate(primaryDataSource), replicas, replicaConfig.getMaxLag());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaLagMonitor replicaLagMonitor,
+                                 ReadYourWritesTracker readYourWritesTracker) {
+        Map<Object, Object> targets = new HashMap<>(replicaPools);
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primaryDataSource);
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(replicaLagMonitor, readYourWritesTracker);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    @Override
+    public void destroy() {
+        replicaPools.values().forEach(HikariDataSource::close);
+    }
+}
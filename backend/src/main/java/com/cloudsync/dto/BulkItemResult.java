@@ -0,0 +1,45 @@
+package com.cloudsync.dto;
+
+/**
+ * Outcome of one item of a bulk operation.
+ * {@code shareToken} is only set for files shared by a bulk share.
+ */
+public record BulkItemResult(
+        ItemType type,
+        Long id,
+        Status status,
+        String message,
+        String shareToken
+) {
+    public enum ItemType {
+        FILE,
+        FOLDER
+    }
+
+    public enum Status {
+        OK,
+        NOT_FOUND,
+        INVALID
+    }
+
+    public static BulkItemResult ok(ItemType type, Long id) {
+        return new BulkItemResult(type, id, Status.OK, null, null);
+    }
+
+    public static BulkItemResult shared(Long fileId, String shareToken) {
+        return new BulkItemResult(ItemType.FILE, fileId, Status.OK, null, shareToken);
+    }
+
+    public static BulkItemResult notFound(ItemType type, Long id) {
+        return new BulkItemResult(type, id, Status.NOT_FOUND, type == ItemType.FILE
+                ? "File not found" : "Folder not found", null);
+    }
+
+    public static BulkItemResult invalid(ItemType type, Long id, String message) {
+        return new BulkItemResult(type, id, Status.INVALID, message, null);
+    }
+
+    public boolean succeeded() {
+        return status == Status.OK;
+    }
+}
@@ -0,0 +1,24 @@
+package com.cloudsync.dto;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * New names for files and folders, keyed by id.
+ */
+public record BulkRenameRequest(
+        Map<Long, String> files,
+        Map<Long, String> folders
+) {
+    /**
+     * Canonical constructor ensuring immutable, non-null maps.
+     */
+    public BulkRenameRequest {
+        files = files != null ? Map.copyOf(files) : Collections.emptyMap();
+        folders = folders != null ? Map.copyOf(folders) : Collections.emptyMap();
+    }
+
+    public int size() {
+        return files.size() + folders.size();
+    }
+}
@@ -0,0 +1,26 @@
+package com.cloudsync.dto;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Selection of files and folders for a bulk operation.
+ * {@code targetFolderId} is only read by moves; {@code null} means the root directory.
+ */
+public record BulkRequest(
+        List<Long> fileIds,
+        List<Long> folderIds,
+        Long targetFolderId
+) {
+    /**
+     * Canonical constructor ensuring immutable, non-null id lists.
+     */
+    public BulkRequest {
+        fileIds = fileIds != null ? List.copyOf(fileIds) : Collections.emptyList();
+        folderIds = folderIds != null ? List.copyOf(folderIds) : Collections.emptyList();
+    }
+
+    public int size() {
+        return fileIds.size() + folderIds.size();
+    }
+}
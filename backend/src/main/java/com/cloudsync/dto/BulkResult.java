@@ -0,0 +1,17 @@
+package com.cloudsync.dto;
+
+import java.util.List;
+
+/**
+ * Per-item outcomes of a bulk operation, in request order (files first, then folders).
+ */
+public record BulkResult(
+        int succeeded,
+        int failed,
+        List<BulkItemResult> items
+) {
+    public static BulkResult of(List<BulkItemResult> items) {
+        int succeeded = (int) items.stream().filter(BulkItemResult::succeeded).count();
+        return new BulkResult(succeeded, items.size() - succeeded, List.copyOf(items));
+    }
+}
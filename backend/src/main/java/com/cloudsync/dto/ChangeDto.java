@@ -0,0 +1,28 @@
+package com.cloudsync.dto;
+
+import com.cloudsync.entity.ChangeEntry;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the change feed. {@code parentId} and {@code name} describe the item after the
+ * change; a change to a folder applies to its whole subtree.
+ */
+public record ChangeDto(
+        long seq,
+        ChangeEntry.Type type,
+        ChangeEntry.ItemType itemType,
+        Long itemId,
+        Long parentId,
+        String name,
+        LocalDateTime changedAt
+) {
+    public static ChangeDto fromEntity(ChangeEntry entry) {
+        return new ChangeDto(entry.getSeq(), entry.getType(), entry.getItemType(), entry.getItemId(),
+                entry.getParentId(), entry.getName(), entry.getChangedAt());
+    }
+
+    public ChangeDto withType(ChangeEntry.Type type) {
+        return new ChangeDto(seq, type, itemType, itemId, parentId, name, changedAt);
+    }
+}
@@ -0,0 +1,39 @@
+package com.cloudsync.dto;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A batch of the change feed. Pass {@code cursor} back to fetch the changes that follow; while
+ * {@code hasMore} is set more are already waiting. {@code resetRequired} means the changes since
+ * the given cursor are no longer available: reload the listings, then continue from {@code cursor}.
+ */
+public record ChangeFeed(
+        List<ChangeDto> changes,
+        String cursor,
+        boolean hasMore,
+        boolean resetRequired
+) {
+    public ChangeFeed {
+        changes = changes != null ? List.copyOf(changes) : Collections.emptyList();
+    }
+
+    public static ChangeFeed reset(long position) {
+        return new ChangeFeed(List.of(), Long.toString(position), false, true);
+    }
+
+    /**
+     * Decodes a cursor handed out by the change feed or the push channel.
+     */
+    public static long parseCursor(String cursor) {
+        try {
+            long seq = Long.parseLong(cursor);
+            if (seq < 0) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return seq;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
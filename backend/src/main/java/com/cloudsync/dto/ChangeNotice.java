@@ -0,0 +1,17 @@
+package com.cloudsync.dto;
+
+/**
+ * Push notification that a user's change journal has advanced to {@code cursor}.
+ * Clients fetch the changes themselves from {@code /api/changes} with their own cursor.
+ * {@code changed} is false when a long poll timed out without changes.
+ */
+public record ChangeNotice(String cursor, boolean changed) {
+
+    public static ChangeNotice changed(long seq) {
+        return new ChangeNotice(Long.toString(seq), true);
+    }
+
+    public static ChangeNotice unchanged(long seq) {
+        return new ChangeNotice(Long.toString(seq), false);
+    }
+}
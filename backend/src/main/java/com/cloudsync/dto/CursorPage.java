@@ -0,0 +1,34 @@
+package com.cloudsync.dto;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Immutable page of a keyset-paginated listing.
+ * Pass {@code nextCursor} back as the {@code cursor} parameter to fetch the following page.
+ */
+public record CursorPage<T>(
+        List<T> items,
+        String nextCursor,
+        boolean hasMore
+) {
+    /**
+     * Canonical constructor ensuring an immutable item list.
+     */
+    public CursorPage {
+        items = items != null ? List.copyOf(items) : Collections.emptyList();
+    }
+
+    /**
+     * Builds a page from rows fetched with {@code limit + 1}; the extra row only signals
+     * that another page exists and is not returned.
+     */
+    public static <E, T> CursorPage<T> fromRows(List<E> rows, int limit,
+                                                Function<E, T> mapper, Function<E, String> cursorOf) {
+        boolean hasMore = rows.size() > limit;
+        List<E> pageRows = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? cursorOf.apply(pageRows.get(pageRows.size() - 1)) : null;
+        return new CursorPage<>(pageRows.stream().map(mapper).toList(), nextCursor, hasMore);
+    }
+}
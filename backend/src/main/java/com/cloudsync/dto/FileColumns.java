@@ -0,0 +1,106 @@
+package com.cloudsync.dto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented form of a file listing page, served instead of {@code CursorPage<FileDto>}
+ * when the client accepts {@link #JSON_MEDIA_TYPE} or {@link #CBOR_MEDIA_TYPE}.
+ * <p>
+ * Each field is one array indexed by row, so keys are written once per page rather than once
+ * per file. Folders and content types are dictionary-encoded: rows hold an index into
+ * {@code folders} / {@code contentTypes}, or -1 for the root / an unknown type. A file's path is
+ * its folder's path plus {@code "/" + originalName} and is not repeated; the internal stored name
+ * is omitted. Timestamps are epoch milliseconds.
+ */
+public record FileColumns(
+        List<Folder> folders,
+        List<String> contentTypes,
+        long[] id,
+        String[] originalName,
+        int[] contentType,
+        long[] size,
+        int[] folder,
+        boolean[] isPublic,
+        String[] shareToken,
+        long[] downloadCount,
+        long[] createdAt,
+        long[] updatedAt,
+        String nextCursor,
+        boolean hasMore
+) {
+    public static final String JSON_MEDIA_TYPE = "application/vnd.cloudsync.columns+json";
+    public static final String CBOR_MEDIA_TYPE = "application/vnd.cloudsync.columns+cbor";
+
+    /**
+     * Folder dictionary entry; {@code path} is the prefix shared by the folder's files.
+     */
+    public record Folder(Long id, String name, String path) {
+    }
+
+    /**
+     * Converts a listing page, building the folder and content type dictionaries in row order.
+     */
+    public static FileColumns of(CursorPage<FileDto> page) {
+        List<FileDto> items = page.items();
+        int count = items.size();
+        ZoneId zone = ZoneId.systemDefault();
+
+        List<Folder> folders = new ArrayList<>();
+        Map<Long, Integer> folderIndex = new HashMap<>();
+        List<String> contentTypes = new ArrayList<>();
+        Map<String, Integer> contentTypeIndex = new HashMap<>();
+
+        long[] id = new long[count];
+        String[] originalName = new String[count];
+        int[] contentType = new int[count];
+        long[] size = new long[count];
+        int[] folder = new int[count];
+        boolean[] isPublic = new boolean[count];
+        String[] shareToken = new String[count];
+        long[] downloadCount = new long[count];
+        long[] createdAt = new long[count];
+        long[] updatedAt = new long[count];
+
+        for (int i = 0; i < count; i++) {
+            FileDto file = items.get(i);
+            id[i] = file.id();
+            originalName[i] = file.originalName();
+            contentType[i] = file.contentType() == null ? -1
+                    : contentTypeIndex.computeIfAbsent(file.contentType(), type -> {
+                        contentTypes.add(type);
+                        return contentTypes.size() - 1;
+                    });
+            size[i] = file.size();
+            folder[i] = file.folderId() == null ? -1
+                    : folderIndex.computeIfAbsent(file.folderId(), folderId -> {
+                        folders.add(new Folder(folderId, file.folderName(), folderPath(file)));
+                        return folders.size() - 1;
+                    });
+            isPublic[i] = file.isPublic();
+            shareToken[i] = file.shareToken();
+            downloadCount[i] = file.downloadCount();
+            createdAt[i] = epochMillis(file.createdAt(), zone);
+            updatedAt[i] = epochMillis(file.updatedAt(), zone);
+        }
+
+        return new FileColumns(folders, contentTypes, id, originalName, contentType, size, folder,
+                isPublic, shareToken, downloadCount, createdAt, updatedAt, page.nextCursor(), page.hasMore());
+    }
+
+    // --- Private helper methods ---
+
+    private static String folderPath(FileDto file) {
+        String suffix = "/" + file.originalName();
+        String path = file.path();
+        return path.endsWith(suffix) ? path.substring(0, path.length() - suffix.length()) : path;
+    }
+
+    private static long epochMillis(LocalDateTime time, ZoneId zone) {
+        return time != null ? time.atZone(zone).toInstant().toEpochMilli() : 0;
+    }
+}
@@ -1,6 +1,7 @@
 package com.cloudsync.dto;
 
 import com.cloudsync.entity.StoredFile;
+import com.cloudsync.repository.FileRow;
 import java.time.LocalDateTime;
 
 /**
@@ -44,6 +45,27 @@ public record FileDto(
         );
     }
 
+    /**
+     * Creates a FileDto from a listing row projected without loading the entity.
+     */
+    public static FileDto fromRow(FileRow row) {
+        return new FileDto(
+                row.id(),
+                row.name(),
+                row.originalName(),
+                row.contentType(),
+                row.size(),
+                row.path(),
+                row.folderId(),
+                row.folderName(),
+                Boolean.TRUE.equals(row.isPublic()),
+                row.shareToken(),
+                row.downloadCount() != null ? row.downloadCount() : 0,
+                row.createdAt(),
+                row.updatedAt()
+        );
+    }
+
     /**
      * Returns human-readable file size format.
      */
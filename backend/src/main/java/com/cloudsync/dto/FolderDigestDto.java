@@ -0,0 +1,26 @@
+package com.cloudsync.dto;
+
+import com.cloudsync.repository.DigestEntry;
+
+import java.util.List;
+
+/**
+ * Digest of a folder ({@code folderId} null for the root directory) with the digests of its
+ * subfolders, so a sync client can descend only into subtrees that differ from its own copy.
+ * {@code pending} is set while changes below the folder have not been folded in yet.
+ */
+public record FolderDigestDto(
+        Long folderId,
+        String digest,
+        boolean pending,
+        List<Subfolder> subfolders
+) {
+    public record Subfolder(Long id, String name, String digest) {
+    }
+
+    public static FolderDigestDto of(Long folderId, String digest, boolean pending, List<DigestEntry> subfolders) {
+        return new FolderDigestDto(folderId, digest, pending, subfolders.stream()
+                .map(entry -> new Subfolder(entry.id(), entry.name(), entry.hash()))
+                .toList());
+    }
+}
@@ -1,6 +1,7 @@
 package com.cloudsync.dto;
 
 import com.cloudsync.entity.Folder;
+import com.cloudsync.repository.FolderRow;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
@@ -15,8 +16,11 @@ public record FolderDto(
         String path,
         Long parentId,
         String parentName,
-        int fileCount,
-        int subfolderCount,
+        long fileCount,
+        long subfolderCount,
+        long totalBytes,
+        long subtreeFileCount,
+        long subtreeBytes,
         LocalDateTime createdAt,
         LocalDateTime updatedAt,
         List<FolderDto> subfolders,
@@ -32,7 +36,7 @@ public record FolderDto(
 
     /**
      * Creates a FolderDto from a Folder entity without loading contents.
-     * Use for list responses to avoid unnecessary data transfer.
+     * Counts come from the denormalized counters, so child collections stay uninitialized.
      */
     public static FolderDto fromEntity(Folder folder) {
         return new FolderDto(
@@ -41,8 +45,11 @@ public record FolderDto(
                 folder.getPath(),
                 folder.getParent() != null ? folder.getParent().getId() : null,
                 folder.getParent() != null ? folder.getParent().getName() : null,
-                folder.getFiles() != null ? folder.getFiles().size() : 0,
-                folder.getSubfolders() != null ? folder.getSubfolders().size() : 0,
+                folder.getFileCount(),
+                folder.getSubfolderCount(),
+                folder.getTotalBytes(),
+                folder.getSubtreeFileCount(),
+                folder.getSubtreeBytes(),
                 folder.getCreatedAt(),
                 folder.getUpdatedAt(),
                 Collections.emptyList(),
@@ -50,6 +57,28 @@ public record FolderDto(
         );
     }
 
+    /**
+     * Creates a FolderDto from a listing row projected without loading the entity.
+     */
+    public static FolderDto fromRow(FolderRow row) {
+        return new FolderDto(
+                row.id(),
+                row.name(),
+                row.path(),
+                row.parentId(),
+                row.parentName(),
+                row.fileCount(),
+                row.subfolderCount(),
+                row.totalBytes(),
+                row.subtreeFileCount(),
+                row.subtreeBytes(),
+                row.createdAt(),
+                row.updatedAt(),
+                Collections.emptyList(),
+                Collections.emptyList()
+        );
+    }
+
     /**
      * Creates a FolderDto from a Folder entity including contents.
      * Use for detailed folder view with subfolders and files.
@@ -71,6 +100,9 @@ public record FolderDto(
                 folder.getParent() != null ? folder.getParent().getName() : null,
                 fileDtos.size(),
                 subfolderDtos.size(),
+                folder.getTotalBytes(),
+                folder.getSubtreeFileCount(),
+                folder.getSubtreeBytes(),
                 folder.getCreatedAt(),
                 folder.getUpdatedAt(),
                 subfolderDtos,
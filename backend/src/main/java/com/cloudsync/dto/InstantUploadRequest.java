@@ -0,0 +1,28 @@
+package com.cloudsync.dto;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Files a client wants to create from content the server may already hold, identified by
+ * SHA-256 and size. {@code folderId} null means the root directory; {@code proof} answers a
+ * challenge from an earlier round.
+ */
+public record InstantUploadRequest(List<Item> files) {
+
+    public record Item(String name, String sha256, long size, String contentType, Long folderId, Proof proof) {
+    }
+
+    /**
+     * {@code response} is the hex SHA-256 of the challenge token's bytes followed by the challenged range.
+     */
+    public record Proof(String token, String response) {
+    }
+
+    /**
+     * Canonical constructor ensuring an immutable, non-null item list.
+     */
+    public InstantUploadRequest {
+        files = files != null ? List.copyOf(files) : Collections.emptyList();
+    }
+}
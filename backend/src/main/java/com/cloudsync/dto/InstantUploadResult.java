@@ -0,0 +1,46 @@
+package com.cloudsync.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of an instant upload, one item per requested file in request order.
+ * Files that are {@code PROOF_REQUIRED} or {@code UPLOAD_REQUIRED} are sent again with a proof or
+ * with a regular upload; {@code INVALID} and {@code QUOTA_EXCEEDED} files are not stored either way.
+ */
+public record InstantUploadResult(List<Item> files) {
+
+    public enum Status {
+        CREATED,
+        PROOF_REQUIRED,
+        UPLOAD_REQUIRED,
+        INVALID,
+        QUOTA_EXCEEDED
+    }
+
+    public record Item(Status status, FileDto file, ProofChallenge challenge, String message) {
+
+        public static Item created(FileDto file) {
+            return new Item(Status.CREATED, file, null, null);
+        }
+
+        public static Item proofRequired(ProofChallenge challenge) {
+            return new Item(Status.PROOF_REQUIRED, null, challenge, null);
+        }
+
+        public static Item uploadRequired() {
+            return new Item(Status.UPLOAD_REQUIRED, null, null, null);
+        }
+
+        public static Item invalid(String message) {
+            return new Item(Status.INVALID, null, null, message);
+        }
+
+        public static Item quotaExceeded(String message) {
+            return new Item(Status.QUOTA_EXCEEDED, null, null, message);
+        }
+    }
+
+    public long created() {
+        return files.stream().filter(item -> item.status() == Status.CREATED).count();
+    }
+}
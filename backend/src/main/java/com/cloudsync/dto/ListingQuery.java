@@ -0,0 +1,60 @@
+package com.cloudsync.dto;
+
+import com.cloudsync.exception.InvalidListingQueryException;
+
+/**
+ * Immutable listing parameters bound from the query string of list endpoints.
+ * Missing values fall back to name-ascending order and the default page size.
+ */
+public record ListingQuery(
+        String sort,
+        String direction,
+        String cursor,
+        Integer limit
+) {
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    /**
+     * Canonical constructor applying defaults.
+     */
+    public ListingQuery {
+        sort = sort != null && !sort.isBlank() ? sort : "name";
+        direction = direction != null && !direction.isBlank() ? direction : "asc";
+        cursor = cursor != null && !cursor.isBlank() ? cursor : null;
+    }
+
+    /**
+     * Creates a query for the first page in the given order.
+     */
+    public static ListingQuery firstPage(SortField sortField, int limit) {
+        return new ListingQuery(sortField.name(), "asc", null, limit);
+    }
+
+    public SortField sortField() {
+        return SortField.parse(sort);
+    }
+
+    /**
+     * Parses the direction, {@code asc} or {@code desc} in any case.
+     */
+    public boolean descending() {
+        if ("desc".equalsIgnoreCase(direction)) {
+            return true;
+        }
+        if ("asc".equalsIgnoreCase(direction)) {
+            return false;
+        }
+        throw new InvalidListingQueryException("Unsupported sort direction: " + direction);
+    }
+
+    /**
+     * Returns the requested page size clamped to {@code [1, MAX_LIMIT]}.
+     */
+    public int pageSize() {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -0,0 +1,8 @@
+package com.cloudsync.dto;
+
+/**
+ * A request to prove possession of content by hashing {@code length} bytes from {@code offset},
+ * prefixed with the token.
+ */
+public record ProofChallenge(String token, long offset, int length) {
+}
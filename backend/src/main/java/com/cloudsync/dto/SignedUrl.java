@@ -0,0 +1,9 @@
+package com.cloudsync.dto;
+
+import java.time.Instant;
+
+/**
+ * A download URL that works without credentials until it expires or is revoked.
+ */
+public record SignedUrl(String url, Instant expiresAt) {
+}
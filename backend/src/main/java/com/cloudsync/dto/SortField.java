@@ -0,0 +1,26 @@
+package com.cloudsync.dto;
+
+import com.cloudsync.exception.InvalidListingQueryException;
+
+import java.util.Locale;
+
+/**
+ * Server-side sort keys supported by the listing endpoints.
+ */
+public enum SortField {
+    NAME,
+    SIZE,
+    DATE,
+    TYPE;
+
+    /**
+     * Parses a sort parameter case-insensitively, e.g. {@code name} or {@code DATE}.
+     */
+    public static SortField parse(String value) {
+        try {
+            return SortField.valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidListingQueryException("Unsupported sort field: " + value);
+        }
+    }
+}
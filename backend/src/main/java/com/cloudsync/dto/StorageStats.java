@@ -1,5 +1,9 @@
 package com.cloudsync.dto;
 
+import com.cloudsync.entity.ContentFamily;
+
+import java.util.Map;
+
 /**
  * Immutable DTO representing user storage statistics.
  * Provides computed properties for available storage and usage percentage.
@@ -8,21 +12,37 @@ public record StorageStats(
         long usedStorage,
         long maxStorage,
         long availableStorage,
-        int totalFiles,
-        int totalFolders,
-        double usedPercentage
+        long totalFiles,
+        long totalFolders,
+        double usedPercentage,
+        Map<ContentFamily, FamilyUsage> byFamily
 ) {
+    /**
+     * Files and bytes of one content family.
+     */
+    public record FamilyUsage(long files, long bytes) {
+    }
+
+    /**
+     * Canonical constructor ensuring an immutable breakdown.
+     */
+    public StorageStats {
+        byFamily = byFamily != null ? Map.copyOf(byFamily) : Map.of();
+    }
+
     /**
      * Creates StorageStats with computed fields.
      */
-    public StorageStats(long usedStorage, long maxStorage, int totalFiles, int totalFolders) {
+    public StorageStats(long usedStorage, long maxStorage, long totalFiles, long totalFolders,
+                        Map<ContentFamily, FamilyUsage> byFamily) {
         this(
                 usedStorage,
                 maxStorage,
                 maxStorage - usedStorage,
                 totalFiles,
                 totalFolders,
-                maxStorage > 0 ? (usedStorage * 100.0 / maxStorage) : 0
+                maxStorage > 0 ? (usedStorage * 100.0 / maxStorage) : 0,
+                byFamily
         );
     }
 
@@ -0,0 +1,53 @@
+package com.cloudsync.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A stored blob whose file row has been deleted, waiting for the background purge.
+ * Queued in the deleting transaction so the disk is only touched after the rows are gone.
+ */
+@Entity
+@Table(name = "blob_purge_queue")
+public class BlobPurgeTask {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "blob_purge_queue_ids")
+    @SequenceGenerator(name = "blob_purge_queue_ids", sequenceName = "blob_purge_queue_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "storage_path", nullable = false)
+    private String storagePath;
+
+    @Column(name = "enqueued_at", nullable = false)
+    private LocalDateTime enqueuedAt;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts = 0;
+
+    // Constructors
+    public BlobPurgeTask() {}
+
+    public BlobPurgeTask(String storagePath) {
+        this.storagePath = storagePath;
+        this.enqueuedAt = LocalDateTime.now();
+    }
+
+    // Getters
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getStoragePath() {
+        return storagePath;
+    }
+
+    public LocalDateTime getEnqueuedAt() {
+        return enqueuedAt;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+}
@@ -0,0 +1,137 @@
+package com.cloudsync.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * One change to a user's files or folders, in the per-user change journal read by sync clients.
+ * A change to a folder covers its subtree: descendants of a moved, renamed or deleted folder get
+ * no entries of their own.
+ */
+@Entity
+@Table(name = "change_journal")
+public class ChangeEntry {
+
+    public enum Type {
+        CREATED,
+        RENAMED,
+        MOVED,
+        DELETED,
+        SHARED,
+        UNSHARED
+    }
+
+    public enum ItemType {
+        FILE,
+        FOLDER
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "change_journal_ids")
+    @SequenceGenerator(name = "change_journal_ids", sequenceName = "change_journal_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    // Position in the user's journal, assigned by ChangeJournal when the entry is recorded
+    @Column(name = "seq", nullable = false)
+    private long seq;
+
+    // Plain varchar columns rather than the native enum types some dialects would expect
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "change_type", nullable = false, length = 16)
+    private Type type;
+
+    @Enumerated(EnumType.STRING)
+    @JdbcTypeCode(SqlTypes.VARCHAR)
+    @Column(name = "item_type", nullable = false, length = 16)
+    private ItemType itemType;
+
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+
+    // Containing folder and name after the change; a null parent is the root
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+
+    // Constructors
+    public ChangeEntry() {}
+
+    public ChangeEntry(Type type, ItemType itemType, Long itemId, Long parentId, String name) {
+        this.type = type;
+        this.itemType = itemType;
+        this.itemId = itemId;
+        this.parentId = parentId;
+        this.name = name;
+        this.changedAt = LocalDateTime.now();
+    }
+
+    public static ChangeEntry file(Type type, StoredFile file) {
+        Folder folder = file.getFolder();
+        return new ChangeEntry(type, ItemType.FILE, file.getId(),
+                folder != null ? folder.getId() : null, file.getOriginalName());
+    }
+
+    public static ChangeEntry folder(Type type, Folder folder) {
+        Folder parent = folder.getParent();
+        return new ChangeEntry(type, ItemType.FOLDER, folder.getId(),
+                parent != null ? parent.getId() : null, folder.getName());
+    }
+
+    /**
+     * Places the entry in a user's journal.
+     */
+    public void assign(Long userId, long seq) {
+        this.userId = userId;
+        this.seq = seq;
+    }
+
+    // Getters
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public ItemType getItemType() {
+        return itemType;
+    }
+
+    public Long getItemId() {
+        return itemId;
+    }
+
+    public Long getParentId() {
+        return parentId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+}
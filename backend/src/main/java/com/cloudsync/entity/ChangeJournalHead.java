@@ -0,0 +1,44 @@
+package com.cloudsync.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * Position of a user's change journal: the last sequence handed out and the sequence up to
+ * which entries have been compacted away. Advanced only by bulk increments, whose row lock
+ * orders concurrent writers of the same user.
+ */
+@Entity
+@Table(name = "change_journal_heads")
+public class ChangeJournalHead {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "last_seq", nullable = false)
+    private long lastSeq;
+
+    @Column(name = "compacted_seq", nullable = false)
+    private long compactedSeq;
+
+    // Constructors
+    public ChangeJournalHead() {}
+
+    public ChangeJournalHead(Long userId) {
+        this.userId = userId;
+    }
+
+    // Getters
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getLastSeq() {
+        return lastSeq;
+    }
+
+    public long getCompactedSeq() {
+        return compactedSeq;
+    }
+}
@@ -0,0 +1,57 @@
+package com.cloudsync.entity;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Coarse grouping of MIME types used for the storage breakdown.
+ */
+public enum ContentFamily {
+    IMAGE,
+    VIDEO,
+    AUDIO,
+    DOCUMENT,
+    ARCHIVE,
+    OTHER;
+
+    private static final Set<String> DOCUMENT_TYPES = Set.of(
+            "application/pdf", "application/msword", "application/rtf", "application/json",
+            "application/xml", "application/vnd.ms-excel", "application/vnd.ms-powerpoint");
+
+    private static final Set<String> ARCHIVE_TYPES = Set.of(
+            "application/zip", "application/gzip", "application/x-gzip", "application/x-tar",
+            "application/x-7z-compressed", "application/x-rar-compressed", "application/vnd.rar",
+            "application/x-bzip2", "application/x-xz");
+
+    /**
+     * Maps a content type such as {@code image/png} to its family; unknown or missing types are OTHER.
+     */
+    public static ContentFamily of(String contentType) {
+        if (contentType == null) {
+            return OTHER;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        int parameters = type.indexOf(';');
+        if (parameters >= 0) {
+            type = type.substring(0, parameters).trim();
+        }
+        if (type.startsWith("image/")) {
+            return IMAGE;
+        }
+        if (type.startsWith("video/")) {
+            return VIDEO;
+        }
+        if (type.startsWith("audio/")) {
+            return AUDIO;
+        }
+        if (type.startsWith("text/") || DOCUMENT_TYPES.contains(type)
+                || type.startsWith("application/vnd.openxmlformats-officedocument.")
+                || type.startsWith("application/vnd.oasis.opendocument.")) {
+            return DOCUMENT;
+        }
+        if (ARCHIVE_TYPES.contains(type)) {
+            return ARCHIVE;
+        }
+        return OTHER;
+    }
+}
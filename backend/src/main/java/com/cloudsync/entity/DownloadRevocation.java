@@ -0,0 +1,59 @@
+package com.cloudsync.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Signed download URLs of a file below {@code minGeneration} are rejected from {@code revokedAt} on.
+ * Only needed until every URL it could reject has expired.
+ */
+@Entity
+@Table(name = "download_revocations")
+public class DownloadRevocation {
+
+    /**
+     * Revokes every URL of a file, for deleted files.
+     */
+    public static final int ALL_GENERATIONS = Integer.MAX_VALUE;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "download_revocations_ids")
+    @SequenceGenerator(name = "download_revocations_ids", sequenceName = "download_revocations_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "file_id", nullable = false)
+    private Long fileId;
+
+    @Column(name = "min_generation", nullable = false)
+    private int minGeneration;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    // Constructors
+    public DownloadRevocation() {}
+
+    public DownloadRevocation(Long fileId, int minGeneration) {
+        this.fileId = fileId;
+        this.minGeneration = minGeneration;
+        this.revokedAt = LocalDateTime.now();
+    }
+
+    // Getters
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getFileId() {
+        return fileId;
+    }
+
+    public int getMinGeneration() {
+        return minGeneration;
+    }
+
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+}
@@ -5,12 +5,17 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+// Indexes are defined by the schema migrations in db/migration
 @Entity
 @Table(name = "folders")
 public class Folder {
 
+    // SHA-256 of no input: the digest of a folder without children
+    public static final String EMPTY_DIGEST = "e3b0c44298fc1c149afbf4c8996fb92427ae41e4649b934ca495991b7852b855";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "folders_ids")
+    @SequenceGenerator(name = "folders_ids", sequenceName = "folders_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -30,6 +35,42 @@ public class Folder {
     @JoinColumn(name = "owner_id", nullable = false)
     private User owner;
 
+    // Materialized hierarchy, kept in sync by FolderService on create/rename/move
+    @Column(name = "path", length = 4096)
+    private String path;
+
+    // Ids of all ancestors from the root, e.g. "/3/17/"; "/" for root folders
+    @Column(name = "lineage", length = 1024)
+    private String lineage;
+
+    @Column(name = "depth", nullable = false)
+    private int depth;
+
+    // Direct-children counters, written only by FolderRepository's atomic increments
+    @Column(name = "file_count", nullable = false, updatable = false)
+    private long fileCount = 0;
+
+    @Column(name = "subfolder_count", nullable = false, updatable = false)
+    private long subfolderCount = 0;
+
+    @Column(name = "total_bytes", nullable = false, updatable = false)
+    private long totalBytes = 0;
+
+    // Whole-subtree rollups, folded in from folder_rollup_deltas by FolderRollupService
+    @Column(name = "subtree_file_count", nullable = false, updatable = false)
+    private long subtreeFileCount = 0;
+
+    @Column(name = "subtree_bytes", nullable = false, updatable = false)
+    private long subtreeBytes = 0;
+
+    // Merkle digest over the direct children, recomputed in batches by FolderDigestService
+    @Column(name = "digest", length = 64, updatable = false)
+    private String digest = EMPTY_DIGEST;
+
+    // Bumped with every change shown in this folder's listing; validates cached listings
+    @Column(name = "listing_version", nullable = false, updatable = false)
+    private long listingVersion = 0;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -38,6 +79,7 @@ public class Folder {
 
     @PrePersist
     protected void onCreate() {
+        refreshHierarchy();
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
     }
@@ -126,10 +168,93 @@ public class Folder {
         this.updatedAt = updatedAt;
     }
 
+    public long getFileCount() {
+        return fileCount;
+    }
+
+    public long getSubfolderCount() {
+        return subfolderCount;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getSubtreeFileCount() {
+        return subtreeFileCount;
+    }
+
+    public long getSubtreeBytes() {
+        return subtreeBytes;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    public long getListingVersion() {
+        return listingVersion;
+    }
+
     public String getPath() {
+        return path;
+    }
+
+    public String getLineage() {
+        return lineage;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Recomputes path, lineage and depth from the parent's materialized values.
+     * Only this row is touched; descendants are rewritten in bulk by the repository.
+     */
+    public void refreshHierarchy() {
         if (parent == null) {
-            return "/" + name;
+            lineage = "/";
+            depth = 0;
+            path = "/" + name;
+        } else {
+            lineage = parent.getDescendantLineage();
+            depth = parent.getDepth() + 1;
+            path = parent.getPath() + "/" + name;
+        }
+    }
+
+    /**
+     * Lineage prefix shared by every descendant of this folder.
+     */
+    public String getDescendantLineage() {
+        return lineage + id + "/";
+    }
+
+    /**
+     * Returns true if this folder is the given folder or one of its ancestors.
+     */
+    public boolean isSameOrAncestorOf(Folder other) {
+        return id.equals(other.getId()) || other.getLineage().startsWith(getDescendantLineage());
+    }
+
+    /**
+     * Returns ancestor ids ordered from the root down to the direct parent.
+     */
+    public List<Long> getAncestorIds() {
+        return parseLineage(lineage);
+    }
+
+    /**
+     * Splits a lineage such as {@code "/3/17/"} into folder ids, outermost first.
+     */
+    public static List<Long> parseLineage(String lineage) {
+        List<Long> ids = new ArrayList<>();
+        for (String segment : lineage.split("/")) {
+            if (!segment.isEmpty()) {
+                ids.add(Long.valueOf(segment));
+            }
         }
-        return parent.getPath() + "/" + name;
+        return ids;
     }
 }
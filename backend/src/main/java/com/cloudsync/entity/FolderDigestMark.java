@@ -0,0 +1,46 @@
+package com.cloudsync.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * A folder whose direct children changed, so its digest and those of its ancestors are out of date.
+ * Writers only append these rows; FolderDigestService recomputes the digests in batches.
+ */
+@Entity
+@Table(name = "folder_digest_marks")
+public class FolderDigestMark {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "folder_digest_marks_ids")
+    @SequenceGenerator(name = "folder_digest_marks_ids", sequenceName = "folder_digest_marks_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
+    private Long id;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    // Null for the root directory, whose digest is computed on request
+    @Column(name = "folder_id")
+    private Long folderId;
+
+    // Constructors
+    public FolderDigestMark() {}
+
+    public FolderDigestMark(Long ownerId, Long folderId) {
+        this.ownerId = ownerId;
+        this.folderId = folderId;
+    }
+
+    // Getters
+
+    public Long getId() {
+        return id;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public Long getFolderId() {
+        return folderId;
+    }
+}
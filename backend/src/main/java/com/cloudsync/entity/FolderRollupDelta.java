@@ -0,0 +1,55 @@
+package com.cloudsync.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * A pending change to the subtree rollups of every folder on a lineage.
+ * Writers only append these rows, so concurrent uploads never contend on the rows of
+ * shared ancestors; FolderRollupService folds them into the folders in batches.
+ */
+@Entity
+@Table(name = "folder_rollup_deltas")
+public class FolderRollupDelta {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "folder_rollup_deltas_ids")
+    @SequenceGenerator(name = "folder_rollup_deltas_ids", sequenceName = "folder_rollup_deltas_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
+    private Long id;
+
+    // Folder ids to adjust, in lineage form, e.g. "/3/17/42/"
+    @Column(name = "lineage", nullable = false, length = 1024)
+    private String lineage;
+
+    @Column(name = "files", nullable = false)
+    private long files;
+
+    @Column(name = "bytes", nullable = false)
+    private long bytes;
+
+    // Constructors
+    public FolderRollupDelta() {}
+
+    public FolderRollupDelta(String lineage, long files, long bytes) {
+        this.lineage = lineage;
+        this.files = files;
+        this.bytes = bytes;
+    }
+
+    // Getters
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getLineage() {
+        return lineage;
+    }
+
+    public long getFiles() {
+        return files;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+}
@@ -0,0 +1,25 @@
+package com.cloudsync.entity;
+
+import java.util.Map;
+
+/**
+ * Sequences behind the generated entity ids. Ids are handed out by Hibernate's pooled optimizer,
+ * one sequence call per {@link #ALLOCATION_SIZE} rows, so inserts can be sent as JDBC batches.
+ */
+public final class IdSequences {
+
+    public static final int ALLOCATION_SIZE = 50;
+
+    // Table -> sequence for tables that used to take ids from identity columns; the V1_2 and V13
+    // migrations move each sequence past the ids those handed out
+    public static final Map<String, String> BY_TABLE = Map.of(
+            "users", "users_seq",
+            "folders", "folders_seq",
+            "stored_files", "stored_files_seq",
+            "folder_rollup_deltas", "folder_rollup_deltas_seq",
+            "blob_purge_queue", "blob_purge_queue_seq",
+            "download_revocations", "download_revocations_seq"
+    );
+
+    private IdSequences() {}
+}
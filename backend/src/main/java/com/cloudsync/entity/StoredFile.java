@@ -4,12 +4,14 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 import java.util.UUID;
 
+// Indexes are defined by the schema migrations in db/migration
 @Entity
 @Table(name = "stored_files")
 public class StoredFile {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stored_files_ids")
+    @SequenceGenerator(name = "stored_files_ids", sequenceName = "stored_files_seq", allocationSize = IdSequences.ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -47,6 +49,10 @@ public class StoredFile {
     @Column(name = "download_count")
     private long downloadCount = 0;
 
+    // Signed download URLs below this generation are revoked; 0 until the first URL is signed
+    @Column(name = "download_generation", nullable = false)
+    private int downloadGeneration = 0;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -55,6 +61,9 @@ public class StoredFile {
 
     @PrePersist
     protected void onCreate() {
+        if (contentType == null) {
+            contentType = "application/octet-stream";
+        }
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
     }
@@ -174,6 +183,14 @@ public class StoredFile {
         this.downloadCount = downloadCount;
     }
 
+    public int getDownloadGeneration() {
+        return downloadGeneration;
+    }
+
+    public void setDownloadGeneration(int downloadGeneration) {
+        this.downloadGeneration = downloadGeneration;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -196,9 +213,27 @@ public class StoredFile {
 
     public String generateShareToken() {
         this.shareToken = UUID.randomUUID().toString();
+        markDownloadsSigned();
         return this.shareToken;
     }
 
+    /**
+     * Marks the file as having signed download URLs, so that deleting it revokes them.
+     */
+    public int markDownloadsSigned() {
+        if (downloadGeneration == 0) {
+            downloadGeneration = 1;
+        }
+        return downloadGeneration;
+    }
+
+    /**
+     * Moves to the next generation; URLs signed for earlier ones are rejected.
+     */
+    public int revokeDownloads() {
+        return ++downloadGeneration;
+    }
+
     public String getPath() {
         if (folder == null) {
             return "/" + originalName;
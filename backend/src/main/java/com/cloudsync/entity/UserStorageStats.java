@@ -0,0 +1,144 @@
+package com.cloudsync.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Per-user storage totals, kept current by bulk increments in the transaction of every
+ * upload, delete and folder change, and periodically checked against the files table.
+ * Only the reconciler writes this entity directly, under a row lock.
+ */
+@Entity
+@Table(name = "user_storage_stats")
+public class UserStorageStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "file_count", nullable = false)
+    private long fileCount;
+
+    @Column(name = "total_bytes", nullable = false)
+    private long totalBytes;
+
+    @Column(name = "folder_count", nullable = false)
+    private long folderCount;
+
+    @Column(name = "image_files", nullable = false)
+    private long imageFiles;
+
+    @Column(name = "image_bytes", nullable = false)
+    private long imageBytes;
+
+    @Column(name = "video_files", nullable = false)
+    private long videoFiles;
+
+    @Column(name = "video_bytes", nullable = false)
+    private long videoBytes;
+
+    @Column(name = "audio_files", nullable = false)
+    private long audioFiles;
+
+    @Column(name = "audio_bytes", nullable = false)
+    private long audioBytes;
+
+    @Column(name = "document_files", nullable = false)
+    private long documentFiles;
+
+    @Column(name = "document_bytes", nullable = false)
+    private long documentBytes;
+
+    @Column(name = "archive_files", nullable = false)
+    private long archiveFiles;
+
+    @Column(name = "archive_bytes", nullable = false)
+    private long archiveBytes;
+
+    @Column(name = "other_files", nullable = false)
+    private long otherFiles;
+
+    @Column(name = "other_bytes", nullable = false)
+    private long otherBytes;
+
+    @Column(name = "reconciled_at")
+    private LocalDateTime reconciledAt;
+
+    // Constructors
+    public UserStorageStats() {}
+
+    public UserStorageStats(Long userId) {
+        this.userId = userId;
+    }
+
+    // Getters
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getFileCount() {
+        return fileCount;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public long getFolderCount() {
+        return folderCount;
+    }
+
+    public LocalDateTime getReconciledAt() {
+        return reconciledAt;
+    }
+
+    public long getFiles(ContentFamily family) {
+        return switch (family) {
+            case IMAGE -> imageFiles;
+            case VIDEO -> videoFiles;
+            case AUDIO -> audioFiles;
+            case DOCUMENT -> documentFiles;
+            case ARCHIVE -> archiveFiles;
+            case OTHER -> otherFiles;
+        };
+    }
+
+    public long getBytes(ContentFamily family) {
+        return switch (family) {
+            case IMAGE -> imageBytes;
+            case VIDEO -> videoBytes;
+            case AUDIO -> audioBytes;
+            case DOCUMENT -> documentBytes;
+            case ARCHIVE -> archiveBytes;
+            case OTHER -> otherBytes;
+        };
+    }
+
+    // Reconciliation
+
+    public void setUsage(ContentFamily family, long files, long bytes) {
+        switch (family) {
+            case IMAGE -> { imageFiles = files; imageBytes = bytes; }
+            case VIDEO -> { videoFiles = files; videoBytes = bytes; }
+            case AUDIO -> { audioFiles = files; audioBytes = bytes; }
+            case DOCUMENT -> { documentFiles = files; documentBytes = bytes; }
+            case ARCHIVE -> { archiveFiles = files; archiveBytes = bytes; }
+            case OTHER -> { otherFiles = files; otherBytes = bytes; }
+        }
+    }
+
+    /**
+     * Sets the folder count and recomputes the totals from the per-family values.
+     */
+    public void markReconciled(long folderCount) {
+        this.folderCount = folderCount;
+        this.fileCount = 0;
+        this.totalBytes = 0;
+        for (ContentFamily family : ContentFamily.values()) {
+            fileCount += getFiles(family);
+            totalBytes += getBytes(family);
+        }
+        this.reconciledAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,8 @@
+package com.cloudsync.event;
+
+/**
+ * Published inside a transaction that appends to a user's change journal, so that the user's
+ * connected clients can be notified after commit.
+ */
+public record ChangesRecordedEvent(Long userId, long lastSeq) {
+}
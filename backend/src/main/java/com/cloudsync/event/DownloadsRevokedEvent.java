@@ -0,0 +1,14 @@
+package com.cloudsync.event;
+
+import java.util.List;
+
+/**
+ * Published inside the transaction that revokes signed download URLs of files, by revoking
+ * them explicitly, unsharing or deleting the files.
+ */
+public record DownloadsRevokedEvent(List<Long> fileIds) {
+
+    public DownloadsRevokedEvent {
+        fileIds = List.copyOf(fileIds);
+    }
+}
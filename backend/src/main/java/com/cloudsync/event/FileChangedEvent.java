@@ -0,0 +1,28 @@
+package com.cloudsync.event;
+
+import com.cloudsync.entity.StoredFile;
+
+/**
+ * Published inside the transaction that creates, renames or deletes a file.
+ * Listeners that maintain derived state should react after commit.
+ */
+public record FileChangedEvent(Type type, Long ownerId, Long fileId, String name) {
+
+    public enum Type {
+        CREATED,
+        RENAMED,
+        DELETED
+    }
+
+    public static FileChangedEvent created(StoredFile file) {
+        return new FileChangedEvent(Type.CREATED, file.getOwner().getId(), file.getId(), file.getOriginalName());
+    }
+
+    public static FileChangedEvent renamed(StoredFile file) {
+        return new FileChangedEvent(Type.RENAMED, file.getOwner().getId(), file.getId(), file.getOriginalName());
+    }
+
+    public static FileChangedEvent deleted(StoredFile file) {
+        return new FileChangedEvent(Type.DELETED, file.getOwner().getId(), file.getId(), file.getOriginalName());
+    }
+}
@@ -0,0 +1,13 @@
+package com.cloudsync.event;
+
+import java.util.List;
+
+/**
+ * Published when a batch of files disappears at once, e.g. with a deleted folder subtree.
+ */
+public record FilesDeletedEvent(Long ownerId, List<Long> fileIds) {
+
+    public FilesDeletedEvent {
+        fileIds = List.copyOf(fileIds);
+    }
+}
@@ -0,0 +1,23 @@
+package com.cloudsync.event;
+
+import java.util.List;
+
+/**
+ * Published inside the transaction that shares or unshares files: new share tokens, and the
+ * files whose links stopped working.
+ */
+public record SharesChangedEvent(List<String> sharedTokens, List<Long> revokedFileIds) {
+
+    public SharesChangedEvent {
+        sharedTokens = List.copyOf(sharedTokens);
+        revokedFileIds = List.copyOf(revokedFileIds);
+    }
+
+    public static SharesChangedEvent shared(List<String> tokens) {
+        return new SharesChangedEvent(tokens, List.of());
+    }
+
+    public static SharesChangedEvent revoked(List<Long> fileIds) {
+        return new SharesChangedEvent(List.of(), fileIds);
+    }
+}
@@ -0,0 +1,15 @@
+package com.cloudsync.event;
+
+import com.cloudsync.entity.User;
+
+/**
+ * Published inside a transaction that changes a user's account state or storage usage,
+ * so that cached principals can be dropped after commit. Carries only the id, which a lazy
+ * user reference has without loading the row.
+ */
+public record UserChangedEvent(Long userId) {
+
+    public static UserChangedEvent of(User user) {
+        return new UserChangedEvent(user.getId());
+    }
+}
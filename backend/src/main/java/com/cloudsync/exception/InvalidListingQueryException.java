@@ -0,0 +1,13 @@
+package com.cloudsync.exception;
+
+/**
+ * A listing parameter (sort field, direction or cursor) the server cannot honour. Not an
+ * {@link IllegalArgumentException}: listings are built inside repositories, whose exception
+ * translation would turn one into a data access error.
+ */
+public class InvalidListingQueryException extends RuntimeException {
+
+    public InvalidListingQueryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.cloudsync.exception;
+
+public class RequestTimeoutException extends RuntimeException {
+
+    public RequestTimeoutException(String message) {
+        super(message);
+    }
+
+    public RequestTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,202 @@
+package com.cloudsync.push;
+
+import com.cloudsync.config.PushConfig;
+import com.cloudsync.dto.ApiResponse;
+import com.cloudsync.dto.ChangeNotice;
+import com.cloudsync.event.ChangesRecordedEvent;
+import com.cloudsync.repository.ChangeJournalHeadRepository;
+import com.cloudsync.repository.JournalPosition;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Pushes change journal positions to the open event streams and long polls of each user.
+ * <p>
+ * Commits on this instance arrive as {@link ChangesRecordedEvent}s; commits on other instances
+ * are found by reading the journal heads of connected users every sweep interval. Either way the
+ * user is only marked as due, and due users are notified once per coalescing window, so a burst
+ * of changes costs each connection one event. Connections are servlet async requests and hold no
+ * thread while idle; sends run on virtual threads, so a slow client never delays the others.
+ */
+@Component
+public class ChangeNotifier {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeNotifier.class);
+
+    private static final int SWEEP_CHUNK = 1000;
+
+    private final ChangeJournalHeadRepository headRepository;
+    private final PushConfig config;
+    private final Map<Long, List<ChangeSubscription>> subscriptions = new ConcurrentHashMap<>();
+    private final Map<Long, Long> due = new ConcurrentHashMap<>();
+    private final ExecutorService sender = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ChangeNotifier(ChangeJournalHeadRepository headRepository, PushConfig config) {
+        this.headRepository = headRepository;
+        this.config = config;
+    }
+
+    /**
+     * Opens an event stream resuming after {@code lastSeq}; without one the stream starts at the
+     * current position. A client that is behind gets an event right away.
+     */
+    public SseEmitter openStream(Long userId, Long lastSeq) throws IOException {
+        long current = currentSeq(userId);
+        SseEmitter emitter = new SseEmitter(config.getStreamTimeout().toMillis());
+        // Sent before registering, so no notification can overtake it
+        emitter.send(SseEmitter.event()
+                .comment("connected")
+                .reconnectTime(config.getHeartbeatInterval().toMillis()));
+
+        StreamSubscription subscription = new StreamSubscription(emitter, lastSeq != null ? lastSeq : current);
+        Runnable drop = () -> {
+            subscription.markClosed();
+            unsubscribe(userId, subscription);
+        };
+        emitter.onCompletion(drop);
+        emitter.onTimeout(drop);
+        emitter.onError(error -> drop.run());
+        subscribe(userId, subscription, current);
+        return emitter;
+    }
+
+    /**
+     * Waits for the first change after {@code cursor}, answering right away if there already is one.
+     */
+    public DeferredResult<ResponseEntity<ApiResponse<ChangeNotice>>> poll(Long userId, long cursor) {
+        long current = currentSeq(userId);
+        DeferredResult<ResponseEntity<ApiResponse<ChangeNotice>>> result = new DeferredResult<>(
+                config.getPollTimeout().toMillis(),
+                () -> ResponseEntity.ok(ApiResponse.success("No changes", ChangeNotice.unchanged(cursor))));
+        if (current > cursor) {
+            result.setResult(ResponseEntity.ok(ApiResponse.success("Changes available", ChangeNotice.changed(current))));
+            return result;
+        }
+
+        PollSubscription subscription = new PollSubscription(result, cursor);
+        result.onCompletion(() -> unsubscribe(userId, subscription));
+        subscribe(userId, subscription, current);
+        return result;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onChangesRecorded(ChangesRecordedEvent event) {
+        if (subscriptions.containsKey(event.userId())) {
+            due.merge(event.userId(), event.lastSeq(), Math::max);
+        }
+    }
+
+    /**
+     * Notifies the connections of every user that became due during the last window.
+     */
+    @Scheduled(fixedDelayString = "${cloudsync.push.coalesce-window:PT0.2S}")
+    public void flush() {
+        for (Long userId : due.keySet()) {
+            Long seq = due.remove(userId);
+            List<ChangeSubscription> userSubscriptions = subscriptions.get(userId);
+            if (seq == null || userSubscriptions == null) {
+                continue;
+            }
+            for (ChangeSubscription subscription : userSubscriptions) {
+                if (subscription.lastSeq() < seq) {
+                    dispatch(userId, subscription, () -> subscription.deliver(seq));
+                }
+            }
+        }
+    }
+
+    /**
+     * Marks connected users whose journal moved on without an event here, i.e. on another instance.
+     */
+    @Scheduled(fixedDelayString = "${cloudsync.push.sweep-interval:PT1S}")
+    public void sweep() {
+        List<Long> userIds = new ArrayList<>(subscriptions.keySet());
+        for (int from = 0; from < userIds.size(); from += SWEEP_CHUNK) {
+            List<Long> chunk = userIds.subList(from, Math.min(from + SWEEP_CHUNK, userIds.size()));
+            for (JournalPosition position : headRepository.findCurrentPositions(chunk)) {
+                List<ChangeSubscription> userSubscriptions = subscriptions.get(position.userId());
+                if (userSubscriptions != null && userSubscriptions.stream()
+                        .anyMatch(subscription -> subscription.lastSeq() < position.lastSeq())) {
+                    due.merge(position.userId(), position.lastSeq(), Math::max);
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cloudsync.push.heartbeat-interval:PT25S}")
+    public void heartbeat() {
+        subscriptions.forEach((userId, userSubscriptions) -> userSubscriptions.forEach(subscription ->
+                dispatch(userId, subscription, subscription::heartbeat)));
+    }
+
+    public int getConnectionCount() {
+        return subscriptions.values().stream().mapToInt(List::size).sum();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscriptions.values().forEach(userSubscriptions -> userSubscriptions.forEach(ChangeSubscription::close));
+        subscriptions.clear();
+        sender.shutdown();
+    }
+
+    // --- Private helper methods ---
+
+    private long currentSeq(Long userId) {
+        return headRepository.findCurrentPositions(List.of(userId)).stream()
+                .mapToLong(JournalPosition::lastSeq)
+                .findFirst()
+                .orElse(0);
+    }
+
+    /**
+     * Registers a connection, closing the user's oldest ones beyond the per-user limit.
+     */
+    private void subscribe(Long userId, ChangeSubscription subscription, long currentSeq) {
+        List<ChangeSubscription> userSubscriptions = subscriptions.compute(userId, (id, existing) -> {
+            List<ChangeSubscription> list = existing != null ? existing : new CopyOnWriteArrayList<>();
+            list.add(subscription);
+            return list;
+        });
+        while (userSubscriptions.size() > config.getMaxConnectionsPerUser()) {
+            ChangeSubscription oldest = userSubscriptions.remove(0);
+            oldest.close();
+        }
+        if (subscription.lastSeq() < currentSeq) {
+            due.merge(userId, currentSeq, Math::max);
+        }
+        log.debug("Change subscription opened: userId={}, connections={}", userId, userSubscriptions.size());
+    }
+
+    private void unsubscribe(Long userId, ChangeSubscription subscription) {
+        subscriptions.computeIfPresent(userId, (id, list) -> {
+            list.remove(subscription);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private void dispatch(Long userId, ChangeSubscription subscription, BooleanSupplier send) {
+        sender.execute(() -> {
+            if (!send.getAsBoolean()) {
+                unsubscribe(userId, subscription);
+            }
+        });
+    }
+}
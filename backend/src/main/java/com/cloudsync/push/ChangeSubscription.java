@@ -0,0 +1,25 @@
+package com.cloudsync.push;
+
+/**
+ * An open connection of one client waiting for the user's changes.
+ */
+public interface ChangeSubscription {
+
+    /**
+     * Journal position the client already knows about.
+     */
+    long lastSeq();
+
+    /**
+     * Tells the client the journal has advanced to {@code seq}. Returns false once the
+     * connection has ended and the subscription should be dropped.
+     */
+    boolean deliver(long seq);
+
+    /**
+     * Keeps an idle connection open through proxies. Returns false once the connection has ended.
+     */
+    boolean heartbeat();
+
+    void close();
+}
@@ -0,0 +1,43 @@
+package com.cloudsync.push;
+
+import com.cloudsync.dto.ApiResponse;
+import com.cloudsync.dto.ChangeNotice;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
+
+/**
+ * A long poll: answered by the first change after the client's cursor, or empty on timeout.
+ */
+class PollSubscription implements ChangeSubscription {
+
+    private final DeferredResult<ResponseEntity<ApiResponse<ChangeNotice>>> result;
+    private final long cursor;
+
+    PollSubscription(DeferredResult<ResponseEntity<ApiResponse<ChangeNotice>>> result, long cursor) {
+        this.result = result;
+        this.cursor = cursor;
+    }
+
+    @Override
+    public long lastSeq() {
+        return cursor;
+    }
+
+    @Override
+    public boolean deliver(long seq) {
+        if (seq > cursor) {
+            result.setResult(ResponseEntity.ok(ApiResponse.success("Changes available", ChangeNotice.changed(seq))));
+        }
+        return !result.isSetOrExpired();
+    }
+
+    @Override
+    public boolean heartbeat() {
+        return !result.isSetOrExpired();
+    }
+
+    @Override
+    public void close() {
+        result.setResult(ResponseEntity.ok(ApiResponse.success("No changes", ChangeNotice.unchanged(cursor))));
+    }
+}
@@ -0,0 +1,77 @@
+package com.cloudsync.push;
+
+import com.cloudsync.dto.ChangeNotice;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+
+/**
+ * A server-sent event stream. Each event carries the journal position as its id, so a
+ * reconnecting client resumes by sending it back as {@code Last-Event-ID}.
+ */
+class StreamSubscription implements ChangeSubscription {
+
+    static final String EVENT_NAME = "changes";
+
+    private final SseEmitter emitter;
+    private long lastSeq;
+    private boolean closed;
+
+    StreamSubscription(SseEmitter emitter, long lastSeq) {
+        this.emitter = emitter;
+        this.lastSeq = lastSeq;
+    }
+
+    @Override
+    public synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    @Override
+    public synchronized boolean deliver(long seq) {
+        if (closed) {
+            return false;
+        }
+        if (seq <= lastSeq) {
+            return true;
+        }
+        boolean sent = send(SseEmitter.event()
+                .id(Long.toString(seq))
+                .name(EVENT_NAME)
+                .data(ChangeNotice.changed(seq)));
+        if (sent) {
+            lastSeq = seq;
+        }
+        return sent;
+    }
+
+    @Override
+    public synchronized boolean heartbeat() {
+        return !closed && send(SseEmitter.event().comment("heartbeat"));
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            emitter.complete();
+        }
+    }
+
+    synchronized void markClosed() {
+        closed = true;
+    }
+
+    // --- Private helper methods ---
+
+    private boolean send(SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the container reports the completion separately
+            closed = true;
+            return false;
+        }
+    }
+}
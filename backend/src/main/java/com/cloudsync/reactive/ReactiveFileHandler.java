@@ -0,0 +1,210 @@
+package com.cloudsync.reactive;
+
+import com.cloudsync.dto.ApiResponse;
+import com.cloudsync.dto.FileDto;
+import com.cloudsync.entity.StoredFile;
+import com.cloudsync.entity.User;
+import com.cloudsync.exception.FileNotFoundException;
+import com.cloudsync.exception.FileStorageException;
+import com.cloudsync.exception.FolderNotFoundException;
+import com.cloudsync.exception.StorageQuotaExceededException;
+import com.cloudsync.security.CustomUserDetailsService;
+import com.cloudsync.service.FileService;
+import com.cloudsync.service.StorageService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-blocking upload and download handlers for the reactive file server.
+ * File content never touches a request thread: uploads are written through
+ * {@link DataBufferUtils#write} (asynchronous file channel, one buffer in flight)
+ * and downloads are served as file resources, which Reactor Netty sends with
+ * zero-copy file regions. Metadata still lives in JPA, so every repository call
+ * goes through a bounded blocking scheduler.
+ */
+public class ReactiveFileHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveFileHandler.class);
+
+    static final String USERNAME_ATTRIBUTE = "cloudsync.username";
+
+    private final FileService fileService;
+    private final StorageService storageService;
+    private final CustomUserDetailsService userDetailsService;
+    private final Scheduler blockingScheduler;
+
+    public ReactiveFileHandler(FileService fileService, StorageService storageService,
+                               CustomUserDetailsService userDetailsService, Scheduler blockingScheduler) {
+        this.fileService = fileService;
+        this.storageService = storageService;
+        this.userDetailsService = userDetailsService;
+        this.blockingScheduler = blockingScheduler;
+    }
+
+    /**
+     * Streams the raw request body to disk. The file name is taken from the
+     * {@code name} query parameter and the content type from the request header.
+     */
+    public Mono<ServerResponse> upload(ServerRequest request) {
+        String username = currentUsername(request);
+        String originalName = request.queryParam("name").filter(StringUtils::hasText).orElse(null);
+        if (originalName == null) {
+            return errorResponse(HttpStatus.BAD_REQUEST, "Query parameter 'name' is required");
+        }
+        String contentType = request.headers().contentType()
+                .map(MediaType::toString)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+
+        return Mono.fromCallable(() -> request.queryParam("folderId").map(id -> parseId("folder id", id)))
+                .flatMap(folderId -> blocking(() -> {
+                    User user = userDetailsService.getUserByUsername(username);
+                    return new UploadTarget(user, storageService.allocateStoragePath(user, originalName),
+                            storageService.getRemainingQuota(user), folderId.orElse(null));
+                }))
+                .flatMap(target -> writeBody(request, target)
+                        .flatMap(content -> blocking(() -> fileService.registerStreamedUpload(
+                                target.user(), target.folderId(), target.path(),
+                                originalName, contentType, content.size(), content.checksum())))
+                        .onErrorResume(ex -> deleteQuietly(target.path()).then(Mono.error(ex))))
+                .flatMap(file -> ServerResponse.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(ApiResponse.success("File uploaded successfully", file)))
+                .onErrorResume(this::mapError);
+    }
+
+    /**
+     * Serves a file owned by the current user. Range requests are honoured by the resource writer.
+     */
+    public Mono<ServerResponse> download(ServerRequest request) {
+        String username = currentUsername(request);
+
+        return Mono.fromCallable(() -> parseId("file id", request.pathVariable("fileId")))
+                .flatMap(fileId -> blocking(() -> {
+                    User user = userDetailsService.getUserByUsername(username);
+                    StoredFile file = fileService.getStoredFile(fileId, user);
+                    return new Download(file, fileService.downloadFile(fileId, user));
+                }))
+                .flatMap(download -> ServerResponse.ok()
+                        .contentType(MediaType.parseMediaType(download.file().getContentType() != null
+                                ? download.file().getContentType() : "application/octet-stream"))
+                        .header(HttpHeaders.CONTENT_DISPOSITION,
+                                "attachment; filename=\"" + download.file().getOriginalName() + "\"")
+                        .body(BodyInserters.fromResource(download.resource())))
+                .onErrorResume(this::mapError);
+    }
+
+    // --- Private helper methods ---
+
+    private Mono<StreamedContent> writeBody(ServerRequest request, UploadTarget target) {
+        MessageDigest digest = newSha256();
+        AtomicLong size = new AtomicLong();
+
+        Flux<DataBuffer> body = request.body(BodyExtractors.toDataBuffers())
+                .doOnNext(buffer -> {
+                    if (size.addAndGet(buffer.readableByteCount()) > target.remainingQuota()) {
+                        DataBufferUtils.release(buffer);
+                        throw new StorageQuotaExceededException("Storage quota exceeded");
+                    }
+                    try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                        iterator.forEachRemaining(digest::update);
+                    }
+                });
+
+        return DataBufferUtils.write(body, target.path(), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)
+                .then(Mono.fromCallable(() -> {
+                    if (size.get() == 0) {
+                        throw new FileStorageException("Cannot store empty file");
+                    }
+                    return new StreamedContent(size.get(), HexFormat.of().formatHex(digest.digest()));
+                }));
+    }
+
+    private <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(blockingScheduler);
+    }
+
+    private Mono<Void> deleteQuietly(Path path) {
+        return blocking(() -> {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Failed to remove partial upload: {}", path, e);
+            }
+            return path;
+        }).then();
+    }
+
+    private Mono<ServerResponse> mapError(Throwable ex) {
+        if (ex instanceof FileNotFoundException || ex instanceof FolderNotFoundException) {
+            return errorResponse(HttpStatus.NOT_FOUND, ex.getMessage());
+        }
+        if (ex instanceof StorageQuotaExceededException) {
+            return errorResponse(HttpStatus.PAYLOAD_TOO_LARGE, ex.getMessage());
+        }
+        if (ex instanceof IllegalArgumentException) {
+            return errorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+        }
+        log.error("Reactive file request failed", ex);
+        return errorResponse(HttpStatus.INTERNAL_SERVER_ERROR, "An unexpected error occurred: " + ex.getMessage());
+    }
+
+    private static Mono<ServerResponse> errorResponse(HttpStatus status, String message) {
+        return ServerResponse.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ApiResponse.error(message));
+    }
+
+    private static String currentUsername(ServerRequest request) {
+        return (String) request.attribute(USERNAME_ATTRIBUTE)
+                .orElseThrow(() -> new IllegalStateException("Request was not authenticated"));
+    }
+
+    /**
+     * Parses an id from the request; a malformed one is a client error, answered with 400 by {@link #mapError}.
+     */
+    private static Long parseId(String label, String value) {
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + label + ": " + value);
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record UploadTarget(User user, Path path, long remainingQuota, Long folderId) {}
+
+    private record StreamedContent(long size, String checksum) {}
+
+    private record Download(StoredFile file, Resource resource) {}
+}
@@ -0,0 +1,47 @@
+package com.cloudsync.reactive;
+
+import com.cloudsync.dto.ApiResponse;
+import com.cloudsync.security.JwtTokenProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.reactive.function.server.HandlerFilterFunction;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+/**
+ * Bearer token check for the reactive routes. Token verification is pure CPU work,
+ * so it runs inline on the event loop; the user row is loaded later by the handler.
+ */
+public class ReactiveJwtAuthenticationFilter implements HandlerFilterFunction<ServerResponse, ServerResponse> {
+
+    private final JwtTokenProvider jwtTokenProvider;
+
+    public ReactiveJwtAuthenticationFilter(JwtTokenProvider jwtTokenProvider) {
+        this.jwtTokenProvider = jwtTokenProvider;
+    }
+
+    @Override
+    public Mono<ServerResponse> filter(ServerRequest request, HandlerFunction<ServerResponse> next) {
+        String bearerToken = request.headers().firstHeader(HttpHeaders.AUTHORIZATION);
+        if (!StringUtils.hasText(bearerToken) || !bearerToken.startsWith("Bearer ")) {
+            return unauthorized();
+        }
+
+        return jwtTokenProvider.verify(bearerToken.substring(7))
+                .map(token -> {
+                    request.attributes().put(ReactiveFileHandler.USERNAME_ATTRIBUTE, token.username());
+                    return next.handle(request);
+                })
+                .orElseGet(ReactiveJwtAuthenticationFilter::unauthorized);
+    }
+
+    private static Mono<ServerResponse> unauthorized() {
+        return ServerResponse.status(HttpStatus.UNAUTHORIZED)
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(ApiResponse.error("Authentication required"));
+    }
+}
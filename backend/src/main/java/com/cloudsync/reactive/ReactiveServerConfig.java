@@ -0,0 +1,80 @@
+package com.cloudsync.reactive;
+
+import com.cloudsync.config.ReactiveConfig;
+import com.cloudsync.security.CustomUserDetailsService;
+import com.cloudsync.security.JwtTokenProvider;
+import com.cloudsync.service.FileService;
+import com.cloudsync.service.StorageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Opt-in reactive file server, enabled with the {@code reactive} profile.
+ * Runs on its own Reactor Netty port next to the servlet API, so both stacks
+ * can be load-tested against the same database and storage directory.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveServerConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveServerConfig.class);
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler reactiveBlockingScheduler(ReactiveConfig reactiveConfig) {
+        return Schedulers.newBoundedElastic(reactiveConfig.getBlockingPoolSize(),
+                reactiveConfig.getBlockingQueueCapacity(), "reactive-blocking");
+    }
+
+    @Bean
+    public ReactiveFileHandler reactiveFileHandler(FileService fileService, StorageService storageService,
+                                                   CustomUserDetailsService userDetailsService,
+                                                   Scheduler reactiveBlockingScheduler) {
+        return new ReactiveFileHandler(fileService, storageService, userDetailsService, reactiveBlockingScheduler);
+    }
+
+    @Bean
+    public RouterFunction<ServerResponse> reactiveFileRoutes(ReactiveFileHandler handler,
+                                                             JwtTokenProvider jwtTokenProvider) {
+        return RouterFunctions.route()
+                .POST("/reactive/files/upload", handler::upload)
+                .GET("/reactive/files/{fileId}/download", handler::download)
+                .filter(new ReactiveJwtAuthenticationFilter(jwtTokenProvider))
+                .build();
+    }
+
+    @Bean(destroyMethod = "disposeNow")
+    public DisposableServer reactiveFileServer(RouterFunction<ServerResponse> reactiveFileRoutes,
+                                               ObjectMapper objectMapper, ReactiveConfig reactiveConfig) {
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(configurer -> {
+                    configurer.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    configurer.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        HttpHandler httpHandler = RouterFunctions.toHttpHandler(reactiveFileRoutes, strategies);
+
+        DisposableServer server = HttpServer.create()
+                .port(reactiveConfig.getPort())
+                .handle(new ReactorHttpHandlerAdapter(httpHandler))
+                .bindNow();
+
+        log.info("Reactive file server listening on port {}", server.port());
+        return server;
+    }
+}
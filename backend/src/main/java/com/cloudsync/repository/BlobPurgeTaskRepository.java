@@ -0,0 +1,37 @@
+package com.cloudsync.repository;
+
+import com.cloudsync.entity.BlobPurgeTask;
+import com.cloudsync.entity.User;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BlobPurgeTaskRepository extends JpaRepository<BlobPurgeTask, Long> {
+
+    @Query("SELECT t FROM BlobPurgeTask t ORDER BY t.id")
+    List<BlobPurgeTask> findOldest(Pageable pageable);
+
+    /**
+     * Queues the blobs of every file in a folder subtree. The tasks take sequence ids, so they are
+     * inserted in batches with the flush.
+     */
+    default void enqueueSubtree(User owner, Long folderId, String lineagePrefix) {
+        saveAll(findSubtreeTasks(owner, folderId, lineagePrefix));
+    }
+
+    @Query("SELECT new com.cloudsync.entity.BlobPurgeTask(f.storagePath) FROM StoredFile f WHERE f.owner = :owner " +
+           "AND (f.folder.id = :folderId OR f.folder.lineage LIKE CONCAT(:lineagePrefix, '%'))")
+    List<BlobPurgeTask> findSubtreeTasks(@Param("owner") User owner, @Param("folderId") Long folderId,
+                                         @Param("lineagePrefix") String lineagePrefix);
+
+    @Modifying
+    @Query("UPDATE BlobPurgeTask t SET t.attempts = t.attempts + 1 WHERE t.id IN :ids")
+    int incrementAttempts(@Param("ids") Collection<Long> ids);
+}
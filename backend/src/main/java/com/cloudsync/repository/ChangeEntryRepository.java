@@ -0,0 +1,30 @@
+package com.cloudsync.repository;
+
+import com.cloudsync.entity.ChangeEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ChangeEntryRepository extends JpaRepository<ChangeEntry, Long> {
+
+    @Query("SELECT e FROM ChangeEntry e WHERE e.userId = :userId AND e.seq > :after ORDER BY e.seq")
+    List<ChangeEntry> findAfter(@Param("userId") Long userId, @Param("after") long after, Pageable pageable);
+
+    /**
+     * Per user, the last sequence recorded before the cutoff, i.e. how far the journal can be compacted.
+     */
+    @Query("SELECT new com.cloudsync.repository.JournalCompaction(e.userId, MAX(e.seq)) FROM ChangeEntry e " +
+           "WHERE e.changedAt < :cutoff GROUP BY e.userId ORDER BY e.userId")
+    List<JournalCompaction> findCompactable(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM ChangeEntry e WHERE e.userId = :userId AND e.seq <= :seq")
+    int deleteUpTo(@Param("userId") Long userId, @Param("seq") long seq);
+}
@@ -0,0 +1,49 @@
+package com.cloudsync.repository;
+
+import com.cloudsync.entity.ChangeJournalHead;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ChangeJournalHeadRepository extends JpaRepository<ChangeJournalHead, Long> {
+
+    /**
+     * Reserves the next {@code count} sequence numbers. The row stays locked until commit.
+     */
+    @Modifying
+    @Query("UPDATE ChangeJournalHead h SET h.lastSeq = h.lastSeq + :count WHERE h.userId = :userId")
+    int advance(@Param("userId") Long userId, @Param("count") long count);
+
+    @Query("SELECT h.lastSeq FROM ChangeJournalHead h WHERE h.userId = :userId")
+    Optional<Long> findLastSeq(@Param("userId") Long userId);
+
+    /**
+     * Reads the head as a projection, so a head changed by {@link #advance} is never served from
+     * the persistence context.
+     */
+    @Query("SELECT new com.cloudsync.repository.JournalPosition(h.userId, h.lastSeq, h.compactedSeq) " +
+           "FROM ChangeJournalHead h WHERE h.userId = :userId")
+    Optional<JournalPosition> findPosition(@Param("userId") Long userId);
+
+    /**
+     * Positions of several journals. Read-write, so it is answered by the primary rather than a
+     * lagging replica.
+     */
+    @Transactional
+    @Query("SELECT new com.cloudsync.repository.JournalPosition(h.userId, h.lastSeq, h.compactedSeq) " +
+           "FROM ChangeJournalHead h WHERE h.userId IN :userIds")
+    List<JournalPosition> findCurrentPositions(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying
+    @Query("UPDATE ChangeJournalHead h SET h.compactedSeq = :seq " +
+           "WHERE h.userId = :userId AND h.compactedSeq < :seq")
+    int markCompacted(@Param("userId") Long userId, @Param("seq") long seq);
+}
@@ -0,0 +1,7 @@
+package com.cloudsync.repository;
+
+/**
+ * Number and total size of files sharing a content type.
+ */
+public record ContentTypeUsage(String contentType, Long files, Long bytes) {
+}
@@ -0,0 +1,7 @@
+package com.cloudsync.repository;
+
+/**
+ * A direct child as it enters its folder's digest: the name and the file checksum or subfolder digest.
+ */
+public record DigestEntry(Long id, String name, String hash) {
+}
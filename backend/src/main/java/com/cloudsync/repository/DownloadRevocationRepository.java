@@ -0,0 +1,49 @@
+package com.cloudsync.repository;
+
+import com.cloudsync.entity.DownloadRevocation;
+import com.cloudsync.entity.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface DownloadRevocationRepository extends JpaRepository<DownloadRevocation, Long> {
+
+    @Query("SELECT r FROM DownloadRevocation r WHERE r.revokedAt >= :since")
+    List<DownloadRevocation> findRevokedSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Revokes the current generation of files, after it has been bumped in the same transaction.
+     * Revocations take sequence ids, so they are inserted in batches with the flush.
+     */
+    default void revokeCurrentGeneration(User owner, Collection<Long> ids) {
+        saveAll(findCurrentGenerations(owner, ids));
+    }
+
+    /**
+     * Revokes every URL of the files in a folder subtree about to be deleted; files never signed are skipped.
+     */
+    default void revokeSubtree(User owner, Long folderId, String lineagePrefix) {
+        saveAll(findSubtreeRevocations(owner, folderId, lineagePrefix));
+    }
+
+    @Query("SELECT new com.cloudsync.entity.DownloadRevocation(f.id, f.downloadGeneration) FROM StoredFile f " +
+           "WHERE f.owner = :owner AND f.id IN :ids")
+    List<DownloadRevocation> findCurrentGenerations(@Param("owner") User owner, @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT new com.cloudsync.entity.DownloadRevocation(f.id, " + DownloadRevocation.ALL_GENERATIONS + ") " +
+           "FROM StoredFile f WHERE f.owner = :owner AND f.downloadGeneration > 0 " +
+           "AND (f.folder.id = :folderId OR f.folder.lineage LIKE CONCAT(:lineagePrefix, '%'))")
+    List<DownloadRevocation> findSubtreeRevocations(@Param("owner") User owner, @Param("folderId") Long folderId,
+                                                    @Param("lineagePrefix") String lineagePrefix);
+
+    @Modifying
+    @Query("DELETE FROM DownloadRevocation r WHERE r.revokedAt < :cutoff")
+    int deleteRevokedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,20 @@
+package com.cloudsync.repository;
+
+/**
+ * Restricts a file listing to the root directory or a folder.
+ * All fields unset means every file of the owner.
+ */
+public record FileListingScope(boolean rootOnly, Long folderId) {
+
+    public static FileListingScope all() {
+        return new FileListingScope(false, null);
+    }
+
+    public static FileListingScope root() {
+        return new FileListingScope(true, null);
+    }
+
+    public static FileListingScope folder(Long folderId) {
+        return new FileListingScope(false, folderId);
+    }
+}
@@ -3,26 +3,66 @@ package com.cloudsync.repository;
 import com.cloudsync.entity.Folder;
 import com.cloudsync.entity.StoredFile;
 import com.cloudsync.entity.User;
+import com.cloudsync.search.FileNameEntry;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface FileRepository extends JpaRepository<StoredFile, Long> {
+public interface FileRepository extends JpaRepository<StoredFile, Long>, FileRepositoryCustom {
+
+    /**
+     * Constructor expression for {@link FileRow}; the query must alias the file {@code f}
+     * and left-join its folder as {@code d}.
+     */
+    String FILE_ROW = "new com.cloudsync.repository.FileRow(f.id, f.name, f.originalName, f.contentType, f.size, " +
+            "d.id, d.name, d.path, f.isPublic, f.shareToken, f.downloadCount, f.createdAt, f.updatedAt)";
     
     List<StoredFile> findByOwner(User owner);
     
-    List<StoredFile> findByOwnerAndFolderIsNull(User owner);
-    
-    List<StoredFile> findByOwnerAndFolder(User owner, Folder folder);
-    
     Optional<StoredFile> findByIdAndOwner(Long id, User owner);
     
     Optional<StoredFile> findByShareToken(String shareToken);
+
+    @Query("SELECT new com.cloudsync.repository.SharedFileRow(f.id, f.originalName, f.contentType, f.size, " +
+            "f.storagePath, f.checksum, f.isPublic, f.downloadCount, f.downloadGeneration) " +
+            "FROM StoredFile f WHERE f.shareToken = :token")
+    Optional<SharedFileRow> findSharedRow(@Param("token") String token);
+
+    long countByShareTokenIsNotNull();
+
+    /**
+     * Adds downloads counted in memory; leaves updated_at alone since the file did not change.
+     */
+    @Modifying
+    @Query("UPDATE StoredFile f SET f.downloadCount = f.downloadCount + :count WHERE f.id = :id")
+    int addDownloads(@Param("id") Long id, @Param("count") long count);
+
+    /**
+     * Streams every share token, for rebuilding the token filter.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT f.shareToken FROM StoredFile f WHERE f.shareToken IS NOT NULL")
+    Stream<String> streamShareTokens();
+
+    @Query("SELECT f.shareToken FROM StoredFile f WHERE f.shareToken IS NOT NULL AND f.updatedAt >= :since")
+    List<String> findShareTokensUpdatedSince(@Param("since") LocalDateTime since);
     
     @Query("SELECT f FROM StoredFile f WHERE f.owner = :owner AND f.folder.id = :folderId")
     List<StoredFile> findByOwnerAndFolderId(@Param("owner") User owner, @Param("folderId") Long folderId);
@@ -30,10 +70,105 @@ public interface FileRepository extends JpaRepository<StoredFile, Long> {
     @Query("SELECT COALESCE(SUM(f.size), 0) FROM StoredFile f WHERE f.owner = :owner")
     long calculateTotalStorageByOwner(@Param("owner") User owner);
     
-    @Query("SELECT f FROM StoredFile f WHERE f.owner = :owner AND LOWER(f.originalName) LIKE LOWER(CONCAT('%', :query, '%'))")
-    List<StoredFile> searchByName(@Param("owner") User owner, @Param("query") String query);
-    
     boolean existsByOriginalNameAndOwnerAndFolder(String originalName, User owner, Folder folder);
     
     List<StoredFile> findByIsPublicTrue();
+
+    /**
+     * Streams a listing row for every file of the owner, for bulk export.
+     * Must be consumed inside a transaction and closed by the caller.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT " + FILE_ROW + " FROM StoredFile f LEFT JOIN f.folder d WHERE f.owner = :owner ORDER BY f.id")
+    Stream<FileRow> streamRowsByOwner(@Param("owner") User owner);
+
+    @Query("SELECT " + FILE_ROW + " FROM StoredFile f LEFT JOIN f.folder d WHERE f.owner = :owner AND f.id IN :ids")
+    List<FileRow> findRowsByOwnerAndIdIn(@Param("owner") User owner, @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT f FROM StoredFile f LEFT JOIN FETCH f.folder WHERE f.owner = :owner AND f.id IN :ids")
+    List<StoredFile> findAllWithFolderByOwnerAndIdIn(@Param("owner") User owner, @Param("ids") Collection<Long> ids);
+
+    /**
+     * Streams id and name of every file of the owner, for loading the in-memory name index.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.cloudsync.search.FileNameEntry(f.id, f.originalName) FROM StoredFile f " +
+            "WHERE f.owner.id = :ownerId")
+    Stream<FileNameEntry> streamNameEntriesByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("SELECT f.id FROM StoredFile f WHERE f.owner = :owner " +
+            "AND (f.folder.id = :folderId OR f.folder.lineage LIKE CONCAT(:lineagePrefix, '%'))")
+    List<Long> findIdsInSubtree(@Param("owner") User owner, @Param("folderId") Long folderId,
+                                @Param("lineagePrefix") String lineagePrefix);
+
+    @Query("SELECT new com.cloudsync.repository.ContentTypeUsage(f.contentType, COUNT(f), COALESCE(SUM(f.size), 0)) " +
+            "FROM StoredFile f WHERE f.owner.id = :ownerId GROUP BY f.contentType")
+    List<ContentTypeUsage> summarizeByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("SELECT new com.cloudsync.repository.ContentTypeUsage(f.contentType, COUNT(f), COALESCE(SUM(f.size), 0)) " +
+            "FROM StoredFile f WHERE f.owner = :owner AND f.folder.id IN (" +
+            "SELECT d.id FROM Folder d WHERE d.owner = :owner " +
+            "AND (d.id = :folderId OR d.lineage LIKE CONCAT(:lineagePrefix, '%'))) " +
+            "GROUP BY f.contentType")
+    List<ContentTypeUsage> summarizeSubtree(@Param("owner") User owner, @Param("folderId") Long folderId,
+                                            @Param("lineagePrefix") String lineagePrefix);
+
+    /**
+     * Finds the owner's files holding the given content, locked against deletion until the caller
+     * commits, so the blob cannot be purged while a new file record starts referencing it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT f FROM StoredFile f WHERE f.owner = :owner AND f.checksum = :checksum AND f.size = :size " +
+           "ORDER BY f.id")
+    List<StoredFile> findWithContent(@Param("owner") User owner, @Param("checksum") String checksum,
+                                     @Param("size") long size, Pageable pageable);
+
+    /**
+     * Like {@link #findWithContent} across all users.
+     */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT f FROM StoredFile f WHERE f.checksum = :checksum AND f.size = :size ORDER BY f.id")
+    List<StoredFile> findAnyWithContent(@Param("checksum") String checksum, @Param("size") long size,
+                                        Pageable pageable);
+
+    @Query("SELECT new com.cloudsync.repository.DigestEntry(f.id, f.originalName, COALESCE(f.checksum, '')) " +
+           "FROM StoredFile f WHERE f.folder.id = :folderId")
+    List<DigestEntry> findDigestEntries(@Param("folderId") Long folderId);
+
+    @Query("SELECT new com.cloudsync.repository.DigestEntry(f.id, f.originalName, COALESCE(f.checksum, '')) " +
+           "FROM StoredFile f WHERE f.owner.id = :ownerId AND f.folder IS NULL")
+    List<DigestEntry> findRootDigestEntries(@Param("ownerId") Long ownerId);
+
+    @Query("SELECT f.storagePath FROM StoredFile f WHERE f.storagePath IN :paths")
+    Set<String> findReferencedStoragePaths(@Param("paths") Collection<String> paths);
+
+    /**
+     * Deletes every file in a folder subtree in one statement.
+     */
+    @Modifying
+    @Query("DELETE FROM StoredFile f WHERE f.owner = :owner AND f.folder.id IN " +
+            "(SELECT d.id FROM Folder d WHERE d.owner = :owner " +
+            "AND (d.id = :folderId OR d.lineage LIKE CONCAT(:lineagePrefix, '%')))")
+    int deleteInSubtree(@Param("owner") User owner, @Param("folderId") Long folderId,
+                        @Param("lineagePrefix") String lineagePrefix);
+
+    @Modifying
+    @Query("DELETE FROM StoredFile f WHERE f.owner = :owner AND f.id IN :ids")
+    int deleteByOwnerAndIdIn(@Param("owner") User owner, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE StoredFile f SET f.folder = :folder, f.updatedAt = :now WHERE f.owner = :owner AND f.id IN :ids")
+    int moveToFolder(@Param("owner") User owner, @Param("ids") Collection<Long> ids,
+                     @Param("folder") Folder folder, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE StoredFile f SET f.shareToken = NULL, f.isPublic = false, " +
+            "f.downloadGeneration = f.downloadGeneration + 1, f.updatedAt = :now " +
+            "WHERE f.owner = :owner AND f.id IN :ids")
+    int unshareByOwnerAndIdIn(@Param("owner") User owner, @Param("ids") Collection<Long> ids,
+                              @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE StoredFile f SET f.contentType = 'application/octet-stream' WHERE f.contentType IS NULL")
+    int fillMissingContentTypes();
 }
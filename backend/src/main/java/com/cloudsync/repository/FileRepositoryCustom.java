@@ -0,0 +1,18 @@
+package com.cloudsync.repository;
+
+import com.cloudsync.dto.ListingQuery;
+import com.cloudsync.entity.User;
+
+import java.util.List;
+
+/**
+ * Keyset-paginated file listings that Spring Data cannot derive from method names.
+ */
+public interface FileRepositoryCustom {
+
+    /**
+     * Returns up to {@code query.pageSize() + 1} file rows after the query's cursor;
+     * the extra row tells the caller whether another page exists.
+     */
+    List<FileRow> findPage(User owner, FileListingScope scope, ListingQuery query);
+}
@@ -0,0 +1,70 @@
+package com.cloudsync.repository;
+
+import com.cloudsync.dto.ListingQuery;
+import com.cloudsync.entity.Folder;
+import com.cloudsync.entity.StoredFile;
+import com.cloudsync.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+class FileRepositoryCustomImpl implements FileRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<FileRow> findPage(User owner, FileListingScope scope, ListingQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<FileRow> criteria = cb.createQuery(FileRow.class);
+        Root<StoredFile> file = criteria.from(StoredFile.class);
+        // Path rendering needs the folder; join it in the same query
+        Join<StoredFile, Folder> folder = file.join("folder", JoinType.LEFT);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(file.get("owner"), owner));
+        if (scope.rootOnly()) {
+            predicates.add(cb.isNull(file.get("folder")));
+        }
+        if (scope.folderId() != null) {
+            predicates.add(cb.equal(file.get("folder").get("id"), scope.folderId()));
+        }
+
+        boolean descending = query.descending();
+        KeysetCursor cursor = KeysetCursor.decode(query.cursor(), query.sortField(), descending);
+        Path<Long> id = file.get("id");
+        Expression<?> key = switch (query.sortField()) {
+            case NAME -> KeysetSupport.seek(cb, predicates, file.<String>get("originalName"), id,
+                    cursor, KeysetCursor::stringValue, descending);
+            case SIZE -> KeysetSupport.seek(cb, predicates, file.<Long>get("size"), id,
+                    cursor, KeysetCursor::longValue, descending);
+            case DATE -> KeysetSupport.seek(cb, predicates, file.<LocalDateTime>get("createdAt"), id,
+                    cursor, KeysetCursor::dateValue, descending);
+            case TYPE -> KeysetSupport.seek(cb, predicates, file.<String>get("contentType"), id,
+                    cursor, KeysetCursor::stringValue, descending);
+        };
+
+        criteria.select(cb.construct(FileRow.class,
+                        id, file.get("name"), file.get("originalName"), file.get("contentType"), file.get("size"),
+                        folder.get("id"), folder.get("name"), folder.get("path"),
+                        file.get("isPublic"), file.get("shareToken"), file.get("downloadCount"),
+                        file.get("createdAt"), file.get("updatedAt")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(KeysetSupport.orderBy(cb, key, id, descending));
+
+        return entityManager.createQuery(criteria)
+                .setMaxResults(query.pageSize() + 1)
+                .getResultList();
+    }
+}
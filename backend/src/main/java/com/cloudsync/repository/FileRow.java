@@ -0,0 +1,30 @@
+package com.cloudsync.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columns of a file listing row, selected by constructor expression together with the
+ * folder's id, name and path, so listings need neither managed entities nor folder proxies.
+ */
+public record FileRow(
+        Long id,
+        String name,
+        String originalName,
+        String contentType,
+        Long size,
+        Long folderId,
+        String folderName,
+        String folderPath,
+        Boolean isPublic,
+        String shareToken,
+        Long downloadCount,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+    /**
+     * Same as {@link com.cloudsync.entity.StoredFile#getPath()}.
+     */
+    public String path() {
+        return (folderId != null ? folderPath : "") + "/" + originalName;
+    }
+}
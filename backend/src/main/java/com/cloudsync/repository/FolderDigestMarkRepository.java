@@ -0,0 +1,37 @@
+package com.cloudsync.repository;
+
+import com.cloudsync.entity.FolderDigestMark;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FolderDigestMarkRepository extends JpaRepository<FolderDigestMark, Long> {
+
+    /**
+     * Claims the oldest marks, skipping rows locked by another instance where the database supports it.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT m FROM FolderDigestMark m ORDER BY m.id")
+    List<FolderDigestMark> claimOldest(Pageable pageable);
+
+    boolean existsByOwnerId(Long ownerId);
+
+    /**
+     * Whether a mark is pending for the folder or any folder below it.
+     */
+    @Query("SELECT COUNT(m) > 0 FROM FolderDigestMark m WHERE m.ownerId = :ownerId AND (m.folderId = :folderId " +
+           "OR m.folderId IN (SELECT f.id FROM Folder f WHERE f.owner.id = :ownerId " +
+           "AND f.lineage LIKE CONCAT(:lineagePrefix, '%')))")
+    boolean existsInSubtree(@Param("ownerId") Long ownerId, @Param("folderId") Long folderId,
+                            @Param("lineagePrefix") String lineagePrefix);
+}
@@ -2,21 +2,24 @@ package com.cloudsync.repository;
 
 import com.cloudsync.entity.Folder;
 import com.cloudsync.entity.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface FolderRepository extends JpaRepository<Folder, Long> {
+public interface FolderRepository extends JpaRepository<Folder, Long>, FolderRepositoryCustom {
     
     List<Folder> findByOwnerAndParentIsNull(User owner);
     
-    List<Folder> findByOwnerAndParent(User owner, Folder parent);
-    
     Optional<Folder> findByIdAndOwner(Long id, User owner);
     
     Optional<Folder> findByNameAndOwnerAndParent(String name, User owner, Folder parent);
@@ -25,4 +28,120 @@ public interface FolderRepository extends JpaRepository<Folder, Long> {
     List<Folder> findByOwnerAndParentId(@Param("owner") User owner, @Param("parentId") Long parentId);
     
     boolean existsByNameAndOwnerAndParent(String name, User owner, Folder parent);
+
+    @Query("SELECT f FROM Folder f WHERE f.owner = :owner AND f.id IN :ids")
+    List<Folder> findByOwnerAndIdIn(@Param("owner") User owner, @Param("ids") Collection<Long> ids);
+
+    @Query("SELECT f FROM Folder f WHERE f.owner = :owner AND f.lineage LIKE CONCAT(:lineagePrefix, '%') " +
+           "ORDER BY f.depth")
+    List<Folder> findDescendants(@Param("owner") User owner, @Param("lineagePrefix") String lineagePrefix);
+
+    @Query("SELECT COUNT(f) FROM Folder f WHERE f.owner.id = :ownerId")
+    long countByOwnerId(@Param("ownerId") Long ownerId);
+
+    @Query("SELECT COUNT(f) FROM Folder f WHERE f.owner = :owner AND f.lineage LIKE CONCAT(:lineagePrefix, '%')")
+    long countDescendants(@Param("owner") User owner, @Param("lineagePrefix") String lineagePrefix);
+
+    @Query("SELECT MAX(f.depth) FROM Folder f WHERE f.owner = :owner AND f.lineage LIKE CONCAT(:lineagePrefix, '%')")
+    Integer findMaxDescendantDepth(@Param("owner") User owner, @Param("lineagePrefix") String lineagePrefix);
+
+    /**
+     * Deletes one depth level of a subtree; deleting deepest levels first keeps parent references valid.
+     */
+    @Modifying
+    @Query("DELETE FROM Folder f WHERE f.owner = :owner AND f.depth = :depth " +
+           "AND (f.id = :folderId OR f.lineage LIKE CONCAT(:lineagePrefix, '%'))")
+    int deleteSubtreeLevel(@Param("owner") User owner, @Param("folderId") Long folderId,
+                           @Param("lineagePrefix") String lineagePrefix, @Param("depth") int depth);
+
+    @Query("SELECT f FROM Folder f WHERE f.owner = :owner AND f.id IN :ids ORDER BY f.depth")
+    List<Folder> findAncestors(@Param("owner") User owner, @Param("ids") List<Long> ids);
+
+    /**
+     * Rewrites the materialized path, lineage and depth of every descendant after
+     * a folder was renamed or moved. Matches descendants by their old lineage prefix.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Folder f SET " +
+           "f.path = CONCAT(:newPath, SUBSTRING(f.path, LENGTH(:oldPath) + 1)), " +
+           "f.lineage = CONCAT(:newLineage, SUBSTRING(f.lineage, LENGTH(:oldLineage) + 1)), " +
+           "f.depth = f.depth + :depthDelta, " +
+           "f.listingVersion = f.listingVersion + 1 " +
+           "WHERE f.owner = :owner AND f.lineage LIKE CONCAT(:oldLineage, '%')")
+    int relocateDescendants(@Param("owner") User owner,
+                            @Param("oldLineage") String oldLineage, @Param("newLineage") String newLineage,
+                            @Param("oldPath") String oldPath, @Param("newPath") String newPath,
+                            @Param("depthDelta") int depthDelta);
+
+    @Modifying
+    @Query("UPDATE Folder f SET f.fileCount = f.fileCount + :files, f.totalBytes = f.totalBytes + :bytes " +
+           "WHERE f.id = :folderId")
+    void adjustFileCounters(@Param("folderId") Long folderId, @Param("files") long files,
+                            @Param("bytes") long bytes);
+
+    @Modifying
+    @Query("UPDATE Folder f SET f.subfolderCount = f.subfolderCount + :delta WHERE f.id = :folderId")
+    void adjustSubfolderCount(@Param("folderId") Long folderId, @Param("delta") long delta);
+
+    @Modifying
+    @Query("UPDATE Folder f SET f.subtreeFileCount = f.subtreeFileCount + :files, " +
+           "f.subtreeBytes = f.subtreeBytes + :bytes WHERE f.id = :folderId")
+    int adjustSubtreeRollup(@Param("folderId") Long folderId, @Param("files") long files, @Param("bytes") long bytes);
+
+    @Query("SELECT f.listingVersion FROM Folder f WHERE f.id = :folderId AND f.owner = :owner")
+    Optional<Long> findListingVersion(@Param("folderId") Long folderId, @Param("owner") User owner);
+
+    /**
+     * Bumps the listing version of folders whose own rows changed, and of their parents, whose
+     * listings show them.
+     */
+    @Modifying
+    @Query("UPDATE Folder f SET f.listingVersion = f.listingVersion + 1 WHERE f.id IN :ids " +
+           "OR f.id IN (SELECT c.parent.id FROM Folder c WHERE c.id IN :ids)")
+    int bumpListingVersions(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Bumps the listing version of folders whose files changed; their own rows are unchanged.
+     */
+    @Modifying
+    @Query("UPDATE Folder f SET f.listingVersion = f.listingVersion + 1 WHERE f.id IN :ids")
+    int bumpContentVersions(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Folder f SET f.listingVersion = f.listingVersion + 1 " +
+           "WHERE f.id IN (SELECT sf.folder.id FROM StoredFile sf WHERE sf.id IN :fileIds)")
+    int bumpContentVersionsOfFiles(@Param("fileIds") Collection<Long> fileIds);
+
+    @Modifying
+    @Query("UPDATE Folder f SET f.listingVersion = f.listingVersion + 1")
+    int bumpAllListingVersions();
+
+    @Query("SELECT new com.cloudsync.repository.DigestEntry(f.id, f.name, f.digest) FROM Folder f WHERE f.parent.id = :parentId")
+    List<DigestEntry> findDigestEntries(@Param("parentId") Long parentId);
+
+    @Query("SELECT new com.cloudsync.repository.DigestEntry(f.id, f.name, f.digest) FROM Folder f " +
+           "WHERE f.owner.id = :ownerId AND f.parent IS NULL")
+    List<DigestEntry> findRootDigestEntries(@Param("ownerId") Long ownerId);
+
+    /**
+     * Locks folders about to get new digests, deepest first so children are recomputed before
+     * their parents. Concurrent aggregators lock in the same order and wait for each other, so a
+     * parent is always recomputed from committed child digests.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT f FROM Folder f WHERE f.id IN :ids ORDER BY f.depth DESC, f.id")
+    List<Folder> lockForDigest(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT f.id FROM Folder f WHERE f.digest IS NULL ORDER BY f.depth DESC, f.id")
+    List<Long> findIdsWithoutDigest(Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE Folder f SET f.digest = :digest WHERE f.id = :folderId")
+    void updateDigest(@Param("folderId") Long folderId, @Param("digest") String digest);
+
+    @Query("SELECT f FROM Folder f WHERE f.lineage IS NULL AND f.parent IS NULL")
+    List<Folder> findRootsMissingHierarchy();
+
+    @Query("SELECT f FROM Folder f WHERE f.lineage IS NULL AND f.parent.lineage IS NOT NULL")
+    List<Folder> findChildrenMissingHierarchy();
 }
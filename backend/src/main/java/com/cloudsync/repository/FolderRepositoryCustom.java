@@ -0,0 +1,18 @@
+package com.cloudsync.repository;
+
+import com.cloudsync.dto.ListingQuery;
+import com.cloudsync.entity.User;
+
+import java.util.List;
+
+/**
+ * Keyset-paginated folder listings that Spring Data cannot derive from method names.
+ */
+public interface FolderRepositoryCustom {
+
+    /**
+     * Returns up to {@code query.pageSize() + 1} rows of children of the given parent
+     * (root folders when {@code parentId} is null) after the query's cursor.
+     */
+    List<FolderRow> findPage(User owner, Long parentId, ListingQuery query);
+}
@@ -0,0 +1,64 @@
+package com.cloudsync.repository;
+
+import com.cloudsync.dto.ListingQuery;
+import com.cloudsync.entity.Folder;
+import com.cloudsync.entity.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+class FolderRepositoryCustomImpl implements FolderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<FolderRow> findPage(User owner, Long parentId, ListingQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<FolderRow> criteria = cb.createQuery(FolderRow.class);
+        Root<Folder> folder = criteria.from(Folder.class);
+        Join<Folder, Folder> parent = folder.join("parent", JoinType.LEFT);
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(cb.equal(folder.get("owner"), owner));
+        predicates.add(parentId == null
+                ? cb.isNull(folder.get("parent"))
+                : cb.equal(folder.get("parent").get("id"), parentId));
+
+        boolean descending = query.descending();
+        KeysetCursor cursor = KeysetCursor.decode(query.cursor(), query.sortField(), descending);
+        Path<Long> id = folder.get("id");
+        // Folders have no content type; TYPE falls back to name order
+        Expression<?> key = switch (query.sortField()) {
+            case NAME, TYPE -> KeysetSupport.seek(cb, predicates, folder.<String>get("name"), id,
+                    cursor, KeysetCursor::stringValue, descending);
+            case SIZE -> KeysetSupport.seek(cb, predicates, folder.<Long>get("subtreeBytes"), id,
+                    cursor, KeysetCursor::longValue, descending);
+            case DATE -> KeysetSupport.seek(cb, predicates, folder.<LocalDateTime>get("createdAt"), id,
+                    cursor, KeysetCursor::dateValue, descending);
+        };
+
+        criteria.select(cb.construct(FolderRow.class,
+                        id, folder.get("name"), folder.get("path"), parent.get("id"), parent.get("name"),
+                        folder.get("fileCount"), folder.get("subfolderCount"), folder.get("totalBytes"),
+                        folder.get("subtreeFileCount"), folder.get("subtreeBytes"),
+                        folder.get("createdAt"), folder.get("updatedAt")))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(KeysetSupport.orderBy(cb, key, id, descending));
+
+        return entityManager.createQuery(criteria)
+                .setMaxResults(query.pageSize() + 1)
+                .getResultList();
+    }
+}
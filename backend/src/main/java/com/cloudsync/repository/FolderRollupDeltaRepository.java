@@ -0,0 +1,26 @@
+package com.cloudsync.repository;
+
+import com.cloudsync.entity.FolderRollupDelta;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FolderRollupDeltaRepository extends JpaRepository<FolderRollupDelta, Long> {
+
+    /**
+     * Claims the oldest pending deltas. Rows locked by another instance are skipped where the
+     * database supports SKIP LOCKED, and waited for otherwise, so each delta is applied once.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT d FROM FolderRollupDelta d ORDER BY d.id")
+    List<FolderRollupDelta> claimOldest(Pageable pageable);
+}
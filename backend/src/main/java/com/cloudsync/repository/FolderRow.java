@@ -0,0 +1,23 @@
+package com.cloudsync.repository;
+
+import java.time.LocalDateTime;
+
+/**
+ * Columns of a folder listing row, selected by constructor expression together with the
+ * parent's id and name.
+ */
+public record FolderRow(
+        Long id,
+        String name,
+        String path,
+        Long parentId,
+        String parentName,
+        Long fileCount,
+        Long subfolderCount,
+        Long totalBytes,
+        Long subtreeFileCount,
+        Long subtreeBytes,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt
+) {
+}
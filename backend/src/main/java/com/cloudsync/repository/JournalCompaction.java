@@ -0,0 +1,7 @@
+package com.cloudsync.repository;
+
+/**
+ * Sequence up to which a user's change journal holds only entries past retention.
+ */
+public record JournalCompaction(Long userId, Long seq) {
+}
@@ -0,0 +1,11 @@
+package com.cloudsync.repository;
+
+/**
+ * Current position of a user's change journal, read without going through the persistence context.
+ */
+public record JournalPosition(Long userId, long lastSeq, long compactedSeq) {
+
+    public static JournalPosition empty(Long userId) {
+        return new JournalPosition(userId, 0, 0);
+    }
+}
@@ -0,0 +1,91 @@
+package com.cloudsync.repository;
+
+import com.cloudsync.dto.SortField;
+import com.cloudsync.exception.InvalidListingQueryException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor: the sort order, and the sort key and id of the last row of a page.
+ * Encoded as URL-safe Base64 of {@code FIELD:asc|desc:id:value} so clients treat it as a token.
+ */
+public record KeysetCursor(SortField sortField, boolean descending, long id, String value) {
+
+    private static final String ASC = "asc";
+    private static final String DESC = "desc";
+
+    /**
+     * Creates the cursor pointing after the given file for the given sort order.
+     */
+    public static KeysetCursor forFile(FileRow file, SortField sortField, boolean descending) {
+        String value = switch (sortField) {
+            case NAME -> file.originalName();
+            case SIZE -> Long.toString(file.size());
+            case DATE -> file.createdAt().toString();
+            case TYPE -> file.contentType();
+        };
+        return new KeysetCursor(sortField, descending, file.id(), value);
+    }
+
+    /**
+     * Creates the cursor pointing after the given folder for the given sort order.
+     */
+    public static KeysetCursor forFolder(FolderRow folder, SortField sortField, boolean descending) {
+        String value = switch (sortField) {
+            case NAME, TYPE -> folder.name();
+            case SIZE -> Long.toString(folder.subtreeBytes());
+            case DATE -> folder.createdAt().toString();
+        };
+        return new KeysetCursor(sortField, descending, folder.id(), value);
+    }
+
+    /**
+     * Decodes a cursor and checks it was issued for the same sort field and direction: seeking
+     * from the other side would skip or repeat rows. Returns null for a null cursor (first page).
+     */
+    public static KeysetCursor decode(String encoded, SortField expectedSortField, boolean expectedDescending) {
+        if (encoded == null) {
+            return null;
+        }
+        KeysetCursor cursor;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(":", 4);
+            if (!ASC.equals(parts[1]) && !DESC.equals(parts[1])) {
+                throw new IllegalArgumentException("Invalid direction");
+            }
+            cursor = new KeysetCursor(SortField.valueOf(parts[0]), DESC.equals(parts[1]),
+                    Long.parseLong(parts[2]), parts[3]);
+            if (cursor.sortField() == SortField.DATE) {
+                cursor.dateValue();
+            } else if (cursor.sortField() == SortField.SIZE) {
+                cursor.longValue();
+            }
+        } catch (RuntimeException e) {
+            throw new InvalidListingQueryException("Invalid cursor");
+        }
+        if (cursor.sortField() != expectedSortField || cursor.descending() != expectedDescending) {
+            throw new InvalidListingQueryException("Cursor was issued for a different sort order");
+        }
+        return cursor;
+    }
+
+    public String encode() {
+        String raw = sortField.name() + ":" + (descending ? DESC : ASC) + ":" + id + ":" + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public String stringValue() {
+        return value;
+    }
+
+    public Long longValue() {
+        return Long.valueOf(value);
+    }
+
+    public LocalDateTime dateValue() {
+        return LocalDateTime.parse(value);
+    }
+}
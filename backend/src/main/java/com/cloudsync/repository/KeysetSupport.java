@@ -0,0 +1,44 @@
+package com.cloudsync.repository;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Criteria helpers shared by the keyset-paginated repository fragments.
+ * Rows are ordered by {@code (key, id)} so the order is total even when keys repeat.
+ */
+final class KeysetSupport {
+
+    private KeysetSupport() {
+    }
+
+    /**
+     * Adds the "strictly after the cursor" predicate for the given key, if a cursor is present,
+     * and returns the key for use in ORDER BY.
+     */
+    static <T extends Comparable<? super T>> Expression<T> seek(CriteriaBuilder cb, List<Predicate> predicates,
+                                                                Expression<T> key, Path<Long> id,
+                                                                KeysetCursor cursor,
+                                                                Function<KeysetCursor, T> cursorValue,
+                                                                boolean descending) {
+        if (cursor != null) {
+            T value = cursorValue.apply(cursor);
+            Predicate afterKey = descending ? cb.lessThan(key, value) : cb.greaterThan(key, value);
+            Predicate afterId = descending ? cb.lessThan(id, cursor.id()) : cb.greaterThan(id, cursor.id());
+            predicates.add(cb.or(afterKey, cb.and(cb.equal(key, value), afterId)));
+        }
+        return key;
+    }
+
+    static List<Order> orderBy(CriteriaBuilder cb, Expression<?> key, Path<Long> id, boolean descending) {
+        return descending
+                ? List.of(cb.desc(key), cb.desc(id))
+                : List.of(cb.asc(key), cb.asc(id));
+    }
+}
@@ -0,0 +1,18 @@
+package com.cloudsync.repository;
+
+/**
+ * What serving a share link needs of its file, selected by constructor expression so that
+ * resolved links can be cached without holding entities.
+ */
+public record SharedFileRow(
+        Long id,
+        String originalName,
+        String contentType,
+        long size,
+        String storagePath,
+        String checksum,
+        boolean isPublic,
+        long downloadCount,
+        int downloadGeneration
+) {
+}
@@ -1,19 +1,54 @@
 package com.cloudsync.repository;
 
 import com.cloudsync.entity.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     
     Optional<User> findByUsername(String username);
+
+    /**
+     * Same as {@link #findByUsername}, but in a read-write transaction so that it is always
+     * served by the primary: authentication must see accounts and quotas as last written.
+     */
+    @Transactional
+    @Query("SELECT u FROM User u WHERE u.username = :username")
+    Optional<User> findCurrentByUsername(@Param("username") String username);
     
     Optional<User> findByEmail(String email);
     
     boolean existsByUsername(String username);
     
     boolean existsByEmail(String email);
+
+    /**
+     * Adds to a user's storage usage unless that would exceed the quota. One statement, so
+     * concurrent uploads can neither lose an addition nor both pass the check; 0 when over quota.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.storageUsed = u.storageUsed + :bytes " +
+           "WHERE u.id = :userId AND u.storageUsed + :bytes <= :quota")
+    int addStorage(@Param("userId") Long userId, @Param("bytes") long bytes, @Param("quota") long quota);
+
+    @Modifying
+    @Query("UPDATE User u SET u.storageUsed = CASE WHEN u.storageUsed > :bytes THEN u.storageUsed - :bytes ELSE 0 END " +
+           "WHERE u.id = :userId")
+    int refundStorage(@Param("userId") Long userId, @Param("bytes") long bytes);
+
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT u.id FROM User u WHERE NOT EXISTS " +
+           "(SELECT s.userId FROM UserStorageStats s WHERE s.userId = u.id)")
+    List<Long> findIdsWithoutStorageStats();
 }
@@ -0,0 +1,54 @@
+package com.cloudsync.repository;
+
+import com.cloudsync.entity.ContentFamily;
+import com.cloudsync.entity.UserStorageStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface UserStorageStatsRepository extends JpaRepository<UserStorageStats, Long> {
+
+    /**
+     * Adds to the totals and to the counters of one content family in a single statement.
+     */
+    default int adjustFiles(Long userId, ContentFamily family, long files, long bytes) {
+        return adjustFileTotals(userId, family.name(), files, bytes);
+    }
+
+    @Modifying
+    @Query("UPDATE UserStorageStats s SET " +
+           "s.fileCount = s.fileCount + :files, s.totalBytes = s.totalBytes + :bytes, " +
+           "s.imageFiles = s.imageFiles + CASE WHEN :family = 'IMAGE' THEN :files ELSE 0 END, " +
+           "s.imageBytes = s.imageBytes + CASE WHEN :family = 'IMAGE' THEN :bytes ELSE 0 END, " +
+           "s.videoFiles = s.videoFiles + CASE WHEN :family = 'VIDEO' THEN :files ELSE 0 END, " +
+           "s.videoBytes = s.videoBytes + CASE WHEN :family = 'VIDEO' THEN :bytes ELSE 0 END, " +
+           "s.audioFiles = s.audioFiles + CASE WHEN :family = 'AUDIO' THEN :files ELSE 0 END, " +
+           "s.audioBytes = s.audioBytes + CASE WHEN :family = 'AUDIO' THEN :bytes ELSE 0 END, " +
+           "s.documentFiles = s.documentFiles + CASE WHEN :family = 'DOCUMENT' THEN :files ELSE 0 END, " +
+           "s.documentBytes = s.documentBytes + CASE WHEN :family = 'DOCUMENT' THEN :bytes ELSE 0 END, " +
+           "s.archiveFiles = s.archiveFiles + CASE WHEN :family = 'ARCHIVE' THEN :files ELSE 0 END, " +
+           "s.archiveBytes = s.archiveBytes + CASE WHEN :family = 'ARCHIVE' THEN :bytes ELSE 0 END, " +
+           "s.otherFiles = s.otherFiles + CASE WHEN :family = 'OTHER' THEN :files ELSE 0 END, " +
+           "s.otherBytes = s.otherBytes + CASE WHEN :family = 'OTHER' THEN :bytes ELSE 0 END " +
+           "WHERE s.userId = :userId")
+    int adjustFileTotals(@Param("userId") Long userId, @Param("family") String family,
+                         @Param("files") long files, @Param("bytes") long bytes);
+
+    @Modifying
+    @Query("UPDATE UserStorageStats s SET s.folderCount = s.folderCount + :delta WHERE s.userId = :userId")
+    int adjustFolderCount(@Param("userId") Long userId, @Param("delta") long delta);
+
+    /**
+     * Locks the row so concurrent increments wait until a reconciliation has committed.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UserStorageStats s WHERE s.userId = :userId")
+    Optional<UserStorageStats> findForUpdate(@Param("userId") Long userId);
+}
@@ -0,0 +1,7 @@
+package com.cloudsync.search;
+
+/**
+ * Id and display name of a file, all the in-memory name index needs to load a user.
+ */
+public record FileNameEntry(Long id, String originalName) {
+}
@@ -0,0 +1,22 @@
+package com.cloudsync.search;
+
+import com.cloudsync.entity.User;
+
+import java.util.List;
+
+/**
+ * Ranked, typo-tolerant substring search over a user's file names.
+ * Implementations return file ids only; callers load the rows they actually display.
+ */
+public interface FileNameIndex {
+
+    /**
+     * Deepest position a client may page to; ranking further down is not useful.
+     */
+    int MAX_RESULT_WINDOW = 10_000;
+
+    /**
+     * Returns up to {@code limit} hits starting at {@code offset}, best first.
+     */
+    List<SearchHit> search(User owner, String query, int offset, int limit);
+}
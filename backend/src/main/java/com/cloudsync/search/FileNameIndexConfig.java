@@ -0,0 +1,48 @@
+package com.cloudsync.search;
+
+import com.cloudsync.config.SearchConfig;
+import com.cloudsync.repository.FileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Chooses the file name search engine: {@code pg_trgm} on PostgreSQL, the in-process
+ * trigram index elsewhere. {@code cloudsync.search.engine} overrides the detection.
+ */
+@Configuration
+public class FileNameIndexConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(FileNameIndexConfig.class);
+
+    @Bean
+    public FileNameIndex fileNameIndex(SearchConfig searchConfig, DataSource dataSource,
+                                       NamedParameterJdbcTemplate jdbcTemplate, FileRepository fileRepository) {
+        String engine = switch (searchConfig.getEngine()) {
+            case "auto" -> isPostgres(dataSource) ? "postgres" : "memory";
+            case "postgres", "memory" -> searchConfig.getEngine();
+            default -> throw new IllegalStateException("Unknown search engine: " + searchConfig.getEngine());
+        };
+        log.info("File name search engine: {}", engine);
+        return engine.equals("postgres")
+                ? new PostgresFileNameIndex(jdbcTemplate)
+                : new InMemoryFileNameIndex(fileRepository, searchConfig.getMaxIndexedUsers());
+    }
+
+    private static boolean isPostgres(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equals(product);
+        } catch (MetaDataAccessException e) {
+            log.warn("Could not detect database product, using in-memory file name index: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.cloudsync.search;
+
+import com.cloudsync.entity.User;
+import com.cloudsync.event.FileChangedEvent;
+import com.cloudsync.event.FilesDeletedEvent;
+import com.cloudsync.repository.FileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Per-user {@link TrigramIndex} held in process, for H2 and databases without trigram support.
+ * A user's index is loaded on their first search and kept current from committed file events;
+ * the least recently searched users are dropped beyond {@code maxUsers}.
+ * Only suitable for a single application instance, since other instances' writes are not observed.
+ */
+public class InMemoryFileNameIndex implements FileNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(InMemoryFileNameIndex.class);
+
+    private final FileRepository fileRepository;
+    private final Map<Long, TrigramIndex> indexes;
+
+    public InMemoryFileNameIndex(FileRepository fileRepository, int maxUsers) {
+        this.fileRepository = fileRepository;
+        this.indexes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, TrigramIndex> eldest) {
+                return size() > maxUsers;
+            }
+        };
+    }
+
+    /**
+     * Must run inside a transaction the first time a user searches, as the index is loaded from a stream.
+     */
+    @Override
+    public List<SearchHit> search(User owner, String query, int offset, int limit) {
+        TrigramIndex index;
+        synchronized (indexes) {
+            index = indexes.computeIfAbsent(owner.getId(), id -> new TrigramIndex());
+        }
+        index.loadOnce(target -> load(owner.getId(), target));
+        return index.search(query, offset, limit);
+    }
+
+    @TransactionalEventListener
+    public void onFileChanged(FileChangedEvent event) {
+        TrigramIndex index = loadedIndex(event.ownerId());
+        if (index == null) {
+            return;
+        }
+        if (event.type() == FileChangedEvent.Type.DELETED) {
+            index.remove(event.fileId());
+        } else {
+            index.put(event.fileId(), event.name());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onFilesDeleted(FilesDeletedEvent event) {
+        TrigramIndex index = loadedIndex(event.ownerId());
+        if (index != null) {
+            event.fileIds().forEach(index::remove);
+        }
+    }
+
+    private TrigramIndex loadedIndex(Long ownerId) {
+        synchronized (indexes) {
+            return indexes.get(ownerId);
+        }
+    }
+
+    private void load(Long ownerId, TrigramIndex target) {
+        long start = System.nanoTime();
+        try (Stream<FileNameEntry> entries = fileRepository.streamNameEntriesByOwnerId(ownerId)) {
+            entries.forEach(entry -> target.put(entry.id(), entry.originalName()));
+        }
+        log.debug("File name index loaded: userId={}, files={}, tookMs={}",
+                ownerId, target.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+}
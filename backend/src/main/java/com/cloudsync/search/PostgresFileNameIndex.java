@@ -0,0 +1,90 @@
+package com.cloudsync.search;
+
+import com.cloudsync.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * File name search on PostgreSQL backed by a {@code pg_trgm} GIN index on {@code lower(original_name)}.
+ * The index serves both the substring ({@code LIKE}) and the fuzzy ({@code <%}) predicate, so the
+ * database never scans all of a user's files. Without the extension only substring matches are returned.
+ */
+public class PostgresFileNameIndex implements FileNameIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresFileNameIndex.class);
+
+    private static final String SCORE =
+            "word_similarity(:q, lower(f.original_name)) " +
+            "+ CASE WHEN lower(f.original_name) = :q THEN 2.5 " +
+            "       WHEN lower(f.original_name) LIKE :prefix ESCAPE '\\' THEN 2.0 " +
+            "       WHEN lower(f.original_name) LIKE :contains ESCAPE '\\' THEN 1.0 ELSE 0 END";
+
+    private static final String TRIGRAM_SEARCH =
+            "SELECT f.id, " + SCORE + " AS score FROM stored_files f " +
+            "WHERE f.owner_id = :ownerId " +
+            "AND (lower(f.original_name) LIKE :contains ESCAPE '\\' OR :q <% lower(f.original_name)) " +
+            "ORDER BY score DESC, f.id LIMIT :limit OFFSET :offset";
+
+    private static final String SUBSTRING_SEARCH =
+            "SELECT f.id, CASE WHEN lower(f.original_name) LIKE :prefix ESCAPE '\\' THEN 2.0 ELSE 1.0 END AS score " +
+            "FROM stored_files f " +
+            "WHERE f.owner_id = :ownerId AND lower(f.original_name) LIKE :contains ESCAPE '\\' " +
+            "ORDER BY score DESC, f.id LIMIT :limit OFFSET :offset";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private volatile boolean trigramsAvailable = true;
+
+    public PostgresFileNameIndex(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Checks for the extension, which the V12 migration installs when the database role may.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void detectTrigramSupport() {
+        try {
+            trigramsAvailable = Boolean.TRUE.equals(jdbcTemplate.getJdbcTemplate().queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm')", Boolean.class));
+        } catch (DataAccessException e) {
+            trigramsAvailable = false;
+            log.warn("Could not check for pg_trgm: {}", e.getMessage());
+        }
+        if (!trigramsAvailable) {
+            log.warn("pg_trgm unavailable, file search falls back to substring matching");
+        }
+    }
+
+    @Override
+    public List<SearchHit> search(User owner, String query, int offset, int limit) {
+        String needle = query.strip().toLowerCase(Locale.ROOT);
+        if (needle.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String escaped = escapeLike(needle);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ownerId", owner.getId())
+                .addValue("q", needle)
+                .addValue("prefix", escaped + "%")
+                .addValue("contains", "%" + escaped + "%")
+                .addValue("limit", limit)
+                .addValue("offset", offset);
+        String sql = trigramsAvailable ? TRIGRAM_SEARCH : SUBSTRING_SEARCH;
+        return jdbcTemplate.query(sql, params,
+                (rs, rowNum) -> new SearchHit(rs.getLong("id"), rs.getDouble("score")));
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,40 @@
+package com.cloudsync.search;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor for relevance-ranked search results: the position of the next hit.
+ * Ranked results have no stable sort key to seek on, so paging is by offset within
+ * {@link FileNameIndex#MAX_RESULT_WINDOW}.
+ */
+public record SearchCursor(int offset) {
+
+    private static final String PREFIX = "RANK:";
+
+    /**
+     * Decodes a cursor; returns the first position for a null cursor.
+     */
+    public static SearchCursor decode(String encoded) {
+        if (encoded == null) {
+            return new SearchCursor(0);
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+            if (decoded.startsWith(PREFIX)) {
+                int offset = Integer.parseInt(decoded.substring(PREFIX.length()));
+                if (offset >= 0 && offset < FileNameIndex.MAX_RESULT_WINDOW) {
+                    return new SearchCursor(offset);
+                }
+            }
+        } catch (RuntimeException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor");
+    }
+
+    public String encode() {
+        String raw = PREFIX + offset;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,16 @@
+package com.cloudsync.search;
+
+import java.util.Comparator;
+
+/**
+ * A file matched by a name search with its relevance score (higher is better).
+ */
+public record SearchHit(long fileId, double score) {
+
+    /**
+     * Best hit first; equal scores fall back to the older file so the order is stable across pages.
+     */
+    public static final Comparator<SearchHit> RANKING = Comparator
+            .comparingDouble(SearchHit::score).reversed()
+            .thenComparingLong(SearchHit::fileId);
+}
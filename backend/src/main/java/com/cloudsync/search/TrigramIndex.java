@@ -0,0 +1,293 @@
+package com.cloudsync.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory trigram index over the file names of one user.
+ * <p>
+ * Every name gets a dense slot; each trigram maps to an ascending list of slots. Renames and deletes
+ * tombstone the old slot and the index is rebuilt once tombstones outnumber live entries.
+ * A query matches names sharing enough of its trigrams (a single typo breaks at most three of them),
+ * and hits are ranked by trigram overlap with boosts for prefix, word-start and exact substring matches.
+ * Safe for concurrent use: searches share a read lock, updates take the write lock.
+ */
+public class TrigramIndex {
+
+    private static final int MIN_COMPACTION_TOMBSTONES = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> slotByFileId = new HashMap<>();
+    private final Map<Long, Postings> postings = new HashMap<>();
+    private long[] fileIds = new long[64];
+    private String[] names = new String[64];
+    private int[] gramCounts = new int[64];
+    private int slotCount;
+
+    private volatile boolean loaded;
+
+    /**
+     * Runs the loader exactly once, holding the write lock so that concurrent updates
+     * are applied after the initial snapshot rather than overwritten by it.
+     */
+    public void loadOnce(Consumer<TrigramIndex> loader) {
+        if (loaded) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                loader.accept(this);
+                loaded = true;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a file or replaces the name of an indexed one.
+     */
+    public void put(long fileId, String name) {
+        lock.writeLock().lock();
+        try {
+            tombstone(fileId);
+            addSlot(fileId, normalize(name));
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long fileId) {
+        lock.writeLock().lock();
+        try {
+            tombstone(fileId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotByFileId.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the number of allocated slots, tombstones included.
+     */
+    public int slotCount() {
+        lock.readLock().lock();
+        try {
+            return slotCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} hits starting at {@code offset}, best first.
+     */
+    public List<SearchHit> search(String query, int offset, int limit) {
+        String needle = normalize(query.strip());
+        if (needle.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        int window = offset + limit;
+        PriorityQueue<SearchHit> top = new PriorityQueue<>(SearchHit.RANKING.reversed());
+
+        lock.readLock().lock();
+        try {
+            if (needle.length() < 3) {
+                scanShortQuery(needle, top, window);
+            } else {
+                matchTrigrams(needle, top, window);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<SearchHit> ranked = new ArrayList<>(top);
+        ranked.sort(SearchHit.RANKING);
+        return offset >= ranked.size() ? List.of() : ranked.subList(offset, ranked.size());
+    }
+
+    // --- Matching ---
+
+    /**
+     * Too short for trigrams: a linear substring scan, still ranked with the same boosts.
+     */
+    private void scanShortQuery(String needle, PriorityQueue<SearchHit> top, int window) {
+        for (int slot = 0; slot < slotCount; slot++) {
+            String name = names[slot];
+            if (name == null) {
+                continue;
+            }
+            int at = name.indexOf(needle);
+            if (at >= 0) {
+                double score = positionBoost(name, needle, at) + (double) needle.length() / name.length();
+                offer(top, new SearchHit(fileIds[slot], score), window);
+            }
+        }
+    }
+
+    private void matchTrigrams(String needle, PriorityQueue<SearchHit> top, int window) {
+        long[] grams = distinctTrigrams(needle, false);
+        // Half of the query's trigrams must be present so fuzzy hits stay plausible
+        int minShared = Math.max((grams.length + 1) / 2, grams.length - 3 * allowedTypos(needle.length()));
+
+        int[] shared = new int[slotCount];
+        List<Integer> candidates = new ArrayList<>();
+        for (long gram : grams) {
+            Postings list = postings.get(gram);
+            if (list == null) {
+                continue;
+            }
+            for (int i = 0; i < list.size; i++) {
+                int slot = list.slots[i];
+                if (++shared[slot] == minShared && names[slot] != null) {
+                    candidates.add(slot);
+                }
+            }
+        }
+
+        for (int slot : candidates) {
+            String name = names[slot];
+            int common = shared[slot];
+            double coverage = (double) common / grams.length;
+            double similarity = (double) common / (grams.length + gramCounts[slot] - common);
+            int at = name.indexOf(needle);
+            double score = coverage + similarity / 2 + (at >= 0 ? positionBoost(name, needle, at) : 0);
+            offer(top, new SearchHit(fileIds[slot], score), window);
+        }
+    }
+
+    private static int allowedTypos(int queryLength) {
+        if (queryLength <= 4) {
+            return 0;
+        }
+        return queryLength <= 8 ? 1 : 2;
+    }
+
+    /**
+     * Substring hits always outrank fuzzy ones; prefix and word-start hits rank highest.
+     */
+    private static double positionBoost(String name, String needle, int at) {
+        if (at == 0) {
+            return name.length() == needle.length() ? 2.5 : 2.0;
+        }
+        return Character.isLetterOrDigit(name.charAt(at - 1)) ? 1.0 : 1.5;
+    }
+
+    private static void offer(PriorityQueue<SearchHit> top, SearchHit hit, int window) {
+        if (top.size() < window) {
+            top.add(hit);
+        } else if (SearchHit.RANKING.compare(hit, top.peek()) < 0) {
+            top.poll();
+            top.add(hit);
+        }
+    }
+
+    // --- Maintenance (caller holds the write lock) ---
+
+    private void addSlot(long fileId, String name) {
+        if (slotCount == names.length) {
+            int capacity = names.length * 2;
+            fileIds = Arrays.copyOf(fileIds, capacity);
+            names = Arrays.copyOf(names, capacity);
+            gramCounts = Arrays.copyOf(gramCounts, capacity);
+        }
+        int slot = slotCount++;
+        long[] grams = distinctTrigrams(name, true);
+        fileIds[slot] = fileId;
+        names[slot] = name;
+        gramCounts[slot] = grams.length;
+        for (long gram : grams) {
+            postings.computeIfAbsent(gram, key -> new Postings()).add(slot);
+        }
+        slotByFileId.put(fileId, slot);
+    }
+
+    private void tombstone(long fileId) {
+        Integer slot = slotByFileId.remove(fileId);
+        if (slot != null) {
+            names[slot] = null;
+        }
+    }
+
+    private void compactIfNeeded() {
+        int tombstones = slotCount - slotByFileId.size();
+        if (tombstones < MIN_COMPACTION_TOMBSTONES || tombstones < slotByFileId.size()) {
+            return;
+        }
+        long[] liveIds = new long[slotByFileId.size()];
+        String[] liveNames = new String[slotByFileId.size()];
+        int live = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (names[slot] != null) {
+                liveIds[live] = fileIds[slot];
+                liveNames[live] = names[slot];
+                live++;
+            }
+        }
+        slotByFileId.clear();
+        postings.clear();
+        slotCount = 0;
+        for (int i = 0; i < live; i++) {
+            addSlot(liveIds[i], liveNames[i]);
+        }
+    }
+
+    // --- Trigrams ---
+
+    static String normalize(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Names are padded like pg_trgm ({@code "  name "}) so short names and word starts still
+     * produce trigrams; queries are not, so every trigram of a substring query occurs in a matching name.
+     */
+    static long[] distinctTrigrams(String text, boolean padded) {
+        String source = padded ? "  " + text + " " : text;
+        if (source.length() < 3) {
+            return new long[0];
+        }
+        long[] grams = new long[source.length() - 2];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = ((long) source.charAt(i) << 32)
+                    | ((long) source.charAt(i + 1) << 16)
+                    | source.charAt(i + 2);
+        }
+        return Arrays.stream(grams).distinct().toArray();
+    }
+
+    /**
+     * Ascending slot list of one trigram; slots are appended in allocation order.
+     */
+    private static final class Postings {
+        private int[] slots = new int[4];
+        private int size;
+
+        void add(int slot) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+    }
+}
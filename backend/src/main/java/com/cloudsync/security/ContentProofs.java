@@ -0,0 +1,172 @@
+package com.cloudsync.security;
+
+import com.cloudsync.config.JwtConfig;
+import com.cloudsync.config.UploadConfig;
+import com.cloudsync.dto.ProofChallenge;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Proof-of-possession challenges for instant uploads of content another user stored. Knowing a
+ * hash is not enough to claim the content: the client must hash an unpredictable range of it.
+ * The range is derived from the user, the content and the current validity window, so asking
+ * again yields the same range, and a user gets a limited number of windows per content; a
+ * client holding part of a file cannot fish for a range it has. Challenges are signed tokens,
+ * so any instance can check an answer without shared state; only the attempt counts are kept
+ * per instance. The signing key is derived from the JWT secret but differs from it, so a
+ * challenge is never accepted as an access token.
+ */
+@Component
+public class ContentProofs {
+
+    private static final String KEY_PURPOSE = "cloudsync-content-proof";
+    private static final long MAX_TRACKED_ATTEMPTS = 100_000;
+
+    private final UploadConfig uploadConfig;
+    private final SecretKey key;
+    private final JwtParser parser;
+    private final Cache<String, Attempts> attempts;
+
+    public ContentProofs(JwtConfig jwtConfig, UploadConfig uploadConfig) {
+        this.uploadConfig = uploadConfig;
+        this.key = Keys.hmacShaKeyFor(deriveKey(jwtConfig.getSecret()));
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .build();
+        this.attempts = Caffeine.newBuilder()
+                .maximumSize(MAX_TRACKED_ATTEMPTS)
+                .expireAfterWrite(uploadConfig.getProofAttemptPeriod())
+                .build();
+    }
+
+    /**
+     * Challenges the user to prove possession of the content with the given hash and size, or
+     * returns empty once the user has used up the attempts for it.
+     */
+    public Optional<ProofChallenge> issue(Long userId, String sha256, long size) {
+        long window = Instant.now().toEpochMilli() / uploadConfig.getProofValidity().toMillis();
+        String subject = userId + ":" + sha256 + ":" + size;
+        // A repeated request within the window gets the same range and is not another attempt
+        Attempts used = attempts.asMap().compute(subject, (ignored, previous) ->
+                previous == null ? new Attempts(window, 1)
+                        : previous.window() == window ? previous
+                        : new Attempts(window, previous.count() + 1));
+        if (used.count() > uploadConfig.getMaxProofAttempts()) {
+            return Optional.empty();
+        }
+
+        int length = (int) Math.min(size, uploadConfig.getProofRangeSize());
+        long offset = size > length ? Math.floorMod(rangeSeed(subject, window), size - length + 1) : 0;
+        String token = Jwts.builder()
+                .subject(String.valueOf(userId))
+                .claim("sha256", sha256)
+                .claim("size", size)
+                .claim("offset", offset)
+                .claim("length", length)
+                .id(UUID.randomUUID().toString())
+                .expiration(Date.from(Instant.now().plus(uploadConfig.getProofValidity())))
+                .signWith(key)
+                .compact();
+        return Optional.of(new ProofChallenge(token, offset, length));
+    }
+
+    /**
+     * Returns the challenge behind a token if it is unexpired and was issued to this user for this content.
+     */
+    public Optional<ProofChallenge> open(String token, Long userId, String sha256, long size) {
+        if (token == null) {
+            return Optional.empty();
+        }
+        try {
+            Claims claims = parser.parseSignedClaims(token).getPayload();
+            if (!String.valueOf(userId).equals(claims.getSubject())
+                    || !sha256.equals(claims.get("sha256", String.class))
+                    || size != number(claims, "size")) {
+                return Optional.empty();
+            }
+            return Optional.of(new ProofChallenge(token, number(claims, "offset"), (int) number(claims, "length")));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Checks a response against the challenged range of a blob: hex SHA-256 of the token's bytes
+     * followed by the range.
+     */
+    public boolean matches(ProofChallenge challenge, String response, Path blob) {
+        if (response == null) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(blob, StandardOpenOption.READ)) {
+            ByteBuffer range = ByteBuffer.allocate(challenge.length());
+            while (range.hasRemaining()) {
+                if (channel.read(range, challenge.offset() + range.position()) < 0) {
+                    return false;
+                }
+            }
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            sha256.update(challenge.token().getBytes(StandardCharsets.UTF_8));
+            sha256.update(range.flip());
+            byte[] expected = HexFormat.of().formatHex(sha256.digest()).getBytes(StandardCharsets.US_ASCII);
+            return MessageDigest.isEqual(expected, response.toLowerCase().getBytes(StandardCharsets.US_ASCII));
+        } catch (IOException | GeneralSecurityException e) {
+            return false;
+        }
+    }
+
+    // --- Private helper methods ---
+
+    private long rangeSeed(String subject, long window) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return ByteBuffer.wrap(mac.doFinal((subject + ":" + window).getBytes(StandardCharsets.UTF_8))).getLong();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not derive proof range", e);
+        }
+    }
+
+    private static long number(Claims claims, String name) {
+        if (!(claims.get(name) instanceof Number value)) {
+            throw new IllegalArgumentException("Missing claim: " + name);
+        }
+        return value.longValue();
+    }
+
+    private static byte[] deriveKey(String secret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return mac.doFinal(KEY_PURPOSE.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not derive content proof key", e);
+        }
+    }
+
+    private record Attempts(long window, int count) {
+    }
+}
@@ -35,6 +35,15 @@ public class CustomUserDetailsService implements UserDetailsService {
         );
     }
 
+    /**
+     * Returns a lazy reference to the principal's user row. Owner checks only need the id, so
+     * reads never hit the users table; the row is loaded on first access to any other field,
+     * which only write paths do (quota checks, storage accounting).
+     */
+    public User getUserReference(UserPrincipal principal) {
+        return userRepository.getReferenceById(principal.getId());
+    }
+
     @Transactional(readOnly = true)
     public User getUserByUsername(String username) {
         return userRepository.findByUsername(username)
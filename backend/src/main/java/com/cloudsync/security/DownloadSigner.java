@@ -0,0 +1,107 @@
+package com.cloudsync.security;
+
+import com.cloudsync.config.JwtConfig;
+import com.cloudsync.config.SignedUrlConfig;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.ProtectedHeader;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Issues and verifies download tokens: JWTs encrypted with AES-GCM (JWE, direct key) that name the
+ * key they were issued with, so keys can be rotated. Encryption also authenticates the token, and
+ * keeps the storage path, checksum and file name it carries from whoever holds the URL. New tokens
+ * use the first configured key and tokens from any configured key are accepted; removing a key
+ * revokes everything issued with it. Keys are derived from the configured secrets for this purpose
+ * only, so a download token is never accepted as an access token or the other way round.
+ */
+@Component
+public class DownloadSigner {
+
+    private static final String KEY_PURPOSE = "cloudsync-download-url";
+    private static final String DEFAULT_KEY_ID = "jwt";
+
+    private final Map<String, SecretKey> keys = new LinkedHashMap<>();
+    private final String signingKeyId;
+    private final JwtParser parser;
+
+    public DownloadSigner(SignedUrlConfig config, JwtConfig jwtConfig) {
+        for (SignedUrlConfig.SigningKey key : config.getKeys()) {
+            keys.put(key.getId(), deriveKey(key.getSecret()));
+        }
+        if (keys.isEmpty()) {
+            keys.put(DEFAULT_KEY_ID, deriveKey(jwtConfig.getSecret()));
+        }
+        this.signingKeyId = keys.keySet().iterator().next();
+        this.parser = Jwts.parser()
+                .keyLocator(header -> header instanceof ProtectedHeader protectedHeader
+                        ? keys.get(protectedHeader.getKeyId()) : null)
+                .build();
+    }
+
+    public String sign(SignedDownload download) {
+        return Jwts.builder()
+                .header().keyId(signingKeyId).and()
+                .subject(String.valueOf(download.fileId()))
+                .claim("gen", download.generation())
+                .claim("path", download.storagePath())
+                .claim("sum", download.checksum())
+                .claim("len", download.size())
+                .claim("type", download.contentType())
+                .claim("name", download.filename())
+                .expiration(Date.from(download.expiresAt()))
+                .encryptWith(keys.get(signingKeyId), Jwts.ENC.A256GCM)
+                .compact();
+    }
+
+    /**
+     * Returns the download a token was issued for, if it was issued with a configured key and has not expired.
+     */
+    public Optional<SignedDownload> verify(String token) {
+        try {
+            Claims claims = parser.parseEncryptedClaims(token).getPayload();
+            return Optional.of(new SignedDownload(
+                    Long.valueOf(claims.getSubject()),
+                    (int) number(claims, "gen"),
+                    claims.get("path", String.class),
+                    claims.get("sum", String.class),
+                    number(claims, "len"),
+                    claims.get("type", String.class),
+                    claims.get("name", String.class),
+                    claims.getExpiration().toInstant()));
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    // --- Private helper methods ---
+
+    private static long number(Claims claims, String name) {
+        if (!(claims.get(name) instanceof Number value)) {
+            throw new IllegalArgumentException("Missing claim: " + name);
+        }
+        return value.longValue();
+    }
+
+    private static SecretKey deriveKey(String secret) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            return new SecretKeySpec(mac.doFinal(KEY_PURPOSE.getBytes(StandardCharsets.UTF_8)), "AES");
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not derive download signing key", e);
+        }
+    }
+}
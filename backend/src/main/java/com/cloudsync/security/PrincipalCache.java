@@ -0,0 +1,74 @@
+package com.cloudsync.security;
+
+import com.cloudsync.config.PrincipalCacheConfig;
+import com.cloudsync.config.StorageConfig;
+import com.cloudsync.entity.User;
+import com.cloudsync.event.UserChangedEvent;
+import com.cloudsync.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Bounded cache of authenticated principals keyed by user id, with the ids of the usernames
+ * tokens carry, so that a token-authenticated request costs no user query. Principals are
+ * dropped after commit of any transaction publishing a {@link UserChangedEvent}; the TTL bounds
+ * staleness for changes made by other instances. Unknown usernames are not cached.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final StorageConfig storageConfig;
+    private final Cache<String, Long> userIds;
+    private final Cache<Long, UserPrincipal> principals;
+
+    public PrincipalCache(UserRepository userRepository, StorageConfig storageConfig,
+                          PrincipalCacheConfig cacheConfig) {
+        this.userRepository = userRepository;
+        this.storageConfig = storageConfig;
+        // Usernames never change, so their ids need no invalidation
+        this.userIds = Caffeine.newBuilder()
+                .maximumSize(cacheConfig.getMaxSize())
+                .build();
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(cacheConfig.getMaxSize())
+                .expireAfterWrite(cacheConfig.getTtl())
+                .build();
+    }
+
+    /**
+     * Returns the cached principal, loading it from the primary's users table on a miss.
+     */
+    public UserPrincipal get(String username) {
+        Long userId = userIds.get(username, this::loadId);
+        // Loaded inside the cache's compute, so an invalidation racing the load is not lost
+        return principals.get(userId, id -> load(username));
+    }
+
+    public void invalidate(Long userId) {
+        principals.invalidate(userId);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    // --- Private helper methods ---
+
+    private Long loadId(String username) {
+        return findCurrent(username).getId();
+    }
+
+    private UserPrincipal load(String username) {
+        return UserPrincipal.from(findCurrent(username), storageConfig.getMaxUserStorage());
+    }
+
+    private User findCurrent(String username) {
+        return userRepository.findCurrentByUsername(username)
+                .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
+    }
+}
@@ -0,0 +1,18 @@
+package com.cloudsync.security;
+
+import java.time.Instant;
+
+/**
+ * Everything needed to serve a file, carried in a signed download URL so serving it needs no query.
+ */
+public record SignedDownload(
+        Long fileId,
+        int generation,
+        String storagePath,
+        String checksum,
+        long size,
+        String contentType,
+        String filename,
+        Instant expiresAt
+) {
+}
@@ -0,0 +1,89 @@
+package com.cloudsync.security;
+
+import com.cloudsync.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable snapshot of an authenticated user, built by the JWT filter from the principal cache.
+ * Carries no password: token-authenticated requests never need it. The storage figures are a
+ * snapshot for cheap early rejection only; quota is enforced against the user row when writing.
+ */
+public final class UserPrincipal implements UserDetails {
+
+    private static final List<GrantedAuthority> AUTHORITIES = List.of(new SimpleGrantedAuthority("ROLE_USER"));
+
+    private final Long id;
+    private final String username;
+    private final boolean enabled;
+    private final long storageUsed;
+    private final long storageQuota;
+
+    public UserPrincipal(Long id, String username, boolean enabled, long storageUsed, long storageQuota) {
+        this.id = id;
+        this.username = username;
+        this.enabled = enabled;
+        this.storageUsed = storageUsed;
+        this.storageQuota = storageQuota;
+    }
+
+    public static UserPrincipal from(User user, long storageQuota) {
+        return new UserPrincipal(user.getId(), user.getUsername(), user.isEnabled(),
+                user.getStorageUsed(), storageQuota);
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getStorageUsed() {
+        return storageUsed;
+    }
+
+    public long getStorageQuota() {
+        return storageQuota;
+    }
+
+    public long getRemainingQuota() {
+        return Math.max(0, storageQuota - storageUsed);
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return AUTHORITIES;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
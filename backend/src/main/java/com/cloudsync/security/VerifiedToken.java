@@ -0,0 +1,13 @@
+package com.cloudsync.security;
+
+import java.time.Instant;
+
+/**
+ * Claims of a token whose signature and expiry have been checked.
+ */
+public record VerifiedToken(String username, Instant expiresAt) {
+
+    public boolean isExpired(Instant now) {
+        return !expiresAt.isAfter(now);
+    }
+}
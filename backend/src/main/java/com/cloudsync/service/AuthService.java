@@ -4,11 +4,13 @@ import com.cloudsync.dto.AuthResponse;
 import com.cloudsync.dto.LoginRequest;
 import com.cloudsync.dto.RegisterRequest;
 import com.cloudsync.entity.User;
+import com.cloudsync.event.UserChangedEvent;
 import com.cloudsync.exception.UserAlreadyExistsException;
 import com.cloudsync.repository.UserRepository;
 import com.cloudsync.security.JwtTokenProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -32,13 +34,21 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
     private final AuthenticationManager authenticationManager;
+    private final StorageStatsService storageStatsService;
+    private final ChangeJournalService changeJournalService;
+    private final ApplicationEventPublisher eventPublisher;
 
     public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder,
-                       JwtTokenProvider jwtTokenProvider, AuthenticationManager authenticationManager) {
+                       JwtTokenProvider jwtTokenProvider, AuthenticationManager authenticationManager,
+                       StorageStatsService storageStatsService, ChangeJournalService changeJournalService,
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.jwtTokenProvider = jwtTokenProvider;
         this.authenticationManager = authenticationManager;
+        this.storageStatsService = storageStatsService;
+        this.changeJournalService = changeJournalService;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -55,6 +65,9 @@ public class AuthService {
         );
 
         userRepository.save(user);
+        storageStatsService.initialize(user);
+        changeJournalService.initialize(user);
+        eventPublisher.publishEvent(UserChangedEvent.of(user));
         
         log.info("User registered: username={}", request.username());
 
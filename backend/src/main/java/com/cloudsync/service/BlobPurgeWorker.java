@@ -0,0 +1,91 @@
+package com.cloudsync.service;
+
+import com.cloudsync.entity.BlobPurgeTask;
+import com.cloudsync.exception.FileStorageException;
+import com.cloudsync.repository.BlobPurgeTaskRepository;
+import com.cloudsync.repository.FileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Deletes queued blobs from disk in the background, oldest first.
+ * Blobs still referenced by a file row are skipped; failed deletions are retried
+ * on later runs up to {@link #MAX_ATTEMPTS} times.
+ */
+@Component
+public class BlobPurgeWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(BlobPurgeWorker.class);
+
+    private static final int BATCH_SIZE = 500;
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final BlobPurgeTaskRepository purgeRepository;
+    private final FileRepository fileRepository;
+    private final StorageService storageService;
+    private final TransactionTemplate transaction;
+
+    public BlobPurgeWorker(BlobPurgeTaskRepository purgeRepository, FileRepository fileRepository,
+                           StorageService storageService, PlatformTransactionManager transactionManager) {
+        this.purgeRepository = purgeRepository;
+        this.fileRepository = fileRepository;
+        this.storageService = storageService;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(fixedDelayString = "${cloudsync.purge.interval:PT5S}")
+    public void purgePending() {
+        int purged = 0;
+        List<BlobPurgeTask> batch = purgeRepository.findOldest(PageRequest.of(0, BATCH_SIZE));
+        while (!batch.isEmpty()) {
+            Set<String> referenced = fileRepository.findReferencedStoragePaths(
+                    batch.stream().map(BlobPurgeTask::getStoragePath).toList());
+
+            List<Long> done = new ArrayList<>();
+            List<Long> failed = new ArrayList<>();
+            for (BlobPurgeTask task : batch) {
+                if (referenced.contains(task.getStoragePath())) {
+                    done.add(task.getId());
+                    continue;
+                }
+                try {
+                    storageService.deleteBlob(task.getStoragePath());
+                    done.add(task.getId());
+                    purged++;
+                } catch (FileStorageException e) {
+                    if (task.getAttempts() + 1 >= MAX_ATTEMPTS) {
+                        log.error("Giving up on blob deletion: path={}", task.getStoragePath(), e);
+                        done.add(task.getId());
+                    } else {
+                        failed.add(task.getId());
+                    }
+                }
+            }
+            // Blobs are deleted outside it; the queue is updated for the whole batch in one transaction
+            transaction.executeWithoutResult(status -> {
+                purgeRepository.deleteAllByIdInBatch(done);
+                if (!failed.isEmpty()) {
+                    purgeRepository.incrementAttempts(failed);
+                }
+            });
+
+            // Failures stay at the head of the queue; leave them for the next run
+            if (!failed.isEmpty() || batch.size() < BATCH_SIZE) {
+                break;
+            }
+            batch = purgeRepository.findOldest(PageRequest.of(0, BATCH_SIZE));
+        }
+        if (purged > 0) {
+            log.info("Blobs purged: count={}", purged);
+        }
+    }
+}
@@ -0,0 +1,469 @@
+package com.cloudsync.service;
+
+import com.cloudsync.dto.BulkItemResult;
+import com.cloudsync.dto.BulkItemResult.ItemType;
+import com.cloudsync.dto.BulkRenameRequest;
+import com.cloudsync.dto.BulkRequest;
+import com.cloudsync.dto.BulkResult;
+import com.cloudsync.entity.BlobPurgeTask;
+import com.cloudsync.entity.ChangeEntry;
+import com.cloudsync.entity.DownloadRevocation;
+import com.cloudsync.entity.Folder;
+import com.cloudsync.entity.StoredFile;
+import com.cloudsync.entity.User;
+import com.cloudsync.event.DownloadsRevokedEvent;
+import com.cloudsync.event.FileChangedEvent;
+import com.cloudsync.event.FilesDeletedEvent;
+import com.cloudsync.event.SharesChangedEvent;
+import com.cloudsync.event.UserChangedEvent;
+import com.cloudsync.exception.FolderNotFoundException;
+import com.cloudsync.repository.BlobPurgeTaskRepository;
+import com.cloudsync.repository.ContentTypeUsage;
+import com.cloudsync.repository.DownloadRevocationRepository;
+import com.cloudsync.repository.FileRepository;
+import com.cloudsync.repository.FileRow;
+import com.cloudsync.repository.FolderRepository;
+import com.cloudsync.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Moves, deletes, shares and renames many files and folders in one transaction.
+ * <p>
+ * Files are handled with set-based statements over their ids: one load, one update or delete,
+ * and counters, rollups, statistics and quota adjusted once per affected folder or in aggregate.
+ * Folders go through {@link FolderService}, whose operations are already set-based per subtree.
+ * Items that cannot be processed are reported per item and never fail the whole request:
+ * every check happens here, before any call that would mark the transaction rollback-only.
+ */
+@Service
+@Transactional
+public class BulkOperationService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkOperationService.class);
+
+    public static final int MAX_ITEMS = 10_000;
+    private static final int CHUNK_SIZE = 1000;
+    private static final String UNKNOWN_CONTENT_TYPE = "application/octet-stream";
+
+    private final FileRepository fileRepository;
+    private final FolderRepository folderRepository;
+    private final UserRepository userRepository;
+    private final BlobPurgeTaskRepository blobPurgeTaskRepository;
+    private final DownloadRevocationRepository downloadRevocationRepository;
+    private final FolderService folderService;
+    private final StorageStatsService storageStatsService;
+    private final FolderRollupService folderRollupService;
+    private final ChangeJournalService changeJournalService;
+    private final FolderDigestService folderDigestService;
+    private final FolderListingCache folderListingCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public BulkOperationService(FileRepository fileRepository, FolderRepository folderRepository,
+                                UserRepository userRepository, BlobPurgeTaskRepository blobPurgeTaskRepository,
+                                DownloadRevocationRepository downloadRevocationRepository, FolderService folderService, StorageStatsService storageStatsService,
+                                FolderRollupService folderRollupService, ChangeJournalService changeJournalService,
+                                FolderDigestService folderDigestService, FolderListingCache folderListingCache,
+                                ApplicationEventPublisher eventPublisher) {
+        this.fileRepository = fileRepository;
+        this.folderRepository = folderRepository;
+        this.userRepository = userRepository;
+        this.blobPurgeTaskRepository = blobPurgeTaskRepository;
+        this.downloadRevocationRepository = downloadRevocationRepository;
+        this.folderService = folderService;
+        this.storageStatsService = storageStatsService;
+        this.folderRollupService = folderRollupService;
+        this.changeJournalService = changeJournalService;
+        this.folderDigestService = folderDigestService;
+        this.folderListingCache = folderListingCache;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Deletes the selected files, then the selected folder subtrees. Freed bytes are refunded
+     * to the quota in one update.
+     */
+    public BulkResult delete(BulkRequest request, User user) {
+        validateSize(request.size());
+        List<BulkItemResult> results = new ArrayList<>();
+
+        Map<Long, StoredFile> files = loadFiles(request.fileIds(), user);
+        List<StoredFile> deleted = new ArrayList<>(files.values());
+        for (Long id : distinct(request.fileIds())) {
+            results.add(files.containsKey(id) ? BulkItemResult.ok(ItemType.FILE, id)
+                    : BulkItemResult.notFound(ItemType.FILE, id));
+        }
+        if (!deleted.isEmpty()) {
+            deleteFiles(deleted, user);
+        }
+
+        // Shallowest first; folders inside an already deleted subtree are reported as deleted with it
+        List<Folder> folders = loadFolders(request.folderIds(), user);
+        folders.sort(Comparator.comparingInt(Folder::getDepth));
+        Set<Long> deletedFolders = new HashSet<>();
+        Map<Long, BulkItemResult> folderResults = new HashMap<>();
+        for (Folder folder : folders) {
+            if (!isInsideAny(folder, deletedFolders)) {
+                folderService.deleteFolder(folder.getId(), user);
+                deletedFolders.add(folder.getId());
+            }
+            folderResults.put(folder.getId(), BulkItemResult.ok(ItemType.FOLDER, folder.getId()));
+        }
+        addFolderResults(request.folderIds(), folderResults, results);
+
+        log.info("Bulk delete: userId={}, files={}, folders={}",
+                user.getId(), deleted.size(), deletedFolders.size());
+
+        return BulkResult.of(results);
+    }
+
+    /**
+     * Moves the selected files and folders into the target folder, or the root if none is given.
+     */
+    public BulkResult move(BulkRequest request, User user) {
+        validateSize(request.size());
+        Folder target = request.targetFolderId() == null ? null
+                : folderRepository.findByIdAndOwner(request.targetFolderId(), user)
+                        .orElseThrow(() -> new FolderNotFoundException("Target folder not found"));
+        List<BulkItemResult> results = new ArrayList<>();
+
+        Map<Long, StoredFile> files = loadFiles(request.fileIds(), user);
+        List<StoredFile> moved = files.values().stream()
+                .filter(file -> !sameFolder(file.getFolder(), target))
+                .toList();
+        for (Long id : distinct(request.fileIds())) {
+            results.add(files.containsKey(id) ? BulkItemResult.ok(ItemType.FILE, id)
+                    : BulkItemResult.notFound(ItemType.FILE, id));
+        }
+        if (!moved.isEmpty()) {
+            moveFiles(moved, target, user);
+        }
+
+        // Shallowest first; a folder inside a moved subtree has moved with it and stays there
+        List<Folder> folders = loadFolders(request.folderIds(), user);
+        folders.sort(Comparator.comparingInt(Folder::getDepth));
+        Set<Long> movedFolders = new HashSet<>();
+        Map<Long, BulkItemResult> folderResults = new HashMap<>();
+        for (Folder folder : folders) {
+            boolean coveredByAncestor = isInsideAny(folder, movedFolders);
+            BulkItemResult result = coveredByAncestor
+                    ? BulkItemResult.ok(ItemType.FOLDER, folder.getId())
+                    : moveFolder(folder, target, user);
+            if (!coveredByAncestor && result.succeeded()) {
+                movedFolders.add(folder.getId());
+            }
+            folderResults.put(folder.getId(), result);
+        }
+        addFolderResults(request.folderIds(), folderResults, results);
+
+        log.info("Bulk move: userId={}, files={}, folders={}, targetFolderId={}",
+                user.getId(), moved.size(), movedFolders.size(), request.targetFolderId());
+
+        return BulkResult.of(results);
+    }
+
+    /**
+     * Shares the selected files. Files that are already shared keep their link.
+     */
+    public BulkResult share(BulkRequest request, User user) {
+        validateSize(request.fileIds().size());
+        List<BulkItemResult> results = new ArrayList<>();
+
+        Map<Long, StoredFile> files = loadFiles(request.fileIds(), user);
+        List<ChangeEntry> changes = new ArrayList<>();
+        List<String> tokens = new ArrayList<>();
+        for (Long id : distinct(request.fileIds())) {
+            StoredFile file = files.get(id);
+            if (file == null) {
+                results.add(BulkItemResult.notFound(ItemType.FILE, id));
+                continue;
+            }
+            if (!file.isPublic() || file.getShareToken() == null) {
+                file.generateShareToken();
+                file.setPublic(true);
+                changes.add(ChangeEntry.file(ChangeEntry.Type.SHARED, file));
+                tokens.add(file.getShareToken());
+            }
+            results.add(BulkItemResult.shared(id, file.getShareToken()));
+        }
+        changeJournalService.record(user, changes);
+        folderListingCache.recordContentChanges(changes.stream().map(ChangeEntry::getParentId).toList());
+        eventPublisher.publishEvent(SharesChangedEvent.shared(tokens));
+        // Dirty entities are flushed as one JDBC batch of updates at commit
+
+        log.info("Bulk share: userId={}, files={}", user.getId(), files.size());
+
+        return BulkResult.of(results);
+    }
+
+    /**
+     * Removes public sharing from the selected files.
+     */
+    public BulkResult unshare(BulkRequest request, User user) {
+        validateSize(request.fileIds().size());
+        List<BulkItemResult> results = new ArrayList<>();
+
+        List<FileRow> rows = new ArrayList<>();
+        List<Long> ids = distinct(request.fileIds());
+        for (List<Long> chunk : chunks(ids)) {
+            rows.addAll(fileRepository.findRowsByOwnerAndIdIn(user, chunk));
+        }
+        Set<Long> existing = rows.stream().map(FileRow::id).collect(Collectors.toSet());
+        // Files that were never shared are left alone: unsharing them would revoke their owner's links
+        List<FileRow> shared = rows.stream()
+                .filter(row -> Boolean.TRUE.equals(row.isPublic()) || row.shareToken() != null)
+                .toList();
+        List<Long> sharedIds = shared.stream().map(FileRow::id).toList();
+        LocalDateTime now = LocalDateTime.now();
+        for (List<Long> chunk : chunks(sharedIds)) {
+            // Also bumps the download generation, revoking links signed from the share links
+            fileRepository.unshareByOwnerAndIdIn(user, chunk, now);
+            downloadRevocationRepository.revokeCurrentGeneration(user, chunk);
+        }
+        folderListingCache.recordContentChanges(shared.stream().map(FileRow::folderId).toList());
+        changeJournalService.record(user, shared.stream()
+                .map(row -> new ChangeEntry(ChangeEntry.Type.UNSHARED, ChangeEntry.ItemType.FILE,
+                        row.id(), row.folderId(), row.originalName()))
+                .toList());
+        eventPublisher.publishEvent(SharesChangedEvent.revoked(sharedIds));
+        eventPublisher.publishEvent(new DownloadsRevokedEvent(sharedIds));
+        for (Long id : ids) {
+            results.add(existing.contains(id) ? BulkItemResult.ok(ItemType.FILE, id)
+                    : BulkItemResult.notFound(ItemType.FILE, id));
+        }
+
+        log.info("Bulk unshare: userId={}, files={}, unshared={}", user.getId(), existing.size(), sharedIds.size());
+
+        return BulkResult.of(results);
+    }
+
+    /**
+     * Renames files and folders. Folder names must stay unique among their siblings.
+     */
+    public BulkResult rename(BulkRenameRequest request, User user) {
+        validateSize(request.size());
+        List<BulkItemResult> results = new ArrayList<>();
+
+        Map<Long, StoredFile> files = loadFiles(request.files().keySet(), user);
+        List<ChangeEntry> changes = new ArrayList<>();
+        for (Map.Entry<Long, String> rename : request.files().entrySet()) {
+            StoredFile file = files.get(rename.getKey());
+            if (file == null) {
+                results.add(BulkItemResult.notFound(ItemType.FILE, rename.getKey()));
+            } else if (!StringUtils.hasText(rename.getValue())) {
+                results.add(BulkItemResult.invalid(ItemType.FILE, rename.getKey(), "Name must not be blank"));
+            } else {
+                file.setOriginalName(rename.getValue().strip());
+                eventPublisher.publishEvent(FileChangedEvent.renamed(file));
+                changes.add(ChangeEntry.file(ChangeEntry.Type.RENAMED, file));
+                results.add(BulkItemResult.ok(ItemType.FILE, rename.getKey()));
+            }
+        }
+        changeJournalService.record(user, changes);
+        folderDigestService.recordChanges(user, changes.stream().map(ChangeEntry::getParentId).toList());
+        folderListingCache.recordContentChanges(changes.stream().map(ChangeEntry::getParentId).toList());
+
+        // Deepest first, so a rename never works on paths already rewritten by an ancestor's rename
+        List<Folder> folders = loadFolders(request.folders().keySet(), user);
+        folders.sort(Comparator.comparingInt(Folder::getDepth).reversed());
+        Map<Long, BulkItemResult> folderResults = new HashMap<>();
+        for (Folder folder : folders) {
+            String name = request.folders().get(folder.getId());
+            name = name != null ? name.strip() : "";
+            if (name.isEmpty()) {
+                folderResults.put(folder.getId(),
+                        BulkItemResult.invalid(ItemType.FOLDER, folder.getId(), "Name must not be blank"));
+            } else if (!name.equals(folder.getName())
+                    && folderRepository.existsByNameAndOwnerAndParent(name, user, folder.getParent())) {
+                folderResults.put(folder.getId(), BulkItemResult.invalid(ItemType.FOLDER, folder.getId(),
+                        "Folder with name '" + name + "' already exists"));
+            } else {
+                if (!name.equals(folder.getName())) {
+                    folderService.renameFolder(folder.getId(), user, name);
+                }
+                folderResults.put(folder.getId(), BulkItemResult.ok(ItemType.FOLDER, folder.getId()));
+            }
+        }
+        addFolderResults(List.copyOf(request.folders().keySet()), folderResults, results);
+
+        log.info("Bulk rename: userId={}, files={}, folders={}",
+                user.getId(), request.files().size(), request.folders().size());
+
+        return BulkResult.of(results);
+    }
+
+    // --- Private helper methods ---
+
+    private void deleteFiles(List<StoredFile> files, User user) {
+        List<Long> ids = files.stream().map(StoredFile::getId).toList();
+        // Sequence ids: both are inserted in batches with the flush
+        blobPurgeTaskRepository.saveAll(files.stream()
+                .map(file -> new BlobPurgeTask(file.getStoragePath()))
+                .toList());
+        downloadRevocationRepository.saveAll(files.stream()
+                .filter(file -> file.getDownloadGeneration() > 0)
+                .map(file -> new DownloadRevocation(file.getId(), DownloadRevocation.ALL_GENERATIONS))
+                .toList());
+        for (List<Long> chunk : chunks(ids)) {
+            fileRepository.deleteByOwnerAndIdIn(user, chunk);
+        }
+
+        adjustSourceFolders(files);
+        folderDigestService.recordChanges(user, sourceFolderIds(files));
+        folderListingCache.recordChanges(sourceFolderIds(files));
+        long freedBytes = files.stream().mapToLong(StoredFile::getSize).sum();
+        userRepository.refundStorage(user.getId(), freedBytes);
+        storageStatsService.recordSubtreeRemoved(user, 0, summarizeByContentType(files));
+        changeJournalService.record(user, files.stream()
+                .map(file -> ChangeEntry.file(ChangeEntry.Type.DELETED, file))
+                .toList());
+        eventPublisher.publishEvent(new FilesDeletedEvent(user.getId(), ids));
+        eventPublisher.publishEvent(new DownloadsRevokedEvent(ids));
+        eventPublisher.publishEvent(UserChangedEvent.of(user));
+    }
+
+    private void moveFiles(List<StoredFile> files, Folder target, User user) {
+        List<Long> ids = files.stream().map(StoredFile::getId).toList();
+        LocalDateTime now = LocalDateTime.now();
+        for (List<Long> chunk : chunks(ids)) {
+            fileRepository.moveToFolder(user, chunk, target, now);
+        }
+
+        adjustSourceFolders(files);
+        folderDigestService.recordChanges(user, sourceFolderIds(files));
+        folderDigestService.recordChange(user, target);
+        folderListingCache.recordChanges(sourceFolderIds(files));
+        folderListingCache.recordChange(target);
+        long movedBytes = files.stream().mapToLong(StoredFile::getSize).sum();
+        if (target != null) {
+            folderRepository.adjustFileCounters(target.getId(), files.size(), movedBytes);
+        }
+        folderRollupService.recordFileChange(target, files.size(), movedBytes);
+        Long targetId = target != null ? target.getId() : null;
+        changeJournalService.record(user, files.stream()
+                .map(file -> new ChangeEntry(ChangeEntry.Type.MOVED, ChangeEntry.ItemType.FILE,
+                        file.getId(), targetId, file.getOriginalName()))
+                .toList());
+    }
+
+    /**
+     * Subtracts the files from the counters and rollups of the folders they were in, once per folder.
+     */
+    private void adjustSourceFolders(List<StoredFile> files) {
+        Map<Folder, List<StoredFile>> byFolder = files.stream()
+                .filter(file -> file.getFolder() != null)
+                .collect(Collectors.groupingBy(StoredFile::getFolder));
+        byFolder.forEach((folder, folderFiles) -> {
+            long bytes = folderFiles.stream().mapToLong(StoredFile::getSize).sum();
+            folderRepository.adjustFileCounters(folder.getId(), -folderFiles.size(), -bytes);
+            folderRollupService.recordFileChange(folder, -folderFiles.size(), -bytes);
+        });
+    }
+
+    private BulkItemResult moveFolder(Folder folder, Folder target, User user) {
+        if (sameFolder(folder.getParent(), target)) {
+            return BulkItemResult.ok(ItemType.FOLDER, folder.getId());
+        }
+        if (target != null && folder.isSameOrAncestorOf(target)) {
+            return BulkItemResult.invalid(ItemType.FOLDER, folder.getId(),
+                    "Cannot move folder into itself or its children");
+        }
+        if (folderRepository.existsByNameAndOwnerAndParent(folder.getName(), user, target)) {
+            return BulkItemResult.invalid(ItemType.FOLDER, folder.getId(),
+                    "Folder with name '" + folder.getName() + "' already exists");
+        }
+        folderService.moveFolder(folder.getId(), user, target != null ? target.getId() : null);
+        return BulkItemResult.ok(ItemType.FOLDER, folder.getId());
+    }
+
+    private Map<Long, StoredFile> loadFiles(Collection<Long> ids, User user) {
+        Map<Long, StoredFile> files = new HashMap<>();
+        for (List<Long> chunk : chunks(distinct(ids))) {
+            fileRepository.findAllWithFolderByOwnerAndIdIn(user, chunk)
+                    .forEach(file -> files.put(file.getId(), file));
+        }
+        return files;
+    }
+
+    private List<Folder> loadFolders(Collection<Long> ids, User user) {
+        List<Folder> folders = new ArrayList<>();
+        for (List<Long> chunk : chunks(distinct(ids))) {
+            folders.addAll(folderRepository.findByOwnerAndIdIn(user, chunk));
+        }
+        return folders;
+    }
+
+    private static void addFolderResults(List<Long> requestedIds, Map<Long, BulkItemResult> found,
+                                         List<BulkItemResult> results) {
+        for (Long id : distinct(requestedIds)) {
+            results.add(found.getOrDefault(id, BulkItemResult.notFound(ItemType.FOLDER, id)));
+        }
+    }
+
+    /**
+     * Groups files by content type; uploads without one are counted as {@link #UNKNOWN_CONTENT_TYPE},
+     * which falls in the same family as a missing type.
+     */
+    private static List<ContentTypeUsage> summarizeByContentType(List<StoredFile> files) {
+        return files.stream()
+                .collect(Collectors.groupingBy(file -> Objects.requireNonNullElse(file.getContentType(),
+                        UNKNOWN_CONTENT_TYPE)))
+                .entrySet().stream()
+                .map(entry -> new ContentTypeUsage(entry.getKey(), (long) entry.getValue().size(),
+                        entry.getValue().stream().mapToLong(StoredFile::getSize).sum()))
+                .toList();
+    }
+
+    /**
+     * Checks the ancestor ids of the folder's lineage as loaded, which stay valid after a
+     * move of one of those ancestors has rewritten the lineage in the database.
+     */
+    private static boolean isInsideAny(Folder folder, Set<Long> ancestorIds) {
+        return !ancestorIds.isEmpty()
+                && Folder.parseLineage(folder.getLineage()).stream().anyMatch(ancestorIds::contains);
+    }
+
+    private static List<Long> sourceFolderIds(List<StoredFile> files) {
+        return files.stream()
+                .map(file -> file.getFolder() != null ? file.getFolder().getId() : null)
+                .toList();
+    }
+
+    private static boolean sameFolder(Folder a, Folder b) {
+        return Objects.equals(a != null ? a.getId() : null, b != null ? b.getId() : null);
+    }
+
+    private static List<Long> distinct(Collection<Long> ids) {
+        return ids.stream().filter(Objects::nonNull).distinct().toList();
+    }
+
+    private static List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            chunks.add(ids.subList(from, Math.min(ids.size(), from + CHUNK_SIZE)));
+        }
+        return chunks;
+    }
+
+    private static void validateSize(int items) {
+        if (items > MAX_ITEMS) {
+            throw new IllegalArgumentException("At most " + MAX_ITEMS + " items per request");
+        }
+    }
+}
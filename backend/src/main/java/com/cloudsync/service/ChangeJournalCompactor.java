@@ -0,0 +1,42 @@
+package com.cloudsync.service;
+
+import com.cloudsync.config.ChangeJournalConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Periodically removes change journal entries past the retention period, one transaction per batch of users.
+ */
+@Component
+public class ChangeJournalCompactor {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeJournalCompactor.class);
+
+    private static final int BATCH_USERS = 100;
+
+    private final ChangeJournalService changeJournalService;
+    private final ChangeJournalConfig config;
+
+    public ChangeJournalCompactor(ChangeJournalService changeJournalService, ChangeJournalConfig config) {
+        this.changeJournalService = changeJournalService;
+        this.config = config;
+    }
+
+    @Scheduled(fixedDelayString = "${cloudsync.changes.compaction-interval:PT1H}")
+    public void compact() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(config.getRetention());
+        int compacted;
+        int total = 0;
+        do {
+            compacted = changeJournalService.compact(cutoff, BATCH_USERS);
+            total += compacted;
+        } while (compacted == BATCH_USERS);
+        if (total > 0) {
+            log.info("Change journals compacted: users={}, cutoff={}", total, cutoff);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.cloudsync.service;
+
+import com.cloudsync.config.ChangeJournalConfig;
+import com.cloudsync.dto.ChangeDto;
+import com.cloudsync.dto.ChangeFeed;
+import com.cloudsync.entity.ChangeEntry;
+import com.cloudsync.entity.ChangeJournalHead;
+import com.cloudsync.entity.User;
+import com.cloudsync.event.ChangesRecordedEvent;
+import com.cloudsync.repository.ChangeEntryRepository;
+import com.cloudsync.repository.ChangeJournalHeadRepository;
+import com.cloudsync.repository.JournalCompaction;
+import com.cloudsync.repository.JournalPosition;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maintains the per-user change journal that sync clients read instead of re-fetching listings.
+ * Writers record their changes in their own transaction; sequence numbers come from the user's
+ * journal head, whose row lock makes a user's entries commit in sequence order.
+ */
+@Service
+@Transactional
+public class ChangeJournalService {
+
+    private final ChangeEntryRepository entryRepository;
+    private final ChangeJournalHeadRepository headRepository;
+    private final ChangeJournalConfig config;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ChangeJournalService(ChangeEntryRepository entryRepository, ChangeJournalHeadRepository headRepository,
+                                ChangeJournalConfig config, ApplicationEventPublisher eventPublisher) {
+        this.entryRepository = entryRepository;
+        this.headRepository = headRepository;
+        this.config = config;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Creates the empty journal of a newly registered user.
+     */
+    public void initialize(User user) {
+        headRepository.save(new ChangeJournalHead(user.getId()));
+    }
+
+    public void record(User user, ChangeEntry entry) {
+        record(user, List.of(entry));
+    }
+
+    /**
+     * Appends the entries to the user's journal with consecutive sequence numbers.
+     */
+    public void record(User user, List<ChangeEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Long userId = user.getId();
+        if (headRepository.advance(userId, entries.size()) == 0) {
+            // Users inserted without registration (imports, fixtures) get their head on first change
+            headRepository.saveAndFlush(new ChangeJournalHead(userId));
+            headRepository.advance(userId, entries.size());
+        }
+        long lastSeq = headRepository.findLastSeq(userId).orElseThrow();
+        long seq = lastSeq - entries.size();
+        for (ChangeEntry entry : entries) {
+            entry.assign(userId, ++seq);
+        }
+        entryRepository.saveAll(entries);
+        eventPublisher.publishEvent(new ChangesRecordedEvent(userId, lastSeq));
+    }
+
+    /**
+     * Returns the changes after the cursor, or only the current position when no cursor is given.
+     */
+    @Transactional(readOnly = true)
+    public ChangeFeed getChanges(User user, String cursor, Integer limit) {
+        int batchSize = resolveBatchSize(limit);
+        JournalPosition head = headRepository.findPosition(user.getId()).orElse(JournalPosition.empty(user.getId()));
+        if (cursor == null) {
+            return new ChangeFeed(List.of(), Long.toString(head.lastSeq()), false, false);
+        }
+
+        long after = ChangeFeed.parseCursor(cursor);
+        if (after < head.compactedSeq()) {
+            return ChangeFeed.reset(head.lastSeq());
+        }
+        // A cursor ahead of the head was issued by a more current database, e.g. the primary
+        // while this read went to a lagging replica; there is nothing new for it yet
+        if (after >= head.lastSeq()) {
+            return new ChangeFeed(List.of(), cursor, false, false);
+        }
+
+        List<ChangeEntry> entries = entryRepository.findAfter(user.getId(), after,
+                PageRequest.of(0, batchSize + 1));
+        boolean hasMore = entries.size() > batchSize;
+        List<ChangeEntry> batch = hasMore ? entries.subList(0, batchSize) : entries;
+        long next = batch.isEmpty() ? after : batch.get(batch.size() - 1).getSeq();
+        return new ChangeFeed(coalesce(batch), Long.toString(next), hasMore, false);
+    }
+
+    /**
+     * Drops the entries recorded before the cutoff from up to {@code maxUsers} journals and returns
+     * how many journals were compacted. Cursors from before the compaction then require a reset.
+     */
+    public int compact(LocalDateTime cutoff, int maxUsers) {
+        List<JournalCompaction> targets = entryRepository.findCompactable(cutoff, PageRequest.of(0, maxUsers));
+        for (JournalCompaction target : targets) {
+            // Marked first: the head's row lock waits for writers still appending to this journal
+            headRepository.markCompacted(target.userId(), target.seq());
+            entryRepository.deleteUpTo(target.userId(), target.seq());
+        }
+        return targets.size();
+    }
+
+    // --- Private helper methods ---
+
+    /**
+     * Reduces a batch to the last change of each item, in the order of those changes. An item
+     * created within the batch is reported as created, or left out if it was deleted again.
+     */
+    private List<ChangeDto> coalesce(List<ChangeEntry> entries) {
+        Map<String, ChangeDto> latest = new LinkedHashMap<>();
+        Set<String> created = new HashSet<>();
+        for (ChangeEntry entry : entries) {
+            String key = entry.getItemType() + ":" + entry.getItemId();
+            if (entry.getType() == ChangeEntry.Type.CREATED) {
+                created.add(key);
+            }
+            latest.remove(key);
+            latest.put(key, ChangeDto.fromEntity(entry));
+        }
+        return latest.entrySet().stream()
+                .filter(change -> !(created.contains(change.getKey())
+                        && change.getValue().type() == ChangeEntry.Type.DELETED))
+                .map(change -> created.contains(change.getKey())
+                        ? change.getValue().withType(ChangeEntry.Type.CREATED) : change.getValue())
+                .toList();
+    }
+
+    private int resolveBatchSize(Integer limit) {
+        if (limit == null) {
+            return config.getMaxBatchSize();
+        }
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        return Math.min(limit, config.getMaxBatchSize());
+    }
+}
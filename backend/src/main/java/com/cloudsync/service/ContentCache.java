@@ -0,0 +1,222 @@
+package com.cloudsync.service;
+
+import com.cloudsync.concurrent.SingleFlight;
+import com.cloudsync.config.CoalescingConfig;
+import com.cloudsync.config.ContentCacheConfig;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Byte-budgeted cache of file content for popular downloads, keyed by checksum so files sharing
+ * a blob share one entry and no invalidation is needed: a checksum always names the same bytes.
+ * <p>
+ * Content lives in direct buffers, outside the heap. Caffeine's W-TinyLFU policy keeps the most
+ * frequently requested content within {@code max-size}; a doorkeeper in front of it serves the
+ * first request for any content from disk, so one-off downloads never allocate a buffer.
+ * Requests after it, including ones arriving while it is still streaming, wait for a single disk
+ * read into the cache. Cached resources report their length and skip in constant time, so Range
+ * requests are served from memory as well.
+ */
+@Component
+public class ContentCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ContentCache.class);
+
+    private final ContentCacheConfig config;
+    private final Cache<String, ByteBuffer> contents;
+    private final Cache<String, Boolean> doorkeeper;
+    private final SingleFlight<String, ByteBuffer> reads;
+    private final LongAdder diskReads = new LongAdder();
+
+    public ContentCache(ContentCacheConfig config, CoalescingConfig coalescingConfig) {
+        this.config = config;
+        this.contents = Caffeine.newBuilder()
+                .maximumWeight(config.getMaxSize().toBytes())
+                .weigher((String checksum, ByteBuffer content) -> content.capacity())
+                .recordStats()
+                .build();
+        this.doorkeeper = Caffeine.newBuilder()
+                .maximumSize(config.getDoorkeeperSize())
+                .build();
+        this.reads = new SingleFlight<>("cached content", coalescingConfig);
+    }
+
+    /**
+     * Returns a blob's content from memory, reading it from disk first if it has been requested
+     * before. Returns null when the blob is not cacheable or is requested for the first time; the
+     * caller then streams it from disk.
+     */
+    public Resource lookup(String checksum, long size, String storagePath, String filename) {
+        if (!config.isEnabled() || checksum == null || size > config.getMaxEntrySize().toBytes()) {
+            return null;
+        }
+        // Only one of several concurrent first requests is admitted to stream from disk
+        if (doorkeeper.asMap().putIfAbsent(checksum, Boolean.TRUE) == null
+                && contents.policy().getIfPresentQuietly(checksum) == null) {
+            return null;
+        }
+        ByteBuffer content = contents.getIfPresent(checksum);
+        if (content == null) {
+            content = reads.execute(checksum, () -> load(checksum, Path.of(storagePath), size));
+        }
+        return content != null ? new CachedContentResource(content, filename) : null;
+    }
+
+    public CacheStats stats() {
+        return contents.stats();
+    }
+
+    /**
+     * Blobs read from disk into the cache.
+     */
+    public long diskReadCount() {
+        return diskReads.sum();
+    }
+
+    public long weightedSize() {
+        return contents.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    @Scheduled(fixedDelayString = "${cloudsync.content-cache.stats-interval:PT5M}")
+    public void logStats() {
+        CacheStats stats = contents.stats();
+        if (stats.requestCount() > 0) {
+            log.info("Content cache: entries={}, bytes={}, hitRate={}, hits={}, misses={}, evictions={}, " +
+                            "diskReads={}, coalesced={}",
+                    contents.estimatedSize(), weightedSize(), "%.3f".formatted(stats.hitRate()),
+                    stats.hitCount(), stats.missCount(), stats.evictionCount(), diskReads.sum(),
+                    reads.coalescedCount());
+        }
+    }
+
+    // --- Private helper methods ---
+
+    /**
+     * Reads a blob into the cache, unless a read that just finished did.
+     */
+    private ByteBuffer load(String checksum, Path path, long size) {
+        ByteBuffer cached = contents.policy().getIfPresentQuietly(checksum);
+        if (cached != null) {
+            return cached;
+        }
+        ByteBuffer content = read(path, size);
+        if (content != null) {
+            contents.put(checksum, content);
+        }
+        return content;
+    }
+
+    /**
+     * Reads a blob into a direct buffer; returns null if it is missing or no longer has the
+     * recorded size, so the caller's regular disk path reports the problem.
+     */
+    private ByteBuffer read(Path path, long size) {
+        diskReads.increment();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() != size) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // keep reading until the buffer is full
+            }
+            return buffer.flip().asReadOnlyBuffer();
+        } catch (IOException e) {
+            log.warn("Failed to cache content: path={}", path, e);
+            return null;
+        }
+    }
+
+    /**
+     * Resource over cached content; each stream reads an independent view of the buffer.
+     */
+    private static final class CachedContentResource extends AbstractResource {
+
+        private final ByteBuffer content;
+        private final String filename;
+
+        CachedContentResource(ByteBuffer content, String filename) {
+            this.content = content;
+            this.filename = filename;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new BufferInputStream(content.duplicate());
+        }
+
+        @Override
+        public long contentLength() {
+            return content.capacity();
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public String getDescription() {
+            return "Cached content [" + filename + "]";
+        }
+    }
+
+    private static final class BufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        BufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public long skip(long count) {
+            int skipped = (int) Math.max(0, Math.min(count, buffer.remaining()));
+            buffer.position(buffer.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
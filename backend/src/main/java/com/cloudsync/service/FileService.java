@@ -1,25 +1,53 @@
 package com.cloudsync.service;
 
-import com.cloudsync.config.StorageConfig;
+import com.cloudsync.dto.CursorPage;
 import com.cloudsync.dto.FileDto;
+import com.cloudsync.dto.ListingQuery;
+import com.cloudsync.dto.SignedUrl;
+import com.cloudsync.dto.SortField;
 import com.cloudsync.dto.StorageStats;
+import com.cloudsync.entity.ChangeEntry;
+import com.cloudsync.entity.DownloadRevocation;
 import com.cloudsync.entity.Folder;
 import com.cloudsync.entity.StoredFile;
 import com.cloudsync.entity.User;
+import com.cloudsync.event.DownloadsRevokedEvent;
+import com.cloudsync.event.FileChangedEvent;
+import com.cloudsync.event.SharesChangedEvent;
+import com.cloudsync.event.UserChangedEvent;
 import com.cloudsync.exception.FileNotFoundException;
 import com.cloudsync.exception.FolderNotFoundException;
+import com.cloudsync.repository.DownloadRevocationRepository;
+import com.cloudsync.repository.FileListingScope;
 import com.cloudsync.repository.FileRepository;
+import com.cloudsync.repository.FileRow;
 import com.cloudsync.repository.FolderRepository;
+import com.cloudsync.repository.KeysetCursor;
+import com.cloudsync.repository.SharedFileRow;
 import com.cloudsync.repository.UserRepository;
+import com.cloudsync.search.FileNameIndex;
+import com.cloudsync.search.SearchCursor;
+import com.cloudsync.search.SearchHit;
+import com.cloudsync.share.ShareResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for managing file operations including upload, download, and sharing.
@@ -35,31 +63,47 @@ public class FileService {
     private final FolderRepository folderRepository;
     private final UserRepository userRepository;
     private final StorageService storageService;
-    private final StorageConfig storageConfig;
+    private final StorageStatsService storageStatsService;
+    private final FolderRollupService folderRollupService;
+    private final FileNameIndex fileNameIndex;
+    private final ChangeJournalService changeJournalService;
+    private final FolderDigestService folderDigestService;
+    private final FolderListingCache folderListingCache;
+    private final ShareResolver shareResolver;
+    private final SignedDownloadService signedDownloadService;
+    private final DownloadRevocationRepository downloadRevocationRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public FileService(FileRepository fileRepository, FolderRepository folderRepository,
                        UserRepository userRepository, StorageService storageService,
-                       StorageConfig storageConfig) {
+                       StorageStatsService storageStatsService, FolderRollupService folderRollupService,
+                       FileNameIndex fileNameIndex, ChangeJournalService changeJournalService,
+                       FolderDigestService folderDigestService, FolderListingCache folderListingCache,
+                       ShareResolver shareResolver,
+                       SignedDownloadService signedDownloadService,
+                       DownloadRevocationRepository downloadRevocationRepository,
+                       ApplicationEventPublisher eventPublisher) {
         this.fileRepository = fileRepository;
         this.folderRepository = folderRepository;
         this.userRepository = userRepository;
         this.storageService = storageService;
-        this.storageConfig = storageConfig;
+        this.storageStatsService = storageStatsService;
+        this.folderRollupService = folderRollupService;
+        this.fileNameIndex = fileNameIndex;
+        this.changeJournalService = changeJournalService;
+        this.folderDigestService = folderDigestService;
+        this.folderListingCache = folderListingCache;
+        this.shareResolver = shareResolver;
+        this.signedDownloadService = signedDownloadService;
+        this.downloadRevocationRepository = downloadRevocationRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
      * Uploads a single file to the specified folder.
      */
     public FileDto uploadFile(MultipartFile file, User user, Long folderId) {
-        Folder folder = resolveTargetFolder(folderId, user);
-
-        StoredFile storedFile = storageService.store(file, user, folder);
-        userRepository.save(user);
-        
-        log.info("File uploaded: userId={}, fileId={}, size={}", 
-                user.getId(), storedFile.getId(), storedFile.getSize());
-        
-        return FileDto.fromEntity(storedFile);
+        return upload(user, folderId, folder -> storageService.store(file, user, folder));
     }
 
     /**
@@ -80,6 +124,15 @@ public class FileService {
         return uploadedFiles;
     }
 
+    /**
+     * Registers a file whose content was already streamed to disk by the reactive upload endpoint.
+     */
+    public FileDto registerStreamedUpload(User user, Long folderId, Path storedPath, String originalName,
+                                          String contentType, long size, String checksum) {
+        return upload(user, folderId, folder -> storageService.registerStoredContent(
+                storedPath, originalName, contentType, size, checksum, user, folder));
+    }
+
     /**
      * Retrieves file metadata by ID.
      */
@@ -90,47 +143,53 @@ public class FileService {
     }
 
     /**
-     * Retrieves all files owned by the user.
+     * Retrieves one page of all files owned by the user.
      */
     @Transactional(readOnly = true)
-    public List<FileDto> getAllFiles(User user) {
-        return fileRepository.findByOwner(user).stream()
-                .map(FileDto::fromEntity)
-                .toList();
+    public CursorPage<FileDto> getAllFiles(User user, ListingQuery query) {
+        return toFilePage(fileRepository.findPage(user, FileListingScope.all(), query), query);
     }
 
     /**
-     * Retrieves files in the root directory (not in any folder).
+     * Retrieves one page of files in the root directory (not in any folder).
      */
     @Transactional(readOnly = true)
-    public List<FileDto> getFilesInRoot(User user) {
-        return fileRepository.findByOwnerAndFolderIsNull(user).stream()
-                .map(FileDto::fromEntity)
-                .toList();
+    public CursorPage<FileDto> getFilesInRoot(User user, ListingQuery query) {
+        return toFilePage(fileRepository.findPage(user, FileListingScope.root(), query), query);
     }
 
     /**
-     * Retrieves all files in a specific folder.
+     * Retrieves one page of files in a specific folder.
      */
     @Transactional(readOnly = true)
-    public List<FileDto> getFilesInFolder(User user, Long folderId) {
+    public CursorPage<FileDto> getFilesInFolder(User user, Long folderId, ListingQuery query) {
         Folder folder = folderRepository.findByIdAndOwner(folderId, user)
                 .orElseThrow(() -> new FolderNotFoundException("Folder not found"));
-        return fileRepository.findByOwnerAndFolder(user, folder).stream()
-                .map(FileDto::fromEntity)
-                .toList();
+        return toFilePage(fileRepository.findPage(user, FileListingScope.folder(folder.getId()), query), query);
     }
 
     /**
-     * Downloads a file and increments download counter.
+     * Streams every file of the user to the sink without materializing the list.
+     * Rows are projections, so nothing accumulates in the persistence context.
      */
+    @Transactional(readOnly = true)
+    public void streamAllFiles(User user, Consumer<FileDto> sink) {
+        try (Stream<FileRow> rows = fileRepository.streamRowsByOwner(user)) {
+            rows.forEach(row -> sink.accept(FileDto.fromRow(row)));
+        }
+    }
+
+    /**
+     * Downloads a file. The download is counted in memory and written with the next batch of
+     * counts, so downloads neither write nor lock the file's folder.
+     */
+    @Transactional(readOnly = true)
     public Resource downloadFile(Long fileId, User user) {
         StoredFile file = findFileByIdAndOwner(fileId, user);
-        file.incrementDownloadCount();
-        fileRepository.save(file);
-        
-        log.debug("File downloaded: fileId={}, downloadCount={}", fileId, file.getDownloadCount());
-        
+        signedDownloadService.recordAccess(file.getId());
+
+        log.debug("File downloaded: fileId={}", fileId);
+
         return storageService.loadAsResource(file);
     }
 
@@ -148,10 +207,24 @@ public class FileService {
     public void deleteFile(Long fileId, User user) {
         StoredFile file = findFileByIdAndOwner(fileId, user);
 
-        storageService.delete(file);
-        user.subtractStorageUsed(file.getSize());
-        userRepository.save(user);
+        storageService.scheduleDeletion(file);
+        if (file.getDownloadGeneration() > 0) {
+            downloadRevocationRepository.save(new DownloadRevocation(file.getId(), DownloadRevocation.ALL_GENERATIONS));
+        }
+        // Bulk refund: merging a detached user would cascade to its files and undo the delete below
+        userRepository.refundStorage(user.getId(), file.getSize());
+        eventPublisher.publishEvent(UserChangedEvent.of(user));
+        storageStatsService.recordFileRemoved(file);
+        folderRollupService.recordFileChange(file.getFolder(), -1, -file.getSize());
+        if (file.getFolder() != null) {
+            folderRepository.adjustFileCounters(file.getFolder().getId(), -1, -file.getSize());
+        }
         fileRepository.delete(file);
+        folderDigestService.recordChange(user, file.getFolder());
+        folderListingCache.recordChange(file.getFolder());
+        changeJournalService.record(user, ChangeEntry.file(ChangeEntry.Type.DELETED, file));
+        eventPublisher.publishEvent(FileChangedEvent.deleted(file));
+        eventPublisher.publishEvent(new DownloadsRevokedEvent(List.of(fileId)));
 
         log.info("File deleted: userId={}, fileId={}", user.getId(), fileId);
     }
@@ -162,7 +235,12 @@ public class FileService {
     public FileDto renameFile(Long fileId, User user, String newName) {
         StoredFile file = findFileByIdAndOwner(fileId, user);
         file.setOriginalName(newName);
-        return FileDto.fromEntity(fileRepository.save(file));
+        StoredFile saved = fileRepository.save(file);
+        folderDigestService.recordChange(user, saved.getFolder());
+        folderListingCache.recordContentChange(saved.getFolder());
+        changeJournalService.record(user, ChangeEntry.file(ChangeEntry.Type.RENAMED, saved));
+        eventPublisher.publishEvent(FileChangedEvent.renamed(saved));
+        return FileDto.fromEntity(saved);
     }
 
     /**
@@ -172,7 +250,20 @@ public class FileService {
         StoredFile file = findFileByIdAndOwner(fileId, user);
         Folder targetFolder = resolveTargetFolder(targetFolderId, user);
 
+        folderRollupService.recordFileChange(file.getFolder(), -1, -file.getSize());
+        folderRollupService.recordFileChange(targetFolder, 1, file.getSize());
+        if (file.getFolder() != null) {
+            folderRepository.adjustFileCounters(file.getFolder().getId(), -1, -file.getSize());
+        }
+        if (targetFolder != null) {
+            folderRepository.adjustFileCounters(targetFolder.getId(), 1, file.getSize());
+        }
+        folderDigestService.recordChange(user, file.getFolder());
+        folderDigestService.recordChange(user, targetFolder);
+        folderListingCache.recordChange(file.getFolder());
+        folderListingCache.recordChange(targetFolder);
         file.setFolder(targetFolder);
+        changeJournalService.record(user, ChangeEntry.file(ChangeEntry.Type.MOVED, file));
         return FileDto.fromEntity(fileRepository.save(file));
     }
 
@@ -183,6 +274,9 @@ public class FileService {
         StoredFile file = findFileByIdAndOwner(fileId, user);
         file.generateShareToken();
         file.setPublic(true);
+        folderListingCache.recordContentChange(file.getFolder());
+        changeJournalService.record(user, ChangeEntry.file(ChangeEntry.Type.SHARED, file));
+        eventPublisher.publishEvent(SharesChangedEvent.shared(List.of(file.getShareToken())));
         
         log.info("File shared: userId={}, fileId={}", user.getId(), fileId);
         
@@ -196,46 +290,127 @@ public class FileService {
         StoredFile file = findFileByIdAndOwner(fileId, user);
         file.setShareToken(null);
         file.setPublic(false);
+        // Download links signed from the share link must stop working with it
+        revokeDownloads(file);
+        folderListingCache.recordContentChange(file.getFolder());
+        changeJournalService.record(user, ChangeEntry.file(ChangeEntry.Type.UNSHARED, file));
+        eventPublisher.publishEvent(SharesChangedEvent.revoked(List.of(file.getId())));
         return FileDto.fromEntity(fileRepository.save(file));
     }
 
     /**
-     * Retrieves a publicly shared file by its share token.
+     * Creates a signed download URL for a file, valid for the given time (default if null).
      */
-    @Transactional(readOnly = true)
-    public StoredFile getSharedFile(String shareToken) {
-        return fileRepository.findByShareToken(shareToken)
+    public SignedUrl createDownloadLink(Long fileId, User user, Duration ttl) {
+        StoredFile file = findFileByIdAndOwner(fileId, user);
+        if (file.getDownloadGeneration() == 0) {
+            // Marking the file changes its update time, which shows in its folder's listing
+            folderListingCache.recordContentChange(file.getFolder());
+        }
+        file.markDownloadsSigned();
+        SignedUrl link = signedDownloadService.sign(file, ttl);
+
+        log.info("Download link created: userId={}, fileId={}, expiresAt={}", user.getId(), fileId, link.expiresAt());
+
+        return link;
+    }
+
+    /**
+     * Revokes every signed download URL created for a file so far.
+     */
+    public void revokeDownloadLinks(Long fileId, User user) {
+        StoredFile file = findFileByIdAndOwner(fileId, user);
+        revokeDownloads(file);
+        folderListingCache.recordContentChange(file.getFolder());
+
+        log.info("Download links revoked: userId={}, fileId={}, generation={}",
+                user.getId(), fileId, file.getDownloadGeneration());
+    }
+
+    /**
+     * Creates a signed download URL for a publicly shared file, usually without a query.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public SignedUrl createSharedDownloadLink(String shareToken, Duration ttl) {
+        SharedFileRow share = getSharedFile(shareToken);
+        if (!share.isPublic()) {
+            throw new FileNotFoundException("Shared file not found");
+        }
+        return signedDownloadService.sign(share, ttl);
+    }
+
+    /**
+     * Retrieves a shared file by its share token, usually without a query.
+     * Does not start a transaction, so that cached links need no connection.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public SharedFileRow getSharedFile(String shareToken) {
+        return shareResolver.resolve(shareToken)
                 .orElseThrow(() -> new FileNotFoundException("Shared file not found"));
     }
 
     /**
-     * Searches for files by name.
+     * Searches files by name, best matches first. Tolerates small typos and boosts prefix matches.
+     * Only the limit and cursor of the listing apply; results are always ordered by relevance.
      */
     @Transactional(readOnly = true)
-    public List<FileDto> searchFiles(User user, String query) {
-        return fileRepository.searchByName(user, query).stream()
-                .map(FileDto::fromEntity)
+    public CursorPage<FileDto> searchFiles(User user, String query, ListingQuery listing) {
+        int offset = SearchCursor.decode(listing.cursor()).offset();
+        int limit = Math.min(listing.pageSize(), FileNameIndex.MAX_RESULT_WINDOW - offset);
+        List<SearchHit> hits = fileNameIndex.search(user, query, offset, limit + 1);
+
+        boolean hasMore = hits.size() > limit && offset + limit < FileNameIndex.MAX_RESULT_WINDOW;
+        List<SearchHit> pageHits = hits.size() > limit ? hits.subList(0, limit) : hits;
+        Map<Long, FileRow> rows = fileRepository.findRowsByOwnerAndIdIn(user,
+                        pageHits.stream().map(SearchHit::fileId).toList())
+                .stream()
+                .collect(Collectors.toMap(FileRow::id, Function.identity()));
+
+        // A hit may refer to a file deleted since the index was read; skip it
+        List<FileDto> items = pageHits.stream()
+                .map(hit -> rows.get(hit.fileId()))
+                .filter(Objects::nonNull)
+                .map(FileDto::fromRow)
                 .toList();
+        String nextCursor = hasMore ? new SearchCursor(offset + limit).encode() : null;
+        return new CursorPage<>(items, nextCursor, hasMore);
     }
 
     /**
-     * Retrieves storage statistics for a user.
+     * Retrieves storage statistics for a user from the incrementally maintained stats row.
      */
-    @Transactional(readOnly = true)
     public StorageStats getStorageStats(User user) {
-        long usedStorage = fileRepository.calculateTotalStorageByOwner(user);
-        int totalFiles = fileRepository.findByOwner(user).size();
-        int totalFolders = folderRepository.findByOwnerAndParentIsNull(user).size();
-        return new StorageStats(usedStorage, storageConfig.getMaxUserStorage(), totalFiles, totalFolders);
+        return storageStatsService.getStats(user);
     }
 
     // --- Private helper methods ---
 
+    private void revokeDownloads(StoredFile file) {
+        downloadRevocationRepository.save(new DownloadRevocation(file.getId(), file.revokeDownloads()));
+        eventPublisher.publishEvent(new DownloadsRevokedEvent(List.of(file.getId())));
+    }
+
+    private FileDto upload(User user, Long folderId, Function<Folder, StoredFile> store) {
+        StoredFile storedFile = store.apply(resolveTargetFolder(folderId, user));
+
+        log.info("File uploaded: userId={}, fileId={}, size={}",
+                user.getId(), storedFile.getId(), storedFile.getSize());
+
+        return FileDto.fromEntity(storedFile);
+    }
+
     private StoredFile findFileByIdAndOwner(Long fileId, User user) {
         return fileRepository.findByIdAndOwner(fileId, user)
                 .orElseThrow(() -> new FileNotFoundException("File not found"));
     }
 
+    private CursorPage<FileDto> toFilePage(List<FileRow> rows, ListingQuery query) {
+        SortField sortField = query.sortField();
+        boolean descending = query.descending();
+        return CursorPage.fromRows(rows, query.pageSize(), FileDto::fromRow,
+                file -> KeysetCursor.forFile(file, sortField, descending).encode());
+    }
+
     private Folder resolveTargetFolder(Long folderId, User user) {
         if (folderId == null) {
             return null;
@@ -0,0 +1,34 @@
+package com.cloudsync.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically recomputes the digests of changed folders, one transaction per batch.
+ */
+@Component
+public class FolderDigestAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(FolderDigestAggregator.class);
+
+    private final FolderDigestService folderDigestService;
+
+    public FolderDigestAggregator(FolderDigestService folderDigestService) {
+        this.folderDigestService = folderDigestService;
+    }
+
+    @Scheduled(fixedDelayString = "${cloudsync.digest.interval:PT2S}")
+    public void aggregate() {
+        int applied;
+        int total = 0;
+        do {
+            applied = folderDigestService.applyPending();
+            total += applied;
+        } while (applied == FolderDigestService.BATCH_SIZE);
+        if (total > 0) {
+            log.debug("Folder digest marks applied: count={}", total);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.cloudsync.service;
+
+import com.cloudsync.dto.FolderDigestDto;
+import com.cloudsync.entity.Folder;
+import com.cloudsync.entity.FolderDigestMark;
+import com.cloudsync.entity.User;
+import com.cloudsync.exception.FolderNotFoundException;
+import com.cloudsync.repository.DigestEntry;
+import com.cloudsync.repository.FileRepository;
+import com.cloudsync.repository.FolderDigestMarkRepository;
+import com.cloudsync.repository.FolderRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Maintains Merkle digests of folders: SHA-256 over the direct children, each subfolder entering
+ * as {@code "d" + name + "\0" + digest + "\n"} and each file as {@code "f" + name + "\0" + checksum + "\n"},
+ * subfolders first, each group sorted by name and then hash. Equal digests mean equal subtrees.
+ * <p>
+ * Writers only mark the folder whose children changed; marked folders and their ancestors are
+ * recomputed in batches, deepest first, so digests trail writes by up to one aggregation interval.
+ * The root directory has no row and its digest is computed on request.
+ */
+@Service
+@Transactional
+public class FolderDigestService {
+
+    static final int BATCH_SIZE = 1000;
+
+    private static final Comparator<DigestEntry> ENTRY_ORDER = Comparator.comparing(DigestEntry::name)
+            .thenComparing(entry -> Objects.toString(entry.hash(), ""));
+
+    private final FolderDigestMarkRepository markRepository;
+    private final FolderRepository folderRepository;
+    private final FileRepository fileRepository;
+
+    public FolderDigestService(FolderDigestMarkRepository markRepository, FolderRepository folderRepository,
+                               FileRepository fileRepository) {
+        this.markRepository = markRepository;
+        this.folderRepository = folderRepository;
+        this.fileRepository = fileRepository;
+    }
+
+    /**
+     * Records that the direct children of a folder changed; root-level changes need no mark.
+     */
+    public void recordChange(User owner, Folder folder) {
+        if (folder != null) {
+            markRepository.save(new FolderDigestMark(owner.getId(), folder.getId()));
+        }
+    }
+
+    /**
+     * Records changes to several folders at once, e.g. the source folders of a bulk move.
+     */
+    public void recordChanges(User owner, Collection<Long> folderIds) {
+        markRepository.saveAll(folderIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(folderId -> new FolderDigestMark(owner.getId(), folderId))
+                .toList());
+    }
+
+    /**
+     * Returns the digest of a folder, or of the root directory when {@code folderId} is null.
+     */
+    @Transactional(readOnly = true)
+    public FolderDigestDto getDigest(User user, Long folderId) {
+        if (folderId == null) {
+            List<DigestEntry> subfolders = folderRepository.findRootDigestEntries(user.getId());
+            String digest = digestOf(fileRepository.findRootDigestEntries(user.getId()), subfolders);
+            return FolderDigestDto.of(null, digest, markRepository.existsByOwnerId(user.getId()), subfolders);
+        }
+        Folder folder = folderRepository.findByIdAndOwner(folderId, user)
+                .orElseThrow(() -> new FolderNotFoundException("Folder not found"));
+        boolean pending = markRepository.existsInSubtree(user.getId(), folderId, folder.getDescendantLineage());
+        return FolderDigestDto.of(folderId, folder.getDigest(), pending, folderRepository.findDigestEntries(folderId));
+    }
+
+    /**
+     * Recomputes one batch of marked folders with their ancestors and returns how many marks were applied.
+     */
+    public int applyPending() {
+        List<FolderDigestMark> marks = markRepository.claimOldest(PageRequest.of(0, BATCH_SIZE));
+        if (marks.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> folderIds = new HashSet<>();
+        for (Folder folder : folderRepository.findAllById(marks.stream().map(FolderDigestMark::getFolderId).toList())) {
+            folderIds.add(folder.getId());
+            folderIds.addAll(folder.getAncestorIds());
+        }
+        if (!folderIds.isEmpty()) {
+            for (Folder folder : folderRepository.lockForDigest(folderIds)) {
+                folderRepository.updateDigest(folder.getId(), computeDigest(folder.getId()));
+            }
+        }
+        markRepository.deleteAllInBatch(marks);
+        return marks.size();
+    }
+
+    /**
+     * Computes one batch of folders that have no digest yet, deepest first, and returns the batch size.
+     */
+    public int computeMissing() {
+        List<Long> folderIds = folderRepository.findIdsWithoutDigest(PageRequest.of(0, BATCH_SIZE));
+        folderIds.forEach(folderId -> folderRepository.updateDigest(folderId, computeDigest(folderId)));
+        return folderIds.size();
+    }
+
+    // --- Private helper methods ---
+
+    private String computeDigest(Long folderId) {
+        return digestOf(fileRepository.findDigestEntries(folderId), folderRepository.findDigestEntries(folderId));
+    }
+
+    private static String digestOf(List<DigestEntry> files, List<DigestEntry> subfolders) {
+        MessageDigest sha256;
+        try {
+            sha256 = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+        update(sha256, 'd', subfolders);
+        update(sha256, 'f', files);
+        return HexFormat.of().formatHex(sha256.digest());
+    }
+
+    private static void update(MessageDigest sha256, char type, List<DigestEntry> entries) {
+        entries.stream().sorted(ENTRY_ORDER).forEach(entry -> sha256.update(
+                (type + entry.name() + "\0" + Objects.toString(entry.hash(), "") + "\n")
+                        .getBytes(StandardCharsets.UTF_8)));
+    }
+}
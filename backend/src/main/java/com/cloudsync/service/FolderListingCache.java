@@ -0,0 +1,201 @@
+package com.cloudsync.service;
+
+import com.cloudsync.concurrent.SingleFlight;
+import com.cloudsync.config.CoalescingConfig;
+import com.cloudsync.config.ListingCacheConfig;
+import com.cloudsync.entity.Folder;
+import com.cloudsync.entity.User;
+import com.cloudsync.exception.FolderNotFoundException;
+import com.cloudsync.repository.FolderRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Folder listings cached as ready-to-write JSON per user and folder, within a byte budget.
+ * <p>
+ * Every change that shows in a listing bumps the folder's {@code listing_version} in the
+ * transaction making it: changes to the folder's row bump the folder and its parent, changes to
+ * its files bump the folder alone, and renames and moves bump every folder below through the
+ * path rewrite. A cached listing is served only while it is at least as new as the version read
+ * at the start of the request, so one indexed lookup by primary key replaces loading subfolders
+ * and files, and a change committed through any instance is seen by the next request. Concurrent
+ * requests for a listing that is not cached at their version wait for a single build of it.
+ */
+@Component
+public class FolderListingCache {
+
+    private static final Logger log = LoggerFactory.getLogger(FolderListingCache.class);
+
+    // Key, value and array headers counted against the budget besides the bytes themselves
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private final FolderRepository folderRepository;
+    private final ObjectMapper objectMapper;
+    private final ListingCacheConfig config;
+    private final Cache<ListingKey, Listing> listings;
+    private final SingleFlight<ListingBuild, Listing> builds;
+    private final LongAdder built = new LongAdder();
+
+    public FolderListingCache(FolderRepository folderRepository, ObjectMapper objectMapper,
+                              ListingCacheConfig config, CoalescingConfig coalescingConfig) {
+        this.folderRepository = folderRepository;
+        this.objectMapper = objectMapper;
+        this.config = config;
+        this.listings = Caffeine.newBuilder()
+                .maximumWeight(config.getMaxSize().toBytes())
+                .weigher((ListingKey key, Listing listing) -> listing.content().length + ENTRY_OVERHEAD)
+                // Evict on the writing thread, so the budget holds as soon as a listing is stored
+                .executor(Runnable::run)
+                .recordStats()
+                .build();
+        this.builds = new SingleFlight<>("folder listing", coalescingConfig);
+    }
+
+    /**
+     * Returns a folder's serialised listing, built from the loader's response unless a cached one
+     * is current. Must run in the read-only transaction the loader reads in: the version is read
+     * first, so a listing is never older than the version it is cached under.
+     */
+    public byte[] getListing(User user, Long folderId, Supplier<?> loader) {
+        long version = folderRepository.findListingVersion(folderId, user)
+                .orElseThrow(() -> new FolderNotFoundException("Folder not found"));
+        // A read-write transaction may see its own changes, which could still be rolled back
+        if (!config.isEnabled() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return serialize(loader.get());
+        }
+        ListingKey key = new ListingKey(user.getId(), folderId);
+        Listing cached = listings.policy().getIfPresentQuietly(key);
+        if (cached != null && cached.version() < version) {
+            listings.asMap().remove(key, cached);
+        }
+        Listing listing = listings.getIfPresent(key);
+        if (listing == null || listing.version() < version) {
+            // Requests that read the same version share one build; it runs in the first one's transaction
+            listing = builds.execute(new ListingBuild(key, version), () -> build(key, version, loader));
+        }
+        return listing.content();
+    }
+
+    /**
+     * Records a change to a folder's own row; it shows in its listing and its parent's.
+     */
+    public void recordChange(Folder folder) {
+        if (folder != null) {
+            recordChanges(List.of(folder.getId()));
+        }
+    }
+
+    public void recordChanges(Collection<Long> folderIds) {
+        List<Long> ids = distinct(folderIds);
+        if (!ids.isEmpty()) {
+            folderRepository.bumpListingVersions(ids);
+        }
+    }
+
+    /**
+     * Records a change to the files of a folder, which shows in its listing only.
+     */
+    public void recordContentChange(Folder folder) {
+        if (folder != null) {
+            recordContentChanges(List.of(folder.getId()));
+        }
+    }
+
+    public void recordContentChanges(Collection<Long> folderIds) {
+        List<Long> ids = distinct(folderIds);
+        if (!ids.isEmpty()) {
+            folderRepository.bumpContentVersions(ids);
+        }
+    }
+
+    /**
+     * Records changes to files by id, for callers that have not loaded their folders.
+     */
+    public void recordFileChanges(Collection<Long> fileIds) {
+        if (!fileIds.isEmpty()) {
+            folderRepository.bumpContentVersionsOfFiles(fileIds);
+        }
+    }
+
+    public CacheStats stats() {
+        return listings.stats();
+    }
+
+    /**
+     * Listings built from the database, after coalescing.
+     */
+    public long buildCount() {
+        return built.sum();
+    }
+
+    public long weightedSize() {
+        return listings.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0)).orElse(0L);
+    }
+
+    @Scheduled(fixedDelayString = "${cloudsync.listing-cache.stats-interval:PT5M}")
+    public void logStats() {
+        CacheStats stats = listings.stats();
+        if (stats.requestCount() > 0) {
+            log.info("Listing cache: entries={}, bytes={}, hitRate={}, hits={}, misses={}, evictions={}, " +
+                            "builds={}, coalesced={}",
+                    listings.estimatedSize(), weightedSize(), "%.3f".formatted(stats.hitRate()),
+                    stats.hitCount(), stats.missCount(), stats.evictionCount(), built.sum(),
+                    builds.coalescedCount());
+        }
+    }
+
+    // --- Private helper methods ---
+
+    /**
+     * Builds and caches a listing, unless a build that just finished cached one at least as new.
+     * A listing cached by a request that read an older version in the meantime is replaced.
+     */
+    private Listing build(ListingKey key, long version, Supplier<?> loader) {
+        Listing cached = listings.policy().getIfPresentQuietly(key);
+        if (cached != null && cached.version() >= version) {
+            return cached;
+        }
+        built.increment();
+        return listings.asMap().merge(key, new Listing(version, serialize(loader.get())), Listing::newer);
+    }
+
+    private byte[] serialize(Object response) {
+        try {
+            return objectMapper.writeValueAsBytes(response);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static List<Long> distinct(Collection<Long> ids) {
+        return ids.stream().filter(Objects::nonNull).distinct().toList();
+    }
+
+    private record ListingKey(Long userId, Long folderId) {
+    }
+
+    private record ListingBuild(ListingKey key, long version) {
+    }
+
+    private record Listing(long version, byte[] content) {
+
+        Listing newer(Listing other) {
+            return other.version > version ? other : this;
+        }
+    }
+}
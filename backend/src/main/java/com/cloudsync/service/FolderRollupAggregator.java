@@ -0,0 +1,34 @@
+package com.cloudsync.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Periodically drains the folder rollup delta queue, one transaction per batch.
+ */
+@Component
+public class FolderRollupAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(FolderRollupAggregator.class);
+
+    private final FolderRollupService folderRollupService;
+
+    public FolderRollupAggregator(FolderRollupService folderRollupService) {
+        this.folderRollupService = folderRollupService;
+    }
+
+    @Scheduled(fixedDelayString = "${cloudsync.rollup.interval:PT2S}")
+    public void aggregate() {
+        int applied;
+        int total = 0;
+        do {
+            applied = folderRollupService.applyPending();
+            total += applied;
+        } while (applied == FolderRollupService.BATCH_SIZE);
+        if (total > 0) {
+            log.debug("Folder rollup deltas applied: count={}", total);
+        }
+    }
+}
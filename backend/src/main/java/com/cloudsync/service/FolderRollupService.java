@@ -0,0 +1,87 @@
+package com.cloudsync.service;
+
+import com.cloudsync.entity.Folder;
+import com.cloudsync.entity.FolderRollupDelta;
+import com.cloudsync.repository.FolderRepository;
+import com.cloudsync.repository.FolderRollupDeltaRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Maintains per-folder subtree rollups (file count and bytes including descendants).
+ * Changes are appended as deltas in the caller's transaction and folded into the folders
+ * in batches, so a busy top-level folder takes one UPDATE per batch instead of one per upload.
+ * Rollups therefore trail writes by up to one aggregation interval.
+ */
+@Service
+@Transactional
+public class FolderRollupService {
+
+    static final int BATCH_SIZE = 5000;
+
+    private final FolderRollupDeltaRepository deltaRepository;
+    private final FolderRepository folderRepository;
+    private final FolderListingCache folderListingCache;
+
+    public FolderRollupService(FolderRollupDeltaRepository deltaRepository, FolderRepository folderRepository,
+                               FolderListingCache folderListingCache) {
+        this.deltaRepository = deltaRepository;
+        this.folderRepository = folderRepository;
+        this.folderListingCache = folderListingCache;
+    }
+
+    /**
+     * Records files added to (positive) or removed from (negative) a folder; root-level files are ignored.
+     */
+    public void recordFileChange(Folder folder, long files, long bytes) {
+        if (folder != null) {
+            record(folder.getDescendantLineage(), files, bytes);
+        }
+    }
+
+    /**
+     * Records a change for every folder on the given lineage, e.g. the ancestors of a moved subtree.
+     */
+    public void record(String lineage, long files, long bytes) {
+        if ((files != 0 || bytes != 0) && !Folder.parseLineage(lineage).isEmpty()) {
+            deltaRepository.save(new FolderRollupDelta(lineage, files, bytes));
+        }
+    }
+
+    /**
+     * Folds one batch of pending deltas into the folders and returns how many were applied.
+     * Folders are updated in id order so concurrent aggregators lock rows in the same order.
+     */
+    public int applyPending() {
+        List<FolderRollupDelta> deltas = deltaRepository.claimOldest(PageRequest.of(0, BATCH_SIZE));
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, long[]> totals = new TreeMap<>();
+        for (FolderRollupDelta delta : deltas) {
+            for (Long folderId : Folder.parseLineage(delta.getLineage())) {
+                long[] total = totals.computeIfAbsent(folderId, id -> new long[2]);
+                total[0] += delta.getFiles();
+                total[1] += delta.getBytes();
+            }
+        }
+        List<Long> adjusted = new ArrayList<>();
+        totals.forEach((folderId, total) -> {
+            if (total[0] != 0 || total[1] != 0) {
+                folderRepository.adjustSubtreeRollup(folderId, total[0], total[1]);
+                adjusted.add(folderId);
+            }
+        });
+        // Rollups show in a folder's listing and its parent's
+        folderListingCache.recordChanges(adjusted);
+        deltaRepository.deleteAllInBatch(deltas);
+        return deltas.size();
+    }
+}
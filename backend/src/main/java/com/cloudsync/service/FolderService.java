@@ -1,15 +1,32 @@
 package com.cloudsync.service;
 
+import com.cloudsync.dto.ApiResponse;
+import com.cloudsync.dto.CursorPage;
 import com.cloudsync.dto.FolderDto;
+import com.cloudsync.dto.ListingQuery;
+import com.cloudsync.dto.SortField;
+import com.cloudsync.entity.ChangeEntry;
 import com.cloudsync.entity.Folder;
 import com.cloudsync.entity.User;
+import com.cloudsync.event.DownloadsRevokedEvent;
+import com.cloudsync.event.FilesDeletedEvent;
+import com.cloudsync.event.UserChangedEvent;
 import com.cloudsync.exception.FolderNotFoundException;
+import com.cloudsync.repository.BlobPurgeTaskRepository;
+import com.cloudsync.repository.ContentTypeUsage;
+import com.cloudsync.repository.DownloadRevocationRepository;
+import com.cloudsync.repository.FileRepository;
 import com.cloudsync.repository.FolderRepository;
+import com.cloudsync.repository.FolderRow;
+import com.cloudsync.repository.KeysetCursor;
+import com.cloudsync.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -23,9 +40,34 @@ public class FolderService {
     private static final Logger log = LoggerFactory.getLogger(FolderService.class);
 
     private final FolderRepository folderRepository;
+    private final FileRepository fileRepository;
+    private final UserRepository userRepository;
+    private final BlobPurgeTaskRepository blobPurgeTaskRepository;
+    private final DownloadRevocationRepository downloadRevocationRepository;
+    private final StorageStatsService storageStatsService;
+    private final FolderRollupService folderRollupService;
+    private final ChangeJournalService changeJournalService;
+    private final FolderDigestService folderDigestService;
+    private final FolderListingCache folderListingCache;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public FolderService(FolderRepository folderRepository) {
+    public FolderService(FolderRepository folderRepository, FileRepository fileRepository,
+                         UserRepository userRepository, BlobPurgeTaskRepository blobPurgeTaskRepository,
+                         DownloadRevocationRepository downloadRevocationRepository,
+                         StorageStatsService storageStatsService, FolderRollupService folderRollupService,
+                         ChangeJournalService changeJournalService, FolderDigestService folderDigestService,
+                         FolderListingCache folderListingCache, ApplicationEventPublisher eventPublisher) {
         this.folderRepository = folderRepository;
+        this.fileRepository = fileRepository;
+        this.userRepository = userRepository;
+        this.blobPurgeTaskRepository = blobPurgeTaskRepository;
+        this.downloadRevocationRepository = downloadRevocationRepository;
+        this.storageStatsService = storageStatsService;
+        this.folderRollupService = folderRollupService;
+        this.changeJournalService = changeJournalService;
+        this.folderDigestService = folderDigestService;
+        this.folderListingCache = folderListingCache;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -39,6 +81,13 @@ public class FolderService {
 
         Folder folder = new Folder(name, user, parent);
         Folder savedFolder = folderRepository.save(folder);
+        if (parent != null) {
+            folderRepository.adjustSubfolderCount(parent.getId(), 1);
+        }
+        storageStatsService.recordFolderAdded(user);
+        folderDigestService.recordChange(user, parent);
+        folderListingCache.recordChange(parent);
+        changeJournalService.record(user, ChangeEntry.folder(ChangeEntry.Type.CREATED, savedFolder));
         
         log.info("Folder created: userId={}, folderId={}, name={}", 
                 user.getId(), savedFolder.getId(), name);
@@ -56,24 +105,29 @@ public class FolderService {
     }
 
     /**
-     * Retrieves all root-level folders for the user.
+     * Retrieves the folder details response as JSON, from the listing cache while it is current.
      */
     @Transactional(readOnly = true)
-    public List<FolderDto> getRootFolders(User user) {
-        return folderRepository.findByOwnerAndParentIsNull(user).stream()
-                .map(FolderDto::fromEntity)
-                .toList();
+    public byte[] getFolderListing(Long folderId, User user) {
+        return folderListingCache.getListing(user, folderId, () -> ApiResponse.success("Folder retrieved successfully",
+                FolderDto.fromEntityWithContents(findFolderByIdAndOwner(folderId, user))));
     }
 
     /**
-     * Retrieves all subfolders of a specific folder.
+     * Retrieves one page of root-level folders for the user.
      */
     @Transactional(readOnly = true)
-    public List<FolderDto> getSubfolders(Long parentId, User user) {
+    public CursorPage<FolderDto> getRootFolders(User user, ListingQuery query) {
+        return toFolderPage(folderRepository.findPage(user, null, query), query);
+    }
+
+    /**
+     * Retrieves one page of subfolders of a specific folder.
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<FolderDto> getSubfolders(Long parentId, User user, ListingQuery query) {
         Folder parent = findFolderByIdAndOwner(parentId, user);
-        return folderRepository.findByOwnerAndParent(user, parent).stream()
-                .map(FolderDto::fromEntity)
-                .toList();
+        return toFolderPage(folderRepository.findPage(user, parent.getId(), query), query);
     }
 
     /**
@@ -84,7 +138,16 @@ public class FolderService {
 
         validateUniqueFolderName(newName, user, folder.getParent());
 
+        String oldPath = folder.getPath();
         folder.setName(newName);
+        folder.refreshHierarchy();
+        folderRepository.relocateDescendants(user,
+                folder.getDescendantLineage(), folder.getDescendantLineage(),
+                oldPath + "/", folder.getPath() + "/", 0);
+        folderDigestService.recordChange(user, folder.getParent());
+        folderListingCache.recordChange(folder);
+        changeJournalService.record(user, ChangeEntry.folder(ChangeEntry.Type.RENAMED, folder));
+
         return FolderDto.fromEntity(folderRepository.save(folder));
     }
 
@@ -97,7 +160,35 @@ public class FolderService {
 
         validateUniqueFolderName(folder.getName(), user, targetParent);
 
+        String oldLineage = folder.getDescendantLineage();
+        String oldAncestors = folder.getLineage();
+        String oldPath = folder.getPath();
+        int oldDepth = folder.getDepth();
+        List<ContentTypeUsage> usage = fileRepository.summarizeSubtree(user, folder.getId(), oldLineage);
+        long subtreeFiles = usage.stream().mapToLong(ContentTypeUsage::files).sum();
+        long subtreeBytes = usage.stream().mapToLong(ContentTypeUsage::bytes).sum();
+
+        if (folder.getParent() != null) {
+            folderRepository.adjustSubfolderCount(folder.getParent().getId(), -1);
+        }
+        if (targetParent != null) {
+            folderRepository.adjustSubfolderCount(targetParent.getId(), 1);
+        }
+        folderDigestService.recordChange(user, folder.getParent());
+        folderDigestService.recordChange(user, targetParent);
+        folderListingCache.recordChanges(Arrays.asList(folder.getId(),
+                folder.getParent() != null ? folder.getParent().getId() : null,
+                targetParent != null ? targetParent.getId() : null));
+
         folder.setParent(targetParent);
+        folder.refreshHierarchy();
+        folderRepository.relocateDescendants(user,
+                oldLineage, folder.getDescendantLineage(),
+                oldPath + "/", folder.getPath() + "/", folder.getDepth() - oldDepth);
+        // Shift the subtree's totals from the old ancestors to the new ones
+        folderRollupService.record(oldAncestors, -subtreeFiles, -subtreeBytes);
+        folderRollupService.record(folder.getLineage(), subtreeFiles, subtreeBytes);
+        changeJournalService.record(user, ChangeEntry.folder(ChangeEntry.Type.MOVED, folder));
         
         log.info("Folder moved: userId={}, folderId={}, newParentId={}", 
                 user.getId(), folderId, targetParentId);
@@ -106,17 +197,56 @@ public class FolderService {
     }
 
     /**
-     * Deletes a folder and all its contents (cascade delete).
+     * Deletes a folder and all its contents with set-based statements over the materialized lineage:
+     * blobs are queued for background purge, files are deleted in one statement, folders one depth
+     * level at a time, and the freed bytes are refunded to the user's quota in one update.
      */
     public void deleteFolder(Long folderId, User user) {
         Folder folder = findFolderByIdAndOwner(folderId, user);
-        folderRepository.delete(folder);
-        
-        log.info("Folder deleted: userId={}, folderId={}", user.getId(), folderId);
+        String lineagePrefix = folder.getDescendantLineage();
+
+        List<ContentTypeUsage> usage = fileRepository.summarizeSubtree(user, folder.getId(), lineagePrefix);
+        long freedFiles = usage.stream().mapToLong(ContentTypeUsage::files).sum();
+        long freedBytes = usage.stream().mapToLong(ContentTypeUsage::bytes).sum();
+        long folderCount = 1 + folderRepository.countDescendants(user, lineagePrefix);
+        List<Long> fileIds = fileRepository.findIdsInSubtree(user, folder.getId(), lineagePrefix);
+
+        blobPurgeTaskRepository.enqueueSubtree(user, folder.getId(), lineagePrefix);
+        downloadRevocationRepository.revokeSubtree(user, folder.getId(), lineagePrefix);
+        int deletedFiles = fileRepository.deleteInSubtree(user, folder.getId(), lineagePrefix);
+        Integer maxDepth = folderRepository.findMaxDescendantDepth(user, lineagePrefix);
+        for (int depth = maxDepth != null ? maxDepth : folder.getDepth(); depth >= folder.getDepth(); depth--) {
+            folderRepository.deleteSubtreeLevel(user, folder.getId(), lineagePrefix, depth);
+        }
+
+        if (folder.getParent() != null) {
+            folderRepository.adjustSubfolderCount(folder.getParent().getId(), -1);
+        }
+        // Bulk refund: the user may be an unloaded reference, and nothing below loads it
+        userRepository.refundStorage(user.getId(), freedBytes);
+        storageStatsService.recordSubtreeRemoved(user, folderCount, usage);
+        folderRollupService.record(folder.getLineage(), -freedFiles, -freedBytes);
+        folderDigestService.recordChange(user, folder.getParent());
+        folderListingCache.recordChange(folder.getParent());
+        // One entry for the subtree: clients drop everything below a deleted folder
+        changeJournalService.record(user, ChangeEntry.folder(ChangeEntry.Type.DELETED, folder));
+        eventPublisher.publishEvent(new FilesDeletedEvent(user.getId(), fileIds));
+        eventPublisher.publishEvent(new DownloadsRevokedEvent(fileIds));
+        eventPublisher.publishEvent(UserChangedEvent.of(user));
+
+        log.info("Folder deleted: userId={}, folderId={}, folders={}, files={}, bytes={}",
+                user.getId(), folderId, folderCount, deletedFiles, freedBytes);
     }
 
     // --- Private helper methods ---
 
+    private CursorPage<FolderDto> toFolderPage(List<FolderRow> rows, ListingQuery query) {
+        SortField sortField = query.sortField();
+        boolean descending = query.descending();
+        return CursorPage.fromRows(rows, query.pageSize(), FolderDto::fromRow,
+                folder -> KeysetCursor.forFolder(folder, sortField, descending).encode());
+    }
+
     private Folder findFolderByIdAndOwner(Long folderId, User user) {
         return folderRepository.findByIdAndOwner(folderId, user)
                 .orElseThrow(() -> new FolderNotFoundException("Folder not found"));
@@ -139,7 +269,7 @@ public class FolderService {
                 .orElseThrow(() -> new FolderNotFoundException("Target folder not found"));
 
         // Prevent moving folder into itself or its descendants
-        if (isDescendantOf(targetParent, folderToMove)) {
+        if (folderToMove.isSameOrAncestorOf(targetParent)) {
             throw new IllegalArgumentException("Cannot move folder into itself or its children");
         }
         
@@ -151,22 +281,4 @@ public class FolderService {
             throw new IllegalArgumentException("Folder with name '" + name + "' already exists");
         }
     }
-
-    /**
-     * Checks if potentialDescendant is the same as or a descendant of ancestor.
-     * Used to prevent circular folder references during move operations.
-     */
-    private boolean isDescendantOf(Folder potentialDescendant, Folder ancestor) {
-        if (potentialDescendant.getId().equals(ancestor.getId())) {
-            return true;
-        }
-        Folder current = potentialDescendant.getParent();
-        while (current != null) {
-            if (current.getId().equals(ancestor.getId())) {
-                return true;
-            }
-            current = current.getParent();
-        }
-        return false;
-    }
 }
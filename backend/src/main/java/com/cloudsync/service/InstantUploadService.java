@@ -0,0 +1,152 @@
+package com.cloudsync.service;
+
+import com.cloudsync.config.UploadConfig;
+import com.cloudsync.dto.FileDto;
+import com.cloudsync.dto.InstantUploadRequest;
+import com.cloudsync.dto.InstantUploadResult;
+import com.cloudsync.dto.ProofChallenge;
+import com.cloudsync.entity.Folder;
+import com.cloudsync.entity.StoredFile;
+import com.cloudsync.entity.User;
+import com.cloudsync.exception.StorageQuotaExceededException;
+import com.cloudsync.repository.FileRepository;
+import com.cloudsync.repository.FolderRepository;
+import com.cloudsync.security.ContentProofs;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Creates files from content the server already holds, so the client skips the transfer.
+ * The user's own copies are reused right away. Another user's copy is reused only after the
+ * client answers a proof-of-possession challenge; every unknown hash is challenged the same way,
+ * so the answer never reveals whether someone else stores the content.
+ */
+@Service
+@Transactional
+public class InstantUploadService {
+
+    private static final Logger log = LoggerFactory.getLogger(InstantUploadService.class);
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+    private static final Pageable FIRST = PageRequest.of(0, 1);
+
+    private final FileRepository fileRepository;
+    private final FolderRepository folderRepository;
+    private final StorageService storageService;
+    private final ContentProofs contentProofs;
+    private final UploadConfig uploadConfig;
+
+    public InstantUploadService(FileRepository fileRepository, FolderRepository folderRepository,
+                                StorageService storageService,
+                                ContentProofs contentProofs, UploadConfig uploadConfig) {
+        this.fileRepository = fileRepository;
+        this.folderRepository = folderRepository;
+        this.storageService = storageService;
+        this.contentProofs = contentProofs;
+        this.uploadConfig = uploadConfig;
+    }
+
+    /**
+     * Creates every requested file whose content can be reused and reports per file what the
+     * client has to do for the others: answer a challenge or upload the bytes.
+     */
+    public InstantUploadResult upload(InstantUploadRequest request, User user) {
+        if (request.files().size() > uploadConfig.getMaxInstantBatchSize()) {
+            throw new IllegalArgumentException("At most " + uploadConfig.getMaxInstantBatchSize() + " files per request");
+        }
+
+        Map<Long, Optional<Folder>> folders = new HashMap<>();
+        List<InstantUploadResult.Item> items = new ArrayList<>();
+        for (InstantUploadRequest.Item item : request.files()) {
+            items.add(uploadOne(item, user, folders));
+        }
+        InstantUploadResult result = new InstantUploadResult(items);
+
+        log.info("Instant upload: userId={}, files={}, created={}", user.getId(), items.size(), result.created());
+
+        return result;
+    }
+
+    // --- Private helper methods ---
+
+    private InstantUploadResult.Item uploadOne(InstantUploadRequest.Item item, User user,
+                                               Map<Long, Optional<Folder>> folders) {
+        String sha256 = item.sha256() != null ? item.sha256().toLowerCase() : "";
+        if (!SHA256_HEX.matcher(sha256).matches()) {
+            return InstantUploadResult.Item.invalid("sha256 must be 64 hex digits");
+        }
+        if (item.size() <= 0) {
+            return InstantUploadResult.Item.invalid("Cannot store empty file");
+        }
+        if (!StringUtils.hasText(item.name())) {
+            return InstantUploadResult.Item.invalid("Name must not be blank");
+        }
+        // Checked here rather than left to StorageService, whose exception would roll back the whole batch
+        if (StringUtils.cleanPath(item.name()).contains("..")) {
+            return InstantUploadResult.Item.invalid("Invalid file path: " + item.name());
+        }
+        if (item.size() > storageService.getRemainingQuota(user)) {
+            return InstantUploadResult.Item.quotaExceeded("Storage quota exceeded");
+        }
+        Folder folder = null;
+        if (item.folderId() != null) {
+            folder = folders.computeIfAbsent(item.folderId(), id -> folderRepository.findByIdAndOwner(id, user))
+                    .orElse(null);
+            if (folder == null) {
+                return InstantUploadResult.Item.invalid("Folder not found");
+            }
+        }
+
+        Optional<StoredFile> own = withContent(fileRepository.findWithContent(user, sha256, item.size(), FIRST));
+        if (own.isPresent()) {
+            return create(own.get(), item, user, folder);
+        }
+        if (!uploadConfig.isGlobalDedup()) {
+            return InstantUploadResult.Item.uploadRequired();
+        }
+
+        Optional<ProofChallenge> challenge = item.proof() != null
+                ? contentProofs.open(item.proof().token(), user.getId(), sha256, item.size())
+                : Optional.empty();
+        if (challenge.isEmpty()) {
+            return contentProofs.issue(user.getId(), sha256, item.size())
+                    .map(InstantUploadResult.Item::proofRequired)
+                    .orElseGet(InstantUploadResult.Item::uploadRequired);
+        }
+        Optional<StoredFile> other = withContent(fileRepository.findAnyWithContent(sha256, item.size(), FIRST));
+        if (other.isPresent() && contentProofs.matches(challenge.get(), item.proof().response(),
+                Path.of(other.get().getStoragePath()))) {
+            return create(other.get(), item, user, folder);
+        }
+        return InstantUploadResult.Item.uploadRequired();
+    }
+
+    private InstantUploadResult.Item create(StoredFile source, InstantUploadRequest.Item item, User user,
+                                            Folder folder) {
+        try {
+            StoredFile storedFile = storageService.registerExistingContent(
+                    source, item.name(), item.contentType(), user, folder);
+            return InstantUploadResult.Item.created(FileDto.fromEntity(storedFile));
+        } catch (StorageQuotaExceededException e) {
+            // The check above saw the usage loaded with the user; this one counts the batch's earlier files
+            return InstantUploadResult.Item.quotaExceeded("Storage quota exceeded");
+        }
+    }
+
+    private Optional<StoredFile> withContent(List<StoredFile> candidates) {
+        return candidates.stream().filter(storageService::hasContent).findFirst();
+    }
+}
@@ -0,0 +1,91 @@
+package com.cloudsync.service;
+
+import com.cloudsync.entity.Folder;
+import com.cloudsync.repository.FileRepository;
+import com.cloudsync.repository.FolderRepository;
+import com.cloudsync.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Brings rows written by older versions up to date on startup:
+ * <ul>
+ *   <li>materialized folder hierarchy (path, lineage, depth), walked one tree level per query</li>
+ *   <li>digests of folders created before digests existed, deepest folders first</li>
+ *   <li>files without a content type, which keyset listings sort on</li>
+ *   <li>users without a storage statistics row</li>
+ * </ul>
+ */
+@Component
+public class LegacyDataBackfill {
+
+    private static final Logger log = LoggerFactory.getLogger(LegacyDataBackfill.class);
+
+    private final FolderRepository folderRepository;
+    private final FileRepository fileRepository;
+    private final UserRepository userRepository;
+    private final StorageStatsService storageStatsService;
+    private final FolderDigestService folderDigestService;
+
+    public LegacyDataBackfill(FolderRepository folderRepository, FileRepository fileRepository,
+                              UserRepository userRepository, StorageStatsService storageStatsService,
+                              FolderDigestService folderDigestService) {
+        this.folderRepository = folderRepository;
+        this.fileRepository = fileRepository;
+        this.userRepository = userRepository;
+        this.storageStatsService = storageStatsService;
+        this.folderDigestService = folderDigestService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfill() {
+        int updated = refreshAll(folderRepository.findRootsMissingHierarchy());
+
+        List<Folder> level = folderRepository.findChildrenMissingHierarchy();
+        while (!level.isEmpty()) {
+            updated += refreshAll(level);
+            level = folderRepository.findChildrenMissingHierarchy();
+        }
+
+        if (updated > 0) {
+            log.info("Folder hierarchy backfilled: folders={}", updated);
+        }
+
+        int digested = 0;
+        for (int batch = folderDigestService.computeMissing(); batch > 0; batch = folderDigestService.computeMissing()) {
+            digested += batch;
+        }
+        if (digested > 0) {
+            log.info("Folder digests backfilled: folders={}", digested);
+        }
+
+        int typed = fileRepository.fillMissingContentTypes();
+        if (typed > 0) {
+            log.info("Missing content types defaulted: files={}", typed);
+        }
+
+        // Listings cached by running instances predate the backfilled paths and types
+        if (updated > 0 || typed > 0) {
+            folderRepository.bumpAllListingVersions();
+        }
+
+        List<Long> usersWithoutStats = userRepository.findIdsWithoutStorageStats();
+        usersWithoutStats.forEach(storageStatsService::reconcile);
+        if (!usersWithoutStats.isEmpty()) {
+            log.info("Storage stats rows created: users={}", usersWithoutStats.size());
+        }
+    }
+
+    private int refreshAll(List<Folder> folders) {
+        folders.forEach(Folder::refreshHierarchy);
+        folderRepository.saveAllAndFlush(folders);
+        return folders.size();
+    }
+}
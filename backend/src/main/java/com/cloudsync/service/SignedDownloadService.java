@@ -0,0 +1,211 @@
+package com.cloudsync.service;
+
+import com.cloudsync.config.SignedUrlConfig;
+import com.cloudsync.dto.SignedUrl;
+import com.cloudsync.entity.DownloadRevocation;
+import com.cloudsync.entity.StoredFile;
+import com.cloudsync.event.DownloadsRevokedEvent;
+import com.cloudsync.exception.FileNotFoundException;
+import com.cloudsync.repository.DownloadRevocationRepository;
+import com.cloudsync.repository.FileRepository;
+import com.cloudsync.repository.SharedFileRow;
+import com.cloudsync.security.DownloadSigner;
+import com.cloudsync.security.SignedDownload;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Signed download URLs for media players and CDNs. A URL carries everything needed to serve its
+ * file, signed by {@link DownloadSigner}, so opening one needs no query: the signature, expiry and
+ * file generation are checked in memory and downloads are counted in memory, then written in
+ * batches.
+ * <p>
+ * Revocations are rows in {@code download_revocations}, written with the change that caused them
+ * (explicit revocation, unshare or delete). They are read after local commits and polled every
+ * refresh interval for changes made through other instances. A revocation is only needed until
+ * every URL it could reject has expired, so rows and their in-memory copies live for
+ * {@code max-ttl} plus the refresh overlap.
+ */
+@Service
+public class SignedDownloadService {
+
+    private static final Logger log = LoggerFactory.getLogger(SignedDownloadService.class);
+
+    private static final String DOWNLOAD_PATH = "/api/dl/";
+
+    private final DownloadSigner signer;
+    private final DownloadRevocationRepository revocationRepository;
+    private final FileRepository fileRepository;
+    private final SignedUrlConfig config;
+    private final FolderListingCache folderListingCache;
+    private final TransactionTemplate transaction;
+    private final Map<Long, Revocation> revocations = new ConcurrentHashMap<>();
+    private final Map<Long, Long> pendingCounts = new ConcurrentHashMap<>();
+
+    private LocalDateTime refreshedAt;
+
+    public SignedDownloadService(DownloadSigner signer, DownloadRevocationRepository revocationRepository,
+                                 FileRepository fileRepository, SignedUrlConfig config,
+                                 FolderListingCache folderListingCache, PlatformTransactionManager transactionManager) {
+        this.signer = signer;
+        this.revocationRepository = revocationRepository;
+        this.fileRepository = fileRepository;
+        this.config = config;
+        this.folderListingCache = folderListingCache;
+        // Revocations are read from the primary: a lagging replica could hide one
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void init() {
+        refresh();
+    }
+
+    /**
+     * Signs a URL for a file the caller owns. The file must have been marked as signed in the
+     * caller's transaction so that deleting it revokes the URL.
+     */
+    public SignedUrl sign(StoredFile file, Duration ttl) {
+        return sign(new SignedDownload(file.getId(), file.getDownloadGeneration(), file.getStoragePath(),
+                file.getChecksum(), file.getSize(), file.getContentType(), file.getOriginalName(), expiry(ttl)));
+    }
+
+    /**
+     * Signs a URL for a shared file; shared files are always marked as signed.
+     */
+    public SignedUrl sign(SharedFileRow share, Duration ttl) {
+        return sign(new SignedDownload(share.id(), share.downloadGeneration(), share.storagePath(),
+                share.checksum(), share.size(), share.contentType(), share.originalName(), expiry(ttl)));
+    }
+
+    /**
+     * Returns the download behind a token if it is validly signed, unexpired and not revoked.
+     */
+    public SignedDownload open(String token) {
+        SignedDownload download = signer.verify(token)
+                .filter(this::isCurrent)
+                .orElseThrow(() -> new FileNotFoundException("Download link is invalid or has expired"));
+        log.debug("Signed download opened: fileId={}, generation={}", download.fileId(), download.generation());
+        return download;
+    }
+
+    /**
+     * Counts a download, signed or authenticated. Counts are written every count-flush interval,
+     * which also bumps each affected folder's listing version once.
+     */
+    public void recordAccess(Long fileId) {
+        pendingCounts.merge(fileId, 1L, Long::sum);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDownloadsRevoked(DownloadsRevokedEvent event) {
+        refresh();
+    }
+
+    /**
+     * Reads revocations made through any instance since the last refresh and forgets those that
+     * can no longer reject an unexpired URL.
+     */
+    @Scheduled(fixedDelayString = "${cloudsync.signed-urls.refresh-interval:PT2S}")
+    public synchronized void refresh() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime retainedFrom = startedAt.minus(config.getMaxTtl()).minus(config.getRefreshOverlap());
+        LocalDateTime since = refreshedAt != null ? refreshedAt.minus(config.getRefreshOverlap()) : retainedFrom;
+        List<DownloadRevocation> rows = transaction.execute(status -> revocationRepository.findRevokedSince(since));
+        for (DownloadRevocation row : rows) {
+            revocations.merge(row.getFileId(), new Revocation(row.getMinGeneration(), row.getRevokedAt()),
+                    Revocation::merge);
+        }
+        revocations.values().removeIf(revocation -> revocation.revokedAt().isBefore(retainedFrom));
+        refreshedAt = startedAt;
+    }
+
+    @Scheduled(fixedDelayString = "${cloudsync.signed-urls.cleanup-interval:PT1H}")
+    public void cleanup() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(config.getMaxTtl()).minus(config.getRefreshOverlap());
+        Integer deleted = transaction.execute(status -> revocationRepository.deleteRevokedBefore(cutoff));
+        if (deleted != null && deleted > 0) {
+            log.info("Expired download revocations deleted: count={}", deleted);
+        }
+    }
+
+    /**
+     * Writes the downloads counted since the last flush. Failed writes are kept for the next one.
+     */
+    @Scheduled(fixedDelayString = "${cloudsync.signed-urls.count-flush-interval:PT10S}")
+    @PreDestroy
+    public void flushCounts() {
+        if (pendingCounts.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> counts = new HashMap<>();
+        for (Long fileId : pendingCounts.keySet()) {
+            Long count = pendingCounts.remove(fileId);
+            if (count != null) {
+                counts.put(fileId, count);
+            }
+        }
+        try {
+            transaction.executeWithoutResult(status -> {
+                counts.forEach((fileId, count) -> fileRepository.addDownloads(fileId, count));
+                folderListingCache.recordFileChanges(counts.keySet());
+            });
+            log.debug("Download counts flushed: files={}", counts.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush download counts, keeping them for the next flush: files={}", counts.size(), e);
+            counts.forEach((fileId, count) -> pendingCounts.merge(fileId, count, Long::sum));
+        }
+    }
+
+    // --- Private helper methods ---
+
+    private SignedUrl sign(SignedDownload download) {
+        return new SignedUrl(config.getBaseUrl() + DOWNLOAD_PATH + signer.sign(download), download.expiresAt());
+    }
+
+    /**
+     * Expiry for a requested lifetime, capped at max-ttl; the token stores whole seconds.
+     */
+    private Instant expiry(Duration ttl) {
+        Duration lifetime = ttl != null ? ttl : config.getDefaultTtl();
+        if (lifetime.compareTo(config.getMaxTtl()) > 0) {
+            lifetime = config.getMaxTtl();
+        }
+        return Instant.now().plus(lifetime).truncatedTo(ChronoUnit.SECONDS);
+    }
+
+    /**
+     * Rejects revoked generations, and lifetimes beyond max-ttl: revocations are only kept that long.
+     */
+    private boolean isCurrent(SignedDownload download) {
+        if (download.expiresAt().isAfter(Instant.now().plus(config.getMaxTtl()).plusSeconds(1))) {
+            return false;
+        }
+        Revocation revocation = revocations.get(download.fileId());
+        return revocation == null || download.generation() >= revocation.minGeneration();
+    }
+
+    private record Revocation(int minGeneration, LocalDateTime revokedAt) {
+
+        Revocation merge(Revocation other) {
+            return new Revocation(Math.max(minGeneration, other.minGeneration),
+                    revokedAt.isAfter(other.revokedAt) ? revokedAt : other.revokedAt);
+        }
+    }
+}
@@ -1,16 +1,26 @@
 package com.cloudsync.service;
 
 import com.cloudsync.config.StorageConfig;
+import com.cloudsync.entity.BlobPurgeTask;
+import com.cloudsync.entity.ChangeEntry;
 import com.cloudsync.entity.Folder;
 import com.cloudsync.entity.StoredFile;
 import com.cloudsync.entity.User;
+import com.cloudsync.event.FileChangedEvent;
+import com.cloudsync.event.UserChangedEvent;
 import com.cloudsync.exception.FileStorageException;
 import com.cloudsync.exception.StorageQuotaExceededException;
+import com.cloudsync.repository.BlobPurgeTaskRepository;
 import com.cloudsync.repository.FileRepository;
+import com.cloudsync.repository.FolderRepository;
+import com.cloudsync.repository.SharedFileRow;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.security.SignedDownload;
 import jakarta.annotation.PostConstruct;
 import org.apache.commons.io.FilenameUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
@@ -39,11 +49,37 @@ public class StorageService {
 
     private final StorageConfig storageConfig;
     private final FileRepository fileRepository;
+    private final FolderRepository folderRepository;
+    private final UserRepository userRepository;
+    private final StorageStatsService storageStatsService;
+    private final FolderRollupService folderRollupService;
+    private final BlobPurgeTaskRepository purgeRepository;
+    private final ChangeJournalService changeJournalService;
+    private final FolderDigestService folderDigestService;
+    private final FolderListingCache folderListingCache;
+    private final ContentCache contentCache;
+    private final ApplicationEventPublisher eventPublisher;
     private Path rootLocation;
 
-    public StorageService(StorageConfig storageConfig, FileRepository fileRepository) {
+    public StorageService(StorageConfig storageConfig, FileRepository fileRepository,
+                          FolderRepository folderRepository, UserRepository userRepository,
+                          StorageStatsService storageStatsService,
+                          FolderRollupService folderRollupService, BlobPurgeTaskRepository purgeRepository,
+                          ChangeJournalService changeJournalService, FolderDigestService folderDigestService,
+                          FolderListingCache folderListingCache, ContentCache contentCache,
+                          ApplicationEventPublisher eventPublisher) {
         this.storageConfig = storageConfig;
         this.fileRepository = fileRepository;
+        this.folderRepository = folderRepository;
+        this.userRepository = userRepository;
+        this.storageStatsService = storageStatsService;
+        this.folderRollupService = folderRollupService;
+        this.purgeRepository = purgeRepository;
+        this.changeJournalService = changeJournalService;
+        this.folderDigestService = folderDigestService;
+        this.folderListingCache = folderListingCache;
+        this.contentCache = contentCache;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -84,11 +120,16 @@ public class StorageService {
                     file.getSize(), destinationFile.toString(), owner, folder, checksum
             );
 
-            owner.addStorageUsed(file.getSize());
+            try {
+                addStorageUsed(owner, file.getSize());
+            } catch (StorageQuotaExceededException e) {
+                Files.deleteIfExists(destinationFile);
+                throw e;
+            }
 
             log.debug("File stored: path={}, size={}", destinationFile, file.getSize());
 
-            return fileRepository.save(storedFile);
+            return saveNewFile(storedFile);
 
         } catch (IOException e) {
             log.error("Failed to store file: {}", originalFilename, e);
@@ -97,35 +138,125 @@ public class StorageService {
     }
 
     /**
-     * Loads a stored file as a Spring Resource for download.
+     * Reserves a unique destination path in the owner's directory for content that
+     * is written by the caller (used by the streaming upload endpoints).
      */
-    public Resource loadAsResource(StoredFile file) {
+    public Path allocateStoragePath(User owner, String originalFilename) {
+        String cleanName = StringUtils.cleanPath(originalFilename);
+        if (cleanName.contains("..")) {
+            throw new FileStorageException("Invalid file path: " + cleanName);
+        }
         try {
-            Path filePath = Path.of(file.getStoragePath());
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if (resource.exists() && resource.isReadable()) {
-                return resource;
-            } else {
-                throw new FileStorageException("Could not read file: " + file.getOriginalName());
-            }
-        } catch (MalformedURLException e) {
-            log.error("Failed to load file as resource: {}", file.getOriginalName(), e);
-            throw new FileStorageException("Could not read file: " + file.getOriginalName(), e);
+            Path userDir = ensureUserDirectoryExists(owner);
+            return resolveDestinationPath(userDir, generateUniqueFilename(cleanName));
+        } catch (IOException e) {
+            log.error("Failed to prepare storage for file: {}", cleanName, e);
+            throw new FileStorageException("Could not prepare storage for file: " + cleanName, e);
+        }
+    }
+
+    /**
+     * Creates the database record for content already written to an allocated path.
+     * Quota is re-checked here since the streamed size is only known at the end.
+     */
+    public StoredFile registerStoredContent(Path destination, String originalFilename, String contentType,
+                                            long size, String checksum, User owner, Folder folder) {
+        StoredFile storedFile = createStoredFileEntity(
+                destination.getFileName().toString(), StringUtils.cleanPath(originalFilename), contentType,
+                size, destination.toString(), owner, folder, checksum
+        );
+
+        addStorageUsed(owner, size);
+
+        log.debug("Streamed file registered: path={}, size={}", destination, size);
+
+        return saveNewFile(storedFile);
+    }
+
+    /**
+     * Creates a file record sharing the blob of an existing file, for content the client did not
+     * have to upload again. The shared blob is purged only once no file references it.
+     */
+    public StoredFile registerExistingContent(StoredFile source, String originalFilename, String contentType,
+                                              User owner, Folder folder) {
+        String cleanName = StringUtils.cleanPath(originalFilename);
+        if (cleanName.contains("..")) {
+            throw new FileStorageException("Invalid file path: " + cleanName);
         }
+        StoredFile storedFile = createStoredFileEntity(
+                source.getName(), cleanName, contentType != null ? contentType : source.getContentType(),
+                source.getSize(), source.getStoragePath(), owner, folder, source.getChecksum()
+        );
+
+        addStorageUsed(owner, source.getSize());
+
+        log.debug("Existing content registered: path={}, size={}", source.getStoragePath(), source.getSize());
+
+        return saveNewFile(storedFile);
+    }
+
+    /**
+     * Returns true if the file's blob is on disk with the recorded size.
+     */
+    public boolean hasContent(StoredFile file) {
+        try {
+            Path path = Path.of(file.getStoragePath());
+            return Files.isReadable(path) && Files.size(path) == file.getSize();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns how many bytes the user may still store before hitting the quota.
+     */
+    public long getRemainingQuota(User owner) {
+        return Math.max(0, storageConfig.getMaxUserStorage() - owner.getStorageUsed());
     }
 
     /**
-     * Deletes a file from the file system.
+     * Loads a stored file as a Spring Resource for download, from memory when its content is popular.
      */
-    public void delete(StoredFile file) {
+    public Resource loadAsResource(StoredFile file) {
+        return loadAsResource(file.getStoragePath(), file.getChecksum(), file.getSize(), file.getOriginalName());
+    }
+
+    /**
+     * Loads a shared file for download; the row comes from the share link cache.
+     */
+    public Resource loadAsResource(SharedFileRow file) {
+        return loadAsResource(file.storagePath(), file.checksum(), file.size(), file.originalName());
+    }
+
+    /**
+     * Loads a file for a signed download URL, entirely from what the URL carries.
+     */
+    public Resource loadAsResource(SignedDownload download) {
+        return loadAsResource(download.storagePath(), download.checksum(), download.size(), download.filename());
+    }
+
+    /**
+     * Queues the file's blob for background deletion; it is removed from disk
+     * only after the current transaction has committed.
+     */
+    public void scheduleDeletion(StoredFile file) {
+        purgeRepository.save(new BlobPurgeTask(file.getStoragePath()));
+    }
+
+    /**
+     * Deletes a blob from the file system. Missing blobs are ignored.
+     */
+    public void deleteBlob(String storagePath) {
+        Path filePath = Path.of(storagePath).toAbsolutePath().normalize();
+        if (!filePath.startsWith(rootLocation)) {
+            throw new FileStorageException("Refusing to delete outside storage root: " + filePath);
+        }
         try {
-            Path filePath = Path.of(file.getStoragePath());
             Files.deleteIfExists(filePath);
             log.debug("File deleted from storage: {}", filePath);
         } catch (IOException e) {
-            log.error("Failed to delete file: {}", file.getOriginalName(), e);
-            throw new FileStorageException("Could not delete file: " + file.getOriginalName(), e);
+            log.error("Failed to delete blob: {}", filePath, e);
+            throw new FileStorageException("Could not delete file: " + filePath, e);
         }
     }
 
@@ -153,6 +284,26 @@ public class StorageService {
 
     // --- Private helper methods ---
 
+    private Resource loadAsResource(String storagePath, String checksum, long size, String originalName) {
+        Resource cached = contentCache.lookup(checksum, size, storagePath, originalName);
+        if (cached != null) {
+            return cached;
+        }
+        try {
+            Path filePath = Path.of(storagePath);
+            Resource resource = new UrlResource(filePath.toUri());
+            
+            if (resource.exists() && resource.isReadable()) {
+                return resource;
+            } else {
+                throw new FileStorageException("Could not read file: " + originalName);
+            }
+        } catch (MalformedURLException e) {
+            log.error("Failed to load file as resource: {}", originalName, e);
+            throw new FileStorageException("Could not read file: " + originalName, e);
+        }
+    }
+
     private void validateFile(MultipartFile file, String filename) {
         if (file.isEmpty()) {
             throw new FileStorageException("Cannot store empty file");
@@ -170,6 +321,17 @@ public class StorageService {
         }
     }
 
+    /**
+     * Charges the owner's quota with one atomic update; the owner entity is not written and
+     * may be an unloaded reference.
+     */
+    private void addStorageUsed(User owner, long size) {
+        if (userRepository.addStorage(owner.getId(), size, storageConfig.getMaxUserStorage()) == 0) {
+            throw new StorageQuotaExceededException("Storage quota exceeded. Maximum: " +
+                    formatBytes(storageConfig.getMaxUserStorage()));
+        }
+    }
+
     private String generateUniqueFilename(String originalFilename) {
         String extension = FilenameUtils.getExtension(originalFilename);
         return UUID.randomUUID().toString() + (extension.isEmpty() ? "" : "." + extension);
@@ -203,6 +365,21 @@ public class StorageService {
         return storedFile;
     }
 
+    private StoredFile saveNewFile(StoredFile storedFile) {
+        StoredFile saved = fileRepository.save(storedFile);
+        if (saved.getFolder() != null) {
+            folderRepository.adjustFileCounters(saved.getFolder().getId(), 1, saved.getSize());
+        }
+        folderRollupService.recordFileChange(saved.getFolder(), 1, saved.getSize());
+        folderDigestService.recordChange(saved.getOwner(), saved.getFolder());
+        folderListingCache.recordChange(saved.getFolder());
+        storageStatsService.recordFileAdded(saved);
+        changeJournalService.record(saved.getOwner(), ChangeEntry.file(ChangeEntry.Type.CREATED, saved));
+        eventPublisher.publishEvent(FileChangedEvent.created(saved));
+        eventPublisher.publishEvent(UserChangedEvent.of(saved.getOwner()));
+        return saved;
+    }
+
     private String calculateChecksum(Path file) {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
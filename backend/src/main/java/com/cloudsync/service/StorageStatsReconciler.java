@@ -0,0 +1,52 @@
+package com.cloudsync.service;
+
+import com.cloudsync.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Periodically compares every user's statistics row with the files and folders tables.
+ * Each user is reconciled in its own short transaction so row locks are held briefly.
+ */
+@Component
+public class StorageStatsReconciler {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageStatsReconciler.class);
+
+    private static final int BATCH_SIZE = 500;
+
+    private final UserRepository userRepository;
+    private final StorageStatsService storageStatsService;
+
+    public StorageStatsReconciler(UserRepository userRepository, StorageStatsService storageStatsService) {
+        this.userRepository = userRepository;
+        this.storageStatsService = storageStatsService;
+    }
+
+    @Scheduled(initialDelayString = "${cloudsync.stats.reconcile-initial-delay:PT10M}",
+               fixedDelayString = "${cloudsync.stats.reconcile-interval:PT6H}")
+    public void reconcileAll() {
+        int checked = 0;
+        int corrected = 0;
+        List<Long> userIds = userRepository.findIdsAfter(0L, PageRequest.of(0, BATCH_SIZE));
+        while (!userIds.isEmpty()) {
+            for (Long userId : userIds) {
+                try {
+                    if (storageStatsService.reconcile(userId)) {
+                        corrected++;
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Storage stats reconciliation failed: userId={}", userId, e);
+                }
+                checked++;
+            }
+            userIds = userRepository.findIdsAfter(userIds.get(userIds.size() - 1), PageRequest.of(0, BATCH_SIZE));
+        }
+        log.info("Storage stats reconciled: users={}, corrected={}", checked, corrected);
+    }
+}
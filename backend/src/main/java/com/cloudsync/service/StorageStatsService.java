@@ -0,0 +1,186 @@
+package com.cloudsync.service;
+
+import com.cloudsync.config.StorageConfig;
+import com.cloudsync.dto.StorageStats;
+import com.cloudsync.entity.ContentFamily;
+import com.cloudsync.entity.StoredFile;
+import com.cloudsync.entity.User;
+import com.cloudsync.entity.UserStorageStats;
+import com.cloudsync.repository.ContentTypeUsage;
+import com.cloudsync.repository.FileRepository;
+import com.cloudsync.repository.FolderRepository;
+import com.cloudsync.repository.UserStorageStatsRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maintains the per-user storage statistics row.
+ * Callers record every change in their own transaction; {@link #reconcile(Long)} repairs drift
+ * by recomputing the row from the files and folders tables.
+ */
+@Service
+@Transactional
+public class StorageStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageStatsService.class);
+
+    private final UserStorageStatsRepository statsRepository;
+    private final FileRepository fileRepository;
+    private final FolderRepository folderRepository;
+    private final StorageConfig storageConfig;
+
+    public StorageStatsService(UserStorageStatsRepository statsRepository, FileRepository fileRepository,
+                               FolderRepository folderRepository, StorageConfig storageConfig) {
+        this.statsRepository = statsRepository;
+        this.fileRepository = fileRepository;
+        this.folderRepository = folderRepository;
+        this.storageConfig = storageConfig;
+    }
+
+    /**
+     * Creates the empty statistics row of a newly registered user.
+     */
+    public void initialize(User user) {
+        statsRepository.save(new UserStorageStats(user.getId()));
+    }
+
+    public void recordFileAdded(StoredFile file) {
+        adjustFiles(file.getOwner().getId(), ContentFamily.of(file.getContentType()), 1, file.getSize());
+    }
+
+    public void recordFileRemoved(StoredFile file) {
+        adjustFiles(file.getOwner().getId(), ContentFamily.of(file.getContentType()), -1, -file.getSize());
+    }
+
+    public void recordFolderAdded(User user) {
+        statsRepository.adjustFolderCount(user.getId(), 1);
+    }
+
+    /**
+     * Subtracts a deleted folder subtree: its folders and its files grouped by content type.
+     */
+    public void recordSubtreeRemoved(User user, long folders, List<ContentTypeUsage> files) {
+        Tally tally = Tally.of(files);
+        for (ContentFamily family : ContentFamily.values()) {
+            if (tally.files(family) != 0) {
+                adjustFiles(user.getId(), family, -tally.files(family), -tally.bytes(family));
+            }
+        }
+        statsRepository.adjustFolderCount(user.getId(), -folders);
+    }
+
+    /**
+     * Returns the user's statistics from the stats row, creating it from ground truth if missing.
+     */
+    public StorageStats getStats(User user) {
+        UserStorageStats stats = statsRepository.findById(user.getId()).orElse(null);
+        if (stats == null) {
+            reconcile(user.getId());
+            stats = statsRepository.findById(user.getId()).orElseThrow();
+        }
+
+        Map<ContentFamily, StorageStats.FamilyUsage> byFamily = new EnumMap<>(ContentFamily.class);
+        for (ContentFamily family : ContentFamily.values()) {
+            byFamily.put(family, new StorageStats.FamilyUsage(stats.getFiles(family), stats.getBytes(family)));
+        }
+        return new StorageStats(stats.getTotalBytes(), storageConfig.getMaxUserStorage(),
+                stats.getFileCount(), stats.getFolderCount(), byFamily);
+    }
+
+    /**
+     * Recomputes the user's row while holding its lock, so increments from concurrent
+     * transactions apply on top of the corrected values. Returns true if the row was
+     * missing or had drifted.
+     */
+    public boolean reconcile(Long userId) {
+        UserStorageStats stats = statsRepository.findForUpdate(userId).orElse(null);
+        boolean missing = stats == null;
+        if (missing) {
+            stats = new UserStorageStats(userId);
+        }
+
+        Tally tally = Tally.of(fileRepository.summarizeByOwnerId(userId));
+        long folders = folderRepository.countByOwnerId(userId);
+        if (!missing && !tally.differsFrom(stats, folders)) {
+            return false;
+        }
+
+        if (!missing) {
+            log.warn("Storage stats drift corrected: userId={}, files={}->{}, bytes={}->{}, folders={}->{}",
+                    userId, stats.getFileCount(), tally.totalFiles(), stats.getTotalBytes(), tally.totalBytes(),
+                    stats.getFolderCount(), folders);
+        }
+        for (ContentFamily family : ContentFamily.values()) {
+            stats.setUsage(family, tally.files(family), tally.bytes(family));
+        }
+        stats.markReconciled(folders);
+        statsRepository.save(stats);
+        return true;
+    }
+
+    private void adjustFiles(Long userId, ContentFamily family, long files, long bytes) {
+        if (statsRepository.adjustFiles(userId, family, files, bytes) == 0) {
+            log.warn("Storage stats row missing, left to the reconciler: userId={}", userId);
+        }
+    }
+
+    /**
+     * File counts and bytes per content family.
+     */
+    private record Tally(long[] files, long[] bytes) {
+
+        static Tally of(List<ContentTypeUsage> usages) {
+            Tally tally = new Tally(new long[ContentFamily.values().length], new long[ContentFamily.values().length]);
+            for (ContentTypeUsage usage : usages) {
+                int family = ContentFamily.of(usage.contentType()).ordinal();
+                tally.files[family] += usage.files();
+                tally.bytes[family] += usage.bytes();
+            }
+            return tally;
+        }
+
+        long files(ContentFamily family) {
+            return files[family.ordinal()];
+        }
+
+        long bytes(ContentFamily family) {
+            return bytes[family.ordinal()];
+        }
+
+        long totalFiles() {
+            long total = 0;
+            for (long value : files) {
+                total += value;
+            }
+            return total;
+        }
+
+        long totalBytes() {
+            long total = 0;
+            for (long value : bytes) {
+                total += value;
+            }
+            return total;
+        }
+
+        boolean differsFrom(UserStorageStats stats, long folders) {
+            if (stats.getFolderCount() != folders
+                    || stats.getFileCount() != totalFiles()
+                    || stats.getTotalBytes() != totalBytes()) {
+                return true;
+            }
+            for (ContentFamily family : ContentFamily.values()) {
+                if (stats.getFiles(family) != files(family) || stats.getBytes(family) != bytes(family)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.cloudsync.share;
+
+import com.cloudsync.concurrent.SingleFlight;
+import com.cloudsync.config.CoalescingConfig;
+import com.cloudsync.config.ShareCacheConfig;
+import com.cloudsync.event.DownloadsRevokedEvent;
+import com.cloudsync.event.FileChangedEvent;
+import com.cloudsync.event.FilesDeletedEvent;
+import com.cloudsync.event.SharesChangedEvent;
+import com.cloudsync.repository.FileRepository;
+import com.cloudsync.repository.SharedFileRow;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Resolves share tokens to their files with as few database queries as possible.
+ * <p>
+ * A Bloom filter of all valid tokens rejects unknown tokens, e.g. from scanners, without a
+ * query. Tokens that pass it are looked up in a cache of resolved links, then in a cache of
+ * tokens known not to exist, and only then in the database. Shares made here enter the filter
+ * after commit; tokens shared through other instances are picked up every refresh interval, and
+ * the filter is rebuilt periodically to shed revoked tokens. Resolved links are dropped after
+ * commit of any local unshare, rename or delete; their TTL bounds staleness for changes made by
+ * other instances. Concurrent lookups of the same token, e.g. for a link just posted in a chat,
+ * share one query.
+ */
+@Component
+public class ShareResolver {
+
+    private static final Logger log = LoggerFactory.getLogger(ShareResolver.class);
+
+    private final FileRepository fileRepository;
+    private final ShareCacheConfig config;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Cache<String, SharedFileRow> resolved;
+    private final Cache<String, Boolean> missing;
+    private final SingleFlight<String, SharedFileRow> lookups;
+    private final Map<Long, String> tokensByFile = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder queried = new LongAdder();
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter rebuilding;
+    private volatile LocalDateTime refreshedAt;
+
+    public ShareResolver(FileRepository fileRepository, ShareCacheConfig config,
+                         CoalescingConfig coalescingConfig, PlatformTransactionManager transactionManager) {
+        this.fileRepository = fileRepository;
+        this.config = config;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.resolved = Caffeine.newBuilder()
+                .maximumSize(config.getMaxSize())
+                .expireAfterWrite(config.getTtl())
+                .removalListener((String token, SharedFileRow share, RemovalCause cause) -> {
+                    if (share != null) {
+                        tokensByFile.remove(share.id(), token);
+                    }
+                })
+                .recordStats()
+                .build();
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(config.getMaxMissingSize())
+                .expireAfterWrite(config.getMissingTtl())
+                .build();
+        this.lookups = new SingleFlight<>("share link lookup", coalescingConfig);
+    }
+
+    @PostConstruct
+    public void init() {
+        if (config.isEnabled()) {
+            rebuild();
+        }
+    }
+
+    /**
+     * Returns the file a share token points to, if any. Whether the file is public is left to the caller.
+     */
+    public Optional<SharedFileRow> resolve(String token) {
+        if (!config.isEnabled()) {
+            return Optional.ofNullable(lookups.execute(token, () -> query(token).orElse(null)));
+        }
+        if (!filter.mightContain(token)) {
+            rejected.increment();
+            return Optional.empty();
+        }
+        long invalidationsBefore = invalidations.get();
+        SharedFileRow share = resolved.getIfPresent(token);
+        if (share == null) {
+            share = lookups.execute(token, () -> load(token));
+        }
+        if (share != null && invalidations.get() != invalidationsBefore) {
+            // The row may have been read before a concurrent unshare or delete committed
+            resolved.invalidate(token);
+        }
+        return Optional.ofNullable(share);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSharesChanged(SharesChangedEvent event) {
+        event.sharedTokens().forEach(this::register);
+        invalidateFiles(event.revokedFileIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFileChanged(FileChangedEvent event) {
+        if (event.type() != FileChangedEvent.Type.CREATED) {
+            invalidateFiles(List.of(event.fileId()));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onFilesDeleted(FilesDeletedEvent event) {
+        invalidateFiles(event.fileIds());
+    }
+
+    /**
+     * Resolved links carry the download generation that signed URLs are issued for.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onDownloadsRevoked(DownloadsRevokedEvent event) {
+        invalidateFiles(event.fileIds());
+    }
+
+    /**
+     * Adds tokens shared through any instance since the last refresh to the filter.
+     */
+    @Scheduled(fixedDelayString = "${cloudsync.share-cache.refresh-interval:PT2S}")
+    public void refresh() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<String> tokens = fileRepository.findShareTokensUpdatedSince(refreshedAt.minus(config.getRefreshOverlap()));
+        tokens.forEach(this::register);
+        refreshedAt = startedAt;
+    }
+
+    /**
+     * Replaces the filter with one built from the current tokens, sized for twice their number.
+     * Tokens registered while the new filter is being filled are added to both.
+     */
+    @Scheduled(initialDelayString = "${cloudsync.share-cache.rebuild-interval:PT1H}",
+            fixedDelayString = "${cloudsync.share-cache.rebuild-interval:PT1H}")
+    public void rebuild() {
+        if (!config.isEnabled()) {
+            return;
+        }
+        long start = System.nanoTime();
+        LocalDateTime startedAt = LocalDateTime.now();
+        long count = fileRepository.countByShareTokenIsNotNull();
+        BloomFilter next = new BloomFilter(Math.max(config.getExpectedTokens(), 2 * count),
+                config.getFalsePositiveRate());
+        rebuilding = next;
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> tokens = fileRepository.streamShareTokens()) {
+                    tokens.forEach(next::put);
+                }
+            });
+            filter = next;
+            if (refreshedAt == null) {
+                refreshedAt = startedAt;
+            }
+        } finally {
+            rebuilding = null;
+        }
+        log.info("Share token filter rebuilt: tokens={}, bytes={}, millis={}",
+                count, next.sizeInBytes(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public CacheStats stats() {
+        return resolved.stats();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Database lookups of share tokens, after the filter, the caches and coalescing.
+     */
+    public long queryCount() {
+        return queried.sum();
+    }
+
+    @Scheduled(fixedDelayString = "${cloudsync.share-cache.stats-interval:PT5M}")
+    public void logStats() {
+        CacheStats stats = resolved.stats();
+        if (stats.requestCount() > 0 || rejected.sum() > 0) {
+            log.info("Share cache: resolved={}, hitRate={}, hits={}, misses={}, rejectedByFilter={}, knownMissing={}, " +
+                            "queries={}, coalesced={}",
+                    resolved.estimatedSize(), "%.3f".formatted(stats.hitRate()), stats.hitCount(),
+                    stats.missCount(), rejected.sum(), missing.estimatedSize(), queried.sum(),
+                    lookups.coalescedCount());
+        }
+    }
+
+    // --- Private helper methods ---
+
+    /**
+     * Loads a token that passed the filter into the cache, unless a lookup that just finished did;
+     * returns null for unknown tokens and remembers them instead.
+     */
+    private SharedFileRow load(String token) {
+        SharedFileRow cached = resolved.policy().getIfPresentQuietly(token);
+        if (cached != null) {
+            return cached;
+        }
+        if (missing.getIfPresent(token) != null) {
+            return null;
+        }
+        SharedFileRow share = query(token).orElse(null);
+        if (share == null) {
+            missing.put(token, Boolean.TRUE);
+            return null;
+        }
+        tokensByFile.put(share.id(), token);
+        // Never replaces an entry: the removal listener would drop the file's token mapping
+        SharedFileRow existing = resolved.asMap().putIfAbsent(token, share);
+        return existing != null ? existing : share;
+    }
+
+    private Optional<SharedFileRow> query(String token) {
+        queried.increment();
+        return fileRepository.findSharedRow(token);
+    }
+
+    /**
+     * Adds a committed token to the filter. The filter being rebuilt is read first: if it is
+     * already gone, it has been swapped in and the current filter is the new one.
+     */
+    private void register(String token) {
+        BloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(token);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(token);
+        }
+        missing.invalidate(token);
+    }
+
+    private void invalidateFiles(Collection<Long> fileIds) {
+        invalidations.incrementAndGet();
+        for (Long fileId : fileIds) {
+            String token = tokensByFile.remove(fileId);
+            if (token != null) {
+                resolved.invalidate(token);
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+-- Subtree rollups of folders created before rollups existed are still zero. Computed once from the
+-- files table, walking the tree through parent_id since lineages may not be backfilled yet.
+-- Folders with pending deltas are skipped: their rollups are already being maintained.
+CREATE TABLE rollup_backfill AS
+WITH RECURSIVE subtree (root_id, folder_id) AS (
+    SELECT id, id FROM folders
+    UNION ALL
+    SELECT s.root_id, c.id FROM subtree s JOIN folders c ON c.parent_id = s.folder_id
+)
+SELECT s.root_id, COUNT(sf.id) AS files, COALESCE(SUM(sf.size), 0) AS bytes
+FROM subtree s JOIN stored_files sf ON sf.folder_id = s.folder_id
+GROUP BY s.root_id;
+
+UPDATE folders SET
+    subtree_file_count = (SELECT b.files FROM rollup_backfill b WHERE b.root_id = folders.id),
+    subtree_bytes      = (SELECT b.bytes FROM rollup_backfill b WHERE b.root_id = folders.id),
+    listing_version    = listing_version + 1
+WHERE subtree_file_count = 0
+  AND id IN (SELECT root_id FROM rollup_backfill)
+  AND NOT EXISTS (SELECT 1 FROM folder_rollup_deltas d WHERE d.lineage LIKE '%/' || folders.id || '/%');
+
+DROP TABLE rollup_backfill;
@@ -0,0 +1,2 @@
+-- File name search on H2 uses the in-memory trigram index, so there is nothing to create.
+-- Kept so that both vendors share version numbers.
@@ -0,0 +1,15 @@
+-- Purge tasks and download revocations take pooled sequence ids like the other tables (see V1_2),
+-- so saving them no longer forces an immediate insert ahead of the flush and they batch with the
+-- rest of it. The identity columns stay; they only supply ids a statement does not give.
+
+CREATE SEQUENCE IF NOT EXISTS blob_purge_queue_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS download_revocations_seq START WITH 1 INCREMENT BY 50;
+
+ALTER SEQUENCE blob_purge_queue_seq RESTART WITH (
+    SELECT GREATEST(COALESCE(MAX(id) + 50, 0), (SELECT base_value FROM information_schema.sequences
+        WHERE sequence_schema = SCHEMA() AND sequence_name = 'BLOB_PURGE_QUEUE_SEQ'))
+    FROM blob_purge_queue);
+ALTER SEQUENCE download_revocations_seq RESTART WITH (
+    SELECT GREATEST(COALESCE(MAX(id) + 50, 0), (SELECT base_value FROM information_schema.sequences
+        WHERE sequence_schema = SCHEMA() AND sequence_name = 'DOWNLOAD_REVOCATIONS_SEQ'))
+    FROM download_revocations);
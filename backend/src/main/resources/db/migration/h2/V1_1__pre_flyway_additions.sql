@@ -0,0 +1,45 @@
+-- Columns and tables added while Hibernate still generated the schema. A database it last
+-- updated in between is baselined at V1 as well and may already have any of them.
+
+ALTER TABLE folders ADD COLUMN IF NOT EXISTS path VARCHAR(4096);
+ALTER TABLE folders ADD COLUMN IF NOT EXISTS lineage VARCHAR(1024);
+ALTER TABLE folders ADD COLUMN IF NOT EXISTS depth INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE folders ADD COLUMN IF NOT EXISTS file_count BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE folders ADD COLUMN IF NOT EXISTS subfolder_count BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE folders ADD COLUMN IF NOT EXISTS total_bytes BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE folders ADD COLUMN IF NOT EXISTS subtree_file_count BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE folders ADD COLUMN IF NOT EXISTS subtree_bytes BIGINT DEFAULT 0 NOT NULL;
+
+CREATE TABLE IF NOT EXISTS user_storage_stats (
+    user_id        BIGINT NOT NULL PRIMARY KEY,
+    file_count     BIGINT DEFAULT 0 NOT NULL,
+    total_bytes    BIGINT DEFAULT 0 NOT NULL,
+    folder_count   BIGINT DEFAULT 0 NOT NULL,
+    image_files    BIGINT DEFAULT 0 NOT NULL,
+    image_bytes    BIGINT DEFAULT 0 NOT NULL,
+    video_files    BIGINT DEFAULT 0 NOT NULL,
+    video_bytes    BIGINT DEFAULT 0 NOT NULL,
+    audio_files    BIGINT DEFAULT 0 NOT NULL,
+    audio_bytes    BIGINT DEFAULT 0 NOT NULL,
+    document_files BIGINT DEFAULT 0 NOT NULL,
+    document_bytes BIGINT DEFAULT 0 NOT NULL,
+    archive_files  BIGINT DEFAULT 0 NOT NULL,
+    archive_bytes  BIGINT DEFAULT 0 NOT NULL,
+    other_files    BIGINT DEFAULT 0 NOT NULL,
+    other_bytes    BIGINT DEFAULT 0 NOT NULL,
+    reconciled_at  TIMESTAMP(6)
+);
+
+CREATE TABLE IF NOT EXISTS blob_purge_queue (
+    id           BIGINT       GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    storage_path VARCHAR(255) NOT NULL,
+    enqueued_at  TIMESTAMP(6) NOT NULL,
+    attempts     INTEGER      DEFAULT 0 NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS folder_rollup_deltas (
+    id      BIGINT        NOT NULL PRIMARY KEY,
+    lineage VARCHAR(1024) NOT NULL,
+    files   BIGINT        NOT NULL,
+    bytes   BIGINT        NOT NULL
+);
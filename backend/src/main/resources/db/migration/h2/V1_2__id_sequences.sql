@@ -0,0 +1,25 @@
+-- Id sequences. Ids used to come from identity columns, so a baselined database already has rows;
+-- the pooled optimizer hands out the ALLOCATION_SIZE (50) ids up to each sequence value, so the
+-- next value has to clear MAX(id) by that much. Sequences already past it are left alone.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS folders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS stored_files_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS folder_rollup_deltas_seq START WITH 1 INCREMENT BY 50;
+
+ALTER SEQUENCE users_seq RESTART WITH (
+    SELECT GREATEST(COALESCE(MAX(id) + 50, 0), (SELECT base_value FROM information_schema.sequences
+        WHERE sequence_schema = SCHEMA() AND sequence_name = 'USERS_SEQ'))
+    FROM users);
+ALTER SEQUENCE folders_seq RESTART WITH (
+    SELECT GREATEST(COALESCE(MAX(id) + 50, 0), (SELECT base_value FROM information_schema.sequences
+        WHERE sequence_schema = SCHEMA() AND sequence_name = 'FOLDERS_SEQ'))
+    FROM folders);
+ALTER SEQUENCE stored_files_seq RESTART WITH (
+    SELECT GREATEST(COALESCE(MAX(id) + 50, 0), (SELECT base_value FROM information_schema.sequences
+        WHERE sequence_schema = SCHEMA() AND sequence_name = 'STORED_FILES_SEQ'))
+    FROM stored_files);
+ALTER SEQUENCE folder_rollup_deltas_seq RESTART WITH (
+    SELECT GREATEST(COALESCE(MAX(id) + 50, 0), (SELECT base_value FROM information_schema.sequences
+        WHERE sequence_schema = SCHEMA() AND sequence_name = 'FOLDER_ROLLUP_DELTAS_SEQ'))
+    FROM folder_rollup_deltas);
@@ -0,0 +1,39 @@
+-- Schema as Hibernate generated it (ddl-auto: update) before the schema was managed by Flyway.
+-- Databases created that way are baselined at this version and never run this script.
+
+CREATE TABLE users (
+    id           BIGINT       GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    username     VARCHAR(255) NOT NULL UNIQUE,
+    email        VARCHAR(255) NOT NULL UNIQUE,
+    password     VARCHAR(255) NOT NULL,
+    storage_used BIGINT       NOT NULL,
+    created_at   TIMESTAMP(6),
+    updated_at   TIMESTAMP(6),
+    enabled      BOOLEAN      NOT NULL
+);
+
+CREATE TABLE folders (
+    id         BIGINT       GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name       VARCHAR(255) NOT NULL,
+    parent_id  BIGINT       REFERENCES folders (id),
+    owner_id   BIGINT       NOT NULL REFERENCES users (id),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6)
+);
+
+CREATE TABLE stored_files (
+    id             BIGINT       GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name           VARCHAR(255) NOT NULL,
+    original_name  VARCHAR(255) NOT NULL,
+    content_type   VARCHAR(255),
+    size           BIGINT       NOT NULL,
+    storage_path   VARCHAR(255) NOT NULL,
+    checksum       VARCHAR(255),
+    folder_id      BIGINT       REFERENCES folders (id),
+    owner_id       BIGINT       NOT NULL REFERENCES users (id),
+    share_token    VARCHAR(255),
+    is_public      BOOLEAN      NOT NULL,
+    download_count BIGINT       NOT NULL,
+    created_at     TIMESTAMP(6),
+    updated_at     TIMESTAMP(6)
+);
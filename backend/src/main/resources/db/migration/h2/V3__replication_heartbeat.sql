@@ -0,0 +1,8 @@
+-- A single row the primary rewrites on every lag check. How far a replica's copy trails
+-- the primary's is that replica's replication lag, independent of the replication method.
+CREATE TABLE replication_heartbeat (
+    id      INTEGER      NOT NULL PRIMARY KEY,
+    beat_at TIMESTAMP(6) NOT NULL
+);
+
+INSERT INTO replication_heartbeat (id, beat_at) VALUES (1, LOCALTIMESTAMP);
@@ -0,0 +1,28 @@
+-- Per-user change journal read by sync clients through /api/changes.
+-- The head row hands out each user's sequence numbers; updating it locks the row, so a user's
+-- entries commit in sequence order and a reader never sees a later entry before an earlier one.
+CREATE SEQUENCE change_journal_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE change_journal_heads (
+    user_id       BIGINT NOT NULL PRIMARY KEY,
+    last_seq      BIGINT DEFAULT 0 NOT NULL,
+    -- Entries up to this sequence have been compacted away
+    compacted_seq BIGINT DEFAULT 0 NOT NULL
+);
+
+INSERT INTO change_journal_heads (user_id, last_seq, compacted_seq) SELECT id, 0, 0 FROM users;
+
+CREATE TABLE change_journal (
+    id          BIGINT       NOT NULL PRIMARY KEY,
+    user_id     BIGINT       NOT NULL,
+    seq         BIGINT       NOT NULL,
+    change_type VARCHAR(16)  NOT NULL,
+    item_type   VARCHAR(16)  NOT NULL,
+    item_id     BIGINT       NOT NULL,
+    parent_id   BIGINT,
+    name        VARCHAR(255),
+    changed_at  TIMESTAMP(6) NOT NULL
+);
+
+CREATE UNIQUE INDEX idx_change_journal_user_seq ON change_journal (user_id, seq);
+CREATE INDEX idx_change_journal_changed_at ON change_journal (changed_at);
@@ -0,0 +1,2 @@
+-- Instant uploads look up existing content by checksum and size, per user and across users
+CREATE INDEX idx_files_checksum_size ON stored_files (checksum, size);
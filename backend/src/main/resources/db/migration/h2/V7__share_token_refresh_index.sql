@@ -0,0 +1,2 @@
+-- Instances pick up share tokens created elsewhere by polling recently updated shared files
+CREATE INDEX idx_files_shared_updated ON stored_files (updated_at, share_token);
@@ -0,0 +1,4 @@
+-- Bumped in the same transaction as every change that shows in a folder's listing: its own row,
+-- its direct children, and the path it inherits from its ancestors. Cached listings are
+-- validated against it, so they are never served after a change committed through any instance.
+ALTER TABLE folders ADD COLUMN listing_version BIGINT DEFAULT 0 NOT NULL;
@@ -0,0 +1,10 @@
+-- Child counters of folders created before the counters existed are still zero. Recounted once
+-- from the files and folders tables; only folders that have children are rewritten.
+UPDATE folders SET
+    file_count      = (SELECT COUNT(*) FROM stored_files sf WHERE sf.folder_id = folders.id),
+    total_bytes     = (SELECT COALESCE(SUM(sf.size), 0) FROM stored_files sf WHERE sf.folder_id = folders.id),
+    subfolder_count = (SELECT COUNT(*) FROM folders c WHERE c.parent_id = folders.id),
+    listing_version = listing_version + 1
+WHERE file_count = 0 AND subfolder_count = 0
+  AND (EXISTS (SELECT 1 FROM stored_files sf WHERE sf.folder_id = folders.id)
+    OR EXISTS (SELECT 1 FROM folders c WHERE c.parent_id = folders.id));
@@ -0,0 +1,21 @@
+-- Subtree rollups of folders created before rollups existed are still zero. Computed once from the
+-- files table, walking the tree through parent_id since lineages may not be backfilled yet.
+-- Folders with pending deltas are skipped: their rollups are already being maintained.
+WITH RECURSIVE subtree (root_id, folder_id) AS (
+    SELECT id, id FROM folders
+    UNION ALL
+    SELECT s.root_id, c.id FROM subtree s JOIN folders c ON c.parent_id = s.folder_id
+),
+totals AS (
+    SELECT s.root_id, COUNT(sf.id) AS files, COALESCE(SUM(sf.size), 0) AS bytes
+    FROM subtree s JOIN stored_files sf ON sf.folder_id = s.folder_id
+    GROUP BY s.root_id
+)
+UPDATE folders f SET
+    subtree_file_count = t.files,
+    subtree_bytes      = t.bytes,
+    listing_version    = f.listing_version + 1
+FROM totals t
+WHERE t.root_id = f.id
+  AND f.subtree_file_count = 0
+  AND NOT EXISTS (SELECT 1 FROM folder_rollup_deltas d WHERE d.lineage LIKE '%/' || f.id || '/%');
@@ -0,0 +1,19 @@
+-- Trigram index for file name search (PostgresFileNameIndex). Creating pg_trgm needs a privileged
+-- role; without it the migration still succeeds and search falls back to substring matching.
+
+DO $$
+BEGIN
+    CREATE EXTENSION IF NOT EXISTS pg_trgm;
+EXCEPTION
+    WHEN insufficient_privilege OR undefined_file THEN
+        RAISE WARNING 'pg_trgm unavailable, file search falls back to substring matching: %', SQLERRM;
+END
+$$;
+
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_extension WHERE extname = 'pg_trgm') THEN
+        CREATE INDEX IF NOT EXISTS idx_files_name_trgm ON stored_files USING gin (lower(original_name) gin_trgm_ops);
+    END IF;
+END
+$$;
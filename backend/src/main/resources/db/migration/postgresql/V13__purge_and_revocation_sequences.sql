@@ -0,0 +1,11 @@
+-- Purge tasks and download revocations take pooled sequence ids like the other tables (see V1_2),
+-- so saving them no longer forces an immediate insert ahead of the flush and they batch with the
+-- rest of it. The identity columns stay; they only supply ids a statement does not give.
+
+CREATE SEQUENCE IF NOT EXISTS blob_purge_queue_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS download_revocations_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('blob_purge_queue_seq', MAX(id) + 50, false) FROM blob_purge_queue
+HAVING MAX(id) + 50 > (SELECT last_value FROM blob_purge_queue_seq);
+SELECT setval('download_revocations_seq', MAX(id) + 50, false) FROM download_revocations
+HAVING MAX(id) + 50 > (SELECT last_value FROM download_revocations_seq);
@@ -0,0 +1,17 @@
+-- Id sequences. Ids used to come from identity columns, so a baselined database already has rows;
+-- the pooled optimizer hands out the ALLOCATION_SIZE (50) ids up to each sequence value, so the
+-- next value has to clear MAX(id) by that much. Sequences already past it are left alone.
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS folders_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS stored_files_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS folder_rollup_deltas_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('users_seq', MAX(id) + 50, false) FROM users
+HAVING MAX(id) + 50 > (SELECT last_value FROM users_seq);
+SELECT setval('folders_seq', MAX(id) + 50, false) FROM folders
+HAVING MAX(id) + 50 > (SELECT last_value FROM folders_seq);
+SELECT setval('stored_files_seq', MAX(id) + 50, false) FROM stored_files
+HAVING MAX(id) + 50 > (SELECT last_value FROM stored_files_seq);
+SELECT setval('folder_rollup_deltas_seq', MAX(id) + 50, false) FROM folder_rollup_deltas
+HAVING MAX(id) + 50 > (SELECT last_value FROM folder_rollup_deltas_seq);
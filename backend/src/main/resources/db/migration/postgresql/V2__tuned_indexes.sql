@@ -0,0 +1,40 @@
+-- Index set for the repository queries. IF NOT EXISTS because databases baselined from
+-- Hibernate-generated schemas already carry some of these under the same names.
+
+-- Keyset listings inside a folder (folder_id IS NULL for the root directory). The
+-- (owner_id, folder_id) prefix also serves findByOwnerAndFolderId, duplicate name checks
+-- and subtree deletes.
+CREATE INDEX IF NOT EXISTS idx_files_owner_folder_name ON stored_files (owner_id, folder_id, original_name, id);
+CREATE INDEX IF NOT EXISTS idx_files_owner_folder_size ON stored_files (owner_id, folder_id, size, id);
+CREATE INDEX IF NOT EXISTS idx_files_owner_folder_created ON stored_files (owner_id, folder_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_files_owner_folder_type ON stored_files (owner_id, folder_id, content_type, id);
+
+-- Keyset listings across all of the owner's files; the type index also covers usage summaries
+CREATE INDEX IF NOT EXISTS idx_files_owner_name ON stored_files (owner_id, original_name, id);
+CREATE INDEX IF NOT EXISTS idx_files_owner_size ON stored_files (owner_id, size, id);
+CREATE INDEX IF NOT EXISTS idx_files_owner_created ON stored_files (owner_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_files_owner_type ON stored_files (owner_id, content_type, id) INCLUDE (size);
+
+-- Share links; only shared files carry a token
+CREATE UNIQUE INDEX IF NOT EXISTS idx_files_share_token ON stored_files (share_token)
+    WHERE share_token IS NOT NULL;
+
+-- Public file listing; a small fraction of all files
+CREATE INDEX IF NOT EXISTS idx_files_public ON stored_files (id) WHERE is_public;
+
+-- Blob purge checks whether a path is still referenced
+CREATE INDEX IF NOT EXISTS idx_files_storage_path ON stored_files (storage_path);
+
+-- Foreign key checks when folders are deleted, and per-folder recounts
+CREATE INDEX IF NOT EXISTS idx_files_folder ON stored_files (folder_id);
+CREATE INDEX IF NOT EXISTS idx_folders_parent ON folders (parent_id);
+
+-- Subtree lookups match lineage prefixes (LIKE '/3/17/%'), which needs pattern ops
+-- under non-C collations
+DROP INDEX IF EXISTS idx_folders_owner_lineage;
+CREATE INDEX IF NOT EXISTS idx_folders_owner_lineage_prefix ON folders (owner_id, lineage text_pattern_ops);
+
+-- Keyset folder listings; the name index also serves duplicate name checks
+CREATE INDEX IF NOT EXISTS idx_folders_owner_parent_name ON folders (owner_id, parent_id, name, id);
+CREATE INDEX IF NOT EXISTS idx_folders_owner_parent_created ON folders (owner_id, parent_id, created_at, id);
+CREATE INDEX IF NOT EXISTS idx_folders_owner_parent_subtree_size ON folders (owner_id, parent_id, subtree_bytes, id);
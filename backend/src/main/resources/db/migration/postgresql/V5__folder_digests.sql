@@ -0,0 +1,15 @@
+-- Merkle digests over each folder's direct children: file names and checksums plus the names
+-- and digests of subfolders. Left NULL here and computed deepest folders first on startup.
+ALTER TABLE folders ADD COLUMN digest VARCHAR(64);
+
+CREATE SEQUENCE folder_digest_marks_seq START WITH 1 INCREMENT BY 50;
+
+-- Folders whose direct children changed (folder_id NULL for the root directory); the digest
+-- aggregator recomputes them and their ancestors in batches.
+CREATE TABLE folder_digest_marks (
+    id        BIGINT NOT NULL PRIMARY KEY,
+    owner_id  BIGINT NOT NULL,
+    folder_id BIGINT
+);
+
+CREATE INDEX idx_folder_digest_marks_owner ON folder_digest_marks (owner_id, folder_id);
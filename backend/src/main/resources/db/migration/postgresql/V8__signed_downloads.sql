@@ -0,0 +1,17 @@
+-- Signed download URLs carry their file's generation; revoking them bumps it. Files that were
+-- never signed stay at 0, so deleting them records no revocation. Shared files can be signed
+-- from their share link without a write, so they start at 1.
+ALTER TABLE stored_files ADD COLUMN download_generation INTEGER DEFAULT 0 NOT NULL;
+
+UPDATE stored_files SET download_generation = 1 WHERE share_token IS NOT NULL;
+
+-- URLs of a file below min_generation are rejected. Instances poll recent rows, and rows older
+-- than the longest URL lifetime are deleted since every URL they could reject has expired.
+CREATE TABLE download_revocations (
+    id             BIGINT       GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    file_id        BIGINT       NOT NULL,
+    min_generation INTEGER      NOT NULL,
+    revoked_at     TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_download_revocations_revoked_at ON download_revocations (revoked_at);
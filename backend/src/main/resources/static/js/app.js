@@ -169,19 +169,13 @@ async function loadFiles() {
             ? `${API_BASE}/files/folder/${currentFolderId}`
             : `${API_BASE}/files/root`;
         
-        const [filesResponse, foldersResponse] = await Promise.all([
-            fetch(url, { headers: { 'Authorization': `Bearer ${authToken}` } }),
-            currentFolderId 
-                ? fetch(`${API_BASE}/folders/${currentFolderId}/subfolders`, { headers: { 'Authorization': `Bearer ${authToken}` } })
-                : fetch(`${API_BASE}/folders`, { headers: { 'Authorization': `Bearer ${authToken}` } })
+        const [files, folders] = await Promise.all([
+            fetchAllPages(url),
+            fetchAllPages(currentFolderId
+                ? `${API_BASE}/folders/${currentFolderId}/subfolders`
+                : `${API_BASE}/folders`)
         ]);
 
-        const filesData = await filesResponse.json();
-        const foldersData = await foldersResponse.json();
-
-        const files = filesData.success ? filesData.data : [];
-        const folders = foldersData.success ? foldersData.data : [];
-
         renderFilesAndFolders(folders, files);
         updateBreadcrumb();
     } catch (error) {
@@ -189,6 +183,24 @@ async function loadFiles() {
     }
 }
 
+// Listings are paged; follow nextCursor until the last page
+async function fetchAllPages(url) {
+    const items = [];
+    let cursor = null;
+    do {
+        const separator = url.includes('?') ? '&' : '?';
+        const pageUrl = cursor ? `${url}${separator}cursor=${encodeURIComponent(cursor)}` : url;
+        const response = await fetch(pageUrl, {
+            headers: { 'Authorization': `Bearer ${authToken}` }
+        });
+        const data = await response.json();
+        if (!data.success) break;
+        items.push(...data.data.items);
+        cursor = data.data.nextCursor;
+    } while (cursor);
+    return items;
+}
+
 function renderFilesAndFolders(folders, files) {
     const grid = document.getElementById('filesGrid');
     const emptyState = document.getElementById('emptyState');
@@ -520,14 +532,8 @@ async function handleSearch() {
     if (!query) return;
 
     try {
-        const response = await fetch(`${API_BASE}/files/search?q=${encodeURIComponent(query)}`, {
-            headers: { 'Authorization': `Bearer ${authToken}` }
-        });
-
-        const data = await response.json();
-        if (data.success) {
-            renderFilesAndFolders([], data.data);
-        }
+        const files = await fetchAllPages(`${API_BASE}/files/search?q=${encodeURIComponent(query)}`);
+        renderFilesAndFolders([], files);
     } catch (error) {
         console.error('Search failed:', error);
     }
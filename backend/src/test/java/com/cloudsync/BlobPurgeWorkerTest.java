@@ -0,0 +1,99 @@
+package com.cloudsync;
+
+import com.cloudsync.entity.BlobPurgeTask;
+import com.cloudsync.entity.StoredFile;
+import com.cloudsync.entity.User;
+import com.cloudsync.repository.BlobPurgeTaskRepository;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.service.BlobPurgeWorker;
+import com.cloudsync.service.StorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The worker runs outside any transaction, as it does when scheduled, so these tests commit their data.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BlobPurgeWorkerTest {
+
+    // BlobPurgeWorker.MAX_ATTEMPTS
+    private static final int MAX_ATTEMPTS = 5;
+
+    @Autowired
+    private BlobPurgeWorker purgeWorker;
+
+    @Autowired
+    private BlobPurgeTaskRepository purgeRepository;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        String name = "purge" + UUID.randomUUID().toString().substring(0, 8);
+        owner = userRepository.save(new User(name, name + "@example.com", "password"));
+    }
+
+    @Test
+    void testQueuedBlob_DeletedFromDisk() throws Exception {
+        Path blob = storageService.allocateStoragePath(owner, "old.txt");
+        Files.writeString(blob, "old content");
+        BlobPurgeTask task = purgeRepository.save(new BlobPurgeTask(blob.toString()));
+
+        purgeWorker.purgePending();
+
+        assertFalse(Files.exists(blob));
+        assertFalse(purgeRepository.existsById(task.getId()));
+    }
+
+    @Test
+    void testReferencedBlob_Kept() throws Exception {
+        Path blob = storageService.allocateStoragePath(owner, "shared.txt");
+        Files.writeString(blob, "shared content");
+        new TransactionTemplate(transactionManager).execute(status -> storageService.registerStoredContent(
+                blob, "shared.txt", "text/plain", 14, null,
+                userRepository.findById(owner.getId()).orElseThrow(), null));
+        BlobPurgeTask task = purgeRepository.save(new BlobPurgeTask(blob.toString()));
+
+        purgeWorker.purgePending();
+
+        assertTrue(Files.exists(blob));
+        assertFalse(purgeRepository.existsById(task.getId()));
+    }
+
+    @Test
+    void testFailingBlob_RetriedThenGivenUp() {
+        // Paths outside the storage root are refused, so every attempt fails
+        String outside = Path.of(System.getProperty("java.io.tmpdir"), "purge-" + UUID.randomUUID())
+                .toAbsolutePath().toString();
+        BlobPurgeTask task = purgeRepository.save(new BlobPurgeTask(outside));
+
+        for (int run = 1; run < MAX_ATTEMPTS; run++) {
+            purgeWorker.purgePending();
+            assertEquals(run, purgeRepository.findById(task.getId()).orElseThrow().getAttempts());
+        }
+        purgeWorker.purgePending();
+
+        assertFalse(purgeRepository.existsById(task.getId()));
+    }
+}
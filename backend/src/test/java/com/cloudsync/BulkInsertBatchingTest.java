@@ -0,0 +1,96 @@
+package com.cloudsync;
+
+import com.cloudsync.entity.BlobPurgeTask;
+import com.cloudsync.entity.DownloadRevocation;
+import com.cloudsync.entity.IdSequences;
+import com.cloudsync.entity.StoredFile;
+import com.cloudsync.entity.User;
+import com.cloudsync.repository.BlobPurgeTaskRepository;
+import com.cloudsync.repository.DownloadRevocationRepository;
+import com.cloudsync.repository.FileRepository;
+import com.cloudsync.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+class BulkInsertBatchingTest {
+
+    private static final int FILES = 1000;
+    private static final int BATCH_SIZE = 50;
+    private static final int TASKS = 200;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private BlobPurgeTaskRepository purgeRepository;
+
+    @Autowired
+    private DownloadRevocationRepository revocationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void testBulkInsert_SendsBatchedStatements() {
+        User owner = userRepository.saveAndFlush(new User("bulkuser", "bulk@example.com", "password"));
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<StoredFile> files = new ArrayList<>(FILES);
+        for (int i = 0; i < FILES; i++) {
+            files.add(new StoredFile("stored-" + i + ".bin", "file-" + i + ".bin",
+                    "application/octet-stream", i, "/storage/stored-" + i + ".bin", owner));
+        }
+        fileRepository.saveAll(files);
+        fileRepository.flush();
+
+        assertEquals(FILES, statistics.getEntityInsertCount());
+        // One statement per insert batch plus one sequence call per allocated id block
+        long insertBatches = FILES / BATCH_SIZE;
+        long sequenceCalls = FILES / IdSequences.ALLOCATION_SIZE + 1;
+        assertTrue(statistics.getPrepareStatementCount() <= insertBatches + sequenceCalls,
+                "statements: " + statistics.getPrepareStatementCount());
+        assertTrue(files.stream().allMatch(file -> file.getId() != null));
+    }
+
+    @Test
+    void testPurgeTasksAndRevocations_BatchedWithSequenceIds() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        List<BlobPurgeTask> tasks = new ArrayList<>(TASKS);
+        List<DownloadRevocation> revocations = new ArrayList<>(TASKS);
+        for (int i = 0; i < TASKS; i++) {
+            tasks.add(new BlobPurgeTask("/storage/purged-" + i + ".bin"));
+            revocations.add(new DownloadRevocation((long) i, DownloadRevocation.ALL_GENERATIONS));
+        }
+        purgeRepository.saveAll(tasks);
+        revocationRepository.saveAll(revocations);
+        // Ids come from the sequences, so nothing has been inserted before the flush
+        assertEquals(0, statistics.getEntityInsertCount());
+        purgeRepository.flush();
+
+        assertEquals(2 * TASKS, statistics.getEntityInsertCount());
+        long insertBatches = 2 * TASKS / BATCH_SIZE;
+        long sequenceCalls = 2 * (TASKS / IdSequences.ALLOCATION_SIZE + 1);
+        assertTrue(statistics.getPrepareStatementCount() <= insertBatches + sequenceCalls,
+                "statements: " + statistics.getPrepareStatementCount());
+    }
+}
@@ -0,0 +1,241 @@
+package com.cloudsync;
+
+import com.cloudsync.dto.BulkItemResult;
+import com.cloudsync.dto.BulkItemResult.ItemType;
+import com.cloudsync.dto.BulkItemResult.Status;
+import com.cloudsync.dto.BulkRequest;
+import com.cloudsync.dto.BulkResult;
+import com.cloudsync.dto.StorageStats;
+import com.cloudsync.entity.ContentFamily;
+import com.cloudsync.entity.User;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.service.BulkOperationService;
+import com.cloudsync.service.FileService;
+import com.cloudsync.service.FolderService;
+import com.cloudsync.service.StorageStatsService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class BulkOperationServiceTest {
+
+    @Autowired
+    private BulkOperationService bulkOperationService;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private FolderService folderService;
+
+    @Autowired
+    private StorageStatsService storageStatsService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User owner;
+    private Long docsId;
+    private Long archiveId;
+
+    @BeforeEach
+    void setUp() {
+        String name = "bulk" + UUID.randomUUID().toString().substring(0, 8);
+        owner = userRepository.save(new User(name, name + "@example.com", "password"));
+        storageStatsService.initialize(owner);
+        docsId = folderService.createFolder("docs", owner, null).id();
+        archiveId = folderService.createFolder("archive", owner, null).id();
+    }
+
+    @Test
+    void testDelete_FilesAndFolderSubtrees() {
+        Long report = upload("report.pdf", "application/pdf", 100, docsId);
+        Long photo = upload("photo.png", "image/png", 200, null);
+        Long nested = folderService.createFolder("2023", owner, archiveId).id();
+        upload("old.pdf", "application/pdf", 300, nested);
+
+        BulkResult result = bulkOperationService.delete(
+                new BulkRequest(List.of(report, photo), List.of(archiveId, nested), null), owner);
+
+        assertEquals(4, result.succeeded());
+        assertEquals(0, result.failed());
+        flush();
+        assertEquals(0, fileCount());
+        assertEquals(List.of(docsId), folderIds());
+        assertEquals(0, counter("file_count", docsId));
+        assertEquals(0, counter("total_bytes", docsId));
+        assertEquals(0, storageUsed());
+        StorageStats stats = storageStatsService.getStats(owner);
+        assertEquals(0, stats.totalFiles());
+        assertEquals(1, stats.totalFolders());
+        assertFalse(storageStatsService.reconcile(owner.getId()), "stats drifted");
+    }
+
+    @Test
+    void testDelete_FilesWithoutContentType() {
+        Long untyped = upload("notes", null, 40, docsId);
+        Long typed = upload("notes.txt", "text/plain", 60, docsId);
+        upload("kept.png", "image/png", 10, null);
+        // New rows default to application/octet-stream; rows uploaded by earlier releases may have none
+        flush();
+        jdbcTemplate.update("UPDATE stored_files SET content_type = NULL WHERE id = ?", untyped);
+
+        BulkResult result = bulkOperationService.delete(new BulkRequest(List.of(untyped, typed), null, null), owner);
+
+        assertEquals(2, result.succeeded());
+        flush();
+        StorageStats stats = storageStatsService.getStats(owner);
+        assertEquals(1, stats.totalFiles());
+        assertEquals(10, stats.usedStorage());
+        assertEquals(new StorageStats.FamilyUsage(0, 0), stats.byFamily().get(ContentFamily.OTHER));
+        assertEquals(new StorageStats.FamilyUsage(0, 0), stats.byFamily().get(ContentFamily.DOCUMENT));
+        assertEquals(new StorageStats.FamilyUsage(1, 10), stats.byFamily().get(ContentFamily.IMAGE));
+        assertFalse(storageStatsService.reconcile(owner.getId()), "stats drifted");
+    }
+
+    @Test
+    void testMove_FilesAndFolders() {
+        Long report = upload("report.pdf", "application/pdf", 100, docsId);
+        Long photo = upload("photo.png", "image/png", 200, null);
+        Long drafts = folderService.createFolder("drafts", owner, docsId).id();
+        upload("draft.txt", "text/plain", 50, drafts);
+
+        BulkResult result = bulkOperationService.move(
+                new BulkRequest(List.of(report, photo), List.of(drafts), archiveId), owner);
+
+        assertEquals(3, result.succeeded());
+        flush();
+        assertEquals(archiveId, folderOf(report));
+        assertEquals(archiveId, folderOf(photo));
+        assertEquals(archiveId, jdbcTemplate.queryForObject(
+                "SELECT parent_id FROM folders WHERE id = ?", Long.class, drafts));
+        assertEquals("/archive/drafts", jdbcTemplate.queryForObject(
+                "SELECT path FROM folders WHERE id = ?", String.class, drafts));
+        assertEquals(0, counter("file_count", docsId));
+        assertEquals(0, counter("total_bytes", docsId));
+        assertEquals(0, counter("subfolder_count", docsId));
+        assertEquals(2, counter("file_count", archiveId));
+        assertEquals(300, counter("total_bytes", archiveId));
+        assertEquals(1, counter("subfolder_count", archiveId));
+    }
+
+    @Test
+    void testPartialFailure_ReportedPerItem() {
+        Long report = upload("report.pdf", "application/pdf", 100, docsId);
+        Long unknownFile = report + 1_000_000;
+        Long unknownFolder = archiveId + 1_000_000;
+        Long child = folderService.createFolder("child", owner, archiveId).id();
+
+        BulkResult result = bulkOperationService.move(new BulkRequest(
+                List.of(report, unknownFile), List.of(archiveId, unknownFolder), child), owner);
+
+        assertEquals(1, result.succeeded());
+        assertEquals(3, result.failed());
+        assertEquals(List.of(
+                BulkItemResult.ok(ItemType.FILE, report),
+                BulkItemResult.notFound(ItemType.FILE, unknownFile),
+                BulkItemResult.invalid(ItemType.FOLDER, archiveId, "Cannot move folder into itself or its children"),
+                BulkItemResult.notFound(ItemType.FOLDER, unknownFolder)), result.items());
+        // Failed items leave the transaction usable: the successful move is written
+        flush();
+        assertEquals(child, folderOf(report));
+    }
+
+    @Test
+    void testUnshare_LeavesUnsharedFilesAlone() {
+        Long shared = upload("shared.pdf", "application/pdf", 100, docsId);
+        Long linked = upload("linked.mp4", "video/mp4", 200, docsId);
+        fileService.shareFile(shared, owner);
+        fileService.createDownloadLink(linked, owner, null);
+        flush();
+        long linkedGeneration = generation(linked);
+
+        BulkResult result = bulkOperationService.unshare(new BulkRequest(List.of(shared, linked), null, null), owner);
+
+        assertEquals(List.of(BulkItemResult.ok(ItemType.FILE, shared), BulkItemResult.ok(ItemType.FILE, linked)),
+                result.items());
+        flush();
+        assertFalse(jdbcTemplate.queryForObject("SELECT is_public FROM stored_files WHERE id = ?", Boolean.class, shared));
+        // The owner's signed links to the never-shared file keep working
+        assertEquals(linkedGeneration, generation(linked));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM download_revocations WHERE file_id = ?", Long.class, linked));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM download_revocations WHERE file_id = ?", Long.class, shared));
+    }
+
+    @Test
+    void testOtherUsersItems_NotFound() {
+        Long report = upload("report.pdf", "application/pdf", 100, docsId);
+        User other = userRepository.save(new User("other" + owner.getUsername(), "other" + owner.getEmail(), "password"));
+
+        BulkResult result = bulkOperationService.delete(new BulkRequest(List.of(report), List.of(docsId), null), other);
+
+        assertEquals(List.of(Status.NOT_FOUND, Status.NOT_FOUND),
+                result.items().stream().map(BulkItemResult::status).toList());
+        flush();
+        assertEquals(1, fileCount());
+    }
+
+    // --- Private helper methods ---
+
+    private Long upload(String name, String contentType, int size, Long folderId) {
+        return fileService.uploadFile(new MockMultipartFile("file", name, contentType, new byte[size]),
+                owner, folderId).id();
+    }
+
+    /**
+     * Writes pending changes, so that plain JDBC reads in this transaction see them.
+     */
+    private void flush() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private long fileCount() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stored_files WHERE owner_id = ?",
+                Long.class, owner.getId());
+    }
+
+    private List<Long> folderIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM folders WHERE owner_id = ? ORDER BY id",
+                Long.class, owner.getId());
+    }
+
+    private Long folderOf(Long fileId) {
+        return jdbcTemplate.queryForObject("SELECT folder_id FROM stored_files WHERE id = ?", Long.class, fileId);
+    }
+
+    private long counter(String column, Long folderId) {
+        return jdbcTemplate.queryForObject("SELECT " + column + " FROM folders WHERE id = ?", Long.class, folderId);
+    }
+
+    private long generation(Long fileId) {
+        return jdbcTemplate.queryForObject("SELECT download_generation FROM stored_files WHERE id = ?",
+                Long.class, fileId);
+    }
+
+    private long storageUsed() {
+        return jdbcTemplate.queryForObject("SELECT storage_used FROM users WHERE id = ?", Long.class, owner.getId());
+    }
+}
@@ -0,0 +1,130 @@
+package com.cloudsync;
+
+import com.cloudsync.dto.ChangeDto;
+import com.cloudsync.dto.ChangeFeed;
+import com.cloudsync.dto.FolderDto;
+import com.cloudsync.entity.ChangeEntry;
+import com.cloudsync.entity.StoredFile;
+import com.cloudsync.entity.User;
+import com.cloudsync.repository.FileRepository;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.service.ChangeJournalService;
+import com.cloudsync.service.FileService;
+import com.cloudsync.service.FolderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class ChangeJournalTest {
+
+    @Autowired
+    private ChangeJournalService changeJournalService;
+
+    @Autowired
+    private FolderService folderService;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+    private String start;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("journaluser", "journal@example.com", "password"));
+        changeJournalService.initialize(user);
+        start = changeJournalService.getChanges(user, null, null).cursor();
+    }
+
+    @Test
+    void testFeed_ReturnsLatestStateOfChangedItems() {
+        FolderDto docs = folderService.createFolder("Docs", user, null);
+        FolderDto archive = folderService.createFolder("Archive", user, null);
+        StoredFile file = fileRepository.save(
+                new StoredFile("a.bin", "a.txt", "text/plain", 10, "/storage/a.bin", user));
+        ChangeFeed created = changeJournalService.getChanges(user, start, null);
+
+        folderService.renameFolder(docs.id(), user, "Documents");
+        folderService.moveFolder(archive.id(), user, docs.id());
+        fileService.shareFile(file.getId(), user);
+        ChangeFeed feed = changeJournalService.getChanges(user, created.cursor(), null);
+
+        assertEquals(2, created.changes().size());
+        assertEquals(List.of(ChangeEntry.Type.RENAMED, ChangeEntry.Type.MOVED, ChangeEntry.Type.SHARED),
+                feed.changes().stream().map(ChangeDto::type).toList());
+        assertEquals("Documents", feed.changes().get(0).name());
+        assertEquals(docs.id(), feed.changes().get(1).parentId());
+        assertEquals(ChangeEntry.ItemType.FILE, feed.changes().get(2).itemType());
+        assertFalse(feed.hasMore());
+        assertEquals(feed.cursor(), changeJournalService.getChanges(user, null, null).cursor());
+        assertTrue(changeJournalService.getChanges(user, feed.cursor(), null).changes().isEmpty());
+    }
+
+    @Test
+    void testFeed_CoalescesChangesWithinBatch() {
+        FolderDto docs = folderService.createFolder("Docs", user, null);
+        folderService.renameFolder(docs.id(), user, "Documents");
+        FolderDto scratch = folderService.createFolder("Scratch", user, null);
+        folderService.deleteFolder(scratch.id(), user);
+
+        ChangeFeed feed = changeJournalService.getChanges(user, start, null);
+
+        // Scratch came and went within the batch
+        assertEquals(1, feed.changes().size());
+        assertEquals(ChangeEntry.Type.CREATED, feed.changes().get(0).type());
+        assertEquals("Documents", feed.changes().get(0).name());
+    }
+
+    @Test
+    void testFeed_PagesWithLimit() {
+        folderService.createFolder("One", user, null);
+        folderService.createFolder("Two", user, null);
+
+        ChangeFeed first = changeJournalService.getChanges(user, start, 1);
+        ChangeFeed second = changeJournalService.getChanges(user, first.cursor(), 1);
+
+        assertTrue(first.hasMore());
+        assertEquals("One", first.changes().get(0).name());
+        assertFalse(second.hasMore());
+        assertEquals("Two", second.changes().get(0).name());
+    }
+
+    @Test
+    void testCompaction_RequiresResetForOlderCursors() {
+        folderService.createFolder("Old", user, null);
+        changeJournalService.compact(LocalDateTime.now().plusSeconds(1), 100);
+        String position = changeJournalService.getChanges(user, null, null).cursor();
+
+        ChangeFeed stale = changeJournalService.getChanges(user, start, null);
+        assertTrue(stale.resetRequired());
+        assertEquals(position, stale.cursor());
+
+        folderService.createFolder("New", user, null);
+        ChangeFeed current = changeJournalService.getChanges(user, position, null);
+        assertFalse(current.resetRequired());
+        assertEquals("New", current.changes().get(0).name());
+    }
+
+    @Test
+    void testInvalidCursor_Rejected() {
+        assertThrows(IllegalArgumentException.class, () -> changeJournalService.getChanges(user, "abc", null));
+        assertThrows(IllegalArgumentException.class, () -> changeJournalService.getChanges(user, start, 0));
+    }
+}
@@ -0,0 +1,99 @@
+package com.cloudsync;
+
+import com.cloudsync.dto.ApiResponse;
+import com.cloudsync.dto.ChangeNotice;
+import com.cloudsync.entity.User;
+import com.cloudsync.push.ChangeNotifier;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.service.ChangeJournalService;
+import com.cloudsync.service.FolderService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Long polls against committed changes; the notifier's scheduled flush delivers them.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ChangeNotifierTest {
+
+    @Autowired
+    private ChangeNotifier changeNotifier;
+
+    @Autowired
+    private ChangeJournalService changeJournalService;
+
+    @Autowired
+    private FolderService folderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String name = "push-" + UUID.randomUUID().toString().substring(0, 8);
+        user = userRepository.save(new User(name, name + "@example.com", "password"));
+        changeJournalService.initialize(user);
+    }
+
+    @Test
+    void testPoll_AnsweredAfterCommit() throws InterruptedException {
+        DeferredResult<ResponseEntity<ApiResponse<ChangeNotice>>> poll = changeNotifier.poll(user.getId(), 0);
+        assertFalse(poll.hasResult());
+
+        folderService.createFolder("Docs", user, null);
+
+        ChangeNotice notice = await(poll);
+        assertTrue(notice.changed());
+        assertEquals("1", notice.cursor());
+    }
+
+    @Test
+    void testPoll_AnsweredRightAwayWhenBehind() throws InterruptedException {
+        folderService.createFolder("Docs", user, null);
+        folderService.createFolder("Photos", user, null);
+
+        ChangeNotice notice = await(changeNotifier.poll(user.getId(), 1));
+        assertTrue(notice.changed());
+        assertEquals("2", notice.cursor());
+    }
+
+    @Test
+    void testPoll_SeesChangesCommittedElsewhere() throws InterruptedException {
+        DeferredResult<ResponseEntity<ApiResponse<ChangeNotice>>> poll = changeNotifier.poll(user.getId(), 0);
+
+        // Another instance's commit leaves no event here, only the advanced journal head
+        jdbcTemplate.update("UPDATE change_journal_heads SET last_seq = 3 WHERE user_id = ?", user.getId());
+        changeNotifier.sweep();
+
+        assertEquals("3", await(poll).cursor());
+    }
+
+    // --- Private helper methods ---
+
+    @SuppressWarnings("unchecked")
+    private ChangeNotice await(DeferredResult<ResponseEntity<ApiResponse<ChangeNotice>>> poll)
+            throws InterruptedException {
+        for (int i = 0; i < 100 && !poll.hasResult(); i++) {
+            changeNotifier.flush();
+            Thread.sleep(50);
+        }
+        assertTrue(poll.hasResult());
+        return ((ResponseEntity<ApiResponse<ChangeNotice>>) poll.getResult()).getBody().data();
+    }
+}
@@ -0,0 +1,124 @@
+package com.cloudsync;
+
+import com.cloudsync.entity.StoredFile;
+import com.cloudsync.entity.User;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.service.ContentCache;
+import com.cloudsync.service.FileService;
+import com.cloudsync.service.StorageService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "cloudsync.content-cache.max-entry-size=8MB",
+        // Share links are registered after commit, which never happens in these rolled-back tests
+        "cloudsync.share-cache.enabled=false"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class ContentCacheTest {
+
+    private static final int POPULAR_SIZE = 5 * 1024 * 1024;
+
+    @Autowired
+    private ContentCache contentCache;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User("cacheuser", "cache@example.com", "password"));
+    }
+
+    @Test
+    void testPopularFile_ReadFromDiskOnce() throws Exception {
+        StoredFile file = store("popular.bin", POPULAR_SIZE, 1);
+        CacheStats before = contentCache.stats();
+        long readsBefore = contentCache.diskReadCount();
+
+        for (int i = 0; i < 10_000; i++) {
+            storageService.loadAsResource(file);
+        }
+
+        assertEquals(1, contentCache.diskReadCount() - readsBefore);
+        assertEquals(9_998, contentCache.stats().minus(before).hitCount());
+    }
+
+    @Test
+    void testOversizedFile_NeverCached() throws Exception {
+        StoredFile file = store("large.bin", 9 * 1024 * 1024, 2);
+        CacheStats before = contentCache.stats();
+
+        for (int i = 0; i < 10; i++) {
+            storageService.loadAsResource(file);
+        }
+
+        assertEquals(0, contentCache.stats().minus(before).requestCount());
+    }
+
+    @Test
+    void testRangeRequest_ServedFromCache() throws Exception {
+        StoredFile file = store("shared.bin", 64 * 1024, 3);
+        byte[] content = Files.readAllBytes(Path.of(file.getStoragePath()));
+        String token = fileService.shareFile(file.getId(), owner).shareToken();
+        storageService.loadAsResource(file);
+        storageService.loadAsResource(file);
+        CacheStats before = contentCache.stats();
+
+        mockMvc.perform(get("/api/share/" + token).header(HttpHeaders.RANGE, "bytes=1000-1999"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 1000-1999/" + content.length))
+                .andExpect(content().bytes(Arrays.copyOfRange(content, 1000, 2000)));
+        mockMvc.perform(get("/api/share/" + token))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(content));
+
+        assertEquals(2, contentCache.stats().minus(before).hitCount());
+    }
+
+    // --- Private helper methods ---
+
+    private StoredFile store(String name, int size, long seed) throws Exception {
+        byte[] content = new byte[size];
+        new Random(seed).nextBytes(content);
+        Path blob = storageService.allocateStoragePath(owner, name);
+        Files.write(blob, content);
+        String checksum = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        return storageService.registerStoredContent(blob, name, "application/octet-stream", size,
+                checksum, owner, null);
+    }
+}
@@ -0,0 +1,185 @@
+package com.cloudsync;
+
+import com.cloudsync.dto.FileDto;
+import com.cloudsync.dto.ListingQuery;
+import com.cloudsync.entity.User;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.search.FileNameIndex;
+import com.cloudsync.search.SearchHit;
+import com.cloudsync.search.TrigramIndex;
+import com.cloudsync.service.FileService;
+import com.cloudsync.service.FolderService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The in-memory index is kept current from committed file events, so the index tests commit their data.
+ */
+@SpringBootTest(properties = "cloudsync.search.max-indexed-users=2")
+@ActiveProfiles("test")
+class FileNameSearchTest {
+
+    @Autowired
+    private FileNameIndex fileNameIndex;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private FolderService folderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void testSubstringQuery_MatchesAnywhereInName() {
+        TrigramIndex index = index("Quarterly Report 2023.pdf", "holiday.jpg", "report-final.docx");
+
+        assertEquals(List.of(3L, 1L), ids(index.search("REPORT", 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("2023", 0, 10)));
+        // Too short for trigrams: scanned instead
+        assertEquals(List.of(2L), ids(index.search("ol", 0, 10)));
+        assertEquals(List.of(), ids(index.search("invoice", 0, 10)));
+    }
+
+    @Test
+    void testRanking_ExactThenPrefixThenWordStartThenFuzzy() {
+        TrigramIndex index = index("misreported.txt", "repoort.txt", "annual report.pdf", "reports.txt", "report");
+
+        assertEquals(List.of(5L, 4L, 3L, 1L, 2L), ids(index.search("report", 0, 10)));
+        // Pages are cut from the same ranking
+        assertEquals(List.of(3L, 1L), ids(index.search("report", 2, 2)));
+    }
+
+    @Test
+    void testTypos_ToleratedInLongerQueries() {
+        TrigramIndex index = index("vacation photos.zip", "quarterly.xlsx", "notes.txt");
+
+        assertEquals(List.of(1L), ids(index.search("vacaton", 0, 10)));
+        assertEquals(List.of(2L), ids(index.search("quartely", 0, 10)));
+        // Four characters leave no room for a typo
+        assertEquals(List.of(), ids(index.search("ntoe", 0, 10)));
+    }
+
+    @Test
+    void testRenameAndDelete_UpdateIndex() {
+        TrigramIndex index = index("draft.txt", "budget.xlsx");
+
+        index.put(1, "final.txt");
+        index.remove(2);
+
+        assertEquals(List.of(), ids(index.search("draft", 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("final", 0, 10)));
+        assertEquals(List.of(), ids(index.search("budget", 0, 10)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void testCompaction_DropsTombstones() {
+        TrigramIndex index = index("keep.txt");
+
+        for (int i = 0; i < 3000; i++) {
+            index.put(2, "renamed-" + i + ".txt");
+        }
+        index.put(3, "added.txt");
+
+        // Without compaction every rename would hold a slot
+        assertTrue(index.slotCount() < 1024 + index.size(), "slots: " + index.slotCount());
+        assertEquals(3, index.size());
+        assertEquals(List.of(1L), ids(index.search("keep", 0, 10)));
+        assertEquals(List.of(2L), ids(index.search("renamed-2999", 0, 10)));
+        assertEquals(List.of(3L), ids(index.search("added", 0, 10)));
+    }
+
+    @Test
+    void testIndex_FollowsRenamesAndDeletes() {
+        User owner = createUser("search");
+        Long draft = upload(owner, "draft plan.txt", null);
+        Long budget = upload(owner, "budget.xlsx", null);
+        Long folderId = folderService.createFolder("archive", owner, null).id();
+        upload(owner, "archived budget.xlsx", folderId);
+        assertEquals(2, search(owner, "budget").size());
+
+        fileService.renameFile(draft, owner, "final plan.txt");
+        fileService.deleteFile(budget, owner);
+        folderService.deleteFolder(folderId, owner);
+
+        assertEquals(List.of(), search(owner, "draft"));
+        assertEquals(List.of(draft), search(owner, "final"));
+        assertEquals(List.of(), search(owner, "budget"));
+        assertEquals(List.of("final plan.txt"), fileService.searchFiles(owner, "plan",
+                new ListingQuery(null, null, null, null)).items().stream().map(FileDto::originalName).toList());
+    }
+
+    @Test
+    void testLeastRecentlySearchedUser_Evicted() {
+        User first = createUser("first");
+        User second = createUser("second");
+        User third = createUser("third");
+        Long firstFile = upload(first, "alpha.txt", null);
+        Long thirdFile = upload(third, "gamma.txt", null);
+        search(first, "alpha");
+        search(second, "beta");
+        search(third, "gamma");
+
+        // Renamed behind the index's back: only a reloaded index sees the new names
+        renameDirectly(firstFile, "omega.txt");
+        renameDirectly(thirdFile, "omega.txt");
+
+        assertEquals(List.of(), search(third, "omega"));
+        assertEquals(List.of(firstFile), search(first, "omega"));
+    }
+
+    // --- Private helper methods ---
+
+    private static TrigramIndex index(String... names) {
+        TrigramIndex index = new TrigramIndex();
+        for (int i = 0; i < names.length; i++) {
+            index.put(i + 1, names[i]);
+        }
+        return index;
+    }
+
+    private static List<Long> ids(List<SearchHit> hits) {
+        return hits.stream().map(SearchHit::fileId).toList();
+    }
+
+    private User createUser(String prefix) {
+        String name = prefix + UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.save(new User(name, name + "@example.com", "password"));
+    }
+
+    private Long upload(User owner, String name, Long folderId) {
+        return fileService.uploadFile(new MockMultipartFile("file", name, "text/plain", name.getBytes()),
+                owner, folderId).id();
+    }
+
+    /**
+     * Searches the index directly; a user's first search loads it, which needs a transaction.
+     */
+    private List<Long> search(User owner, String query) {
+        return new TransactionTemplate(transactionManager).execute(status ->
+                ids(fileNameIndex.search(owner, query, 0, 10)));
+    }
+
+    private void renameDirectly(Long fileId, String name) {
+        jdbcTemplate.update("UPDATE stored_files SET original_name = ? WHERE id = ?", name, fileId);
+    }
+}
@@ -0,0 +1,120 @@
+package com.cloudsync;
+
+import com.cloudsync.dto.FolderDigestDto;
+import com.cloudsync.dto.FolderDto;
+import com.cloudsync.entity.Folder;
+import com.cloudsync.entity.StoredFile;
+import com.cloudsync.entity.User;
+import com.cloudsync.repository.FileRepository;
+import com.cloudsync.repository.FolderRepository;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.service.FileService;
+import com.cloudsync.service.FolderDigestService;
+import com.cloudsync.service.FolderService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class FolderDigestTest {
+
+    @Autowired
+    private FolderDigestService folderDigestService;
+
+    @Autowired
+    private FolderService folderService;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private FolderRepository folderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void testEqualTrees_HaveEqualDigests() {
+        User first = userRepository.save(new User("digestuser1", "digest1@example.com", "password"));
+        User second = userRepository.save(new User("digestuser2", "digest2@example.com", "password"));
+        createTree(first);
+        createTree(second);
+        applyDigests();
+
+        FolderDigestDto firstRoot = folderDigestService.getDigest(first, null);
+        FolderDigestDto secondRoot = folderDigestService.getDigest(second, null);
+
+        assertEquals(firstRoot.digest(), secondRoot.digest());
+        assertNotEquals(Folder.EMPTY_DIGEST, firstRoot.digest());
+        assertFalse(firstRoot.pending());
+        assertEquals(1, firstRoot.subfolders().size());
+        assertEquals(firstRoot.subfolders().get(0).digest(), secondRoot.subfolders().get(0).digest());
+    }
+
+    @Test
+    void testChange_UpdatesDigestsUpToTheRoot() {
+        User user = userRepository.save(new User("digestuser", "digest@example.com", "password"));
+        StoredFile file = createTree(user);
+        Long docsId = file.getFolder().getParent().getId();
+        Long subId = file.getFolder().getId();
+        applyDigests();
+        String root = folderDigestService.getDigest(user, null).digest();
+        String docs = folderDigestService.getDigest(user, docsId).digest();
+        String sub = folderDigestService.getDigest(user, subId).digest();
+
+        fileService.renameFile(file.getId(), user, "b.txt");
+        assertTrue(folderDigestService.getDigest(user, docsId).pending());
+        applyDigests();
+
+        assertFalse(folderDigestService.getDigest(user, docsId).pending());
+        assertNotEquals(sub, folderDigestService.getDigest(user, subId).digest());
+        assertNotEquals(docs, folderDigestService.getDigest(user, docsId).digest());
+        assertNotEquals(root, folderDigestService.getDigest(user, null).digest());
+
+        fileService.renameFile(file.getId(), user, "a.txt");
+        applyDigests();
+
+        assertEquals(sub, folderDigestService.getDigest(user, subId).digest());
+        assertEquals(docs, folderDigestService.getDigest(user, docsId).digest());
+        assertEquals(root, folderDigestService.getDigest(user, null).digest());
+    }
+
+    // --- Private helper methods ---
+
+    /**
+     * Creates /Docs/Sub/a.txt and returns the file.
+     */
+    private StoredFile createTree(User user) {
+        FolderDto docs = folderService.createFolder("Docs", user, null);
+        FolderDto sub = folderService.createFolder("Sub", user, docs.id());
+        Folder folder = folderRepository.findById(sub.id()).orElseThrow();
+        StoredFile file = new StoredFile(user.getUsername() + ".bin", "a.txt", "text/plain", 10,
+                "/storage/" + user.getUsername() + ".bin", user);
+        file.setChecksum("9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08");
+        file.setFolder(folder);
+        StoredFile saved = fileRepository.save(file);
+        folderDigestService.recordChange(user, folder);
+        return saved;
+    }
+
+    private void applyDigests() {
+        entityManager.flush();
+        while (folderDigestService.applyPending() > 0) {
+            // drain
+        }
+        entityManager.clear();
+    }
+}
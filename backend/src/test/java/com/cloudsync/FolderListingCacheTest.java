@@ -0,0 +1,246 @@
+package com.cloudsync;
+
+import com.cloudsync.config.CoalescingConfig;
+import com.cloudsync.config.ListingCacheConfig;
+import com.cloudsync.entity.User;
+import com.cloudsync.repository.FolderRepository;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.security.JwtTokenProvider;
+import com.cloudsync.security.UserPrincipal;
+import com.cloudsync.service.FileService;
+import com.cloudsync.service.FolderListingCache;
+import com.cloudsync.service.FolderRollupService;
+import com.cloudsync.service.FolderService;
+import com.cloudsync.service.SignedDownloadService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Listings are cached by this instance (A) while a second application context on the same
+ * database (B) stands in for another instance, so B's changes reach A only through the database.
+ * Changes are committed, since listings are only cached outside read-write transactions.
+ */
+@SpringBootTest(properties = {"cloudsync.rollup.interval=PT1H", "cloudsync.signed-urls.count-flush-interval=PT1H"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FolderListingCacheTest {
+
+    private static ConfigurableApplicationContext nodeB;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FolderListingCache listingCache;
+
+    @Autowired
+    private FolderService folderService;
+
+    @Autowired
+    private FolderRepository folderRepository;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private SignedDownloadService signedDownloadService;
+
+    @Autowired
+    private FolderRollupService rollupService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User owner;
+    private String jwt;
+    private Long docsId;
+    private Long reportsId;
+    private Long archiveId;
+
+    @BeforeAll
+    static void startNodeB() {
+        nodeB = new SpringApplicationBuilder(CloudSyncApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "cloudsync.rollup.interval=PT1H")
+                .run();
+    }
+
+    @AfterAll
+    static void stopNodeB() {
+        nodeB.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        String name = "listing" + UUID.randomUUID().toString().substring(0, 8);
+        owner = userRepository.save(new User(name, name + "@example.com", "password"));
+        jwt = jwtTokenProvider.generateToken(UserPrincipal.from(owner, 0));
+        docsId = folderService.createFolder("docs", owner, null).id();
+        reportsId = folderService.createFolder("reports", owner, docsId).id();
+        archiveId = folderService.createFolder("archive", owner, docsId).id();
+    }
+
+    @Test
+    void testRepeatedListing_BuiltOnce() throws Exception {
+        CacheStats before = listingCache.stats();
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("reports", listing(reportsId).at("/data/name").asText());
+        }
+
+        CacheStats stats = listingCache.stats().minus(before);
+        assertEquals(1, stats.missCount());
+        assertEquals(99, stats.hitCount());
+    }
+
+    @Test
+    void testChangesThroughOtherInstance_SeenByNextRequest() throws Exception {
+        listing(docsId);
+        listing(reportsId);
+
+        nodeB(FileService.class).uploadFile(new MockMultipartFile("file", "q3.pdf", "application/pdf",
+                "quarterly".getBytes()), nodeBOwner(), reportsId);
+        JsonNode reports = listing(reportsId);
+        assertEquals("q3.pdf", reports.at("/data/files/0/originalName").asText());
+        assertEquals(1, subfolder(listing(docsId), "reports").get("fileCount").asLong());
+
+        // Renaming an ancestor rewrites the paths of everything below it
+        nodeB(FolderService.class).renameFolder(docsId, nodeBOwner(), "documents");
+        reports = listing(reportsId);
+        assertEquals("documents", reports.at("/data/parentName").asText());
+        assertEquals("/documents/reports", reports.at("/data/path").asText());
+
+        nodeB(FileService.class).deleteFile(reports.at("/data/files/0/id").asLong(), nodeBOwner());
+        assertEquals(0, listing(reportsId).at("/data/files").size());
+    }
+
+    @Test
+    void testChangeToSibling_KeepsListingCached() throws Exception {
+        listing(docsId);
+        listing(reportsId);
+        CacheStats before = listingCache.stats();
+
+        nodeB(FolderService.class).createFolder("2024", nodeBOwner(), archiveId);
+
+        listing(reportsId);
+        assertEquals(1, subfolder(listing(docsId), "archive").get("subfolderCount").asLong());
+        CacheStats stats = listingCache.stats().minus(before);
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+    }
+
+    @Test
+    void testMovedFolder_LeavesOldParentListing() throws Exception {
+        listing(docsId);
+        listing(archiveId);
+
+        nodeB(FolderService.class).moveFolder(reportsId, nodeBOwner(), archiveId);
+
+        assertNull(subfolder(listing(docsId), "reports"));
+        assertNotNull(subfolder(listing(archiveId), "reports"));
+        assertEquals("/docs/archive/reports", listing(reportsId).at("/data/path").asText());
+    }
+
+    @Test
+    void testDownloads_KeepListingCachedUntilCountsFlushed() throws Exception {
+        Long fileId = fileService.uploadFile(new MockMultipartFile("file", "q3.pdf", "application/pdf",
+                "quarterly".getBytes()), owner, reportsId).id();
+        // Fold the upload's rollup now, rather than on another context's schedule mid-test
+        rollupService.applyPending();
+        listing(reportsId);
+        CacheStats before = listingCache.stats();
+
+        for (int i = 0; i < 3; i++) {
+            fileService.downloadFile(fileId, owner);
+        }
+
+        assertEquals(0, listing(reportsId).at("/data/files/0/downloadCount").asLong());
+        signedDownloadService.flushCounts();
+        assertEquals(3, listing(reportsId).at("/data/files/0/downloadCount").asLong());
+        CacheStats stats = listingCache.stats().minus(before);
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+    }
+
+    @Test
+    void testCacheStaysWithinBudget() {
+        ListingCacheConfig config = new ListingCacheConfig();
+        config.setMaxSize(DataSize.ofKilobytes(64));
+        FolderListingCache cache = new FolderListingCache(folderRepository, objectMapper, config, new CoalescingConfig());
+        List<Long> folderIds = new ArrayList<>();
+        for (int i = 0; i < 32; i++) {
+            folderIds.add(folderService.createFolder("bulk" + i, owner, docsId).id());
+        }
+        String payload = "x".repeat(8 * 1024);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        for (Long folderId : folderIds) {
+            readOnly.executeWithoutResult(status -> cache.getListing(owner, folderId, () -> payload));
+        }
+
+        assertTrue(cache.weightedSize() <= config.getMaxSize().toBytes(), "cached bytes: " + cache.weightedSize());
+        assertTrue(cache.stats().evictionCount() > 0);
+    }
+
+    // --- Private helper methods ---
+
+    private JsonNode listing(Long folderId) throws Exception {
+        String body = mockMvc.perform(get("/api/folders/" + folderId)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwt))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static JsonNode subfolder(JsonNode listing, String name) {
+        for (JsonNode subfolder : listing.at("/data/subfolders")) {
+            if (name.equals(subfolder.get("name").asText())) {
+                return subfolder;
+            }
+        }
+        return null;
+    }
+
+    private static <T> T nodeB(Class<T> type) {
+        return nodeB.getBean(type);
+    }
+
+    private User nodeBOwner() {
+        return nodeB(UserRepository.class).findById(owner.getId()).orElseThrow();
+    }
+}
@@ -0,0 +1,167 @@
+package com.cloudsync;
+
+import com.cloudsync.entity.User;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.service.FileService;
+import com.cloudsync.service.FolderRollupAggregator;
+import com.cloudsync.service.FolderService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Deltas are folded by calling the aggregator directly; the scheduled run never sees
+ * these uncommitted deltas.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class FolderRollupTest {
+
+    @Autowired
+    private FolderRollupAggregator folderRollupAggregator;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private FolderService folderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User owner;
+    private Long projects;
+    private Long reports;
+    private Long drafts;
+    private Long archive;
+
+    @BeforeEach
+    void setUp() {
+        String name = "rollup" + UUID.randomUUID().toString().substring(0, 8);
+        owner = userRepository.save(new User(name, name + "@example.com", "password"));
+        projects = folderService.createFolder("projects", owner, null).id();
+        reports = folderService.createFolder("reports", owner, projects).id();
+        drafts = folderService.createFolder("drafts", owner, reports).id();
+        archive = folderService.createFolder("archive", owner, null).id();
+    }
+
+    @Test
+    void testUpload_FoldedIntoEveryAncestor() {
+        upload("q1.pdf", 100, drafts);
+        upload("q2.pdf", 200, reports);
+        upload("root.txt", 50, null);
+
+        // Nothing is folded before the aggregator runs
+        flush();
+        assertRollup(projects, 0, 0);
+
+        aggregate();
+
+        assertRollup(drafts, 1, 100);
+        assertRollup(reports, 2, 300);
+        assertRollup(projects, 2, 300);
+        assertRollup(archive, 0, 0);
+    }
+
+    @Test
+    void testMoveFile_ShiftsRollupBetweenLineages() {
+        Long file = upload("q1.pdf", 100, drafts);
+        aggregate();
+
+        fileService.moveFile(file, owner, archive);
+        aggregate();
+
+        assertRollup(drafts, 0, 0);
+        assertRollup(reports, 0, 0);
+        assertRollup(projects, 0, 0);
+        assertRollup(archive, 1, 100);
+    }
+
+    @Test
+    void testMoveFolder_ShiftsSubtreeRollup() {
+        upload("q1.pdf", 100, drafts);
+        upload("q2.pdf", 200, reports);
+        aggregate();
+
+        folderService.moveFolder(reports, owner, archive);
+        aggregate();
+
+        // The moved subtree keeps its own rollups; only the old and new ancestors change
+        assertRollup(drafts, 1, 100);
+        assertRollup(reports, 2, 300);
+        assertRollup(projects, 0, 0);
+        assertRollup(archive, 2, 300);
+    }
+
+    @Test
+    void testDeleteFile_SubtractedFromAncestors() {
+        Long file = upload("q1.pdf", 100, drafts);
+        upload("q2.pdf", 200, drafts);
+        aggregate();
+
+        fileService.deleteFile(file, owner);
+        aggregate();
+
+        assertRollup(drafts, 1, 200);
+        assertRollup(reports, 1, 200);
+        assertRollup(projects, 1, 200);
+    }
+
+    @Test
+    void testDeleteFolder_SubtreeSubtractedFromAncestors() {
+        upload("q1.pdf", 100, drafts);
+        upload("q2.pdf", 200, reports);
+        upload("plan.txt", 50, projects);
+        aggregate();
+
+        folderService.deleteFolder(reports, owner);
+        aggregate();
+
+        assertRollup(projects, 1, 50);
+    }
+
+    // --- Private helper methods ---
+
+    private Long upload(String name, int size, Long folderId) {
+        return fileService.uploadFile(new MockMultipartFile("file", name, "application/pdf", new byte[size]),
+                owner, folderId).id();
+    }
+
+    private void aggregate() {
+        flush();
+        folderRollupAggregator.aggregate();
+        flush();
+    }
+
+    /**
+     * Writes pending changes, so that plain JDBC reads in this transaction see them.
+     */
+    private void flush() {
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void assertRollup(Long folderId, long files, long bytes) {
+        assertEquals(files, jdbcTemplate.queryForObject(
+                "SELECT subtree_file_count FROM folders WHERE id = ?", Long.class, folderId), "files");
+        assertEquals(bytes, jdbcTemplate.queryForObject(
+                "SELECT subtree_bytes FROM folders WHERE id = ?", Long.class, folderId), "bytes");
+    }
+}
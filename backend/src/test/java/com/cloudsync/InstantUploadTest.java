@@ -0,0 +1,194 @@
+package com.cloudsync;
+
+import com.cloudsync.dto.InstantUploadRequest;
+import com.cloudsync.dto.InstantUploadResult;
+import com.cloudsync.dto.ProofChallenge;
+import com.cloudsync.entity.StoredFile;
+import com.cloudsync.config.JwtConfig;
+import com.cloudsync.config.StorageConfig;
+import com.cloudsync.config.UploadConfig;
+import com.cloudsync.entity.User;
+import com.cloudsync.repository.FileRepository;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.security.ContentProofs;
+import com.cloudsync.service.InstantUploadService;
+import com.cloudsync.service.StorageService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+class InstantUploadTest {
+
+    private static final byte[] CONTENT = "instant upload test content".repeat(100).getBytes(StandardCharsets.UTF_8);
+    private static final int MAX_PROOF_ATTEMPTS = 2;
+
+    @Autowired
+    private InstantUploadService instantUploadService;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StorageConfig storageConfig;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private JwtConfig jwtConfig;
+
+    private User owner;
+    private User other;
+    private StoredFile original;
+    private String sha256;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        owner = userRepository.save(new User("instantowner", "instantowner@example.com", "password"));
+        other = userRepository.save(new User("instantother", "instantother@example.com", "password"));
+        Path blob = storageService.allocateStoragePath(owner, "photo.jpg");
+        Files.write(blob, CONTENT);
+        sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(CONTENT));
+        original = storageService.registerStoredContent(blob, "photo.jpg", "image/jpeg", CONTENT.length,
+                sha256, owner, null);
+    }
+
+    @Test
+    void testOwnContent_CreatedWithoutProof() {
+        InstantUploadResult result = upload(owner, item("copy.jpg", sha256, null));
+
+        InstantUploadResult.Item item = result.files().get(0);
+        assertEquals(InstantUploadResult.Status.CREATED, item.status());
+        assertEquals("copy.jpg", item.file().originalName());
+        StoredFile copy = fileRepository.findById(item.file().id()).orElseThrow();
+        assertEquals(original.getStoragePath(), copy.getStoragePath());
+        assertEquals(2L * CONTENT.length, storageUsed(owner));
+    }
+
+    @Test
+    void testOtherUsersContent_RequiresProof() throws Exception {
+        InstantUploadResult.Item known = upload(other, item("photo.jpg", sha256, null)).files().get(0);
+        InstantUploadResult.Item unknown = upload(other, item("x.jpg", "0".repeat(64), null)).files().get(0);
+
+        assertEquals(InstantUploadResult.Status.PROOF_REQUIRED, known.status());
+        assertEquals(InstantUploadResult.Status.PROOF_REQUIRED, unknown.status());
+
+        ProofChallenge challenge = known.challenge();
+        InstantUploadRequest.Proof wrong = new InstantUploadRequest.Proof(challenge.token(), "0".repeat(64));
+        assertEquals(InstantUploadResult.Status.UPLOAD_REQUIRED,
+                upload(other, item("photo.jpg", sha256, wrong)).files().get(0).status());
+
+        InstantUploadRequest.Proof proof = new InstantUploadRequest.Proof(challenge.token(), answer(challenge));
+        InstantUploadResult.Item created = upload(other, item("photo.jpg", sha256, proof)).files().get(0);
+        assertEquals(InstantUploadResult.Status.CREATED, created.status());
+        assertEquals(original.getStoragePath(),
+                fileRepository.findById(created.file().id()).orElseThrow().getStoragePath());
+    }
+
+    @Test
+    void testProofForOtherContent_Rejected() throws Exception {
+        ProofChallenge challenge = upload(other, item("photo.jpg", sha256, null)).files().get(0).challenge();
+        InstantUploadRequest.Proof proof = new InstantUploadRequest.Proof(challenge.token(), answer(challenge));
+
+        // A token is bound to the user and the content it was issued for
+        assertEquals(InstantUploadResult.Status.PROOF_REQUIRED,
+                upload(owner, item("y.jpg", "1".repeat(64), proof)).files().get(0).status());
+    }
+
+    @Test
+    void testChallenge_SameRangeWithinWindow() {
+        ContentProofs proofs = new ContentProofs(jwtConfig, proofConfig(Duration.ofMinutes(10), 16));
+
+        ProofChallenge first = proofs.issue(1L, sha256, 1_000_000).orElseThrow();
+        ProofChallenge again = proofs.issue(1L, sha256, 1_000_000).orElseThrow();
+        ProofChallenge otherUser = proofs.issue(2L, sha256, 1_000_000).orElseThrow();
+
+        assertEquals(first.offset(), again.offset());
+        assertNotEquals(first.offset(), otherUser.offset());
+    }
+
+    @Test
+    void testChallenges_LimitedPerUserAndContent() throws Exception {
+        // Every request falls into a new validity window, so each one is an attempt
+        ContentProofs proofs = new ContentProofs(jwtConfig, proofConfig(Duration.ofMillis(1), 16));
+
+        for (int attempt = 0; attempt < MAX_PROOF_ATTEMPTS; attempt++) {
+            assertTrue(proofs.issue(1L, sha256, 1_000_000).isPresent());
+            Thread.sleep(2);
+        }
+        assertTrue(proofs.issue(1L, sha256, 1_000_000).isEmpty());
+        assertTrue(proofs.issue(2L, sha256, 1_000_000).isPresent());
+    }
+
+    @Test
+    void testRejectedItems_RestOfBatchCreated() {
+        // Room for one more copy, not two
+        owner.setStorageUsed(storageConfig.getMaxUserStorage() - CONTENT.length - CONTENT.length / 2);
+        userRepository.saveAndFlush(owner);
+
+        InstantUploadResult result = instantUploadService.upload(new InstantUploadRequest(List.of(
+                item("../escape.jpg", sha256, null),
+                item("first.jpg", sha256, null),
+                item("second.jpg", sha256, null))), owner);
+
+        assertEquals(List.of(InstantUploadResult.Status.INVALID, InstantUploadResult.Status.CREATED,
+                        InstantUploadResult.Status.QUOTA_EXCEEDED),
+                result.files().stream().map(InstantUploadResult.Item::status).toList());
+        assertEquals(1, result.created());
+        assertTrue(fileRepository.findById(result.files().get(1).file().id()).isPresent());
+        assertEquals(storageConfig.getMaxUserStorage() - CONTENT.length / 2, storageUsed(owner));
+    }
+
+    // --- Private helper methods ---
+
+    private long storageUsed(User user) {
+        return jdbcTemplate.queryForObject("SELECT storage_used FROM users WHERE id = ?", Long.class, user.getId());
+    }
+
+    private static UploadConfig proofConfig(Duration validity, int rangeSize) {
+        UploadConfig config = new UploadConfig();
+        config.setProofValidity(validity);
+        config.setProofRangeSize(rangeSize);
+        config.setMaxProofAttempts(MAX_PROOF_ATTEMPTS);
+        return config;
+    }
+
+    private InstantUploadResult upload(User user, InstantUploadRequest.Item item) {
+        return instantUploadService.upload(new InstantUploadRequest(List.of(item)), user);
+    }
+
+    private static InstantUploadRequest.Item item(String name, String sha256, InstantUploadRequest.Proof proof) {
+        return new InstantUploadRequest.Item(name, sha256, CONTENT.length, "image/jpeg", null, proof);
+    }
+
+    private static String answer(ProofChallenge challenge) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update(challenge.token().getBytes(StandardCharsets.UTF_8));
+        digest.update(Arrays.copyOfRange(CONTENT, (int) challenge.offset(), (int) challenge.offset() + challenge.length()));
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,120 @@
+package com.cloudsync;
+
+import com.cloudsync.dto.FileColumns;
+import com.cloudsync.entity.Folder;
+import com.cloudsync.entity.StoredFile;
+import com.cloudsync.entity.User;
+import com.cloudsync.repository.FileRepository;
+import com.cloudsync.repository.FolderRepository;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.security.JwtTokenProvider;
+import com.cloudsync.security.UserPrincipal;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class ListingFormatTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FolderRepository folderRepository;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    private String token;
+    private Folder folder;
+
+    @BeforeEach
+    void setUp() {
+        // Principals are cached by username, and these rolled-back users never publish a change
+        String name = "format" + UUID.randomUUID().toString().substring(0, 8);
+        User owner = userRepository.save(new User(name, name + "@example.com", "password"));
+        folder = new Folder("Docs", owner, null);
+        folder.refreshHierarchy();
+        folderRepository.save(folder);
+        StoredFile inFolder = new StoredFile("a.bin", "a.pdf", "application/pdf", 10, "/storage/a.bin", owner);
+        inFolder.setFolder(folder);
+        fileRepository.save(inFolder);
+        fileRepository.save(new StoredFile("b.bin", "b.pdf", "application/pdf", 20, "/storage/b.bin", owner));
+        token = jwtTokenProvider.generateToken(UserPrincipal.from(owner, 0));
+    }
+
+    @Test
+    void testDefault_RowOrientedJson() throws Exception {
+        mockMvc.perform(get("/api/files").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.data.items[0].path").value("/Docs/a.pdf"));
+    }
+
+    @Test
+    void testColumnsJson_DictionaryEncoded() throws Exception {
+        mockMvc.perform(get("/api/files")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .accept(FileColumns.JSON_MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(FileColumns.JSON_MEDIA_TYPE))
+                .andExpect(jsonPath("$.data.folders[0].id").value(folder.getId()))
+                .andExpect(jsonPath("$.data.folders[0].path").value("/Docs"))
+                .andExpect(jsonPath("$.data.contentTypes.length()").value(1))
+                .andExpect(jsonPath("$.data.originalName[0]").value("a.pdf"))
+                .andExpect(jsonPath("$.data.folder[0]").value(0))
+                .andExpect(jsonPath("$.data.folder[1]").value(-1))
+                .andExpect(jsonPath("$.data.contentType[1]").value(0));
+    }
+
+    @Test
+    void testCbor_BothLayouts() throws Exception {
+        CBORMapper cbor = new CBORMapper();
+
+        byte[] rows = mockMvc.perform(get("/api/files")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode items = cbor.readTree(rows).path("data").path("items");
+        assertEquals(2, items.size());
+        assertEquals("b.pdf", items.get(1).path("originalName").asText());
+
+        byte[] columns = mockMvc.perform(get("/api/files/folder/" + folder.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                        .accept(FileColumns.CBOR_MEDIA_TYPE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(FileColumns.CBOR_MEDIA_TYPE))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode data = cbor.readTree(columns).path("data");
+        assertEquals(1, data.path("id").size());
+        assertEquals("/Docs", data.path("folders").get(0).path("path").asText());
+    }
+}
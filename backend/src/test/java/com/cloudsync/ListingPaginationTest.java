@@ -0,0 +1,113 @@
+package com.cloudsync;
+
+import com.cloudsync.entity.StoredFile;
+import com.cloudsync.entity.User;
+import com.cloudsync.repository.FileRepository;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.security.JwtTokenProvider;
+import com.cloudsync.security.UserPrincipal;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional
+class ListingPaginationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        // Principals are cached by username, and these rolled-back users never publish a change
+        String name = "paging" + UUID.randomUUID().toString().substring(0, 8);
+        User owner = userRepository.save(new User(name, name + "@example.com", "password"));
+        for (String file : List.of("a.txt", "b.txt", "c.txt", "d.txt", "e.txt")) {
+            fileRepository.save(new StoredFile(file, file, "text/plain", 10, "/storage/" + file, owner));
+        }
+        token = jwtTokenProvider.generateToken(UserPrincipal.from(owner, 0));
+    }
+
+    @Test
+    void testDescendingPages_CoverEveryFileOnce() throws Exception {
+        List<String> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = page("desc", cursor);
+            page.at("/data/items").forEach(item -> names.add(item.get("originalName").asText()));
+            cursor = page.at("/data/nextCursor").isTextual() ? page.at("/data/nextCursor").asText() : null;
+        } while (cursor != null);
+
+        assertEquals(List.of("e.txt", "d.txt", "c.txt", "b.txt", "a.txt"), names);
+    }
+
+    @Test
+    void testCursorReplayedInOtherDirection_Rejected() throws Exception {
+        String cursor = page("desc", null).at("/data/nextCursor").asText();
+
+        mockMvc.perform(get("/api/files?sort=name&direction=asc&limit=2&cursor=" + cursor)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Cursor was issued for a different sort order"));
+    }
+
+    @Test
+    void testUnknownDirection_Rejected() throws Exception {
+        mockMvc.perform(get("/api/files?sort=name&direction=descending")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unsupported sort direction: descending"));
+    }
+
+    @Test
+    void testUnknownSortField_Rejected() throws Exception {
+        mockMvc.perform(get("/api/files?sort=owner")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unsupported sort field: owner"));
+    }
+
+    // --- Private helper methods ---
+
+    private JsonNode page(String direction, String cursor) throws Exception {
+        String body = mockMvc.perform(get("/api/files?sort=name&limit=2&direction=" + direction
+                        + (cursor != null ? "&cursor=" + cursor : ""))
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+}
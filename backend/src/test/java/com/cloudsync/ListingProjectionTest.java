@@ -0,0 +1,98 @@
+package com.cloudsync;
+
+import com.cloudsync.dto.FileDto;
+import com.cloudsync.dto.FolderDto;
+import com.cloudsync.dto.ListingQuery;
+import com.cloudsync.dto.SortField;
+import com.cloudsync.entity.Folder;
+import com.cloudsync.entity.StoredFile;
+import com.cloudsync.entity.User;
+import com.cloudsync.repository.FileListingScope;
+import com.cloudsync.repository.FileRepository;
+import com.cloudsync.repository.FolderRepository;
+import com.cloudsync.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Transactional
+class ListingProjectionTest {
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private FolderRepository folderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User owner;
+    private Folder parent;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        owner = userRepository.save(new User("listinguser", "listing@example.com", "password"));
+        parent = new Folder("Documents", owner, null);
+        parent.refreshHierarchy();
+        folderRepository.save(parent);
+        for (String name : List.of("Invoices", "Receipts")) {
+            Folder child = new Folder(name, owner, parent);
+            child.refreshHierarchy();
+            folderRepository.save(child);
+        }
+        StoredFile inFolder = new StoredFile("a.bin", "a.pdf", "application/pdf", 10, "/storage/a.bin", owner);
+        inFolder.setFolder(parent);
+        fileRepository.save(inFolder);
+        fileRepository.save(new StoredFile("b.bin", "b.txt", "text/plain", 20, "/storage/b.bin", owner));
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testFilePage_OneQueryWithoutEntities() {
+        List<FileDto> files = fileRepository.findPage(userRepository.getReferenceById(owner.getId()),
+                        FileListingScope.all(), ListingQuery.firstPage(SortField.NAME, 10))
+                .stream().map(FileDto::fromRow).toList();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(2, files.size());
+        assertEquals("a.pdf", files.get(0).originalName());
+        assertEquals("Documents", files.get(0).folderName());
+        assertEquals("/Documents/a.pdf", files.get(0).path());
+        assertNull(files.get(1).folderId());
+        assertEquals("/b.txt", files.get(1).path());
+    }
+
+    @Test
+    void testFolderPage_OneQueryWithoutEntities() {
+        List<FolderDto> folders = folderRepository.findPage(userRepository.getReferenceById(owner.getId()),
+                        parent.getId(), ListingQuery.firstPage(SortField.NAME, 10))
+                .stream().map(FolderDto::fromRow).toList();
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(List.of("Invoices", "Receipts"), folders.stream().map(FolderDto::name).toList());
+        assertTrue(folders.stream().allMatch(folder -> "Documents".equals(folder.parentName())));
+    }
+}
@@ -0,0 +1,103 @@
+package com.cloudsync;
+
+import com.cloudsync.entity.User;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.security.CustomUserDetailsService;
+import com.cloudsync.security.JwtTokenProvider;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Handlers run on the blocking scheduler in their own transactions, so these tests commit their data.
+ */
+@SpringBootTest(properties = {"cloudsync.reactive.port=0", "spring.jpa.properties.hibernate.generate_statistics=true"})
+@ActiveProfiles({"test", "reactive"})
+class ReactiveFileHandlerTest {
+
+    @Autowired
+    private RouterFunction<ServerResponse> reactiveFileRoutes;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CustomUserDetailsService userDetailsService;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private WebTestClient client;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String name = "reactive" + UUID.randomUUID().toString().substring(0, 8);
+        user = userRepository.save(new User(name, name + "@example.com", "password"));
+        String token = jwtTokenProvider.generateToken(userDetailsService.loadUserByUsername(name));
+        client = WebTestClient.bindToRouterFunction(reactiveFileRoutes)
+                .configureClient()
+                .defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                .build();
+    }
+
+    @Test
+    void testDownload_MalformedIdIsBadRequest() {
+        client.get().uri("/reactive/files/abc/download")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Invalid file id: abc");
+    }
+
+    @Test
+    void testDownload_UnknownIdIsNotFound() {
+        client.get().uri("/reactive/files/{id}/download", Long.MAX_VALUE)
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void testUpload_LoadsUserOnce() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        client.post().uri("/reactive/files/upload?name=notes.txt")
+                .bodyValue("streamed notes")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().jsonPath("$.data.size").isEqualTo(14);
+
+        assertEquals(1, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+        assertEquals(14, jdbcTemplate.queryForObject("SELECT storage_used FROM users WHERE id = ?",
+                Long.class, user.getId()));
+    }
+
+    @Test
+    void testUpload_MalformedFolderIdIsBadRequest() {
+        client.post().uri("/reactive/files/upload?name=notes.txt&folderId=root")
+                .bodyValue("notes")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody().jsonPath("$.message").isEqualTo("Invalid folder id: root");
+    }
+}
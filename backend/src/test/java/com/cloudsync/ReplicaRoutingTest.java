@@ -0,0 +1,151 @@
+package com.cloudsync;
+
+import com.cloudsync.datasource.ReplicaLagMonitor;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.security.UserPrincipal;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routing between two embedded databases standing in for a primary and its replica.
+ * Replication is simulated by copying the heartbeat row; a user that exists only on the
+ * replica shows which database served a query.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaRoutingTest.PRIMARY_URL,
+        "cloudsync.datasource.replicas[0].url=" + ReplicaRoutingTest.REPLICA_URL,
+        "cloudsync.datasource.replicas[0].username=sa",
+        "cloudsync.datasource.replicas[0].password=",
+        "cloudsync.datasource.lag-check-interval=PT1H",
+        "cloudsync.datasource.max-lag=PT5S",
+        "cloudsync.datasource.sticky-window=PT1H"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    private static final String REPLICA_ONLY_USER = "replica-only";
+
+    // The replica's schema would arrive by replication; here it is migrated before the context starts
+    static {
+        Flyway.configure()
+                .dataSource(REPLICA_URL, "sa", "")
+                .locations("classpath:db/migration/h2")
+                .load()
+                .migrate();
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReplicaLagMonitor lagMonitor;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    @BeforeEach
+    void setUp() {
+        replica.update("MERGE INTO users (id, username, email, password, storage_used, enabled) KEY (id) " +
+                "VALUES (999999, ?, 'replica-only@example.com', 'password', 0, TRUE)", REPLICA_ONLY_USER);
+        replicateHeartbeat();
+        lagMonitor.check();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void testReadOnlyTransactions_UseReplica() {
+        assertEquals(List.of("replica-1"), lagMonitor.getHealthyReplicas());
+        assertTrue(seesReplicaOnlyUser(readOnly()));
+        assertFalse(seesReplicaOnlyUser(readWrite()));
+    }
+
+    @Test
+    void testLaggingReplica_FallsBackToPrimary() {
+        replica.update("UPDATE replication_heartbeat SET beat_at = DATEADD('HOUR', -1, beat_at) WHERE id = 1");
+        lagMonitor.check();
+
+        assertTrue(lagMonitor.getHealthyReplicas().isEmpty());
+        assertFalse(seesReplicaOnlyUser(readOnly()));
+
+        replicateHeartbeat();
+        lagMonitor.check();
+        assertTrue(seesReplicaOnlyUser(readOnly()));
+    }
+
+    @Test
+    void testUnreachableReplica_FallsBackToPrimary() {
+        replica.execute("ALTER TABLE replication_heartbeat RENAME TO replication_heartbeat_offline");
+        try {
+            lagMonitor.check();
+            assertTrue(lagMonitor.getHealthyReplicas().isEmpty());
+            assertFalse(seesReplicaOnlyUser(readOnly()));
+        } finally {
+            replica.execute("ALTER TABLE replication_heartbeat_offline RENAME TO replication_heartbeat");
+        }
+    }
+
+    @Test
+    void testOwnWrite_KeepsUsersReadsOnPrimary() {
+        authenticateAs(new UserPrincipal(1001L, "writer", true, 0, 0));
+        readWrite().execute(status -> userRepository.count());
+
+        assertFalse(seesReplicaOnlyUser(readOnly()));
+
+        authenticateAs(new UserPrincipal(1002L, "reader", true, 0, 0));
+        assertTrue(seesReplicaOnlyUser(readOnly()));
+    }
+
+    // --- Private helper methods ---
+
+    private void replicateHeartbeat() {
+        Timestamp beat = primary.queryForObject("SELECT beat_at FROM replication_heartbeat WHERE id = 1",
+                Timestamp.class);
+        replica.update("UPDATE replication_heartbeat SET beat_at = ? WHERE id = 1", beat);
+    }
+
+    private void authenticateAs(UserPrincipal principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    private boolean seesReplicaOnlyUser(TransactionTemplate transaction) {
+        return Boolean.TRUE.equals(transaction.execute(status ->
+                userRepository.findByUsername(REPLICA_ONLY_USER).isPresent()));
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(true);
+        return template;
+    }
+
+    private TransactionTemplate readWrite() {
+        return new TransactionTemplate(transactionManager);
+    }
+}
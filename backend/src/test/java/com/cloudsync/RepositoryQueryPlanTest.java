@@ -0,0 +1,372 @@
+package com.cloudsync;
+
+import com.cloudsync.dto.ListingQuery;
+import com.cloudsync.dto.SortField;
+import com.cloudsync.entity.Folder;
+import com.cloudsync.entity.User;
+import com.cloudsync.repository.FileListingScope;
+import com.cloudsync.repository.FileRepository;
+import com.cloudsync.repository.FolderRepository;
+import com.cloudsync.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the repository queries against a synthetic dataset of a million files and checks
+ * that every statement they send is answered from an index (no H2 {@code tableScan} in the
+ * plan) within a latency budget. Statements are captured with their bound parameters at
+ * the JDBC level, so the plans are those of the SQL Hibernate actually generates.
+ * The dataset is kept in {@code target/query-plans} between runs.
+ * Run with {@code mvn test -Pquery-plans}.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:file:./target/query-plans/cloudsync")
+@ActiveProfiles("test")
+@Tag("query-plan")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Transactional(readOnly = true)
+class RepositoryQueryPlanTest {
+
+    private static final int USERS = 100;
+    private static final int ROOT_FOLDERS = 1_000;
+    private static final int FOLDERS = 10_000;
+    private static final int FILES = 1_000_000;
+
+    private static final long OWNER_ID = 42;
+    private static final long FOLDER_ID = 42;
+    private static final Duration LATENCY_BUDGET = Duration.ofMillis(100);
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 15;
+
+    @Autowired
+    private StatementCapture capture;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private FolderRepository folderRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeAll
+    void loadDataset() {
+        Long files = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM stored_files", Long.class);
+        if (files != null && files == FILES) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM stored_files");
+        jdbcTemplate.update("DELETE FROM folders WHERE parent_id IS NOT NULL");
+        jdbcTemplate.update("DELETE FROM folders");
+        jdbcTemplate.update("DELETE FROM user_storage_stats");
+        jdbcTemplate.update("DELETE FROM users");
+
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, storage_used, enabled, created_at, updated_at) " +
+                "SELECT X, 'user' || X, 'user' || X || '@example.com', 'password', 0, TRUE, NOW(), NOW() " +
+                "FROM SYSTEM_RANGE(1, ?)", USERS);
+        // Ten root folders per user, each with nine subfolders
+        jdbcTemplate.update("INSERT INTO folders (id, name, parent_id, owner_id, path, lineage, depth, created_at, updated_at) " +
+                "SELECT X, 'folder-' || X, NULL, MOD(X - 1, ?) + 1, '/folder-' || X, '/', 0, " +
+                "DATEADD('MINUTE', X, TIMESTAMP '2024-01-01 00:00:00'), NOW() " +
+                "FROM SYSTEM_RANGE(1, ?)", USERS, ROOT_FOLDERS);
+        jdbcTemplate.update("INSERT INTO folders (id, name, parent_id, owner_id, path, lineage, depth, created_at, updated_at) " +
+                "SELECT X, 'folder-' || X, P, MOD(P - 1, ?) + 1, '/folder-' || P || '/folder-' || X, '/' || P || '/', 1, " +
+                "DATEADD('MINUTE', X, TIMESTAMP '2024-01-01 00:00:00'), NOW() " +
+                "FROM (SELECT X, MOD(X - ? - 1, ?) + 1 AS P FROM SYSTEM_RANGE(?, ?))",
+                USERS, ROOT_FOLDERS, ROOT_FOLDERS, ROOT_FOLDERS + 1, FOLDERS);
+        // Every tenth file in the owner's root directory, the rest spread over the owner's folders
+        jdbcTemplate.update("INSERT INTO stored_files (id, name, original_name, content_type, size, storage_path, " +
+                "folder_id, owner_id, share_token, is_public, download_count, created_at, updated_at) " +
+                "SELECT X, 'stored-' || X || '.bin', 'file-' || X || '.bin', " +
+                "CASEWHEN(MOD(X, 4) = 0, 'image/jpeg', CASEWHEN(MOD(X, 4) = 1, 'application/pdf', " +
+                "CASEWHEN(MOD(X, 4) = 2, 'text/plain', 'video/mp4'))), " +
+                "MOD(X * 7919, 10000000), '/storage/' || X, " +
+                "CASEWHEN(MOD(X, 10) = 0, NULL, O + ? * MOD(X / ?, ?)), O, " +
+                "CASEWHEN(MOD(X, 1000) = 0, 'share-' || X, NULL), MOD(X, 5000) = 0, 0, " +
+                "DATEADD('SECOND', X, TIMESTAMP '2024-01-01 00:00:00'), NOW() " +
+                "FROM (SELECT X, MOD(X - 1, ?) + 1 AS O FROM SYSTEM_RANGE(1, ?))",
+                USERS, USERS, FOLDERS / USERS, USERS, FILES);
+
+        // Counters and rollups as the application keeps them, so the startup backfill finds nothing to do
+        jdbcTemplate.update("UPDATE folders f SET " +
+                "file_count = (SELECT COUNT(*) FROM stored_files s WHERE s.folder_id = f.id), " +
+                "total_bytes = (SELECT COALESCE(SUM(s.size), 0) FROM stored_files s WHERE s.folder_id = f.id), " +
+                "subfolder_count = (SELECT COUNT(*) FROM folders c WHERE c.parent_id = f.id)");
+        jdbcTemplate.update("UPDATE folders f SET " +
+                "subtree_file_count = file_count + (SELECT COALESCE(SUM(c.file_count), 0) FROM folders c WHERE c.parent_id = f.id), " +
+                "subtree_bytes = total_bytes + (SELECT COALESCE(SUM(c.total_bytes), 0) FROM folders c WHERE c.parent_id = f.id)");
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void testFindByUsername() {
+        assertIndexedAndFast("findByUsername", () -> userRepository.findByUsername("user" + OWNER_ID));
+    }
+
+    @Test
+    void testFindByShareToken() {
+        assertIndexedAndFast("findByShareToken", () -> fileRepository.findByShareToken("share-500000"));
+        assertIndexedAndFast("findSharedRow", () -> fileRepository.findSharedRow("share-500000"));
+    }
+
+    @Test
+    void testFindShareTokensUpdatedSince() {
+        assertIndexedAndFast("findShareTokensUpdatedSince",
+                () -> fileRepository.findShareTokensUpdatedSince(LocalDateTime.now()));
+    }
+
+    @Test
+    void testFindByOwnerAndFolderId() {
+        assertIndexedAndFast("findByOwnerAndFolderId", () -> fileRepository.findByOwnerAndFolderId(owner(), FOLDER_ID));
+    }
+
+    @Test
+    void testExistsByOriginalNameAndOwnerAndFolder() {
+        assertIndexedAndFast("existsByOriginalNameAndOwnerAndFolder",
+                () -> fileRepository.existsByOriginalNameAndOwnerAndFolder("file-4242.bin", owner(), folder()));
+    }
+
+    @Test
+    void testFindByIsPublicTrue() {
+        assertIndexedAndFast("findByIsPublicTrue", () -> fileRepository.findByIsPublicTrue());
+    }
+
+    @Test
+    void testCalculateTotalStorageByOwner() {
+        assertIndexedAndFast("calculateTotalStorageByOwner", () -> fileRepository.calculateTotalStorageByOwner(owner()));
+    }
+
+    @Test
+    void testSummarizeByOwnerId() {
+        assertIndexedAndFast("summarizeByOwnerId", () -> fileRepository.summarizeByOwnerId(OWNER_ID));
+    }
+
+    @Test
+    void testSubtreeQueries() {
+        String lineagePrefix = "/" + FOLDER_ID + "/";
+        assertIndexedAndFast("findIdsInSubtree",
+                () -> fileRepository.findIdsInSubtree(owner(), FOLDER_ID, lineagePrefix));
+        assertIndexedAndFast("summarizeSubtree",
+                () -> fileRepository.summarizeSubtree(owner(), FOLDER_ID, lineagePrefix));
+        assertIndexedAndFast("findDescendants", () -> folderRepository.findDescendants(owner(), lineagePrefix));
+        assertIndexedAndFast("countDescendants", () -> folderRepository.countDescendants(owner(), lineagePrefix));
+    }
+
+    @Test
+    void testFindReferencedStoragePaths() {
+        assertIndexedAndFast("findReferencedStoragePaths",
+                () -> fileRepository.findReferencedStoragePaths(Set.of("/storage/4242", "/storage/missing")));
+    }
+
+    @Test
+    void testExistsByNameAndOwnerAndParent() {
+        assertIndexedAndFast("existsByNameAndOwnerAndParent",
+                () -> folderRepository.existsByNameAndOwnerAndParent("folder-1042", owner(), folder()));
+    }
+
+    @ParameterizedTest
+    @EnumSource(SortField.class)
+    void testFilePages(SortField sortField) {
+        ListingQuery query = ListingQuery.firstPage(sortField, ListingQuery.DEFAULT_LIMIT);
+        assertIndexedAndFast("file page in folder by " + sortField,
+                () -> fileRepository.findPage(owner(), FileListingScope.folder(FOLDER_ID), query));
+        assertIndexedAndFast("file page in root by " + sortField,
+                () -> fileRepository.findPage(owner(), FileListingScope.root(), query));
+        assertIndexedAndFast("file page across all files by " + sortField,
+                () -> fileRepository.findPage(owner(), FileListingScope.all(), query));
+    }
+
+    @ParameterizedTest
+    @EnumSource(SortField.class)
+    void testFolderPages(SortField sortField) {
+        ListingQuery query = ListingQuery.firstPage(sortField, ListingQuery.DEFAULT_LIMIT);
+        assertIndexedAndFast("root folder page by " + sortField,
+                () -> folderRepository.findPage(owner(), null, query));
+        assertIndexedAndFast("subfolder page by " + sortField,
+                () -> folderRepository.findPage(owner(), FOLDER_ID, query));
+    }
+
+    // --- Private helper methods ---
+
+    private User owner() {
+        return userRepository.getReferenceById(OWNER_ID);
+    }
+
+    private Folder folder() {
+        return folderRepository.getReferenceById(FOLDER_ID);
+    }
+
+    private void assertIndexedAndFast(String name, Runnable query) {
+        capture.clear();
+        query.run();
+        List<CapturedStatement> selects = capture.drain().stream()
+                .filter(statement -> statement.sql().trim().toLowerCase().startsWith("select"))
+                .toList();
+        assertFalse(selects.isEmpty(), name + ": no query was sent");
+        for (CapturedStatement statement : selects) {
+            String plan = explain(statement);
+            assertFalse(plan.contains(".tableScan"), name + " scans a table:\n" + plan);
+        }
+
+        long[] nanos = new long[MEASURED_RUNS];
+        for (int run = -WARMUP_RUNS; run < MEASURED_RUNS; run++) {
+            entityManager.clear();
+            long start = System.nanoTime();
+            query.run();
+            if (run >= 0) {
+                nanos[run] = System.nanoTime() - start;
+            }
+        }
+        Arrays.sort(nanos);
+        Duration median = Duration.ofNanos(nanos[MEASURED_RUNS / 2]);
+        assertTrue(median.compareTo(LATENCY_BUDGET) <= 0,
+                name + " took " + median.toMillis() + " ms (budget " + LATENCY_BUDGET.toMillis() + " ms)");
+    }
+
+    private String explain(CapturedStatement statement) {
+        try (Connection connection = capture.target().getConnection();
+             PreparedStatement explain = connection.prepareStatement("EXPLAIN " + statement.sql())) {
+            for (Map.Entry<Integer, Object> parameter : statement.parameters().entrySet()) {
+                explain.setObject(parameter.getKey(), parameter.getValue());
+            }
+            try (ResultSet plan = explain.executeQuery()) {
+                StringBuilder text = new StringBuilder();
+                while (plan.next()) {
+                    text.append(plan.getString(1)).append('\n');
+                }
+                return text.toString();
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not explain: " + statement.sql(), e);
+        }
+    }
+
+    record CapturedStatement(String sql, Map<Integer, Object> parameters) {
+    }
+
+    /**
+     * Records every prepared statement the application executes, with its bound parameters.
+     */
+    static final class StatementCapture {
+
+        private final List<CapturedStatement> statements = new CopyOnWriteArrayList<>();
+        private DataSource target;
+
+        DataSource wrap(DataSource dataSource) {
+            this.target = dataSource;
+            return proxy(DataSource.class, (proxy, method, args) -> {
+                Object result = invoke(dataSource, method, args);
+                return result instanceof Connection connection ? wrapConnection(connection) : result;
+            });
+        }
+
+        DataSource target() {
+            return target;
+        }
+
+        void clear() {
+            statements.clear();
+        }
+
+        List<CapturedStatement> drain() {
+            List<CapturedStatement> drained = new ArrayList<>(statements);
+            statements.clear();
+            return drained;
+        }
+
+        private Connection wrapConnection(Connection connection) {
+            return proxy(Connection.class, (proxy, method, args) -> {
+                Object result = invoke(connection, method, args);
+                return result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")
+                        ? wrapStatement(statement, (String) args[0])
+                        : result;
+            });
+        }
+
+        private PreparedStatement wrapStatement(PreparedStatement statement, String sql) {
+            Map<Integer, Object> parameters = new TreeMap<>();
+            return proxy(PreparedStatement.class, (proxy, method, args) -> {
+                String name = method.getName();
+                if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                    parameters.put(index, name.equals("setNull") ? null : args[1]);
+                } else if (name.equals("clearParameters")) {
+                    parameters.clear();
+                } else if (name.startsWith("execute") && (args == null || args.length == 0)) {
+                    statements.add(new CapturedStatement(sql, new TreeMap<>(parameters)));
+                }
+                return invoke(statement, method, args);
+            });
+        }
+
+        private <T> T proxy(Class<T> type, InvocationHandler handler) {
+            return type.cast(Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, handler));
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    @TestConfiguration
+    static class CaptureConfig {
+
+        @Bean
+        static StatementCapture statementCapture() {
+            return new StatementCapture();
+        }
+
+        @Bean
+        static BeanPostProcessor dataSourceCapture(StatementCapture capture) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? capture.wrap(dataSource) : bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package com.cloudsync;
+
+import com.cloudsync.concurrent.SingleFlight;
+import com.cloudsync.config.CoalescingConfig;
+import com.cloudsync.entity.StoredFile;
+import com.cloudsync.entity.User;
+import com.cloudsync.exception.FileNotFoundException;
+import com.cloudsync.exception.RequestTimeoutException;
+import com.cloudsync.repository.SharedFileRow;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.service.ContentCache;
+import com.cloudsync.service.FileService;
+import com.cloudsync.service.FolderListingCache;
+import com.cloudsync.service.FolderService;
+import com.cloudsync.service.StorageService;
+import com.cloudsync.share.ShareResolver;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.Resource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Identical requests are started together from many threads. Shares are registered after
+ * commit, so these tests commit their data.
+ */
+@SpringBootTest(properties = "cloudsync.share-cache.refresh-interval=PT1H")
+@ActiveProfiles("test")
+class RequestCoalescingTest {
+
+    private static final int REQUESTS = 64;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private FolderService folderService;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShareResolver shareResolver;
+
+    @Autowired
+    private ContentCache contentCache;
+
+    @Autowired
+    private FolderListingCache folderListingCache;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(REQUESTS);
+
+    private User owner;
+    private Long folderId;
+    private StoredFile file;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = "flight" + UUID.randomUUID().toString().substring(0, 8);
+        owner = userRepository.save(new User(name, name + "@example.com", "password"));
+        folderId = folderService.createFolder("launch", owner, null).id();
+        content = ("release notes " + name).getBytes(StandardCharsets.UTF_8);
+        Path blob = storageService.allocateStoragePath(owner, "notes.txt");
+        Files.write(blob, content);
+        String checksum = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        file = new TransactionTemplate(transactionManager).execute(status -> storageService.registerStoredContent(
+                blob, "notes.txt", "text/plain", content.length, checksum,
+                userRepository.findById(owner.getId()).orElseThrow(), null));
+        owner = userRepository.findById(owner.getId()).orElseThrow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testSharedLink_OneQueryForConcurrentRequests() throws Exception {
+        String token = fileService.shareFile(file.getId(), owner).shareToken();
+        long queriesBefore = shareResolver.queryCount();
+
+        List<SharedFileRow> shares = concurrently(() -> fileService.getSharedFile(token));
+
+        assertEquals(1, shareResolver.queryCount() - queriesBefore);
+        assertTrue(shares.stream().allMatch(share -> share.id().equals(file.getId())));
+    }
+
+    @Test
+    void testSharedDownload_OneDiskReadForConcurrentRequests() throws Exception {
+        String token = fileService.shareFile(file.getId(), owner).shareToken();
+        long readsBefore = contentCache.diskReadCount();
+
+        List<Resource> resources = concurrently(() -> storageService.loadAsResource(fileService.getSharedFile(token)));
+
+        // One request streams from disk; the others wait for one read into the cache
+        assertEquals(1, contentCache.diskReadCount() - readsBefore);
+        assertEquals(REQUESTS - 1, resources.stream()
+                .filter(resource -> resource.getDescription().startsWith("Cached content"))
+                .count());
+        for (Resource resource : resources) {
+            try (var in = resource.getInputStream()) {
+                assertArrayEquals(content, in.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    void testFolderListing_OneBuildForConcurrentRequests() throws Exception {
+        long buildsBefore = folderListingCache.buildCount();
+
+        List<byte[]> listings = concurrently(() -> folderService.getFolderListing(folderId, owner));
+
+        assertEquals(1, folderListingCache.buildCount() - buildsBefore);
+        for (byte[] listing : listings) {
+            assertArrayEquals(listings.get(0), listing);
+        }
+    }
+
+    @Test
+    void testSingleFlight_WaitersShareResult() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>("test read", new CoalescingConfig());
+        AtomicInteger calls = new AtomicInteger();
+
+        List<String> results = concurrently(() -> flight.execute("key", () -> {
+            calls.incrementAndGet();
+            awaitWaiters(flight);
+            return "value";
+        }));
+
+        assertEquals(1, calls.get());
+        assertEquals(REQUESTS - 1, flight.coalescedCount());
+        assertTrue(results.stream().allMatch("value"::equals));
+    }
+
+    @Test
+    void testSingleFlight_WaitersShareFailure() throws Exception {
+        SingleFlight<String, String> flight = new SingleFlight<>("test read", new CoalescingConfig());
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> futures = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return flight.execute("key", () -> {
+                    calls.incrementAndGet();
+                    awaitWaiters(flight);
+                    throw new FileNotFoundException("File not found");
+                });
+            }));
+        }
+        start.countDown();
+
+        for (Future<String> future : futures) {
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> future.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(FileNotFoundException.class, failure.getCause());
+        }
+        assertEquals(1, calls.get());
+        // Nothing is kept: the next read runs again
+        assertEquals("value", flight.execute("key", () -> "value"));
+    }
+
+    @Test
+    void testSingleFlight_WaiterTimesOut() throws Exception {
+        CoalescingConfig config = new CoalescingConfig();
+        config.setTimeout(Duration.ofMillis(100));
+        SingleFlight<String, String> flight = new SingleFlight<>("test read", config);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> leader = executor.submit(() -> flight.execute("key", () -> {
+            started.countDown();
+            awaitQuietly(release);
+            return "value";
+        }));
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+
+        assertThrows(RequestTimeoutException.class, () -> flight.execute("key", () -> "other"));
+
+        release.countDown();
+        assertEquals("value", leader.get(10, TimeUnit.SECONDS));
+        // The slow read is over, so the next one runs on its own
+        assertEquals("other", flight.execute("key", () -> "other"));
+    }
+
+    // --- Private helper methods ---
+
+    /**
+     * Runs the call from every thread at once and returns the results in submission order.
+     */
+    private <T> List<T> concurrently(Callable<T> call) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                return call.call();
+            }));
+        }
+        start.countDown();
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    /**
+     * Holds the running read until every other request is waiting for it.
+     */
+    private static void awaitWaiters(SingleFlight<?, ?> flight) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (flight.coalescedCount() < REQUESTS - 1 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.cloudsync;
+
+import com.cloudsync.entity.IdSequences;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the migrations against a database of its own, stopping at a given version to seed the rows
+ * an older release would have left behind.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SchemaMigrationTest {
+
+    private JdbcDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = newDataSource();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Test
+    void testFolderCounters_RecountedOnce() {
+        migrate("9");
+        insertLegacyUser();
+        jdbcTemplate.update("INSERT INTO folders (id, name, parent_id, owner_id) VALUES (1, 'docs', NULL, 1), "
+                + "(2, 'drafts', 1, 1), (3, 'empty', NULL, 1)");
+        insertFiles("(1, 'a', 'a.txt', 100, '/a', 1, 1, FALSE, 0), (2, 'b', 'b.txt', 50, '/b', 1, 1, FALSE, 0), "
+                + "(3, 'c', 'c.txt', 10, '/c', 2, 1, FALSE, 0)");
+
+        migrate("10");
+
+        assertCounters(1, 2, 150, 1);
+        assertCounters(2, 1, 10, 0);
+        assertCounters(3, 0, 0, 0);
+        // Rewritten folders are listed afresh; untouched ones keep their cached listings
+        assertEquals(1, version(1));
+        assertEquals(0, version(3));
+    }
+
+    @Test
+    void testFolderRollups_ComputedOnceFromTree() {
+        migrate("10");
+        insertLegacyUser();
+        // Legacy folders have no lineage yet; folder 4 already has a pending delta
+        jdbcTemplate.update("INSERT INTO folders (id, name, parent_id, owner_id) VALUES (1, 'docs', NULL, 1), "
+                + "(2, 'drafts', 1, 1), (3, 'old', 2, 1), (4, 'new', NULL, 1)");
+        insertFiles("(1, 'a', 'a.txt', 100, '/a', 1, 1, FALSE, 0), (2, 'b', 'b.txt', 50, '/b', 3, 1, FALSE, 0), "
+                + "(3, 'c', 'c.txt', 10, '/c', 4, 1, FALSE, 0), (4, 'd', 'd.txt', 5, '/d', NULL, 1, FALSE, 0)");
+        jdbcTemplate.update("INSERT INTO folder_rollup_deltas (id, lineage, files, bytes) VALUES (1, '/4/', 1, 10)");
+
+        migrate(null);
+
+        assertRollup(1, 2, 150);
+        assertRollup(2, 1, 50);
+        assertRollup(3, 1, 50);
+        assertRollup(4, 0, 0);
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM folder_rollup_deltas", Long.class));
+    }
+
+    @Test
+    void testHibernateGeneratedSchema_BaselinedAndBroughtUpToDate() throws SQLException {
+        // A database Hibernate created before Flyway: the V1 tables without a schema history
+        try (Connection connection = dataSource.getConnection()) {
+            ScriptUtils.executeSqlScript(connection, new ClassPathResource("db/migration/h2/V1__baseline_schema.sql"));
+        }
+        insertLegacyUser();
+        jdbcTemplate.update("INSERT INTO folders (id, name, parent_id, owner_id) VALUES (1, 'docs', NULL, 1), "
+                + "(2, 'drafts', 1, 1)");
+        insertFiles("(1, 'a', 'a.txt', 100, '/a', 1, 1, FALSE, 0), (2, 'b', 'b.txt', 50, '/b', 2, 1, FALSE, 0)");
+
+        Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/h2")
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load()
+                .migrate();
+
+        assertCounters(1, 1, 100, 1);
+        assertRollup(1, 2, 150);
+        assertRollup(2, 1, 50);
+        // The next id block of every former identity table that has rows starts above their ids
+        IdSequences.BY_TABLE.forEach((table, sequence) -> {
+            long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            long next = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR " + sequence, Long.class);
+            assertTrue(maxId == 0 || next - IdSequences.ALLOCATION_SIZE >= maxId, table + " ids restart at " + next);
+        });
+        // Same tables and columns as a database migrated from scratch
+        JdbcDataSource fresh = newDataSource();
+        Flyway.configure().dataSource(fresh).locations("classpath:db/migration/h2").load().migrate();
+        assertEquals(columns(new JdbcTemplate(fresh)), columns(jdbcTemplate));
+    }
+
+    // --- Private helper methods ---
+
+    private void migrate(String target) {
+        var configuration = Flyway.configure()
+                .dataSource(dataSource)
+                .locations("classpath:db/migration/h2");
+        if (target != null) {
+            configuration.target(target);
+        }
+        configuration.load().migrate();
+    }
+
+    private static JdbcDataSource newDataSource() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:migration" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+
+    private void insertLegacyUser() {
+        jdbcTemplate.update("INSERT INTO users (id, username, email, password, storage_used, enabled) "
+                + "VALUES (1, 'legacy', 'legacy@example.com', 'x', 0, TRUE)");
+    }
+
+    private void insertFiles(String rows) {
+        jdbcTemplate.update("INSERT INTO stored_files (id, name, original_name, size, storage_path, folder_id, owner_id, "
+                + "is_public, download_count) VALUES " + rows);
+    }
+
+    private static List<String> columns(JdbcTemplate database) {
+        return database.queryForList("SELECT table_name || '.' || column_name || ' ' || data_type || ' ' || is_nullable "
+                + "FROM information_schema.columns WHERE table_schema = 'PUBLIC' AND table_name <> 'flyway_schema_history' "
+                + "ORDER BY table_name, column_name", String.class);
+    }
+
+    private void assertCounters(long folderId, long files, long bytes, long subfolders) {
+        assertEquals(files, jdbcTemplate.queryForObject("SELECT file_count FROM folders WHERE id = ?", Long.class, folderId));
+        assertEquals(bytes, jdbcTemplate.queryForObject("SELECT total_bytes FROM folders WHERE id = ?", Long.class, folderId));
+        assertEquals(subfolders, jdbcTemplate.queryForObject(
+                "SELECT subfolder_count FROM folders WHERE id = ?", Long.class, folderId));
+    }
+
+    private void assertRollup(long folderId, long files, long bytes) {
+        assertEquals(files, jdbcTemplate.queryForObject(
+                "SELECT subtree_file_count FROM folders WHERE id = ?", Long.class, folderId));
+        assertEquals(bytes, jdbcTemplate.queryForObject(
+                "SELECT subtree_bytes FROM folders WHERE id = ?", Long.class, folderId));
+    }
+
+    private long version(long folderId) {
+        return jdbcTemplate.queryForObject("SELECT listing_version FROM folders WHERE id = ?", Long.class, folderId);
+    }
+}
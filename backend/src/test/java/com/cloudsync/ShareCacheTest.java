@@ -0,0 +1,113 @@
+package com.cloudsync;
+
+import com.cloudsync.entity.StoredFile;
+import com.cloudsync.entity.User;
+import com.cloudsync.repository.FileRepository;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.service.FileService;
+import com.cloudsync.share.ShareResolver;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Share links are registered and invalidated after commit, so these tests commit their data.
+ */
+@SpringBootTest(properties = "cloudsync.share-cache.refresh-interval=PT1H")
+@ActiveProfiles("test")
+class ShareCacheTest {
+
+    @Autowired
+    private ShareResolver shareResolver;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private StoredFile file;
+
+    @BeforeEach
+    void setUp() {
+        String name = "share" + UUID.randomUUID().toString().substring(0, 8);
+        owner = userRepository.save(new User(name, name + "@example.com", "password"));
+        file = fileRepository.save(new StoredFile(name + ".bin", "report.pdf", "application/pdf", 10,
+                "/storage/" + name + ".bin", owner));
+    }
+
+    @Test
+    void testUnknownTokens_RejectedWithoutQuery() {
+        long rejectedBefore = shareResolver.rejectedCount();
+        long queriesBefore = shareResolver.queryCount();
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(shareResolver.resolve(UUID.randomUUID().toString()).isEmpty());
+        }
+
+        // Only the filter's false positives reach the database, at most about 1%
+        long lookups = shareResolver.queryCount() - queriesBefore;
+        assertTrue(lookups < 200, "database lookups: " + lookups);
+        assertEquals(10_000, shareResolver.rejectedCount() - rejectedBefore + lookups);
+    }
+
+    @Test
+    void testSharedToken_ResolvedWithOneQuery() {
+        String token = fileService.shareFile(file.getId(), owner).shareToken();
+        CacheStats before = shareResolver.stats();
+        long queriesBefore = shareResolver.queryCount();
+
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals(file.getId(), shareResolver.resolve(token).orElseThrow().id());
+        }
+
+        assertEquals(1, shareResolver.queryCount() - queriesBefore);
+        assertEquals(999, shareResolver.stats().minus(before).hitCount());
+    }
+
+    @Test
+    void testUnshareAndDelete_InvalidateAfterCommit() {
+        String token = fileService.shareFile(file.getId(), owner).shareToken();
+        assertTrue(shareResolver.resolve(token).isPresent());
+
+        fileService.unshareFile(file.getId(), owner);
+        assertTrue(shareResolver.resolve(token).isEmpty());
+
+        String renewed = fileService.shareFile(file.getId(), owner).shareToken();
+        assertEquals("report.pdf", shareResolver.resolve(renewed).orElseThrow().originalName());
+        fileService.renameFile(file.getId(), owner, "renamed.pdf");
+        assertEquals("renamed.pdf", shareResolver.resolve(renewed).orElseThrow().originalName());
+
+        fileService.deleteFile(file.getId(), owner);
+        assertTrue(shareResolver.resolve(renewed).isEmpty());
+    }
+
+    @Test
+    void testTokenSharedElsewhere_AcceptedAfterRefresh() {
+        String token = UUID.randomUUID().toString();
+        // Another instance shares the file; this instance sees no event
+        jdbcTemplate.update("UPDATE stored_files SET share_token = ?, is_public = TRUE, updated_at = ? WHERE id = ?",
+                token, LocalDateTime.now(), file.getId());
+
+        assertTrue(shareResolver.resolve(token).isEmpty());
+
+        shareResolver.refresh();
+        assertEquals(file.getId(), shareResolver.resolve(token).orElseThrow().id());
+    }
+}
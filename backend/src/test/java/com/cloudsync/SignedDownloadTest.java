@@ -0,0 +1,245 @@
+package com.cloudsync;
+
+import com.cloudsync.config.JwtConfig;
+import com.cloudsync.config.SignedUrlConfig;
+import com.cloudsync.entity.StoredFile;
+import com.cloudsync.entity.User;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.security.DownloadSigner;
+import com.cloudsync.security.JwtTokenProvider;
+import com.cloudsync.security.SignedDownload;
+import com.cloudsync.security.UserPrincipal;
+import com.cloudsync.service.FileService;
+import com.cloudsync.service.SignedDownloadService;
+import com.cloudsync.service.StorageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Revocations take effect after commit, so these tests commit their data.
+ */
+@SpringBootTest(properties = "cloudsync.signed-urls.refresh-interval=PT1H")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SignedDownloadTest {
+
+    private static final byte[] CONTENT = "signed download content".getBytes();
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtTokenProvider jwtTokenProvider;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private StorageService storageService;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private SignedDownloadService signedDownloadService;
+
+    @Autowired
+    private DownloadSigner downloadSigner;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private User owner;
+    private StoredFile file;
+    private String jwt;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = "signed" + UUID.randomUUID().toString().substring(0, 8);
+        owner = userRepository.save(new User(name, name + "@example.com", "password"));
+        Path blob = storageService.allocateStoragePath(owner, "clip.mp4");
+        Files.write(blob, CONTENT);
+        file = new TransactionTemplate(transactionManager).execute(status -> storageService.registerStoredContent(
+                blob, "clip.mp4", "video/mp4", CONTENT.length, null,
+                userRepository.findById(owner.getId()).orElseThrow(), null));
+        owner = userRepository.findById(owner.getId()).orElseThrow();
+        jwt = jwtTokenProvider.generateToken(UserPrincipal.from(owner, 0));
+    }
+
+    @Test
+    void testSignedUrl_ServedFromUrlAlone_CountedAsync() throws Exception {
+        String url = createLink();
+        // Served from what the URL carries: a rename after signing does not show
+        jdbcTemplate.update("UPDATE stored_files SET original_name = 'renamed.mp4' WHERE id = ?", file.getId());
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc.perform(get(url))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "video/mp4"))
+                    .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("filename*=UTF-8''clip.mp4")))
+                    .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60, private"))
+                    .andExpect(content().bytes(CONTENT));
+        }
+        // Later ranges of the same playback are not counted again
+        mockMvc.perform(get(url).header(HttpHeaders.RANGE, "bytes=5-10"))
+                .andExpect(status().isPartialContent());
+
+        assertEquals(0, downloadCount());
+        signedDownloadService.flushCounts();
+        assertEquals(5, downloadCount());
+    }
+
+    @Test
+    void testRevoke_RejectsEarlierLinksOnly() throws Exception {
+        String revoked = createLink();
+        mockMvc.perform(delete("/api/files/" + file.getId() + "/link").header(HttpHeaders.AUTHORIZATION, "Bearer " + jwt))
+                .andExpect(status().isOk());
+        String current = createLink();
+
+        mockMvc.perform(get(revoked)).andExpect(status().isNotFound());
+        mockMvc.perform(get(current)).andExpect(status().isOk());
+    }
+
+    @Test
+    void testDeleteFile_RevokesLinks() throws Exception {
+        String url = createLink();
+
+        fileService.deleteFile(file.getId(), owner);
+
+        mockMvc.perform(get(url)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testRevokedElsewhere_RejectedAfterRefresh() throws Exception {
+        String url = createLink();
+        // Another instance revokes the file's links; this instance sees no event
+        jdbcTemplate.update("UPDATE stored_files SET download_generation = 2 WHERE id = ?", file.getId());
+        jdbcTemplate.update("INSERT INTO download_revocations (id, file_id, min_generation, revoked_at) "
+                        + "VALUES (NEXT VALUE FOR download_revocations_seq, ?, 2, ?)",
+                file.getId(), LocalDateTime.now());
+
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+        signedDownloadService.refresh();
+        mockMvc.perform(get(url)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testSharedFile_LinkEndsWithShare() throws Exception {
+        String shareToken = fileService.shareFile(file.getId(), owner).shareToken();
+        String body = mockMvc.perform(get("/api/share/" + shareToken + "/link"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String url = objectMapper.readTree(body).get("url").asText();
+        mockMvc.perform(get(url)).andExpect(status().isOk());
+
+        fileService.unshareFile(file.getId(), owner);
+
+        mockMvc.perform(get(url)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testTamperedOrExpiredToken_Rejected() throws Exception {
+        String url = createLink();
+        String tampered = url.substring(0, url.length() - 2) + (url.endsWith("A") ? "BB" : "AA");
+        mockMvc.perform(get(tampered)).andExpect(status().isNotFound());
+
+        String expired = downloadSigner.sign(new SignedDownload(file.getId(), 1, file.getStoragePath(), null,
+                CONTENT.length, "video/mp4", "clip.mp4", Instant.now().minusSeconds(5)));
+        mockMvc.perform(get("/api/dl/" + expired)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testToken_HidesWhatItCarries() throws Exception {
+        String name = "r\u00e9sum\u00e9 \"final\".mp4";
+        String token = downloadSigner.sign(new SignedDownload(file.getId(), 1, file.getStoragePath(), "abc123",
+                CONTENT.length, "video/mp4", name, Instant.now().plusSeconds(60)));
+
+        String decoded = Arrays.stream(token.split("\\."))
+                .map(part -> new String(Base64.getUrlDecoder().decode(part), StandardCharsets.ISO_8859_1))
+                .collect(Collectors.joining());
+        assertFalse(decoded.contains(file.getStoragePath()));
+        assertFalse(decoded.contains("abc123"));
+        assertFalse(decoded.contains("final"));
+        mockMvc.perform(get("/api/dl/" + token))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.inline().filename(name, StandardCharsets.UTF_8).build().toString()));
+    }
+
+    @Test
+    void testKeyRotation() {
+        DownloadSigner original = signer("k1");
+        DownloadSigner rotated = signer("k2", "k1");
+        DownloadSigner retired = signer("k2");
+        SignedDownload download = new SignedDownload(file.getId(), 1, file.getStoragePath(), null,
+                CONTENT.length, "video/mp4", "clip.mp4", Instant.now().plusSeconds(60));
+
+        String signedBefore = original.sign(download);
+        assertTrue(rotated.verify(signedBefore).isPresent());
+        assertTrue(retired.verify(signedBefore).isEmpty());
+        assertTrue(retired.verify(rotated.sign(download)).isPresent());
+    }
+
+    // --- Private helper methods ---
+
+    private String createLink() throws Exception {
+        String body = mockMvc.perform(post("/api/files/" + file.getId() + "/link")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwt))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).at("/data/url").asText();
+    }
+
+    private long downloadCount() {
+        return jdbcTemplate.queryForObject("SELECT download_count FROM stored_files WHERE id = ?",
+                Long.class, file.getId());
+    }
+
+    private static DownloadSigner signer(String... keyIds) {
+        SignedUrlConfig config = new SignedUrlConfig();
+        config.setKeys(List.of(keyIds).stream().map(id -> {
+            SignedUrlConfig.SigningKey key = new SignedUrlConfig.SigningKey();
+            key.setId(id);
+            key.setSecret("rotation-test-secret-" + id);
+            return key;
+        }).toList());
+        return new DownloadSigner(config, new JwtConfig());
+    }
+}
@@ -0,0 +1,201 @@
+package com.cloudsync;
+
+import com.cloudsync.dto.StorageStats;
+import com.cloudsync.entity.ContentFamily;
+import com.cloudsync.entity.User;
+import com.cloudsync.exception.StorageQuotaExceededException;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.service.FileService;
+import com.cloudsync.service.FolderService;
+import com.cloudsync.service.StorageStatsService;
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Counters are updated in the callers' transactions, so these tests commit their data
+ * and concurrent uploads really run in separate transactions.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StorageStatsTest {
+
+    private static final int THREADS = 8;
+    private static final int UPLOADS_PER_THREAD = 5;
+    private static final long MAX_USER_STORAGE = 1_073_741_824L;
+
+    @Autowired
+    private StorageStatsService storageStatsService;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private FolderService folderService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+    private User owner;
+
+    @BeforeEach
+    void setUp() {
+        String name = "stats" + UUID.randomUUID().toString().substring(0, 8);
+        owner = userRepository.save(new User(name, name + "@example.com", "password"));
+        storageStatsService.initialize(owner);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testUploadsAndDeletes_CountedIncrementally() {
+        Long photo = upload(owner, "photo.png", "image/png", 100, null);
+        upload(owner, "report.pdf", "application/pdf", 200, null);
+        upload(owner, "song.mp3", "audio/mpeg", 300, null);
+        Long folderId = folderService.createFolder("docs", owner, null).id();
+        upload(owner, "notes.txt", "text/plain", 50, folderId);
+
+        StorageStats stats = storageStatsService.getStats(owner);
+        assertEquals(4, stats.totalFiles());
+        assertEquals(650, stats.usedStorage());
+        assertEquals(1, stats.totalFolders());
+        assertEquals(new StorageStats.FamilyUsage(1, 100), stats.byFamily().get(ContentFamily.IMAGE));
+        assertEquals(new StorageStats.FamilyUsage(2, 250), stats.byFamily().get(ContentFamily.DOCUMENT));
+        assertEquals(new StorageStats.FamilyUsage(1, 300), stats.byFamily().get(ContentFamily.AUDIO));
+
+        fileService.deleteFile(photo, owner);
+        folderService.deleteFolder(folderId, owner);
+
+        stats = storageStatsService.getStats(owner);
+        assertEquals(2, stats.totalFiles());
+        assertEquals(500, stats.usedStorage());
+        assertEquals(0, stats.totalFolders());
+        assertEquals(new StorageStats.FamilyUsage(0, 0), stats.byFamily().get(ContentFamily.IMAGE));
+        assertEquals(new StorageStats.FamilyUsage(1, 200), stats.byFamily().get(ContentFamily.DOCUMENT));
+        assertFalse(storageStatsService.reconcile(owner.getId()), "stats drifted");
+    }
+
+    @Test
+    void testConcurrentUploads_NoLostUpdates() throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int first = thread * UPLOADS_PER_THREAD;
+            futures.add(executor.submit(() -> {
+                // Each thread uploads as its own copy of the user, like separate requests do
+                User user = userRepository.findById(owner.getId()).orElseThrow();
+                start.await();
+                for (int i = first; i < first + UPLOADS_PER_THREAD; i++) {
+                    upload(user, "photo-" + i + ".jpg", "image/jpeg", 10 + i, null);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+
+        int uploads = THREADS * UPLOADS_PER_THREAD;
+        long bytes = 10L * uploads + (long) uploads * (uploads - 1) / 2;
+        StorageStats stats = storageStatsService.getStats(owner);
+        assertEquals(uploads, stats.totalFiles());
+        assertEquals(bytes, stats.usedStorage());
+        assertEquals(new StorageStats.FamilyUsage(uploads, bytes), stats.byFamily().get(ContentFamily.IMAGE));
+        assertFalse(storageStatsService.reconcile(owner.getId()), "stats drifted");
+        assertEquals(bytes, storageUsed());
+    }
+
+    @Test
+    void testQuota_CheckedAgainstCommittedUsage() {
+        // Another request used up nearly all of the quota after this copy of the user was loaded
+        User stale = userRepository.findById(owner.getId()).orElseThrow();
+        jdbcTemplate.update("UPDATE users SET storage_used = ? WHERE id = ?", MAX_USER_STORAGE - 50, owner.getId());
+
+        assertThrows(StorageQuotaExceededException.class, () -> upload(stale, "photo.png", "image/png", 100, null));
+        upload(stale, "icon.png", "image/png", 50, null);
+
+        assertEquals(MAX_USER_STORAGE, storageUsed());
+        assertEquals(1, storageStatsService.getStats(owner).totalFiles());
+    }
+
+    @Test
+    void testDeletes_LeaveUserReferenceUnloaded() {
+        Long photo = upload(owner, "photo.png", "image/png", 100, null);
+        Long folderId = folderService.createFolder("docs", owner, null).id();
+        upload(owner, "notes.txt", "text/plain", 50, folderId);
+        User reference = userRepository.getReferenceById(owner.getId());
+
+        fileService.deleteFile(photo, reference);
+        folderService.deleteFolder(folderId, reference);
+
+        assertFalse(Hibernate.isInitialized(reference));
+        assertEquals(0, storageUsed());
+    }
+
+    @Test
+    void testReconcile_RepairsDrift() {
+        upload(owner, "photo.png", "image/png", 100, null);
+        upload(owner, "report.pdf", "application/pdf", 200, null);
+        folderService.createFolder("docs", owner, null);
+        jdbcTemplate.update("UPDATE user_storage_stats SET file_count = 99, image_bytes = 0, folder_count = 7 "
+                + "WHERE user_id = ?", owner.getId());
+
+        assertTrue(storageStatsService.reconcile(owner.getId()));
+        assertFalse(storageStatsService.reconcile(owner.getId()));
+
+        StorageStats stats = storageStatsService.getStats(owner);
+        assertEquals(2, stats.totalFiles());
+        assertEquals(300, stats.usedStorage());
+        assertEquals(1, stats.totalFolders());
+        assertEquals(new StorageStats.FamilyUsage(1, 100), stats.byFamily().get(ContentFamily.IMAGE));
+    }
+
+    @Test
+    void testMissingRow_RebuiltFromFiles() {
+        upload(owner, "photo.png", "image/png", 100, null);
+        jdbcTemplate.update("DELETE FROM user_storage_stats WHERE user_id = ?", owner.getId());
+
+        StorageStats stats = storageStatsService.getStats(owner);
+
+        assertEquals(1, stats.totalFiles());
+        assertEquals(100, stats.usedStorage());
+        assertFalse(storageStatsService.reconcile(owner.getId()), "stats drifted");
+    }
+
+    // --- Private helper methods ---
+
+    private long storageUsed() {
+        return jdbcTemplate.queryForObject("SELECT storage_used FROM users WHERE id = ?", Long.class, owner.getId());
+    }
+
+    private Long upload(User user, String name, String contentType, int size, Long folderId) {
+        return fileService.uploadFile(new MockMultipartFile("file", name, contentType, new byte[size]),
+                user, folderId).id();
+    }
+}
@@ -0,0 +1,98 @@
+package com.cloudsync.benchmark;
+
+import com.cloudsync.search.SearchHit;
+import com.cloudsync.search.TrigramIndex;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File name search latency per user at 10k, 100k and 1M files: the trigram index against a
+ * linear case-insensitive substring scan, which is the work {@code LIKE '%q%'} does per row.
+ * Sample-time mode reports p50/p99 per query kind. Run with {@code mvn test -Pbenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class FileNameSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "report", "invoice", "receipt", "holiday", "budget", "scan", "contract", "photo",
+            "presentation", "notes", "draft", "final", "summary", "backup", "project", "meeting"
+    };
+    private static final String[] EXTENSIONS = {".pdf", ".docx", ".jpg", ".png", ".xlsx", ".txt", ".zip"};
+
+    @Param({"10000", "100000", "1000000"})
+    public int files;
+
+    /**
+     * prefix: leading word, substring: inside the name, typo: one wrong letter, rare: a single file.
+     */
+    @Param({"invoice", "budget 20", "recept", "file-4242"})
+    public String query;
+
+    private TrigramIndex index;
+    private List<String> names;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        index = new TrigramIndex();
+        names = new ArrayList<>(files);
+        for (int i = 0; i < files; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " "
+                    + WORDS[random.nextInt(WORDS.length)] + " "
+                    + (2000 + random.nextInt(25)) + " file-" + i
+                    + EXTENSIONS[random.nextInt(EXTENSIONS.length)];
+            index.put(i, name);
+            names.add(name);
+        }
+    }
+
+    @Benchmark
+    public List<SearchHit> trigramIndex() {
+        return index.search(query, 0, 50);
+    }
+
+    @Benchmark
+    public List<Integer> linearScan() {
+        String needle = query.toLowerCase(Locale.ROOT);
+        List<Integer> matches = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            if (names.get(i).toLowerCase(Locale.ROOT).contains(needle)) {
+                matches.add(i);
+            }
+        }
+        return matches;
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(FileNameSearchBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
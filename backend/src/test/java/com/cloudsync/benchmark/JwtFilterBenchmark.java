@@ -0,0 +1,175 @@
+package com.cloudsync.benchmark;
+
+import com.cloudsync.config.JwtConfig;
+import com.cloudsync.config.PrincipalCacheConfig;
+import com.cloudsync.config.StorageConfig;
+import com.cloudsync.entity.User;
+import com.cloudsync.repository.UserRepository;
+import com.cloudsync.security.JwtAuthenticationFilter;
+import com.cloudsync.security.JwtTokenProvider;
+import com.cloudsync.security.PrincipalCache;
+import com.cloudsync.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.crypto.SecretKey;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Per-request cost of bearer token authentication: the servlet JWT filter against the previous
+ * filter, which built a parser and verified the token four times per request. {@code reused}
+ * sends the same token every time (the common case, served from the verified-token cache);
+ * {@code fresh} rotates through more tokens than the cache holds, so every request verifies once.
+ * The principal lookup is cached in all variants. Run with {@code mvn test -Pbenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "benchmarkSecretKeyForCloudSyncThatIsLongEnoughForHmacSha256";
+    private static final int FRESH_TOKENS = 4096;
+
+    @Param({"reused", "fresh"})
+    public String tokens;
+
+    private JwtAuthenticationFilter filter;
+    private LegacyJwtFilter legacyFilter;
+    private String[] headers;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setSecret(SECRET);
+        jwtConfig.setVerifiedTokenCacheSize("fresh".equals(tokens) ? 16 : 10_000);
+        JwtTokenProvider tokenProvider = new JwtTokenProvider(jwtConfig);
+
+        User user = new User("bench", "bench@example.com", "{noop}secret");
+        user.setId(1L);
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findCurrentByUsername("bench")).thenReturn(Optional.of(user));
+        PrincipalCache principalCache = new PrincipalCache(userRepository, new StorageConfig(),
+                new PrincipalCacheConfig());
+
+        filter = new JwtAuthenticationFilter(tokenProvider, principalCache);
+        legacyFilter = new LegacyJwtFilter(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)),
+                principalCache);
+
+        UserPrincipal principal = principalCache.get("bench");
+        headers = new String["fresh".equals(tokens) ? FRESH_TOKENS : 1];
+        for (int i = 0; i < headers.length; i++) {
+            // Distinct issue times make distinct tokens
+            jwtConfig.setExpiration(86_400_000L + i * 1000L);
+            headers[i] = "Bearer " + tokenProvider.generateToken(principal);
+        }
+    }
+
+    @Benchmark
+    public Object filterPath() throws Exception {
+        return authenticate(filter);
+    }
+
+    @Benchmark
+    public Object legacyFilterPath() throws Exception {
+        return authenticate(legacyFilter);
+    }
+
+    private Object authenticate(OncePerRequestFilter target) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/files");
+        request.addHeader("Authorization", headers[next++ % headers.length]);
+        target.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        Object authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        if (authentication == null) {
+            throw new IllegalStateException("Request was not authenticated");
+        }
+        return authentication;
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    /**
+     * The filter before single-parse verification: validate, extract the subject, then validate
+     * again against the user (subject and expiry), each step building a parser and verifying anew.
+     */
+    static final class LegacyJwtFilter extends OncePerRequestFilter {
+
+        private final SecretKey secretKey;
+        private final PrincipalCache principalCache;
+
+        LegacyJwtFilter(SecretKey secretKey, PrincipalCache principalCache) {
+            this.secretKey = secretKey;
+            this.principalCache = principalCache;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                        FilterChain filterChain) throws ServletException, IOException {
+            String jwt = request.getHeader("Authorization").substring(7);
+            if (validateToken(jwt)) {
+                UserPrincipal principal = principalCache.get(extractClaim(jwt, Claims::getSubject));
+                if (extractClaim(jwt, Claims::getSubject).equals(principal.getUsername())
+                        && !extractClaim(jwt, Claims::getExpiration).before(new Date())) {
+                    UsernamePasswordAuthenticationToken authentication =
+                            new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
+            }
+            filterChain.doFilter(request, response);
+        }
+
+        private boolean validateToken(String token) {
+            Jwts.parser().verifyWith(secretKey).build().parseSignedClaims(token);
+            return true;
+        }
+
+        private <T> T extractClaim(String token, Function<Claims, T> resolver) {
+            return resolver.apply(Jwts.parser().verifyWith(secretKey).build().parseSignedClaims(token).getPayload());
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.cloudsync.benchmark;
+
+import com.cloudsync.dto.ApiResponse;
+import com.cloudsync.dto.CursorPage;
+import com.cloudsync.dto.FileColumns;
+import com.cloudsync.dto.FileDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialising one 10k-file listing page in each wire format: row-oriented JSON (the default),
+ * row-oriented CBOR, and the column-oriented {@link FileColumns} form as JSON and CBOR, including
+ * the conversion from the page. Payload sizes, raw and gzipped, are printed once per format at
+ * setup. Run with {@code mvn test -Pbenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ListingFormatBenchmark {
+
+    private static final int FILES = 10_000;
+    private static final int FOLDERS = 200;
+    private static final String[] TYPES = {
+            "application/pdf", "image/jpeg", "image/png", "text/plain",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document", "application/zip"
+    };
+
+    @Param({"json", "cbor", "columns-json", "columns-cbor"})
+    public String format;
+
+    private final ObjectMapper json = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final ObjectMapper cbor = CBORMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    private ApiResponse<CursorPage<FileDto>> response;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+        List<FileDto> files = new ArrayList<>(FILES);
+        for (int i = 0; i < FILES; i++) {
+            int folder = random.nextInt(FOLDERS);
+            String folderName = "Client " + folder;
+            String originalName = "document-" + i + ".pdf";
+            LocalDateTime created = base.plusMinutes(random.nextInt(500_000));
+            boolean shared = random.nextInt(10) == 0;
+            files.add(new FileDto((long) i + 1, UUID.randomUUID() + ".pdf", originalName,
+                    TYPES[random.nextInt(TYPES.length)], random.nextInt(50_000_000),
+                    "/Projects/2024/" + folderName + "/" + originalName, (long) folder + 1, folderName,
+                    shared, shared ? UUID.randomUUID().toString() : null, random.nextInt(100),
+                    created, created.plusMinutes(random.nextInt(10_000))));
+        }
+        response = ApiResponse.success("Files retrieved successfully", new CursorPage<>(files, "cursor", true));
+
+        byte[] payload = serialize();
+        System.out.printf("%n%s: %d bytes, %d bytes gzipped%n", format, payload.length, gzip(payload).length);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        try {
+            return switch (format) {
+                case "json" -> json.writeValueAsBytes(response);
+                case "cbor" -> cbor.writeValueAsBytes(response);
+                case "columns-json" -> json.writeValueAsBytes(columns());
+                case "columns-cbor" -> cbor.writeValueAsBytes(columns());
+                default -> throw new IllegalStateException("Unknown format: " + format);
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ListingFormatBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    // --- Private helper methods ---
+
+    private ApiResponse<FileColumns> columns() {
+        return ApiResponse.success(response.message(), FileColumns.of(response.data()));
+    }
+
+    private static byte[] gzip(byte[] payload) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(payload);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -1,11 +1,11 @@
 'use client'
 
-import { useEffect, useState } from 'react'
+import { useEffect, useRef, useState } from 'react'
 import { useRouter } from 'next/navigation'
 import { useAuthStore } from '@/store/authStore'
 import { useFileStore } from '@/store/fileStore'
 import { apiClient } from '@/lib/api'
-import { StorageStats } from '@/types'
+import { ChangeFeed, StorageStats } from '@/types'
 import Sidebar from '@/components/Sidebar'
 import FileList from '@/components/FileList'
 import FileUpload from '@/components/FileUpload'
@@ -13,6 +13,10 @@ import Breadcrumbs from '@/components/Breadcrumbs'
 import StorageInfo from '@/components/StorageInfo'
 import { FiPlus, FiUpload } from 'react-icons/fi'
 
+const CHANGE_RETRY_DELAY = 5000
+
+const delay = (ms: number) => new Promise((resolve) => setTimeout(resolve, ms))
+
 export default function DashboardPage() {
   const router = useRouter()
   const { token, username, logout } = useAuthStore()
@@ -22,6 +26,8 @@ export default function DashboardPage() {
     setFolders, 
     setBreadcrumbs, 
     setLoading,
+    setChangeCursor,
+    applyChanges,
     isLoading 
   } = useFileStore()
   
@@ -48,9 +54,43 @@ export default function DashboardPage() {
     loadData()
   }, [isHydrated, token, currentFolderId])
 
+  // Follows the change stream, or long polls where streaming is unavailable, and syncs on each change
+  useEffect(() => {
+    if (!isHydrated) return
+    const controller = new AbortController()
+    const listen = async () => {
+      let streaming = true
+      while (!controller.signal.aborted) {
+        const cursor = useFileStore.getState().changeCursor
+        try {
+          if (streaming) {
+            await apiClient.streamChanges(cursor, () => syncRef.current(), controller.signal)
+          } else if (cursor) {
+            const response = await apiClient.pollChanges(cursor)
+            if (response.success && response.data.changed) await syncRef.current()
+          } else {
+            await delay(CHANGE_RETRY_DELAY)
+          }
+        } catch (error) {
+          if (controller.signal.aborted) return
+          streaming = false
+          await delay(CHANGE_RETRY_DELAY)
+        }
+      }
+    }
+    listen()
+    return () => controller.abort()
+  }, [isHydrated])
+
   const loadData = async () => {
     setLoading(true)
     try {
+      // Take the change feed position first, so changes made while loading are picked up later
+      const changesResponse = await apiClient.getChanges()
+      if (changesResponse.success) {
+        setChangeCursor(changesResponse.data.cursor)
+      }
+
       // Load storage stats
       const statsResponse = await apiClient.getStorageStats()
       if (statsResponse.success) {
@@ -69,8 +109,8 @@ export default function DashboardPage() {
           apiClient.getRootFiles(),
           apiClient.getRootFolders(),
         ])
-        if (filesResponse.success) setFiles(filesResponse.data)
-        if (foldersResponse.success) setFolders(foldersResponse.data)
+        if (filesResponse.success) setFiles(filesResponse.data.items)
+        if (foldersResponse.success) setFolders(foldersResponse.data.items)
       }
     } catch (error) {
       console.error('Failed to load data:', error)
@@ -79,6 +119,57 @@ export default function DashboardPage() {
     }
   }
 
+  // Notifications arriving while a sync runs are folded into one more sync afterwards
+  const syncState = useRef({ running: false, again: false })
+  const syncChanges = async () => {
+    if (syncState.current.running) {
+      syncState.current.again = true
+      return
+    }
+    syncState.current.running = true
+    try {
+      do {
+        syncState.current.again = false
+        await pullChanges()
+      } while (syncState.current.again)
+    } finally {
+      syncState.current.running = false
+    }
+  }
+  const syncRef = useRef(syncChanges)
+  syncRef.current = syncChanges
+
+  // Applies what changed since the last sync; only changes reaching the open folder cost a reload
+  const pullChanges = async () => {
+    let cursor = useFileStore.getState().changeCursor
+    if (!cursor) return
+    try {
+      let reload = false
+      let changed = false
+      let hasMore = true
+      while (hasMore) {
+        const response = await apiClient.getChanges(cursor)
+        if (!response.success) return
+        const feed: ChangeFeed = response.data
+        reload = feed.resetRequired || applyChanges(feed.changes) || reload
+        changed = changed || feed.changes.length > 0
+        cursor = feed.cursor
+        hasMore = feed.hasMore
+      }
+      setChangeCursor(cursor)
+      if (reload) {
+        await loadData()
+      } else if (changed) {
+        const statsResponse = await apiClient.getStorageStats()
+        if (statsResponse.success) {
+          setStats(statsResponse.data)
+        }
+      }
+    } catch (error) {
+      console.error('Failed to sync changes:', error)
+    }
+  }
+
   const handleCreateFolder = async () => {
     if (!newFolderName.trim()) return
     try {
@@ -18,8 +18,8 @@ export default function Breadcrumbs() {
           apiClient.getRootFiles(),
           apiClient.getRootFolders(),
         ])
-        setFiles(filesResponse.success ? filesResponse.data : [])
-        setFolders(foldersResponse.success ? foldersResponse.data : [])
+        setFiles(filesResponse.success ? filesResponse.data.items : [])
+        setFolders(foldersResponse.success ? foldersResponse.data.items : [])
         setCurrentFolder(null, null)
       } else {
         // Navigate to folder
@@ -39,8 +39,20 @@ export default function FileUpload({ onClose, onUploadComplete, folderId }: File
   const uploadFiles = async () => {
     setIsUploading(true)
 
+    // Files whose content the server already holds are created without transferring them
+    const pending = files.map((f, idx) => ({ f, idx })).filter(({ f }) => f.status === 'pending')
+    const instant = await apiClient
+      .uploadInstant(pending.map(({ f }) => f.file), folderId || undefined)
+      .catch(() => pending.map(() => false))
+    const createdIndexes = new Set(pending.filter((_, i) => instant[i]).map(({ idx }) => idx))
+    setFiles((prev) =>
+      prev.map((f, idx) =>
+        createdIndexes.has(idx) ? { ...f, status: 'success' as const, progress: 100 } : f
+      )
+    )
+
     for (let i = 0; i < files.length; i++) {
-      if (files[i].status !== 'pending') continue
+      if (files[i].status !== 'pending' || createdIndexes.has(i)) continue
 
       // Update status to uploading
       setFiles((prev) =>
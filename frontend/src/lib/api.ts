@@ -1,4 +1,5 @@
 import axios, { AxiosInstance, AxiosError } from 'axios'
+import { BulkSelection, InstantUploadItem, InstantUploadItemResult, ListingParams } from '@/types'
 
 // In browser, use relative URLs (will be rewritten by Next.js)
 // On server (SSR), use the full URL
@@ -6,6 +7,15 @@ const API_BASE_URL = typeof window === 'undefined'
   ? (process.env.NEXT_PUBLIC_API_URL || 'http://localhost:8080')
   : '' // Empty string = relative URLs in browser
 
+// Larger files are uploaded without trying instant upload, as hashing reads them into memory
+const INSTANT_UPLOAD_MAX_SIZE = 256 * 1024 * 1024
+const INSTANT_UPLOAD_BATCH = 1000
+
+const sha256Hex = async (data: BufferSource) =>
+  Array.from(new Uint8Array(await crypto.subtle.digest('SHA-256', data)))
+    .map((b) => b.toString(16).padStart(2, '0'))
+    .join('')
+
 class ApiClient {
   private client: AxiosInstance
 
@@ -68,6 +78,48 @@ class ApiClient {
     return response.data
   }
 
+  // Creates files whose content the server already holds without sending their bytes.
+  // Returns per file whether it was created; the others still need a regular upload.
+  async uploadInstant(files: File[], folderId?: number): Promise<boolean[]> {
+    const created = files.map(() => false)
+    if (typeof crypto === 'undefined' || !crypto.subtle) return created
+
+    const candidates = files
+      .map((file, index) => ({ file, index }))
+      .filter(({ file }) => file.size > 0 && file.size <= INSTANT_UPLOAD_MAX_SIZE)
+    for (let from = 0; from < candidates.length; from += INSTANT_UPLOAD_BATCH) {
+      let pending: { file: File; index: number; item: InstantUploadItem }[] = []
+      for (const { file, index } of candidates.slice(from, from + INSTANT_UPLOAD_BATCH)) {
+        const sha256 = await sha256Hex(await file.arrayBuffer())
+        pending.push({ file, index, item: { name: file.name, sha256, size: file.size, contentType: file.type || undefined, folderId } })
+      }
+      // A second round answers the proof-of-possession challenges for content stored by other users
+      for (let round = 0; round < 2 && pending.length > 0; round++) {
+        const response = await this.client.post('/api/files/upload/instant', { files: pending.map((p) => p.item) })
+        const results: InstantUploadItemResult[] = response.data.data.files
+        const challenged: typeof pending = []
+        for (let i = 0; i < results.length; i++) {
+          const { status, challenge } = results[i]
+          if (status === 'CREATED') {
+            created[pending[i].index] = true
+          } else if (status === 'PROOF_REQUIRED' && challenge) {
+            const token = new TextEncoder().encode(challenge.token)
+            const range = new Uint8Array(
+              await pending[i].file.slice(challenge.offset, challenge.offset + challenge.length).arrayBuffer()
+            )
+            const input = new Uint8Array(token.length + range.length)
+            input.set(token)
+            input.set(range, token.length)
+            const proof = { token: challenge.token, response: await sha256Hex(input) }
+            challenged.push({ ...pending[i], item: { ...pending[i].item, proof } })
+          }
+        }
+        pending = challenged
+      }
+    }
+    return created
+  }
+
   async uploadFiles(files: File[], folderId?: number) {
     const formData = new FormData()
     files.forEach(file => formData.append('files', file))
@@ -80,18 +132,18 @@ class ApiClient {
     return response.data
   }
 
-  async getFiles() {
-    const response = await this.client.get('/api/files')
+  async getFiles(params?: ListingParams) {
+    const response = await this.client.get('/api/files', { params })
     return response.data
   }
 
-  async getRootFiles() {
-    const response = await this.client.get('/api/files/root')
+  async getRootFiles(params?: ListingParams) {
+    const response = await this.client.get('/api/files/root', { params })
     return response.data
   }
 
-  async getFilesInFolder(folderId: number) {
-    const response = await this.client.get(`/api/files/folder/${folderId}`)
+  async getFilesInFolder(folderId: number, params?: ListingParams) {
+    const response = await this.client.get(`/api/files/folder/${folderId}`, { params })
     return response.data
   }
 
@@ -181,8 +233,8 @@ class ApiClient {
     return response.data
   }
 
-  async getRootFolders() {
-    const response = await this.client.get('/api/folders')
+  async getRootFolders(params?: ListingParams) {
+    const response = await this.client.get('/api/folders', { params })
     return response.data
   }
 
@@ -191,8 +243,8 @@ class ApiClient {
     return response.data
   }
 
-  async getSubfolders(folderId: number) {
-    const response = await this.client.get(`/api/folders/${folderId}/subfolders`)
+  async getSubfolders(folderId: number, params?: ListingParams) {
+    const response = await this.client.get(`/api/folders/${folderId}/subfolders`, { params })
     return response.data
   }
 
@@ -207,6 +259,75 @@ class ApiClient {
     const response = await this.client.delete(`/api/folders/${folderId}`)
     return response.data
   }
+
+  // Changes since a cursor; without one, only the current position
+  async getChanges(cursor?: string, limit?: number) {
+    const response = await this.client.get('/api/changes', { params: { cursor, limit } })
+    return response.data
+  }
+
+  // Listens to the change stream, calling onChange with each new cursor until the stream ends.
+  // Uses fetch because EventSource cannot send the Authorization header.
+  async streamChanges(lastEventId: string | null, onChange: (cursor: string) => void, signal: AbortSignal) {
+    const token = localStorage.getItem('token') || sessionStorage.getItem('token')
+    const response = await fetch(`${API_BASE_URL}/api/changes/stream`, {
+      headers: {
+        Accept: 'text/event-stream',
+        Authorization: `Bearer ${token}`,
+        ...(lastEventId ? { 'Last-Event-ID': lastEventId } : {}),
+      },
+      signal,
+    })
+    if (!response.ok || !response.body) {
+      throw new Error(`Change stream unavailable: ${response.status}`)
+    }
+
+    const reader = response.body.pipeThrough(new TextDecoderStream()).getReader()
+    let buffer = ''
+    while (true) {
+      const { value, done } = await reader.read()
+      if (done) return
+      buffer += value
+      let end
+      while ((end = buffer.indexOf('\n\n')) >= 0) {
+        const id = buffer.slice(0, end).split('\n').find((line) => line.startsWith('id:'))
+        buffer = buffer.slice(end + 2)
+        if (id) onChange(id.slice(3).trim())
+      }
+    }
+  }
+
+  // Long poll answered by the first change after the cursor; the fallback where streaming fails
+  async pollChanges(cursor: string) {
+    const response = await this.client.get('/api/changes/poll', { params: { cursor }, timeout: 60000 })
+    return response.data
+  }
+
+  // Bulk operations (one request for any number of selected items)
+  async bulkDelete(selection: BulkSelection) {
+    const response = await this.client.post('/api/bulk/delete', selection)
+    return response.data
+  }
+
+  async bulkMove(selection: BulkSelection, targetFolderId?: number) {
+    const response = await this.client.post('/api/bulk/move', { ...selection, targetFolderId })
+    return response.data
+  }
+
+  async bulkShare(fileIds: number[]) {
+    const response = await this.client.post('/api/bulk/share', { fileIds })
+    return response.data
+  }
+
+  async bulkUnshare(fileIds: number[]) {
+    const response = await this.client.post('/api/bulk/unshare', { fileIds })
+    return response.data
+  }
+
+  async bulkRename(files: Record<number, string>, folders: Record<number, string> = {}) {
+    const response = await this.client.post('/api/bulk/rename', { files, folders })
+    return response.data
+  }
 }
 
 export const apiClient = new ApiClient()
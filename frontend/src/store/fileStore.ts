@@ -1,5 +1,5 @@
 import { create } from 'zustand'
-import { FileItem, FolderItem } from '@/types'
+import { Change, FileItem, FolderItem } from '@/types'
 
 interface FileState {
   currentFolderId: number | null
@@ -8,6 +8,7 @@ interface FileState {
   folders: FolderItem[]
   breadcrumbs: { id: number | null; name: string }[]
   isLoading: boolean
+  changeCursor: string | null
   setCurrentFolder: (folder: FolderItem | null, folderId: number | null) => void
   setFiles: (files: FileItem[]) => void
   setFolders: (folders: FolderItem[]) => void
@@ -17,15 +18,18 @@ interface FileState {
   removeFile: (fileId: number) => void
   addFolder: (folder: FolderItem) => void
   removeFolder: (folderId: number) => void
+  setChangeCursor: (cursor: string | null) => void
+  applyChanges: (changes: Change[]) => boolean
 }
 
-export const useFileStore = create<FileState>((set) => ({
+export const useFileStore = create<FileState>((set, get) => ({
   currentFolderId: null,
   currentFolder: null,
   files: [],
   folders: [],
   breadcrumbs: [{ id: null, name: 'Home' }],
   isLoading: false,
+  changeCursor: null,
   setCurrentFolder: (folder, folderId) => set({ currentFolder: folder, currentFolderId: folderId }),
   setFiles: (files) => set({ files }),
   setFolders: (folders) => set({ folders }),
@@ -39,4 +43,40 @@ export const useFileStore = create<FileState>((set) => ({
   removeFolder: (folderId) => set((state) => ({ 
     folders: state.folders.filter((f) => f.id !== folderId) 
   })),
+  setChangeCursor: (changeCursor) => set({ changeCursor }),
+  // Applies changes from the change feed to the loaded listing in place. Returns true when the
+  // listing has to be reloaded: an item arrived in the current folder, or one of its ancestors changed.
+  applyChanges: (changes) => {
+    const { currentFolderId, breadcrumbs } = get()
+    let { files, folders } = get()
+    let reload = false
+    for (const change of changes) {
+      const here = change.parentId === currentFolderId
+      if (change.itemType === 'FOLDER' && breadcrumbs.some((b) => b.id === change.itemId)) {
+        reload = true
+      } else if (change.itemType === 'FILE') {
+        const loaded = files.some((f) => f.id === change.itemId)
+        if (change.type === 'DELETED' || (change.type === 'MOVED' && !here)) {
+          files = files.filter((f) => f.id !== change.itemId)
+        } else if (loaded && change.type === 'RENAMED') {
+          files = files.map((f) => f.id === change.itemId ? { ...f, originalName: change.name } : f)
+        } else if (loaded && change.type === 'UNSHARED') {
+          files = files.map((f) => f.id === change.itemId ? { ...f, isPublic: false, shareToken: null } : f)
+        } else if (here) {
+          reload = true
+        }
+      } else {
+        const loaded = folders.some((f) => f.id === change.itemId)
+        if (change.type === 'DELETED' || (change.type === 'MOVED' && !here)) {
+          folders = folders.filter((f) => f.id !== change.itemId)
+        } else if (loaded && change.type === 'RENAMED') {
+          folders = folders.map((f) => f.id === change.itemId ? { ...f, name: change.name } : f)
+        } else if (here) {
+          reload = true
+        }
+      }
+    }
+    set({ files, folders })
+    return reload
+  },
 }))
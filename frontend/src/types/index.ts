@@ -38,6 +38,9 @@ export interface FolderItem {
   parentName: string | null
   fileCount: number
   subfolderCount: number
+  totalBytes: number
+  subtreeFileCount: number
+  subtreeBytes: number
   createdAt: string
   updatedAt: string
   subfolders?: FolderItem[]
@@ -51,6 +54,7 @@ export interface StorageStats {
   totalFiles: number
   totalFolders: number
   usedPercentage: number
+  byFamily?: Record<'IMAGE' | 'VIDEO' | 'AUDIO' | 'DOCUMENT' | 'ARCHIVE' | 'OTHER', { files: number; bytes: number }>
 }
 
 export interface ApiResponse<T> {
@@ -58,3 +62,74 @@ export interface ApiResponse<T> {
   message: string
   data: T
 }
+
+export interface CursorPage<T> {
+  items: T[]
+  nextCursor: string | null
+  hasMore: boolean
+}
+
+export interface ListingParams {
+  sort?: 'name' | 'size' | 'date' | 'type'
+  direction?: 'asc' | 'desc'
+  cursor?: string
+  limit?: number
+}
+
+export interface BulkSelection {
+  fileIds?: number[]
+  folderIds?: number[]
+}
+
+export interface BulkItemResult {
+  type: 'FILE' | 'FOLDER'
+  id: number
+  status: 'OK' | 'NOT_FOUND' | 'INVALID'
+  message: string | null
+  shareToken: string | null
+}
+
+export interface BulkResult {
+  succeeded: number
+  failed: number
+  items: BulkItemResult[]
+}
+
+export interface Change {
+  seq: number
+  type: 'CREATED' | 'RENAMED' | 'MOVED' | 'DELETED' | 'SHARED' | 'UNSHARED'
+  itemType: 'FILE' | 'FOLDER'
+  itemId: number
+  parentId: number | null
+  name: string
+  changedAt: string
+}
+
+export interface ChangeFeed {
+  changes: Change[]
+  cursor: string
+  hasMore: boolean
+  resetRequired: boolean
+}
+
+export interface InstantUploadItem {
+  name: string
+  sha256: string
+  size: number
+  contentType?: string
+  folderId?: number
+  proof?: { token: string; response: string }
+}
+
+export interface ProofChallenge {
+  token: string
+  offset: number
+  length: number
+}
+
+export interface InstantUploadItemResult {
+  status: 'CREATED' | 'PROOF_REQUIRED' | 'UPLOAD_REQUIRED' | 'INVALID'
+  file: FileItem | null
+  challenge: ProofChallenge | null
+  message: string | null
+}
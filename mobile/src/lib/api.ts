@@ -1,6 +1,6 @@
 import axios, { AxiosInstance } from 'axios';
 import { Platform } from 'react-native';
-import { ApiResponse, AuthResponse, FileItem, FolderItem, StorageStats } from '../types';
+import { ApiResponse, AuthResponse, ChangeFeed, ChangeNotice, CursorPage, FileColumns, FileItem, FolderItem, StorageStats } from '../types';
 
 // Web-compatible storage helper
 const getToken = async (): Promise<string | null> => {
@@ -62,6 +62,29 @@ api.interceptors.response.use(
   }
 );
 
+// Listings are fetched column-oriented: keys and folder paths are sent once per page, not per file
+const COLUMNS_MEDIA_TYPE = 'application/vnd.cloudsync.columns+json';
+
+const fromColumns = (response: ApiResponse<FileColumns>): ApiResponse<CursorPage<FileItem>> => {
+  const columns = response.data;
+  if (!columns) {
+    return { ...response, data: { items: [], nextCursor: null, hasMore: false } };
+  }
+  const items: FileItem[] = columns.id.map((id, i) => ({
+    id,
+    originalName: columns.originalName[i],
+    storedName: '',
+    contentType: columns.contentType[i] >= 0 ? columns.contentTypes[columns.contentType[i]] : null,
+    size: columns.size[i],
+    isPublic: columns.isPublic[i],
+    shareToken: columns.shareToken[i],
+    folderId: columns.folder[i] >= 0 ? columns.folders[columns.folder[i]].id : null,
+    createdAt: new Date(columns.createdAt[i]).toISOString(),
+    updatedAt: new Date(columns.updatedAt[i]).toISOString(),
+  }));
+  return { ...response, data: { items, nextCursor: columns.nextCursor, hasMore: columns.hasMore } };
+};
+
 export const apiClient = {
   // Auth endpoints
   login: async (username: string, password: string): Promise<ApiResponse<AuthResponse>> => {
@@ -75,14 +98,14 @@ export const apiClient = {
   },
 
   // File endpoints
-  getRootFiles: async (): Promise<ApiResponse<FileItem[]>> => {
-    const response = await api.get('/files');
-    return response.data;
+  getRootFiles: async (): Promise<ApiResponse<CursorPage<FileItem>>> => {
+    const response = await api.get('/files', { headers: { Accept: COLUMNS_MEDIA_TYPE } });
+    return fromColumns(response.data);
   },
 
-  getFilesInFolder: async (folderId: number): Promise<ApiResponse<FileItem[]>> => {
-    const response = await api.get(`/files/folder/${folderId}`);
-    return response.data;
+  getFilesInFolder: async (folderId: number): Promise<ApiResponse<CursorPage<FileItem>>> => {
+    const response = await api.get(`/files/folder/${folderId}`, { headers: { Accept: COLUMNS_MEDIA_TYPE } });
+    return fromColumns(response.data);
   },
 
   uploadFile: async (
@@ -219,7 +242,7 @@ export const apiClient = {
   },
 
   // Folder endpoints
-  getRootFolders: async (): Promise<ApiResponse<FolderItem[]>> => {
+  getRootFolders: async (): Promise<ApiResponse<CursorPage<FolderItem>>> => {
     const response = await api.get('/folders');
     return response.data;
   },
@@ -251,6 +274,18 @@ export const apiClient = {
     const response = await api.get('/files/stats');
     return response.data;
   },
+
+  // Changes since a cursor; without one, only the current position
+  getChanges: async (cursor?: string): Promise<ApiResponse<ChangeFeed>> => {
+    const response = await api.get('/changes', { params: { cursor } });
+    return response.data;
+  },
+
+  // Held open by the server until something changes after the cursor or the poll times out
+  pollChanges: async (cursor: string): Promise<ApiResponse<ChangeNotice>> => {
+    const response = await api.get('/changes/poll', { params: { cursor }, timeout: 60000 });
+    return response.data;
+  },
 };
 
 export default api;
@@ -16,7 +16,9 @@ import {
 import { Ionicons } from '@expo/vector-icons';
 import { apiClient } from '../lib/api';
 import { useFileStore } from '../store/fileStore';
-import { FileItem, FolderItem } from '../types';
+import { ChangeFeed, FileItem, FolderItem } from '../types';
+
+const CHANGE_RETRY_DELAY = 5000;
 
 export default function FilesScreen() {
   const {
@@ -31,6 +33,8 @@ export default function FilesScreen() {
     setBreadcrumbs,
     setLoading,
     setStats,
+    setChangeCursor,
+    applyChanges,
   } = useFileStore();
 
   const [selectedFile, setSelectedFile] = useState<FileItem | null>(null);
@@ -43,6 +47,11 @@ export default function FilesScreen() {
   const loadData = useCallback(async () => {
     setLoading(true);
     try {
+      // Take the change feed position first, so changes made while loading are picked up later
+      const changesResponse = await apiClient.getChanges();
+      if (changesResponse.success) {
+        setChangeCursor(changesResponse.data.cursor);
+      }
       if (currentFolderId) {
         const response = await apiClient.getFolder(currentFolderId);
         if (response.success) {
@@ -55,8 +64,8 @@ export default function FilesScreen() {
           apiClient.getRootFolders(),
           apiClient.getStorageStats(),
         ]);
-        setFiles(filesResponse.success ? filesResponse.data : []);
-        setFolders(foldersResponse.success ? foldersResponse.data : []);
+        setFiles(filesResponse.success ? filesResponse.data.items : []);
+        setFolders(foldersResponse.success ? foldersResponse.data.items : []);
         if (statsResponse.success) {
           setStats(statsResponse.data);
         }
@@ -72,6 +81,62 @@ export default function FilesScreen() {
     loadData();
   }, [loadData]);
 
+  // Applies what changed since the last sync; only changes reaching the open folder cost a reload
+  const syncChanges = useCallback(async () => {
+    let cursor = useFileStore.getState().changeCursor;
+    if (!cursor) {
+      return loadData();
+    }
+    setLoading(true);
+    try {
+      let reload = false;
+      let hasMore = true;
+      while (hasMore) {
+        const response = await apiClient.getChanges(cursor);
+        if (!response.success) {
+          return;
+        }
+        const feed: ChangeFeed = response.data;
+        reload = feed.resetRequired || applyChanges(feed.changes) || reload;
+        cursor = feed.cursor;
+        hasMore = feed.hasMore;
+      }
+      setChangeCursor(cursor);
+      if (reload) {
+        await loadData();
+      }
+    } catch (error) {
+      console.error('Failed to sync changes:', error);
+    } finally {
+      setLoading(false);
+    }
+  }, [loadData]);
+
+  // Long polls for changes made elsewhere and syncs as soon as one is reported
+  useEffect(() => {
+    let active = true;
+    const listen = async () => {
+      while (active) {
+        const cursor = useFileStore.getState().changeCursor;
+        try {
+          if (!cursor) {
+            throw new Error('No change cursor yet');
+          }
+          const response = await apiClient.pollChanges(cursor);
+          if (active && response.success && response.data.changed) {
+            await syncChanges();
+          }
+        } catch (error) {
+          await new Promise((resolve) => setTimeout(resolve, CHANGE_RETRY_DELAY));
+        }
+      }
+    };
+    listen();
+    return () => {
+      active = false;
+    };
+  }, [syncChanges]);
+
   const openFolder = async (folder: FolderItem) => {
     setLoading(true);
     try {
@@ -101,8 +166,8 @@ export default function FilesScreen() {
             apiClient.getRootFiles(),
             apiClient.getRootFolders(),
           ]);
-          setFiles(filesResponse.success ? filesResponse.data : []);
-          setFolders(foldersResponse.success ? foldersResponse.data : []);
+          setFiles(filesResponse.success ? filesResponse.data.items : []);
+          setFolders(foldersResponse.success ? foldersResponse.data.items : []);
           setCurrentFolder(null, null);
         } else {
           const response = await apiClient.getFolder(parentCrumb.id);
@@ -389,7 +454,7 @@ export default function FilesScreen() {
           renderItem={renderItem}
           keyExtractor={(item) => ('subfolderCount' in item ? `folder-${item.id}` : `file-${item.id}`)}
           refreshControl={
-            <RefreshControl refreshing={isLoading} onRefresh={loadData} colors={['#2563eb']} />
+            <RefreshControl refreshing={isLoading} onRefresh={syncChanges} colors={['#2563eb']} />
           }
           contentContainerStyle={styles.list}
         />
@@ -1,5 +1,5 @@
 import { create } from 'zustand';
-import { FileItem, FolderItem, StorageStats } from '../types';
+import { Change, FileItem, FolderItem, StorageStats } from '../types';
 
 interface FileState {
   files: FileItem[];
@@ -9,16 +9,19 @@ interface FileState {
   breadcrumbs: { id: number | null; name: string }[];
   stats: StorageStats | null;
   isLoading: boolean;
+  changeCursor: string | null;
   setFiles: (files: FileItem[]) => void;
   setFolders: (folders: FolderItem[]) => void;
   setCurrentFolder: (folderId: number | null, folderName: string | null) => void;
   setBreadcrumbs: (breadcrumbs: { id: number | null; name: string }[]) => void;
   setStats: (stats: StorageStats) => void;
   setLoading: (loading: boolean) => void;
+  setChangeCursor: (cursor: string | null) => void;
+  applyChanges: (changes: Change[]) => boolean;
   reset: () => void;
 }
 
-export const useFileStore = create<FileState>((set) => ({
+export const useFileStore = create<FileState>((set, get) => ({
   files: [],
   folders: [],
   currentFolderId: null,
@@ -26,18 +29,56 @@ export const useFileStore = create<FileState>((set) => ({
   breadcrumbs: [{ id: null, name: 'Home' }],
   stats: null,
   isLoading: false,
+  changeCursor: null,
   setFiles: (files) => set({ files }),
   setFolders: (folders) => set({ folders }),
   setCurrentFolder: (folderId, folderName) => set({ currentFolderId: folderId, currentFolderName: folderName }),
   setBreadcrumbs: (breadcrumbs) => set({ breadcrumbs }),
   setStats: (stats) => set({ stats }),
   setLoading: (isLoading) => set({ isLoading }),
+  setChangeCursor: (changeCursor) => set({ changeCursor }),
+  // Applies changes from the change feed to the loaded listing in place. Returns true when the
+  // listing has to be reloaded: an item arrived in the current folder, or one of its ancestors changed.
+  applyChanges: (changes) => {
+    const { currentFolderId, breadcrumbs } = get();
+    let { files, folders } = get();
+    let reload = false;
+    for (const change of changes) {
+      const here = change.parentId === currentFolderId;
+      if (change.itemType === 'FOLDER' && breadcrumbs.some((b) => b.id === change.itemId)) {
+        reload = true;
+      } else if (change.itemType === 'FILE') {
+        const loaded = files.some((f) => f.id === change.itemId);
+        if (change.type === 'DELETED' || (change.type === 'MOVED' && !here)) {
+          files = files.filter((f) => f.id !== change.itemId);
+        } else if (loaded && change.type === 'RENAMED') {
+          files = files.map((f) => (f.id === change.itemId ? { ...f, originalName: change.name } : f));
+        } else if (loaded && change.type === 'UNSHARED') {
+          files = files.map((f) => (f.id === change.itemId ? { ...f, isPublic: false, shareToken: null } : f));
+        } else if (here) {
+          reload = true;
+        }
+      } else {
+        const loaded = folders.some((f) => f.id === change.itemId);
+        if (change.type === 'DELETED' || (change.type === 'MOVED' && !here)) {
+          folders = folders.filter((f) => f.id !== change.itemId);
+        } else if (loaded && change.type === 'RENAMED') {
+          folders = folders.map((f) => (f.id === change.itemId ? { ...f, name: change.name } : f));
+        } else if (here) {
+          reload = true;
+        }
+      }
+    }
+    set({ files, folders });
+    return reload;
+  },
   reset: () => set({ 
     files: [], 
     folders: [], 
     currentFolderId: null, 
     currentFolderName: null,
     breadcrumbs: [{ id: null, name: 'Home' }],
-    stats: null 
+    stats: null,
+    changeCursor: null,
   }),
 }));
@@ -44,9 +44,55 @@ export interface ApiResponse<T> {
   timestamp?: string;
 }
 
+export interface CursorPage<T> {
+  items: T[];
+  nextCursor: string | null;
+  hasMore: boolean;
+}
+
+// Column-oriented file listing page; rows index into the folders and contentTypes dictionaries (-1: none)
+export interface FileColumns {
+  folders: { id: number; name: string; path: string }[];
+  contentTypes: string[];
+  id: number[];
+  originalName: string[];
+  contentType: number[];
+  size: number[];
+  folder: number[];
+  isPublic: boolean[];
+  shareToken: (string | null)[];
+  downloadCount: number[];
+  createdAt: number[];
+  updatedAt: number[];
+  nextCursor: string | null;
+  hasMore: boolean;
+}
+
 export interface AuthResponse {
   token: string;
   tokenType: string;
   username: string;
   email: string;
 }
+
+export interface Change {
+  seq: number;
+  type: 'CREATED' | 'RENAMED' | 'MOVED' | 'DELETED' | 'SHARED' | 'UNSHARED';
+  itemType: 'FILE' | 'FOLDER';
+  itemId: number;
+  parentId: number | null;
+  name: string;
+  changedAt: string;
+}
+
+export interface ChangeFeed {
+  changes: Change[];
+  cursor: string;
+  hasMore: boolean;
+  resetRequired: boolean;
+}
+
+export interface ChangeNotice {
+  cursor: string;
+  changed: boolean;
+}